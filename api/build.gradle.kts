@@ -34,6 +34,7 @@ dependencies {
     testImplementation(project(":patch:adventure-text-serializer-gson"))
     testImplementation(libs.adventure.text.serializer.legacy)
     testImplementation(project(":netty-common"))
+    testImplementation(libs.netty)
     testImplementation(testlibs.mockbukkit)
     testImplementation(testlibs.slf4j)
     testImplementation(testlibs.bundles.junit)
@@ -24,6 +24,7 @@ import com.github.retrooper.packetevents.manager.player.PlayerManager;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.manager.server.ServerManager;
 import com.github.retrooper.packetevents.netty.NettyManager;
+import com.github.retrooper.packetevents.netty.channel.PacketLimiter;
 import com.github.retrooper.packetevents.settings.PacketEventsSettings;
 import com.github.retrooper.packetevents.util.LogManager;
 import com.github.retrooper.packetevents.util.PEVersion;
@@ -38,6 +39,7 @@ public abstract class PacketEventsAPI<T> {
     private static final PacketEventsSettings SETTINGS = new PacketEventsSettings();
     private static final UpdateChecker UPDATE_CHECKER = new UpdateChecker();
     private static final LogManager LOG_MANAGER = new LogManager();
+    private static final PacketLimiter PACKET_LIMITER = new PacketLimiter();
     private static final Logger LOGGER = Logger.getLogger(PacketEventsAPI.class.getName());
 
     public EventManager getEventManager() {
@@ -65,6 +67,15 @@ public abstract class PacketEventsAPI<T> {
         return LOG_MANAGER;
     }
 
+    /**
+     * Per-user rate and size limits for serverbound packets, checked before any event is created.
+     *
+     * @return {@link PacketLimiter}
+     */
+    public PacketLimiter getPacketLimiter() {
+        return PACKET_LIMITER;
+    }
+
     public abstract void load();
 
     public abstract boolean isLoaded();
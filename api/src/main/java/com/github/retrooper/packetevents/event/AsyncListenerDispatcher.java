@@ -0,0 +1,311 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.event;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Runs listeners which only observe packets off the event loop.
+ * Once the regular listeners are done, packet events which weren't cancelled are cloned and queued for the user
+ * they belong to. The queue of a user is processed on the executor in order, one event after another,
+ * so asynchronous listeners see the packets of a user in the same order as the regular listeners did.
+ * Cancelling or modifying these events has no effect.
+ * <p>
+ * Queues are bounded by {@link PacketEventsSettings#getAsyncListenerQueueSize()},
+ * full queues drop events according to {@link PacketEventsSettings#getAsyncDropPolicy()}.
+ */
+public class AsyncListenerDispatcher {
+    private static final int BATCH_SIZE = 64;
+    // Events which don't belong to a user share this queue
+    private static final Object NO_USER = new Object();
+
+    private final List<PacketListenerCommon> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Object, EventQueue> queues = new ConcurrentHashMap<>();
+    private final PacketMetrics metrics;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile @Nullable Executor executor;
+    private volatile @Nullable ExecutorService ownedExecutor;
+
+    AsyncListenerDispatcher(PacketMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    synchronized void register(PacketListenerCommon listener) {
+        listeners.add(listener);
+        // Keep the priority order of regular listeners
+        listeners.sort(Comparator.comparing(PacketListenerCommon::getPriority));
+    }
+
+    boolean unregister(PacketListenerCommon listener) {
+        return listeners.remove(listener);
+    }
+
+    boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Removes all asynchronous listeners, drops the queued events and stops the default executor.
+     */
+    synchronized void shutdown() {
+        listeners.clear();
+        for (EventQueue queue : queues.values()) {
+            queue.clear();
+        }
+        queues.clear();
+        ExecutorService ownedExecutor = this.ownedExecutor;
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            this.ownedExecutor = null;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Queues the event for the asynchronous listeners, called after the regular listeners processed it.
+     */
+    void submit(PacketEvent event) {
+        Object key = NO_USER;
+        PacketEvent queued = event;
+        if (event instanceof ProtocolPacketEvent) {
+            ProtocolPacketEvent<?> packetEvent = (ProtocolPacketEvent<?>) event;
+            if (packetEvent.isCancelled()) {
+                return;
+            }
+            queued = copy(packetEvent);
+            if (queued == null) {
+                return;
+            }
+        }
+        if (event instanceof UserEvent && ((UserEvent) event).getUser() != null) {
+            key = ((UserEvent) event).getUser();
+        }
+        EventQueue queue = queues.computeIfAbsent(key, k -> new EventQueue());
+        if (event instanceof UserDisconnectEvent) {
+            // Later events start a new queue, this one still processes everything queued so far
+            queues.remove(key, queue);
+        }
+        submitted.increment();
+        queue.offer(queued);
+    }
+
+    /**
+     * Sets the executor asynchronous listeners run on.
+     * By default, virtual threads are used on Java 21 and newer, a small pool of daemon threads otherwise.
+     *
+     * @param executor Executor, or null to go back to the default
+     */
+    public synchronized void setExecutor(@Nullable Executor executor) {
+        ExecutorService ownedExecutor = this.ownedExecutor;
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            this.ownedExecutor = null;
+        }
+        this.executor = executor;
+    }
+
+    private Executor getExecutor() {
+        Executor executor = this.executor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.executor;
+                if (executor == null) {
+                    ExecutorService created = createDefaultExecutor();
+                    this.ownedExecutor = created;
+                    this.executor = executor = created;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        int threads = PacketEvents.getAPI().getSettings().getAsyncListenerThreads();
+        if (threads <= 0) {
+            try {
+                // Java 21+
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException ignored) {
+                threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "packetevents-async-listener-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * @return How many events were queued for the asynchronous listeners
+     */
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    /**
+     * @return How many events were processed by all asynchronous listeners
+     */
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * @return How many events were dropped, because the queue of their user was full or the executor rejected them
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return How many events are currently waiting in all queues
+     */
+    public int getQueued() {
+        int queued = 0;
+        for (EventQueue queue : queues.values()) {
+            queued += queue.size.get();
+        }
+        return queued;
+    }
+
+    private void dispatch(PacketEvent event) {
+        boolean recordMetrics = metrics.isEnabled();
+        try {
+            for (PacketListenerCommon listener : listeners) {
+                long start = recordMetrics ? System.nanoTime() : 0L;
+                try {
+                    event.call(listener);
+                } catch (Exception t) {
+                    PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while calling your async listener.", t);
+                }
+                if (recordMetrics) {
+                    metrics.recordListenerCall(listener, System.nanoTime() - start);
+                }
+            }
+        } finally {
+            release(event);
+        }
+        completed.increment();
+    }
+
+    private static @Nullable ProtocolPacketEvent<?> copy(ProtocolPacketEvent<?> event) {
+        ProtocolPacketEvent<?> clone = event.clone();
+        if (clone == null) {
+            return null;
+        }
+        // Clones share the memory of the original buffer, which is rewritten in place if a wrapper was used
+        Object shared = clone.getByteBuf();
+        clone.setByteBuf(ByteBufHelper.copy(shared));
+        ByteBufHelper.release(shared);
+        return clone;
+    }
+
+    private static void release(PacketEvent event) {
+        if (event instanceof ProtocolPacketEvent) {
+            ((ProtocolPacketEvent<?>) event).cleanUp();
+        }
+    }
+
+    private final class EventQueue implements Runnable {
+        private final Queue<PacketEvent> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void offer(PacketEvent event) {
+            if (size.incrementAndGet() > PacketEvents.getAPI().getSettings().getAsyncListenerQueueSize()) {
+                if (PacketEvents.getAPI().getSettings().getAsyncDropPolicy() == AsyncDropPolicy.DROP_NEWEST) {
+                    size.decrementAndGet();
+                    dropped.increment();
+                    release(event);
+                    return;
+                }
+                PacketEvent oldest = events.poll();
+                if (oldest != null) {
+                    size.decrementAndGet();
+                    dropped.increment();
+                    release(oldest);
+                }
+            }
+            events.offer(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    getExecutor().execute(this);
+                } catch (RejectedExecutionException ex) {
+                    clear();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                PacketEvent event = events.poll();
+                if (event == null) {
+                    break;
+                }
+                size.decrementAndGet();
+                dispatch(event);
+            }
+            scheduled.set(false);
+            // Give other users a turn, continue with a new task if more events arrived
+            if (!events.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void clear() {
+            PacketEvent event;
+            while ((event = events.poll()) != null) {
+                size.decrementAndGet();
+                dropped.increment();
+                release(event);
+            }
+        }
+    }
+}
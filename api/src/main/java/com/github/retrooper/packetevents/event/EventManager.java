@@ -20,15 +20,21 @@ package com.github.retrooper.packetevents.event;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.exception.InvalidHandshakeException;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 
 public class EventManager {
     private final Map<PacketListenerPriority, Set<PacketListenerCommon>> listenersMap =
             Collections.synchronizedMap(new EnumMap<>(PacketListenerPriority.class));
+    private final PacketMetrics metrics = new PacketMetrics();
+    private final AsyncListenerDispatcher asyncDispatcher = new AsyncListenerDispatcher(metrics);
 
     /**
      * Call the PacketEvent.
@@ -44,29 +50,123 @@ public class EventManager {
     }
 
     public void callEvent(PacketEvent event, @Nullable Runnable postCallListenerAction) {
+        callEvent(event, postCallListenerAction, null);
+    }
+
+    /**
+     * Calls the event like {@link #callEvent(PacketEvent, Runnable)}.
+     *
+     * @param afterPriority Called after the listeners of every priority, even if there are none
+     */
+    @ApiStatus.Internal
+    public void callEvent(PacketEvent event, @Nullable Runnable postCallListenerAction,
+                          @Nullable Consumer<PacketListenerPriority> afterPriority) {
+        beginEvent(event);
         for (PacketListenerPriority priority : PacketListenerPriority.values()) {
-            Set<PacketListenerCommon> listeners = listenersMap.get(priority);
-            if (listeners != null) {
-                for (PacketListenerCommon listener : listeners) {
-                    try {
-                        event.call(listener);
-                    } catch (Exception t) {
-                        // ignore handshake exceptions
-                        if (t.getClass() != InvalidHandshakeException.class) {
-                            PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while calling your listener.", t);
-                        }
-                    }
-                    if (postCallListenerAction != null) {
-                        postCallListenerAction.run();
-                    }
+            callListeners(event, priority, postCallListenerAction);
+            if (afterPriority != null) {
+                afterPriority.accept(priority);
+            }
+        }
+        endEvent(event);
+    }
+
+    /**
+     * First step of calling an event one priority at a time, followed by {@link #callListeners} for every priority
+     * and {@link #endEvent}.
+     */
+    @ApiStatus.Internal
+    public void beginEvent(PacketEvent event) {
+        if (metrics.isEnabled() && event instanceof ProtocolPacketEvent) {
+            ProtocolPacketEvent<?> packetEvent = (ProtocolPacketEvent<?>) event;
+            metrics.recordPacket(packetEvent.getPacketType(), ByteBufHelper.readableBytes(packetEvent.getByteBuf()));
+        }
+    }
+
+    @ApiStatus.Internal
+    public boolean hasListeners(PacketListenerPriority priority) {
+        Set<PacketListenerCommon> listeners = listenersMap.get(priority);
+        return listeners != null && !listeners.isEmpty();
+    }
+
+    @ApiStatus.Internal
+    public void callListeners(PacketEvent event, PacketListenerPriority priority, @Nullable Runnable postCallListenerAction) {
+        Set<PacketListenerCommon> listeners = listenersMap.get(priority);
+        if (listeners == null) {
+            return;
+        }
+        boolean recordMetrics = metrics.isEnabled();
+        for (PacketListenerCommon listener : listeners) {
+            long start = recordMetrics ? System.nanoTime() : 0L;
+            try {
+                event.call(listener);
+            } catch (Exception t) {
+                // ignore handshake exceptions
+                if (t.getClass() != InvalidHandshakeException.class) {
+                    PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while calling your listener.", t);
                 }
             }
+            if (recordMetrics) {
+                metrics.recordListenerCall(listener, System.nanoTime() - start);
+            }
+            if (postCallListenerAction != null) {
+                postCallListenerAction.run();
+            }
         }
+    }
+
+    @ApiStatus.Internal
+    public void endEvent(PacketEvent event) {
         // For performance reasons, we don't want to re-encode the packet if it's not needed.
-        if (event instanceof ProtocolPacketEvent && !((ProtocolPacketEvent<?>) event).needsReEncode()) {
+        if (event instanceof ProtocolPacketEvent && !((ProtocolPacketEvent<?>) event).isReEncodeRequired()) {
             ((ProtocolPacketEvent<?>) event).setLastUsedWrapper(null);
         }
+        if (metrics.isEnabled() && event instanceof ProtocolPacketEvent) {
+            ProtocolPacketEvent<?> packetEvent = (ProtocolPacketEvent<?>) event;
+            if (packetEvent.isCancelled()) {
+                metrics.recordCancellation(packetEvent.getPacketType());
+            } else if (packetEvent.getLastUsedWrapper() != null) {
+                metrics.recordReEncode(packetEvent.getPacketType());
+            }
+        }
+        if (asyncDispatcher.hasListeners()) {
+            asyncDispatcher.submit(event);
+        }
+    }
+
+    /**
+     * Optional listener and packet metrics, they are disabled by default.
+     *
+     * @return {@link PacketMetrics}
+     */
+    public PacketMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * The dispatcher of asynchronous listeners, it exposes their queue metrics and executor.
+     *
+     * @return {@link AsyncListenerDispatcher}
+     */
+    public AsyncListenerDispatcher getAsyncDispatcher() {
+        return asyncDispatcher;
+    }
 
+    public PacketListenerCommon registerAsyncListener(PacketListener listener, PacketListenerPriority priority) {
+        PacketListenerCommon packetListenerAbstract = listener.asAbstract(priority);
+        return registerAsyncListener(packetListenerAbstract);
+    }
+
+    /**
+     * Register a listener which only observes events, it is called off the event loop once the regular listeners are done.
+     * Packets are cloned for it, cancelling or modifying them has no effect.
+     *
+     * @param listener {@link PacketListenerCommon}
+     * @see AsyncListenerDispatcher
+     */
+    public PacketListenerCommon registerAsyncListener(PacketListenerCommon listener) {
+        asyncDispatcher.register(listener);
+        return listener;
     }
 
     public PacketListenerCommon registerListener(PacketListener listener, PacketListenerPriority priority) {
@@ -103,8 +203,11 @@ public class EventManager {
 
     public void unregisterListener(PacketListenerCommon listener) {
         Set<PacketListenerCommon> listenerSet = listenersMap.get(listener.getPriority());
-        if (listenerSet == null) return;
-        listenerSet.remove(listener);
+        if (listenerSet != null) {
+            listenerSet.remove(listener);
+        }
+        asyncDispatcher.unregister(listener);
+        metrics.removeListener(listener);
     }
 
     public void unregisterListeners(PacketListenerCommon... listeners) {
@@ -119,5 +222,6 @@ public class EventManager {
      */
     public void unregisterAllListeners() {
         listenersMap.clear();
+        asyncDispatcher.shutdown();
     }
 }
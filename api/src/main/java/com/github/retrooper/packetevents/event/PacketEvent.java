@@ -29,11 +29,17 @@ import com.github.retrooper.packetevents.util.TimeStampMode;
  * @since 1.2.6
  */
 public abstract class PacketEvent implements CallableEvent {
-    private final long timestamp;
+    private long timestamp;
 
     public PacketEvent() {
-        TimeStampMode timeStampMode = PacketEvents.getAPI().getSettings()
-                .getTimeStampMode();
+        updateTimestamp(PacketEvents.getAPI().getSettings().getTimeStampMode());
+    }
+
+    protected PacketEvent(TimeStampMode timeStampMode) {
+        updateTimestamp(timeStampMode);
+    }
+
+    void updateTimestamp(TimeStampMode timeStampMode) {
         switch (timeStampMode) {
             case MILLIS:
                 timestamp = System.currentTimeMillis();
@@ -0,0 +1,100 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.retrooper.packetevents.event;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import com.github.retrooper.packetevents.util.TimeStampMode;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Everything a packet event needs to know about its connection, resolved once per user
+ * instead of for every single packet.
+ * The context is immutable, the user creates a new one once its client version changes.
+ */
+public final class PacketEventContext {
+    private final boolean autoProtocolTranslation;
+    private final ServerVersion serverVersion;
+    private final ClientVersion clientVersion;
+    private final boolean reEncodeByDefault;
+    private final boolean reEncodeOnlyModified;
+    private final TimeStampMode timeStampMode;
+    private final boolean eventPoolingEnabled;
+
+    private PacketEventContext(boolean autoProtocolTranslation, ServerVersion serverVersion,
+                               PacketEventsSettings settings) {
+        this.autoProtocolTranslation = autoProtocolTranslation;
+        this.serverVersion = serverVersion;
+        this.clientVersion = serverVersion.toClientVersion();
+        this.reEncodeByDefault = settings.reEncodeByDefault();
+        this.reEncodeOnlyModified = settings.reEncodeOnlyModified();
+        this.timeStampMode = settings.getTimeStampMode();
+        this.eventPoolingEnabled = settings.isEventPoolingEnabled();
+    }
+
+    public static PacketEventContext create(@Nullable ClientVersion userVersion, boolean autoProtocolTranslation) {
+        ServerVersion serverVersion;
+        if (autoProtocolTranslation || userVersion == null) {
+            serverVersion = PacketEvents.getAPI().getServerManager().getVersion();
+        } else {
+            serverVersion = userVersion.toServerVersion();
+        }
+        return new PacketEventContext(autoProtocolTranslation, serverVersion, PacketEvents.getAPI().getSettings());
+    }
+
+    public boolean isAutoProtocolTranslation() {
+        return autoProtocolTranslation;
+    }
+
+    /**
+     * The version packets of this connection are processed with.
+     * Either the server version or, on proxies, the version of the user.
+     *
+     * @return Server version
+     */
+    public ServerVersion getServerVersion() {
+        return serverVersion;
+    }
+
+    /**
+     * The client version matching {@link #getServerVersion()}, used to look up packet types.
+     *
+     * @return Client version
+     */
+    public ClientVersion getClientVersion() {
+        return clientVersion;
+    }
+
+    public boolean isReEncodeByDefault() {
+        return reEncodeByDefault;
+    }
+
+    public boolean isReEncodeOnlyModified() {
+        return reEncodeOnlyModified;
+    }
+
+    public TimeStampMode getTimeStampMode() {
+        return timeStampMode;
+    }
+
+    public boolean isEventPoolingEnabled() {
+        return eventPoolingEnabled;
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.github.retrooper.packetevents.event;
 
+import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.simple.*;
 import com.github.retrooper.packetevents.exception.PacketProcessException;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
@@ -25,8 +26,17 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Callable;
 
 public class PacketReceiveEvent extends ProtocolPacketEvent<Object> {
+    private Callable<Boolean> suspension;
+    private long suspensionTimeout;
+    private SuspensionTimeoutPolicy suspensionTimeoutPolicy;
+
     protected PacketReceiveEvent(Object channel, User user, Object player, Object rawByteBuf,
                                  boolean autoProtocolTranslation) throws PacketProcessException {
         super(PacketSide.CLIENT, channel, user, player, rawByteBuf, autoProtocolTranslation);
@@ -40,11 +50,83 @@ public class PacketReceiveEvent extends ProtocolPacketEvent<Object> {
                 channel, user, player, byteBuf);
     }
 
+    @ApiStatus.Internal
+    protected PacketReceiveEvent() {
+    }
+
+    /**
+     * Initializes a pooled event with the next packet.
+     */
+    @ApiStatus.Internal
+    public void init(Object channel, User user, Object player, Object rawByteBuf,
+                     boolean autoProtocolTranslation) throws PacketProcessException {
+        PacketEventContext context = user.getEventContext(autoProtocolTranslation);
+        this.updateTimestamp(context.getTimeStampMode());
+        this.init(PacketSide.CLIENT, channel, user, player, rawByteBuf, context);
+    }
+
     @Override
     public void call(PacketListenerCommon listener) {
         listener.onPacketReceive(this);
     }
 
+    /**
+     * Holds the packet back until the task finished, instead of passing it on to the server right away.
+     * The task runs on a virtual thread on Java 21 and newer, so it may block, e.g. to query a database.
+     * Later packets of the user are still processed by the listeners right away,
+     * but they are held back as well until this packet was resumed, so the server receives them in order.
+     * The task must not access this event, read everything it needs before suspending.
+     * <p>
+     * The timeout and its policy are taken from the settings,
+     * see {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#getSuspensionTimeout()}.
+     *
+     * @param task Returns true to let the packet proceed, false to drop it
+     */
+    public void suspend(Callable<Boolean> task) {
+        PacketEventsSettings settings = PacketEvents.getAPI().getSettings();
+        suspend(task, settings.getSuspensionTimeout(), settings.getSuspensionTimeoutPolicy());
+    }
+
+    /**
+     * Holds the packet back until the task finished, see {@link #suspend(Callable)}.
+     *
+     * @param task    Returns true to let the packet proceed, false to drop it
+     * @param timeout Milliseconds after which the policy applies, 0 waits forever
+     * @param policy  What to do with the packet if the task doesn't finish in time
+     */
+    public void suspend(Callable<Boolean> task, long timeout, SuspensionTimeoutPolicy policy) {
+        this.suspension = task;
+        this.suspensionTimeout = timeout;
+        this.suspensionTimeoutPolicy = policy;
+    }
+
+    public boolean isSuspended() {
+        return suspension != null;
+    }
+
+    @ApiStatus.Internal
+    public @Nullable Callable<Boolean> getSuspension() {
+        return suspension;
+    }
+
+    @ApiStatus.Internal
+    public long getSuspensionTimeout() {
+        return suspensionTimeout;
+    }
+
+    @ApiStatus.Internal
+    public SuspensionTimeoutPolicy getSuspensionTimeoutPolicy() {
+        return suspensionTimeoutPolicy;
+    }
+
+    @ApiStatus.Internal
+    @Override
+    public void recycle() {
+        super.recycle();
+        this.suspension = null;
+        this.suspensionTimeoutPolicy = null;
+    }
+
     @Override
     public PacketReceiveEvent clone() {
         try {
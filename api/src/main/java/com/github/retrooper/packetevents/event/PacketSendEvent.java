@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +47,21 @@ public class PacketSendEvent extends ProtocolPacketEvent<Object> {
                 channel, user, player, byteBuf);
     }
 
+    @ApiStatus.Internal
+    protected PacketSendEvent() {
+    }
+
+    /**
+     * Initializes a pooled event with the next packet.
+     */
+    @ApiStatus.Internal
+    public void init(Object channel, User user, Object player, Object rawByteBuf,
+                     boolean autoProtocolTranslation) throws PacketProcessException {
+        PacketEventContext context = user.getEventContext(autoProtocolTranslation);
+        this.updateTimestamp(context.getTimeStampMode());
+        this.init(PacketSide.SERVER, channel, user, player, rawByteBuf, context);
+    }
+
     @Override
     public void call(PacketListenerCommon listener) {
         listener.onPacketSend(this);
@@ -63,6 +79,14 @@ public class PacketSendEvent extends ProtocolPacketEvent<Object> {
         return tasksAfterSend != null && !tasksAfterSend.isEmpty();
     }
 
+    @Override
+    public void recycle() {
+        super.recycle();
+        if (tasksAfterSend != null) {
+            tasksAfterSend.clear();
+        }
+    }
+
     @Override
     public PacketSendEvent clone() {
         try {
@@ -32,6 +32,7 @@ import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -40,32 +41,68 @@ import java.util.ArrayList;
 import java.util.List;
 
 public abstract class ProtocolPacketEvent<T> extends PacketEvent implements PlayerEvent<T>, CancellableEvent, UserEvent {
-    private final Object channel;
-    private final ConnectionState connectionState;
-    private final User user;
-    private final T player;
+    private Object channel;
+    private ConnectionState connectionState;
+    private User user;
+    private T player;
     private Object byteBuf;
-    private final int packetID;
-    private final PacketTypeCommon packetType;
+    private int packetID;
+    private PacketTypeCommon packetType;
     private ServerVersion serverVersion;
     private boolean cancel;
     private PacketWrapper<?> lastUsedWrapper;
     private List<Runnable> postTasks = null;
     private boolean cloned;
-    private boolean needsReEncode = PacketEvents.getAPI().getSettings().reEncodeByDefault();
+    private boolean needsReEncode;
+    private boolean reEncodeOnlyModified;
 
     public ProtocolPacketEvent(PacketSide packetSide, Object channel,
                                User user, T player, Object byteBuf,
                                boolean autoProtocolTranslation) throws PacketProcessException {
+        this(packetSide, channel, user, player, byteBuf, user.getEventContext(autoProtocolTranslation));
+    }
+
+    protected ProtocolPacketEvent(PacketSide packetSide, Object channel,
+                                  User user, T player, Object byteBuf,
+                                  PacketEventContext context) throws PacketProcessException {
+        super(context.getTimeStampMode());
+        this.init(packetSide, channel, user, player, byteBuf, context);
+    }
+
+    public ProtocolPacketEvent(int packetID, PacketTypeCommon packetType, ServerVersion serverVersion, Object channel,
+                               User user, T player, Object byteBuf) {
         this.channel = channel;
         this.user = user;
         this.player = player;
-        if (autoProtocolTranslation || user.getClientVersion() == null) {
-            this.serverVersion = PacketEvents.getAPI().getServerManager().getVersion();
-        } else {
-            //TODO Optimize
-            this.serverVersion = user.getClientVersion().toServerVersion();
-        }
+        this.serverVersion = serverVersion;
+        this.byteBuf = byteBuf;
+        this.packetID = packetID;
+        this.packetType = packetType;
+        this.needsReEncode = PacketEvents.getAPI().getSettings().reEncodeByDefault();
+        this.reEncodeOnlyModified = PacketEvents.getAPI().getSettings().reEncodeOnlyModified();
+
+        this.connectionState = (packetType != null && packetType.getSide() == PacketSide.SERVER)
+                ? user.getEncoderState() : user.getDecoderState();
+        cloned = true;
+    }
+
+    /**
+     * Creates an empty event, which has to be initialized before it is called.
+     * Only meant for pooled events.
+     */
+    @ApiStatus.Internal
+    protected ProtocolPacketEvent() {
+    }
+
+    protected final void init(PacketSide packetSide, Object channel,
+                              User user, T player, Object byteBuf,
+                              PacketEventContext context) throws PacketProcessException {
+        this.channel = channel;
+        this.user = user;
+        this.player = player;
+        this.serverVersion = context.getServerVersion();
+        this.needsReEncode = context.isReEncodeByDefault();
+        this.reEncodeOnlyModified = context.isReEncodeOnlyModified();
 
         this.byteBuf = byteBuf;
         int size = ByteBufHelper.readableBytes(byteBuf);
@@ -77,7 +114,7 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
         } catch (Exception e) {
             throw new PacketProcessException("Failed to read the Packet ID of a packet. (Size: " + size + ")");
         }
-        ClientVersion version = serverVersion.toClientVersion();
+        ClientVersion version = context.getClientVersion();
         ConnectionState state = packetSide == PacketSide.CLIENT ? user.getDecoderState() : user.getEncoderState();
         this.packetType = PacketType.getById(packetSide, state,
                 version, packetID);
@@ -91,29 +128,50 @@ public abstract class ProtocolPacketEvent<T> extends PacketEvent implements Play
         this.connectionState = state;
     }
 
-    public ProtocolPacketEvent(int packetID, PacketTypeCommon packetType, ServerVersion serverVersion, Object channel,
-                               User user, T player, Object byteBuf) {
-        this.channel = channel;
-        this.user = user;
-        this.player = player;
-        this.serverVersion = serverVersion;
-        this.byteBuf = byteBuf;
-        this.packetID = packetID;
-        this.packetType = packetType;
-
-        this.connectionState = (packetType != null && packetType.getSide() == PacketSide.SERVER)
-                ? user.getEncoderState() : user.getDecoderState();
-        cloned = true;
+    /**
+     * Drops all references of this event, so it can be handed out again by the event pool.
+     * Listeners must not hold on to pooled events, they should {@link #clone()} them instead.
+     */
+    @ApiStatus.Internal
+    public void recycle() {
+        this.channel = null;
+        this.user = null;
+        this.player = null;
+        this.byteBuf = null;
+        this.serverVersion = null;
+        this.connectionState = null;
+        this.cancel = false;
+        this.lastUsedWrapper = null;
+        if (this.postTasks != null) {
+            this.postTasks.clear();
+        }
     }
 
     public void markForReEncode(boolean needsReEncode) {
         this.needsReEncode = needsReEncode;
+        // An explicit decision overrides detecting modified wrappers
+        this.reEncodeOnlyModified = false;
     }
 
     public boolean needsReEncode() {
         return needsReEncode;
     }
 
+    /**
+     * Whether the last used wrapper has to be written back into the packet buffer.
+     * With {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#reEncodeOnlyModified(boolean)}
+     * enabled, wrappers which were only read from are skipped.
+     *
+     * @return true if the packet has to be re-encoded
+     */
+    @ApiStatus.Internal
+    public boolean isReEncodeRequired() {
+        if (!needsReEncode || lastUsedWrapper == null) {
+            return false;
+        }
+        return !reEncodeOnlyModified || lastUsedWrapper.isDirty();
+    }
+
 
     public boolean isClone() {
         return cloned;
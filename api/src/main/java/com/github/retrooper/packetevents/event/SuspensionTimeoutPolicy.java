@@ -0,0 +1,41 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.event;
+
+/**
+ * Decides what happens to a suspended packet whose task didn't finish in time.
+ *
+ * @see PacketReceiveEvent#suspend(java.util.concurrent.Callable)
+ */
+public enum SuspensionTimeoutPolicy {
+    /**
+     * The packet continues as if the task allowed it.
+     */
+    PROCEED,
+
+    /**
+     * The packet is dropped.
+     */
+    CANCEL,
+
+    /**
+     * The packet is dropped and the connection is closed.
+     */
+    DISCONNECT
+}
@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 public class PacketConfigReceiveEvent extends PacketReceiveEvent {
 
@@ -34,6 +35,10 @@ public class PacketConfigReceiveEvent extends PacketReceiveEvent {
         super(channel, user, player, rawByteBuf, autoProtocolTranslation);
     }
 
+    @ApiStatus.Internal
+    public PacketConfigReceiveEvent() {
+    }
+
     protected PacketConfigReceiveEvent(int packetId, PacketTypeCommon packetType,
                                        ServerVersion serverVersion,
                                        Object channel,
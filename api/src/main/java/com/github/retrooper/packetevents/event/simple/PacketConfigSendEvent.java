@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 public class PacketConfigSendEvent extends PacketSendEvent {
 
@@ -34,6 +35,10 @@ public class PacketConfigSendEvent extends PacketSendEvent {
         super(channel, user, player, rawByteBuf, autoProtocolTranslation);
     }
 
+    @ApiStatus.Internal
+    public PacketConfigSendEvent() {
+    }
+
     protected PacketConfigSendEvent(int packetId, PacketTypeCommon packetType,
                                     ServerVersion serverVersion,
                                     Object channel,
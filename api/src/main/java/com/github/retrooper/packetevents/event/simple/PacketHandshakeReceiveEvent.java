@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 public class PacketHandshakeReceiveEvent extends PacketReceiveEvent {
     public PacketHandshakeReceiveEvent(Object channel, User user,
@@ -33,6 +34,10 @@ public class PacketHandshakeReceiveEvent extends PacketReceiveEvent {
         super(channel, user, player, rawByteBuf, autoProtocolTranslation);
     }
 
+    @ApiStatus.Internal
+    public PacketHandshakeReceiveEvent() {
+    }
+
     protected PacketHandshakeReceiveEvent(int packetId, PacketTypeCommon packetType,
                                           ServerVersion serverVersion,
                                           Object channel,
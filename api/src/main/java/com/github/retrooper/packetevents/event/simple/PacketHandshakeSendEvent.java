@@ -7,6 +7,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 public class PacketHandshakeSendEvent extends PacketSendEvent {
     public PacketHandshakeSendEvent(Object channel, User user,
@@ -15,6 +16,10 @@ public class PacketHandshakeSendEvent extends PacketSendEvent {
         super(channel, user, player, rawByteBuf, autoProtocolTranslation);
     }
 
+    @ApiStatus.Internal
+    public PacketHandshakeSendEvent() {
+    }
+
     protected PacketHandshakeSendEvent(int packetId, PacketTypeCommon packetType,
                                           ServerVersion serverVersion,
                                           Object channel,
@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 public class PacketLoginReceiveEvent extends PacketReceiveEvent {
     public PacketLoginReceiveEvent(Object channel, User user, Object player,
@@ -33,6 +34,10 @@ public class PacketLoginReceiveEvent extends PacketReceiveEvent {
         super(channel, user, player, rawByteBuf, autoProtocolTranslation);
     }
 
+    @ApiStatus.Internal
+    public PacketLoginReceiveEvent() {
+    }
+
     protected PacketLoginReceiveEvent(int packetId, PacketTypeCommon packetType,
                                       ServerVersion serverVersion,
                                       Object channel,
@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.ApiStatus;
 
 public class PacketStatusSendEvent extends PacketSendEvent {
     public PacketStatusSendEvent(Object channel, User user, Object player, Object rawByteBuf,
@@ -32,6 +33,10 @@ public class PacketStatusSendEvent extends PacketSendEvent {
         super(channel, user, player, rawByteBuf, autoProtocolTranslation);
     }
 
+    @ApiStatus.Internal
+    public PacketStatusSendEvent() {
+    }
+
     protected PacketStatusSendEvent(int packetId, PacketTypeCommon packetType,
                                     ServerVersion serverVersion,
                                     Object channel,
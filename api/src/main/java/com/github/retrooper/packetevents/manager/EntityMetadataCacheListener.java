@@ -0,0 +1,66 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager;
+
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataCache;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+
+/**
+ * Feeds the {@link EntityMetadataCache} of every user with the packets sent by the server.
+ * Runs last, so only metadata which is actually written to the client is remembered.
+ */
+public class EntityMetadataCacheListener extends PacketListenerAbstract {
+
+    public EntityMetadataCacheListener() {
+        super(PacketListenerPriority.MONITOR);
+    }
+
+    @Override
+    public void onPacketSend(PacketSendEvent event) {
+        if (event.isCancelled()) {
+            return;
+        }
+        PacketTypeCommon type = event.getPacketType();
+        if (type == PacketType.Play.Server.ENTITY_METADATA) {
+            EntityMetadataCache cache = event.getUser().getEntityMetadataCache();
+            if (cache != null) {
+                WrapperPlayServerEntityMetadata metadata = PacketWrapper.peek(event, WrapperPlayServerEntityMetadata::new);
+                cache.record(metadata.getEntityId(), metadata.getEntityMetadata());
+            }
+        } else if (type == PacketType.Play.Server.DESTROY_ENTITIES) {
+            EntityMetadataCache cache = event.getUser().getEntityMetadataCache();
+            if (cache != null) {
+                cache.destroy(PacketWrapper.peek(event, WrapperPlayServerDestroyEntities::new).getEntityIds());
+            }
+        } else if (type == PacketType.Play.Server.JOIN_GAME || type == PacketType.Play.Server.RESPAWN) {
+            // the client forgets all entities when switching worlds
+            EntityMetadataCache cache = event.getUser().getEntityMetadataCache();
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
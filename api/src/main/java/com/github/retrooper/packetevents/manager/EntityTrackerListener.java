@@ -0,0 +1,127 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager;
+
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.protocol.entity.tracker.EntityTracker;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityHeadLook;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRelativeMove;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRelativeMoveAndRotation;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityRotation;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityTeleport;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnEntity;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnLivingEntity;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnPlayer;
+
+/**
+ * Feeds the {@link EntityTracker} of every user. Runs last, so cancelled or
+ * modified packets are tracked the way the client receives them.
+ */
+public class EntityTrackerListener extends PacketListenerAbstract {
+
+    public EntityTrackerListener() {
+        super(PacketListenerPriority.MONITOR);
+    }
+
+    @Override
+    public void onPacketSend(PacketSendEvent event) {
+        if (event.isCancelled()) {
+            return;
+        }
+        PacketTypeCommon type = event.getPacketType();
+        if (type == PacketType.Play.Server.ENTITY_RELATIVE_MOVE) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerEntityRelativeMove move = PacketWrapper.peek(event, WrapperPlayServerEntityRelativeMove::new);
+                tracker.move(move.getEntityId(), move.getDeltaX(), move.getDeltaY(), move.getDeltaZ());
+            }
+        } else if (type == PacketType.Play.Server.ENTITY_RELATIVE_MOVE_AND_ROTATION) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerEntityRelativeMoveAndRotation move = PacketWrapper.peek(event, WrapperPlayServerEntityRelativeMoveAndRotation::new);
+                tracker.moveAndRotate(move.getEntityId(), move.getDeltaX(), move.getDeltaY(), move.getDeltaZ(),
+                        move.getYaw(), move.getPitch());
+            }
+        } else if (type == PacketType.Play.Server.ENTITY_ROTATION) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerEntityRotation rotation = PacketWrapper.peek(event, WrapperPlayServerEntityRotation::new);
+                tracker.rotate(rotation.getEntityId(), rotation.getYaw(), rotation.getPitch());
+            }
+        } else if (type == PacketType.Play.Server.ENTITY_HEAD_LOOK) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerEntityHeadLook headLook = PacketWrapper.peek(event, WrapperPlayServerEntityHeadLook::new);
+                tracker.headLook(headLook.getEntityId(), headLook.getHeadYaw());
+            }
+        } else if (type == PacketType.Play.Server.ENTITY_TELEPORT) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerEntityTeleport teleport = PacketWrapper.peek(event, WrapperPlayServerEntityTeleport::new);
+                tracker.teleport(teleport.getEntityId(), teleport.getPosition(), teleport.getYaw(), teleport.getPitch());
+            }
+        } else if (type == PacketType.Play.Server.ENTITY_METADATA) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerEntityMetadata metadata = PacketWrapper.peek(event, WrapperPlayServerEntityMetadata::new);
+                tracker.updateMetadata(metadata.getEntityId(), metadata.getEntityMetadata());
+            }
+        } else if (type == PacketType.Play.Server.SPAWN_ENTITY) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerSpawnEntity spawn = PacketWrapper.peek(event, WrapperPlayServerSpawnEntity::new);
+                tracker.spawn(spawn.getEntityId(), spawn.getUUID().orElse(null), spawn.getEntityType(),
+                        spawn.getPosition(), spawn.getYaw(), spawn.getPitch(), spawn.getHeadYaw(), null);
+            }
+        } else if (type == PacketType.Play.Server.SPAWN_LIVING_ENTITY) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerSpawnLivingEntity spawn = PacketWrapper.peek(event, WrapperPlayServerSpawnLivingEntity::new);
+                tracker.spawn(spawn.getEntityId(), spawn.getEntityUUID(), spawn.getEntityType(), spawn.getPosition(),
+                        spawn.getYaw(), spawn.getPitch(), spawn.getHeadPitch(), spawn.getEntityMetadata());
+            }
+        } else if (type == PacketType.Play.Server.SPAWN_PLAYER) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                WrapperPlayServerSpawnPlayer spawn = PacketWrapper.peek(event, WrapperPlayServerSpawnPlayer::new);
+                tracker.spawn(spawn.getEntityId(), spawn.getUUID(), EntityTypes.PLAYER, spawn.getPosition(),
+                        spawn.getYaw(), spawn.getPitch(), spawn.getYaw(), spawn.getEntityMetadata());
+            }
+        } else if (type == PacketType.Play.Server.DESTROY_ENTITIES) {
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                tracker.destroy(PacketWrapper.peek(event, WrapperPlayServerDestroyEntities::new).getEntityIds());
+            }
+        } else if (type == PacketType.Play.Server.RESPAWN || type == PacketType.Play.Server.JOIN_GAME) {
+            // the client forgets all entities when switching worlds
+            EntityTracker tracker = event.getUser().getEntityTracker();
+            if (tracker != null) {
+                tracker.clear();
+            }
+        }
+    }
+}
@@ -23,9 +23,10 @@ import com.github.retrooper.packetevents.event.PacketListenerAbstract;
 import com.github.retrooper.packetevents.event.PacketListenerPriority;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
-import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.inventory.InventoryMirror;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.nbt.NBTInt;
 import com.github.retrooper.packetevents.protocol.nbt.NBTList;
@@ -35,15 +36,20 @@ import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.protocol.world.dimension.DimensionRegistry;
+import com.github.retrooper.packetevents.protocol.world.dimension.DimensionRegistryStore;
 import com.github.retrooper.packetevents.resources.ResourceLocation;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.configuration.server.WrapperConfigServerRegistryData;
 import com.github.retrooper.packetevents.wrapper.configuration.server.WrapperConfigServerRegistryData.RegistryElement;
 import com.github.retrooper.packetevents.wrapper.handshaking.client.WrapperHandshakingClientHandshake;
 import com.github.retrooper.packetevents.wrapper.login.server.WrapperLoginServerLoginSuccess;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientClickWindow;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerJoinGame;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerRespawn;
 
 import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 public class InternalPacketListener extends PacketListenerAbstract {
@@ -65,7 +71,7 @@ public class InternalPacketListener extends PacketListenerAbstract {
         if (event.getPacketType() == PacketType.Login.Server.LOGIN_SUCCESS) {
             Object channel = event.getChannel();
             //Process outgoing login success packet
-            WrapperLoginServerLoginSuccess loginSuccess = new WrapperLoginServerLoginSuccess(event);
+            WrapperLoginServerLoginSuccess loginSuccess = PacketWrapper.peek(event, WrapperLoginServerLoginSuccess::new);
             UserProfile profile = loginSuccess.getUserProfile();
 
             //Update user profile
@@ -74,10 +80,8 @@ public class InternalPacketListener extends PacketListenerAbstract {
             //Texture properties are passed in login success on 1.19
             user.getProfile().setTextureProperties(profile.getTextureProperties());
 
-            //Map username with channel
-            synchronized (channel) {
-                ProtocolManager.CHANNELS.put(profile.getUUID(), channel);
-            }
+            //Map username with channel, this runs on the event loop of the channel, just like the disconnection
+            PacketEvents.getAPI().getProtocolManager().setChannel(profile.getUUID(), channel);
 
             PacketEvents.getAPI().getLogManager().debug("Mapped player UUID with their channel.");
 
@@ -94,60 +98,77 @@ public class InternalPacketListener extends PacketListenerAbstract {
 
         // The server sends dimension information in configuration phase >= 1.20.2
         else if (event.getPacketType() == PacketType.Configuration.Server.REGISTRY_DATA) {
-            WrapperConfigServerRegistryData registryData = new WrapperConfigServerRegistryData(event);
-
-            // Store world data
-            NBTCompound registryDataTag = registryData.getRegistryData();
-            NBTList<NBTCompound> list = null;
-            if (registryDataTag != null) { // <1.20.5
-                //Handle dimension type
-                NBTCompound dimensionTypes = registryDataTag
-                        .getCompoundTagOrNull(DIMENSION_TYPE_REGISTRY_KEY.toString());
-                if (dimensionTypes == null) {
-                    dimensionTypes = registryDataTag
-                            .getCompoundTagOrNull(DIMENSION_TYPE_REGISTRY_KEY.getKey());
-                }
-                if (dimensionTypes != null) {
-                    list = dimensionTypes.getCompoundListTagOrNull("value");
-                }
-                if (list == null) {
-                    list = new NBTList<>(NBTType.COMPOUND);
-                    PacketEvents.getAPI().getLogger().warning("Can't find dimension type registry in registry data, "
-                            + "this may cause issues; available registries: " + registryDataTag.getTags().keySet());
-                }
-            } else if (DIMENSION_TYPE_REGISTRY_KEY.equals(registryData.getRegistryKey())) { // >=1.20.5
-                // remap to legacy format
-                list = new NBTList<>(NBTType.COMPOUND);
-                List<RegistryElement> elements = registryData.getElements();
-                if (elements != null) {
-                    int i = 0;
-                    for (RegistryElement element : elements) {
-                        NBTCompound tag = new NBTCompound();
-                        tag.setTag("name", new NBTString(element.getId().toString()));
-                        tag.setTag("id", new NBTInt(i++));
-                        if (element.getData() != null) { // may be null because of known packs not being sent
-                            tag.setTag("element", element.getData());
+            ServerVersion version = event.getServerVersion();
+            Object buffer = event.getByteBuf();
+            // >=1.20.5 sends every registry separately, only the dimension types are of interest
+            if (version.isOlderThan(ServerVersion.V_1_20_5) || isDimensionTypeRegistry(buffer)) {
+                // every player receives the same registries, only decode them once
+                byte[] payload = new byte[ByteBufHelper.readableBytes(buffer)];
+                ByteBufHelper.getBytes(buffer, ByteBufHelper.readerIndex(buffer), payload);
+                DimensionRegistry registry = DimensionRegistryStore.acquire(version, payload);
+                if (registry == null) {
+                    WrapperConfigServerRegistryData registryData = PacketWrapper.peek(event, WrapperConfigServerRegistryData::new);
+
+                    // Store world data
+                    NBTCompound registryDataTag = registryData.getRegistryData();
+                    NBTList<NBTCompound> list = null;
+                    if (registryDataTag != null) { // <1.20.5
+                        //Handle dimension type
+                        NBTCompound dimensionTypes = registryDataTag
+                                .getCompoundTagOrNull(DIMENSION_TYPE_REGISTRY_KEY.toString());
+                        if (dimensionTypes == null) {
+                            dimensionTypes = registryDataTag
+                                    .getCompoundTagOrNull(DIMENSION_TYPE_REGISTRY_KEY.getKey());
+                        }
+                        if (dimensionTypes != null) {
+                            list = dimensionTypes.getCompoundListTagOrNull("value");
+                        }
+                        if (list == null) {
+                            list = new NBTList<>(NBTType.COMPOUND);
+                            PacketEvents.getAPI().getLogger().warning("Can't find dimension type registry in registry data, "
+                                    + "this may cause issues; available registries: " + registryDataTag.getTags().keySet());
                         }
-                        list.addTag(tag);
+                    } else if (DIMENSION_TYPE_REGISTRY_KEY.equals(registryData.getRegistryKey())) { // >=1.20.5
+                        // remap to legacy format
+                        list = new NBTList<>(NBTType.COMPOUND);
+                        List<RegistryElement> elements = registryData.getElements();
+                        if (elements != null) {
+                            int i = 0;
+                            for (RegistryElement element : elements) {
+                                NBTCompound tag = new NBTCompound();
+                                tag.setTag("name", new NBTString(element.getId().toString()));
+                                tag.setTag("id", new NBTInt(i++));
+                                if (element.getData() != null) { // may be null because of known packs not being sent
+                                    tag.setTag("element", element.getData());
+                                }
+                                list.addTag(tag);
+                            }
+                        }
+                    }
+                    if (list != null) {
+                        registry = DimensionRegistryStore.intern(version, payload, list);
                     }
                 }
-            }
-            if (list != null) {
-                user.setWorldNBT(list);
+                if (registry != null) {
+                    setDimensionRegistry(user, registry);
+                }
             }
         }
 
         // The server sends dimension information in login packet for >= 1.17 and < 1.20.2
         else if (event.getPacketType() == PacketType.Play.Server.JOIN_GAME) {
-            WrapperPlayServerJoinGame joinGame = new WrapperPlayServerJoinGame(event);
+            WrapperPlayServerJoinGame joinGame = PacketWrapper.peek(event, WrapperPlayServerJoinGame::new);
             user.setEntityId(joinGame.getEntityId());
             user.setDimension(joinGame.getDimension());
             if (event.getServerVersion().isOlderThanOrEquals(ServerVersion.V_1_16_5)) {
                 return; // Fixed world height, no tags are sent to the client
             }
 
-            // Store world data
-            NBTCompound dimensionCodec = joinGame.getDimensionCodec();
+            // Store world data, every player receives the same codec, only decode it once
+            byte[] codecBytes = joinGame.getDimensionCodecBytes();
+            DimensionRegistry registry = codecBytes == null ? null
+                    : DimensionRegistryStore.acquire(event.getServerVersion(), codecBytes);
+            NBTCompound dimensionCodec = registry == null ? joinGame.getDimensionCodec() : null;
             if (dimensionCodec != null) {
                 NBTList<NBTCompound> types = null;
                 NBTCompound dimensionTypes = dimensionCodec
@@ -164,7 +185,11 @@ public class InternalPacketListener extends PacketListenerAbstract {
                     PacketEvents.getAPI().getLogger().warning("Can't find dimension type registry in join packet, "
                             + "this may cause issues; available registries: " + dimensionCodec.getTags().keySet());
                 }
-                user.setWorldNBT(types);
+                registry = codecBytes == null ? new DimensionRegistry(types.getTags())
+                        : DimensionRegistryStore.intern(event.getServerVersion(), codecBytes, types);
+            }
+            if (registry != null) {
+                setDimensionRegistry(user, registry);
             }
 
             // Update world height
@@ -173,7 +198,7 @@ public class InternalPacketListener extends PacketListenerAbstract {
 
         // Respawn is used to switch dimensions
         else if (event.getPacketType() == PacketType.Play.Server.RESPAWN) {
-            WrapperPlayServerRespawn respawn = new WrapperPlayServerRespawn(event);
+            WrapperPlayServerRespawn respawn = PacketWrapper.peek(event, WrapperPlayServerRespawn::new);
             user.setDimension(respawn.getDimension());
             if (event.getServerVersion().isOlderThanOrEquals(ServerVersion.V_1_16_5)) {
                 return; // Fixed world height, no tags are sent to the client
@@ -187,13 +212,34 @@ public class InternalPacketListener extends PacketListenerAbstract {
         }
     }
 
+    private static boolean isDimensionTypeRegistry(Object buffer) {
+        // peek at the registry key without moving the reader index
+        int readerIndex = ByteBufHelper.readerIndex(buffer);
+        try {
+            int length = ByteBufHelper.readVarInt(buffer);
+            String key = ByteBufHelper.toString(buffer, ByteBufHelper.readerIndex(buffer), length, StandardCharsets.UTF_8);
+            return DIMENSION_TYPE_REGISTRY_KEY.equals(new ResourceLocation(key));
+        } finally {
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+        }
+    }
+
+    private static void setDimensionRegistry(User user, DimensionRegistry registry) {
+        if (user.getDimensionRegistry() == registry) {
+            // the user already holds a reference, drop the one acquired for this packet
+            DimensionRegistryStore.release(registry);
+        } else {
+            user.setDimensionRegistry(registry);
+        }
+    }
+
     @Override
     public void onPacketReceive(PacketReceiveEvent event) {
         User user = event.getUser();
         if (event.getPacketType() == PacketType.Handshaking.Client.HANDSHAKE) {
             Object channel = event.getChannel();
             InetSocketAddress address = event.getSocketAddress();
-            WrapperHandshakingClientHandshake handshake = new WrapperHandshakingClientHandshake(event);
+            WrapperHandshakingClientHandshake handshake = PacketWrapper.peek(event, WrapperHandshakingClientHandshake::new);
             ConnectionState nextState = handshake.getNextConnectionState();
             ClientVersion clientVersion = handshake.getClientVersion();
             //Update client version for this event call(and user)
@@ -208,5 +254,18 @@ public class InternalPacketListener extends PacketListenerAbstract {
         } else if (event.getPacketType() == PacketType.Configuration.Client.CONFIGURATION_END_ACK) {
             user.setDecoderState(ConnectionState.PLAY);
         }
+
+        // The client has already applied its own prediction, even if the server rejects the click
+        else if (event.getPacketType() == PacketType.Play.Client.CLICK_WINDOW) {
+            InventoryMirror mirror = user.getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleClickWindow(PacketWrapper.peek(event, WrapperPlayClientClickWindow::new));
+            }
+        } else if (event.getPacketType() == PacketType.Play.Client.CLOSE_WINDOW) {
+            InventoryMirror mirror = user.getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleCloseWindow();
+            }
+        }
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.retrooper.packetevents.manager;
+
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.protocol.inventory.InventoryMirror;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerOpenHorseWindow;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerOpenWindow;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSetSlot;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerWindowItems;
+
+/**
+ * Feeds the {@link InventoryMirror} of every user with the packets sent by the server. Runs last, so cancelled or
+ * modified packets are mirrored the way the client receives them. Clicks are mirrored by the
+ * {@link InternalPacketListener}, as the client sent them.
+ */
+public class InventoryMirrorListener extends PacketListenerAbstract {
+
+    public InventoryMirrorListener() {
+        super(PacketListenerPriority.MONITOR);
+    }
+
+    @Override
+    public void onPacketSend(PacketSendEvent event) {
+        if (event.isCancelled()) {
+            return;
+        }
+        PacketTypeCommon type = event.getPacketType();
+        if (type == PacketType.Play.Server.WINDOW_ITEMS) {
+            InventoryMirror mirror = event.getUser().getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleWindowItems(PacketWrapper.peek(event, WrapperPlayServerWindowItems::new));
+            }
+        } else if (type == PacketType.Play.Server.SET_SLOT) {
+            InventoryMirror mirror = event.getUser().getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleSetSlot(PacketWrapper.peek(event, WrapperPlayServerSetSlot::new));
+            }
+        } else if (type == PacketType.Play.Server.OPEN_WINDOW) {
+            InventoryMirror mirror = event.getUser().getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleOpenWindow(PacketWrapper.peek(event, WrapperPlayServerOpenWindow::new).getContainerId());
+            }
+        } else if (type == PacketType.Play.Server.OPEN_HORSE_WINDOW) {
+            InventoryMirror mirror = event.getUser().getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleOpenWindow(PacketWrapper.peek(event, WrapperPlayServerOpenHorseWindow::new).getWindowId());
+            }
+        } else if (type == PacketType.Play.Server.CLOSE_WINDOW) {
+            InventoryMirror mirror = event.getUser().getInventoryMirror();
+            if (mirror != null) {
+                mirror.handleCloseWindow();
+            }
+        }
+    }
+}
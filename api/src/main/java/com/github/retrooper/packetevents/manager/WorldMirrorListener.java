@@ -0,0 +1,88 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.manager;
+
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.world.mirror.WorldMirror;
+import com.github.retrooper.packetevents.util.Vector3i;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBlockChange;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChunkData;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerUnloadChunk;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerUpdateViewPosition;
+
+/**
+ * Feeds the {@link WorldMirror} of every user. Runs last, so cancelled or
+ * modified packets are mirrored the way the client receives them.
+ */
+public class WorldMirrorListener extends PacketListenerAbstract {
+
+    public WorldMirrorListener() {
+        super(PacketListenerPriority.MONITOR);
+    }
+
+    @Override
+    public void onPacketSend(PacketSendEvent event) {
+        if (event.isCancelled()) {
+            return;
+        }
+        PacketTypeCommon type = event.getPacketType();
+        if (type == PacketType.Play.Server.BLOCK_CHANGE) {
+            WorldMirror mirror = event.getUser().getWorldMirror();
+            if (mirror != null) {
+                WrapperPlayServerBlockChange blockChange = PacketWrapper.peek(event, WrapperPlayServerBlockChange::new);
+                Vector3i position = blockChange.getBlockPosition();
+                mirror.setBlock(position.getX(), position.getY(), position.getZ(), blockChange.getBlockId());
+            }
+        } else if (type == PacketType.Play.Server.MULTI_BLOCK_CHANGE) {
+            WorldMirror mirror = event.getUser().getWorldMirror();
+            if (mirror != null) {
+                PacketWrapper.peek(event, WrapperPlayServerMultiBlockChange::new).forEachBlock(mirror::setBlock);
+            }
+        } else if (type == PacketType.Play.Server.CHUNK_DATA) {
+            WorldMirror mirror = event.getUser().getWorldMirror();
+            if (mirror != null) {
+                mirror.loadColumn(PacketWrapper.peek(event, WrapperPlayServerChunkData::new).getColumn());
+            }
+        } else if (type == PacketType.Play.Server.UNLOAD_CHUNK) {
+            WorldMirror mirror = event.getUser().getWorldMirror();
+            if (mirror != null) {
+                WrapperPlayServerUnloadChunk unloadChunk = PacketWrapper.peek(event, WrapperPlayServerUnloadChunk::new);
+                mirror.unloadColumn(unloadChunk.getChunkX(), unloadChunk.getChunkZ());
+            }
+        } else if (type == PacketType.Play.Server.UPDATE_VIEW_POSITION) {
+            WorldMirror mirror = event.getUser().getWorldMirror();
+            if (mirror != null) {
+                WrapperPlayServerUpdateViewPosition viewPosition = PacketWrapper.peek(event, WrapperPlayServerUpdateViewPosition::new);
+                mirror.setCenter(viewPosition.getChunkX(), viewPosition.getChunkZ());
+            }
+        } else if (type == PacketType.Play.Server.RESPAWN || type == PacketType.Play.Server.JOIN_GAME) {
+            // the client forgets all chunks when switching worlds
+            WorldMirror mirror = event.getUser().getWorldMirror();
+            if (mirror != null) {
+                mirror.clear();
+            }
+        }
+    }
+}
@@ -19,15 +19,22 @@
 package com.github.retrooper.packetevents.manager.protocol;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.ProtocolVersion;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.PacketTransformationUtil;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -36,6 +43,12 @@ public interface ProtocolManager {
     Map<UUID, Object> CHANNELS = new ConcurrentHashMap<>();
     // Use SocketAddress because ProtocolLib wraps Channels with NettyChannelProxy class
     Map<Object, User> USERS = new ConcurrentHashMap<>();
+    // The user and uuid are attached to the channel itself, the maps above are only secondary indexes.
+    // Keyed by our own (possibly relocated) class name, so every shaded copy of packetevents gets its own attributes
+    @ApiStatus.Internal
+    String USER_ATTRIBUTE = ProtocolManager.class.getName() + "#user";
+    @ApiStatus.Internal
+    String UUID_ATTRIBUTE = ProtocolManager.class.getName() + "#uuid";
 
     default Collection<User> getUsers() {
         return USERS.values();
@@ -54,7 +67,6 @@ public interface ProtocolManager {
     void receivePacket(Object channel, Object byteBuf);
     void receivePacketSilently(Object channel, Object byteBuf);
     ClientVersion getClientVersion(Object channel);
-    //TODO Define method that accepts an array of channels/set/list of channels.
 
     default void sendPackets(Object channel, Object... byteBuf) {
         for (Object buf : byteBuf) {
@@ -99,6 +111,56 @@ public interface ProtocolManager {
 
     @ApiStatus.Internal
     default Object[] transformWrappers(PacketWrapper<?> wrapper, Object channel, boolean outgoing) {
+        if (outgoing && wrapper.isFrozen()) {
+            return transformFrozenWrapper(wrapper, channel);
+        }
+        return encodeWrappers(wrapper, channel, outgoing);
+    }
+
+    /**
+     * Reuses the bytes of a frozen wrapper if it was already encoded for the protocol version of the channel.
+     * Every send gets its own copy of the bytes, as listeners may rewrite the buffer in place.
+     */
+    @ApiStatus.Internal
+    default Object[] transformFrozenWrapper(PacketWrapper<?> wrapper, Object channel) {
+        ClientVersion version;
+        if (PacketEvents.getAPI().getInjector().isProxy()) {
+            version = getUser(channel).getClientVersion();
+        } else {
+            version = PacketEvents.getAPI().getServerManager().getVersion().toClientVersion();
+        }
+        byte[][] encoded = wrapper.getFrozenEncoding(version);
+        if (encoded == null) {
+            // the wrapper's buffer is used while encoding
+            synchronized (wrapper) {
+                encoded = wrapper.getFrozenEncoding(version);
+                if (encoded == null) {
+                    Object[] buffers;
+                    wrapper.setEncodingFrozen(true);
+                    try {
+                        buffers = encodeWrappers(wrapper, channel, true);
+                    } finally {
+                        wrapper.setEncodingFrozen(false);
+                    }
+                    encoded = new byte[buffers.length][];
+                    for (int i = 0; i < buffers.length; i++) {
+                        encoded[i] = ByteBufHelper.copyBytes(buffers[i]);
+                    }
+                    wrapper.setFrozenEncoding(version, encoded);
+                    return buffers;
+                }
+            }
+        }
+        Object[] buffers = new Object[encoded.length];
+        for (int i = 0; i < encoded.length; i++) {
+            buffers[i] = ChannelHelper.pooledByteBuf(channel);
+            ByteBufHelper.writeBytes(buffers[i], encoded[i]);
+        }
+        return buffers;
+    }
+
+    @ApiStatus.Internal
+    default Object[] encodeWrappers(PacketWrapper<?> wrapper, Object channel, boolean outgoing) {
         //It is possible that our packet transformer util decides to transform one wrapper into multiple packets.
         //(Correcting some mistakes on your end)
         PacketWrapper<?>[] wrappers = PacketTransformationUtil.transform(wrapper);
@@ -142,25 +204,128 @@ public interface ProtocolManager {
         receivePacketsSilently(channel, transformed);
     }
 
+    /**
+     * Sends the wrappers to all channels with a single flush per channel.
+     * The wrappers are only encoded once for every protocol version among the receivers,
+     * which is once in total on servers, as packets are always written in the server's format there.
+     *
+     * @param channels Receivers, closed channels are skipped
+     * @param bundle   Whether to wrap the packets in bundle delimiters, so that
+     *                 1.19.4+ clients handle them within the same tick
+     * @param wrappers Packets to send in order
+     */
+    default void broadcastPackets(Collection<?> channels, boolean bundle, PacketWrapper<?>... wrappers) {
+        if (channels.isEmpty() || wrappers.length == 0) {
+            return;
+        }
+        boolean proxy = PacketEvents.getAPI().getInjector().isProxy();
+        // the key is null on servers, where there is only a single encoding
+        Map<ClientVersion, Object[]> encoded = new HashMap<>(4);
+        try {
+            for (Object channel : channels) {
+                if (!ChannelHelper.isOpen(channel)) {
+                    continue;
+                }
+                ClientVersion version = null;
+                if (proxy) {
+                    User user = getUser(channel);
+                    if (user == null) {
+                        continue;
+                    }
+                    version = user.getClientVersion();
+                }
+                Object[] buffers = encoded.get(version);
+                if (buffers == null) {
+                    buffers = encodeBroadcast(channel, version, bundle, wrappers);
+                    encoded.put(version, buffers);
+                }
+                for (Object buffer : buffers) {
+                    // copied, listeners may rewrite the buffer in place
+                    writePacket(channel, ByteBufHelper.copy(buffer));
+                }
+                ChannelHelper.flush(channel);
+            }
+        } finally {
+            for (Object[] buffers : encoded.values()) {
+                for (Object buffer : buffers) {
+                    ByteBufHelper.release(buffer);
+                }
+            }
+        }
+    }
+
+    @ApiStatus.Internal
+    default Object[] encodeBroadcast(Object channel, @Nullable ClientVersion version,
+                                     boolean bundle, PacketWrapper<?>... wrappers) {
+        ClientVersion targetVersion = version != null ? version
+                : PacketEvents.getAPI().getServerManager().getVersion().toClientVersion();
+        // bundling a single packet is pointless
+        bundle &= wrappers.length > 1 && targetVersion.isNewerThanOrEquals(ClientVersion.V_1_19_4);
+
+        List<Object> buffers = new ArrayList<>(wrappers.length + 2);
+        if (bundle) {
+            Collections.addAll(buffers, transformWrappers(new WrapperPlayServerBundle(), channel, true));
+        }
+        for (PacketWrapper<?> wrapper : wrappers) {
+            Collections.addAll(buffers, transformWrappers(wrapper, channel, true));
+        }
+        if (bundle) {
+            Collections.addAll(buffers, transformWrappers(new WrapperPlayServerBundle(), channel, true));
+        }
+        return buffers.toArray();
+    }
+
     default User getUser(Object channel) {
+        User user = (User) ChannelHelper.getAttribute(channel, USER_ATTRIBUTE);
+        if (user != null) {
+            return user;
+        }
+        // Channel wrappers (e.g. ProtocolLib) may not expose our attributes, fall back to the pipeline index
         Object pipeline = ChannelHelper.getPipeline(channel);
         return USERS.get(pipeline);
     }
 
     default User removeUser(Object channel) {
+        ChannelHelper.setAttribute(channel, USER_ATTRIBUTE, null);
         Object pipeline = ChannelHelper.getPipeline(channel);
         return USERS.remove(pipeline);
     }
 
     default void setUser(Object channel, User user) {
-        synchronized (channel) {
-            Object pipeline = ChannelHelper.getPipeline(channel);
-            USERS.put(pipeline, user);
-        }
+        registerUser(channel, user);
         PacketEvents.getAPI().getInjector().updateUser(channel, user);
     }
 
+    /**
+     * Associates the user with the channel without updating the packetevents handlers,
+     * this is meant for injectors which create their handlers after the user.
+     */
+    @ApiStatus.Internal
+    default void registerUser(Object channel, User user) {
+        ChannelHelper.setAttribute(channel, USER_ATTRIBUTE, user);
+        Object pipeline = ChannelHelper.getPipeline(channel);
+        USERS.put(pipeline, user);
+    }
+
     default Object getChannel(UUID uuid) {
         return CHANNELS.get(uuid);
     }
+
+    @ApiStatus.Internal
+    default void setChannel(UUID uuid, Object channel) {
+        // Remember the uuid on the channel, so removing it on disconnect never has to scan all channels
+        ChannelHelper.setAttribute(channel, UUID_ATTRIBUTE, uuid);
+        CHANNELS.put(uuid, channel);
+    }
+
+    @ApiStatus.Internal
+    default void removeChannel(Object channel, @Nullable UUID uuid) {
+        UUID mappedUUID = (UUID) ChannelHelper.setAttribute(channel, UUID_ATTRIBUTE, null);
+        if (uuid != null) {
+            CHANNELS.remove(uuid);
+        }
+        if (mappedUUID != null && !mappedUUID.equals(uuid)) {
+            CHANNELS.remove(mappedUUID, channel);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.retrooper.packetevents.metrics;
+
+/**
+ * An immutable copy of a {@link LatencyHistogram}, all values are in nanoseconds.
+ */
+public final class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long count = 0L;
+        for (long bucket : counts) {
+            count += bucket;
+        }
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0L ? 0D : (double) sum / count;
+    }
+
+    /**
+     * Estimates the value below which the given percentage of recorded values fall.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Lower bound of the bucket containing the percentile
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+        long target = (long) Math.ceil(count * Math.min(Math.max(percentile, 0D), 100D) / 100D);
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target && counts[i] != 0L) {
+                return Math.min(LatencyHistogram.bucketLowerBound(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.retrooper.packetevents.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with logarithmic buckets (about 12.5% precision).
+ * Values are recorded into a fixed number of striped bucket arrays, picked by the id of the recording thread,
+ * so netty threads rarely contend with each other. Threads that only live for a single task, like virtual threads,
+ * don't allocate anything. The stripes are only merged when a {@link #snapshot()} is taken.
+ */
+public final class LatencyHistogram {
+    static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    // The last two slots keep the sum and the max of all recorded values
+    private static final int SUM_INDEX = BUCKETS;
+    private static final int MAX_INDEX = BUCKETS + 1;
+    // Power of two, at least one stripe per processor up to 16
+    private static final int STRIPES = Math.min(16,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1) << 1));
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0L);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    public void record(long nanos) {
+        long id = Thread.currentThread().getId();
+        AtomicLongArray stripe = stripes[(int) (id ^ (id >>> 16)) & (STRIPES - 1)];
+        stripe.incrementAndGet(bucketIndex(nanos));
+        stripe.addAndGet(SUM_INDEX, nanos);
+        long max;
+        while (nanos > (max = stripe.get(MAX_INDEX))) {
+            if (stripe.compareAndSet(MAX_INDEX, max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0L;
+        long max = 0L;
+        for (AtomicLongArray recorder : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += recorder.get(i);
+            }
+            sum += recorder.get(SUM_INDEX);
+            max = Math.max(max, recorder.get(MAX_INDEX));
+        }
+        return new HistogramSnapshot(counts, sum, max);
+    }
+
+    /**
+     * Resets all recorded values. Values recorded concurrently may be lost.
+     */
+    public void reset() {
+        for (AtomicLongArray recorder : stripes) {
+            for (int i = 0; i < recorder.length(); i++) {
+                recorder.set(i, 0L);
+            }
+        }
+    }
+}
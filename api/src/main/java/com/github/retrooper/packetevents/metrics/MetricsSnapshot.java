@@ -0,0 +1,151 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable view of everything {@link PacketMetrics} recorded up to {@link #getTimestamp()}.
+ */
+public final class MetricsSnapshot {
+    private final long timestamp;
+    private final List<ListenerStats> listeners;
+    private final List<PacketTypeStats> packetTypes;
+    private final HistogramSnapshot connectionSetup;
+
+    MetricsSnapshot(long timestamp, List<ListenerStats> listeners, List<PacketTypeStats> packetTypes,
+                    HistogramSnapshot connectionSetup) {
+        this.timestamp = timestamp;
+        this.listeners = Collections.unmodifiableList(listeners);
+        this.packetTypes = Collections.unmodifiableList(packetTypes);
+        this.connectionSetup = connectionSetup;
+    }
+
+    /**
+     * @return Time the snapshot was taken at, in milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return Listener statistics, the slowest listener (by total time spent) comes first
+     */
+    public List<ListenerStats> getListeners() {
+        return listeners;
+    }
+
+    /**
+     * @return Packet type statistics, the most frequent packet type comes first
+     */
+    public List<PacketTypeStats> getPacketTypes() {
+        return packetTypes;
+    }
+
+    /**
+     * @return Time it took to set up connections, from their registration until the handlers were in place, in nanoseconds
+     */
+    public HistogramSnapshot getConnectionSetup() {
+        return connectionSetup;
+    }
+
+    public static final class ListenerStats {
+        private final PacketListenerCommon listener;
+        private final HistogramSnapshot latency;
+
+        ListenerStats(PacketListenerCommon listener, HistogramSnapshot latency) {
+            this.listener = listener;
+            this.latency = latency;
+        }
+
+        public PacketListenerCommon getListener() {
+            return listener;
+        }
+
+        /**
+         * @return The name of the listener class
+         */
+        public String getName() {
+            return listener.getClass().getName();
+        }
+
+        public long getCalls() {
+            return latency.getCount();
+        }
+
+        /**
+         * @return Time spent in this listener per call, in nanoseconds
+         */
+        public HistogramSnapshot getLatency() {
+            return latency;
+        }
+    }
+
+    public static final class PacketTypeStats {
+        private final PacketTypeCommon packetType;
+        private final long count;
+        private final long bytes;
+        private final long reEncodes;
+        private final long cancellations;
+
+        PacketTypeStats(PacketTypeCommon packetType, long count, long bytes, long reEncodes, long cancellations) {
+            this.packetType = packetType;
+            this.count = count;
+            this.bytes = bytes;
+            this.reEncodes = reEncodes;
+            this.cancellations = cancellations;
+        }
+
+        public PacketTypeCommon getPacketType() {
+            return packetType;
+        }
+
+        /**
+         * Server-bound packet types are inbound, client-bound packet types are outbound.
+         *
+         * @return Whether packets of this type are sent to the client
+         */
+        public boolean isOutbound() {
+            return packetType.getSide() == PacketSide.SERVER;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Total size of the processed packets (excluding the packet id)
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getReEncodes() {
+            return reEncodes;
+        }
+
+        public long getCancellations() {
+            return cancellations;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.retrooper.packetevents.metrics;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.metrics.MetricsSnapshot.ListenerStats;
+import com.github.retrooper.packetevents.metrics.MetricsSnapshot.PacketTypeStats;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Optional instrumentation of the event system.
+ * Once enabled, packetevents records how long every listener takes per call and how many packets
+ * (and bytes) of each packet type were processed, re-encoded or cancelled.
+ * Nothing is recorded while the metrics are disabled, which is the default.
+ */
+public final class PacketMetrics {
+    private volatile boolean enabled;
+    private final Map<PacketListenerCommon, LatencyHistogram> listeners = new ConcurrentHashMap<>();
+    private final Map<PacketTypeCommon, PacketTypeCounters> packetTypes = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionSetup = new LatencyHistogram();
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void recordListenerCall(PacketListenerCommon listener, long nanos) {
+        LatencyHistogram histogram = listeners.get(listener);
+        if (histogram == null) {
+            histogram = listeners.computeIfAbsent(listener, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public void recordPacket(PacketTypeCommon packetType, int bytes) {
+        PacketTypeCounters counters = getCounters(packetType);
+        counters.count.increment();
+        counters.bytes.add(bytes);
+    }
+
+    public void recordReEncode(PacketTypeCommon packetType) {
+        getCounters(packetType).reEncodes.increment();
+    }
+
+    public void recordCancellation(PacketTypeCommon packetType) {
+        getCounters(packetType).cancellations.increment();
+    }
+
+    /**
+     * Records how long it took to set up a connection, from its registration until the handlers were in place.
+     *
+     * @param nanos Setup time in nanoseconds
+     */
+    public void recordConnectionSetup(long nanos) {
+        connectionSetup.record(nanos);
+    }
+
+    private PacketTypeCounters getCounters(PacketTypeCommon packetType) {
+        PacketTypeCounters counters = packetTypes.get(packetType);
+        if (counters == null) {
+            counters = packetTypes.computeIfAbsent(packetType, key -> new PacketTypeCounters());
+        }
+        return counters;
+    }
+
+    /**
+     * Drops the statistics of a listener, called once it has been unregistered.
+     *
+     * @param listener Listener
+     */
+    public void removeListener(PacketListenerCommon listener) {
+        listeners.remove(listener);
+    }
+
+    public void reset() {
+        listeners.clear();
+        packetTypes.clear();
+        connectionSetup.reset();
+    }
+
+    public MetricsSnapshot snapshot() {
+        List<ListenerStats> listenerStats = new ArrayList<>(listeners.size());
+        for (Map.Entry<PacketListenerCommon, LatencyHistogram> entry : listeners.entrySet()) {
+            listenerStats.add(new ListenerStats(entry.getKey(), entry.getValue().snapshot()));
+        }
+        listenerStats.sort(Comparator.comparingLong((ListenerStats stats) -> stats.getLatency().getSum()).reversed());
+
+        List<PacketTypeStats> packetTypeStats = new ArrayList<>(packetTypes.size());
+        for (Map.Entry<PacketTypeCommon, PacketTypeCounters> entry : packetTypes.entrySet()) {
+            PacketTypeCounters counters = entry.getValue();
+            packetTypeStats.add(new PacketTypeStats(entry.getKey(), counters.count.sum(), counters.bytes.sum(),
+                    counters.reEncodes.sum(), counters.cancellations.sum()));
+        }
+        packetTypeStats.sort(Comparator.comparingLong(PacketTypeStats::getCount).reversed());
+        return new MetricsSnapshot(System.currentTimeMillis(), listenerStats, packetTypeStats, connectionSetup.snapshot());
+    }
+
+    public void registerExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    public void unregisterExporter(MetricsExporter exporter) {
+        exporters.remove(exporter);
+    }
+
+    /**
+     * Takes a snapshot and hands it to all registered exporters.
+     * Scheduling this is up to the platform, e.g. a repeating task.
+     *
+     * @return The exported snapshot
+     */
+    public MetricsSnapshot export() {
+        MetricsSnapshot snapshot = snapshot();
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(snapshot);
+            } catch (Exception e) {
+                PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while exporting metrics.", e);
+            }
+        }
+        return snapshot;
+    }
+
+    private static final class PacketTypeCounters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder reEncodes = new LongAdder();
+        private final LongAdder cancellations = new LongAdder();
+    }
+}
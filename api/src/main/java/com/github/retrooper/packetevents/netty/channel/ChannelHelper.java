@@ -19,6 +19,7 @@
 package com.github.retrooper.packetevents.netty.channel;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import org.jetbrains.annotations.Nullable;
 
 import java.net.SocketAddress;
 import java.util.Arrays;
@@ -100,4 +101,17 @@ public class ChannelHelper {
     public static void runInEventLoop(Object channel, Runnable runnable) {
         PacketEvents.getAPI().getNettyManager().getChannelOperator().runInEventLoop(channel, runnable);
     }
+
+    public static @Nullable Object getAttribute(Object channel, String key) {
+        return PacketEvents.getAPI().getNettyManager().getChannelOperator().getAttribute(channel, key);
+    }
+
+    /**
+     * Stores a value on the channel itself, a {@code null} value removes the attribute.
+     *
+     * @return the previous value of the attribute
+     */
+    public static @Nullable Object setAttribute(Object channel, String key, @Nullable Object value) {
+        return PacketEvents.getAPI().getNettyManager().getChannelOperator().setAttribute(channel, key, value);
+    }
 }
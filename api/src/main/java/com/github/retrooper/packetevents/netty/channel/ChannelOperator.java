@@ -57,4 +57,8 @@ public interface ChannelOperator {
     void runInEventLoop(Object channel, Runnable runnable);
 
     Object pooledByteBuf(Object channel);
+
+    Object getAttribute(Object channel, String key);
+
+    Object setAttribute(Object channel, String key, Object value);
 }
@@ -0,0 +1,105 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.netty.channel;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many connections each address may open, so connection floods are shed
+ * before any handlers, users or packets are created for them.
+ * <p>
+ * Every address has a token bucket which holds up to {@code burst} connections and refills at
+ * {@code connectionsPerSecond}. The bucket is stored as a single timestamp (the time the bucket would be full
+ * again), which can be updated lock-free. Loopback addresses are never limited.
+ */
+public final class ConnectionThrottle {
+    // Idle buckets are only swept once there are this many, at most once per second
+    private static final int SWEEP_THRESHOLD = 4096;
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final long interval;
+    private final long tolerance;
+    private final Map<InetAddress, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long lastSweep = System.nanoTime();
+
+    public ConnectionThrottle(int connectionsPerSecond, int burst) {
+        if (connectionsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("The connection rate and burst must be positive");
+        }
+        this.interval = TimeUnit.SECONDS.toNanos(1) / connectionsPerSecond;
+        this.tolerance = interval * (burst - 1);
+    }
+
+    /**
+     * Takes a token from the bucket of the address.
+     *
+     * @param address Remote address of the connection
+     * @return Whether the connection may proceed
+     */
+    public boolean tryAcquire(InetAddress address) {
+        if (address.isLoopbackAddress()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(address);
+        if (bucket == null) {
+            if (buckets.size() >= SWEEP_THRESHOLD && now - lastSweep > SWEEP_INTERVAL) {
+                sweep(now);
+            }
+            bucket = buckets.computeIfAbsent(address, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long full = bucket.get();
+            long start = full - now > 0 ? full : now;
+            if (start - now > tolerance) {
+                rejected.increment();
+                return false;
+            }
+            if (bucket.compareAndSet(full, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private void sweep(long now) {
+        lastSweep = now;
+        // A full bucket behaves just like a missing one
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    /**
+     * @return How many connections were rejected so far
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return How many addresses currently have a bucket
+     */
+    public int size() {
+        return buckets.size();
+    }
+}
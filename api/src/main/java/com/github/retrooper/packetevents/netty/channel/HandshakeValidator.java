@@ -0,0 +1,93 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.netty.channel;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+
+/**
+ * Checks whether a frame is a well-formed handshake, without creating a wrapper, an event or a user.
+ * Only the readable bytes are inspected, the reader index is left untouched.
+ */
+public final class HandshakeValidator {
+    public static final int INVALID = -1;
+    // Proxies forwarding player information append it to the server address
+    private static final int MAX_ADDRESS_LENGTH = Short.MAX_VALUE * 3;
+
+    private HandshakeValidator() {
+    }
+
+    /**
+     * @param buffer Frame, starting with the packet id
+     * @return The requested connection state id (1 status, 2 login, 3 transfer) or {@link #INVALID}
+     */
+    public static int validate(Object buffer) {
+        int index = ByteBufHelper.readerIndex(buffer);
+        int end = ByteBufHelper.writerIndex(buffer);
+
+        // The handshake is the only packet with id 0 in this state
+        long packetId = getVarInt(buffer, index, end);
+        if (packetId == INVALID || value(packetId) != 0) return INVALID;
+        index += length(packetId);
+
+        long protocolVersion = getVarInt(buffer, index, end);
+        if (protocolVersion == INVALID || value(protocolVersion) < 0) return INVALID;
+        index += length(protocolVersion);
+
+        long addressLength = getVarInt(buffer, index, end);
+        if (addressLength == INVALID || value(addressLength) < 0 || value(addressLength) > MAX_ADDRESS_LENGTH) {
+            return INVALID;
+        }
+        index += length(addressLength) + value(addressLength);
+
+        // Unsigned short port
+        index += 2;
+
+        long nextState = getVarInt(buffer, index, end);
+        if (nextState == INVALID) return INVALID;
+        index += length(nextState);
+        int intention = value(nextState);
+        // Nothing may follow the handshake in the same frame
+        if (index != end || intention < 1 || intention > 3) return INVALID;
+        return intention;
+    }
+
+    /**
+     * @return The value in the upper 32 bits and the byte count in the lower bits, or {@link #INVALID}
+     */
+    static long getVarInt(Object buffer, int index, int end) {
+        int value = 0;
+        for (int i = 0; i < 5; i++) {
+            if (index + i >= end) return INVALID;
+            int b = ByteBufHelper.getUnsignedByte(buffer, index + i);
+            value |= (b & 0x7F) << (i * 7);
+            if ((b & 0x80) == 0) {
+                return ((long) value << 32) | (i + 1);
+            }
+        }
+        return INVALID;
+    }
+
+    static int value(long varInt) {
+        return (int) (varInt >>> 32);
+    }
+
+    static int length(long varInt) {
+        return (int) (varInt & 0xFFFFFFFFL);
+    }
+}
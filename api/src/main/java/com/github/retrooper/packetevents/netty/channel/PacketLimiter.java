@@ -0,0 +1,248 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.netty.channel;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits how many packets of a type each user may send, and how big they may be.
+ * The decoders check packets right after peeking at the packet id, before an event is created
+ * or any listener runs, so spam costs barely more than reading the id.
+ * <p>
+ * Every user has a token bucket per limited packet type, which holds up to {@code burst} packets and refills at
+ * {@code packetsPerSecond}. Like the {@link ConnectionThrottle}, a bucket is stored as a single timestamp.
+ * Buckets are only accessed on the event loop of their user, so they need no synchronization.
+ * Packets above {@link PacketEventsSettings#getMaxPacketSize()} are dropped as well, regardless of their type.
+ * What happens to the user is decided by {@link PacketEventsSettings#getPacketLimitPolicy()}.
+ */
+public final class PacketLimiter {
+    private final LongSupplier nanoClock;
+    private final Object lock = new Object();
+    private volatile Map<PacketTypeCommon, Rule> rules = new HashMap<>();
+    private int nextIndex;
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder kicked = new LongAdder();
+
+    public PacketLimiter() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Source of the time in nanoseconds, like {@link System#nanoTime()}
+     */
+    @VisibleForTesting
+    public PacketLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Limits how many packets of the type each user may send.
+     *
+     * @param type             Serverbound packet type
+     * @param packetsPerSecond Packets the bucket refills with per second
+     * @param burst            Packets a user may send at once
+     */
+    public void limit(PacketTypeCommon type, int packetsPerSecond, int burst) {
+        if (packetsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("The packet rate and burst must be positive");
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / packetsPerSecond;
+        update(type, interval, interval * (burst - 1), -1);
+    }
+
+    /**
+     * Limits how big packets of the type may be, this overrides {@link PacketEventsSettings#getMaxPacketSize()}.
+     *
+     * @param type     Serverbound packet type
+     * @param maxBytes Size including the packet id
+     */
+    public void maxSize(PacketTypeCommon type, int maxBytes) {
+        update(type, 0L, 0L, maxBytes);
+    }
+
+    /**
+     * Removes the rate and size limits of the type.
+     *
+     * @param type Serverbound packet type
+     */
+    public void remove(PacketTypeCommon type) {
+        synchronized (lock) {
+            Map<PacketTypeCommon, Rule> rules = new HashMap<>(this.rules);
+            rules.remove(type);
+            this.rules = rules;
+        }
+    }
+
+    private void update(PacketTypeCommon type, long interval, long tolerance, int maxSize) {
+        synchronized (lock) {
+            Map<PacketTypeCommon, Rule> rules = new HashMap<>(this.rules);
+            Rule previous = rules.get(type);
+            Rule rule;
+            if (previous == null) {
+                rule = new Rule(nextIndex++, interval, tolerance, maxSize);
+            } else if (maxSize == -1) {
+                rule = new Rule(previous.index, interval, tolerance, previous.maxSize);
+            } else {
+                rule = new Rule(previous.index, previous.interval, previous.tolerance, maxSize);
+            }
+            rules.put(type, rule);
+            // Copy on write, the decoders read the rules without locking
+            this.rules = rules;
+        }
+    }
+
+    /**
+     * Checks a serverbound packet before it is processed, the reader index of the buffer is left untouched.
+     * Has to be called on the event loop of the user.
+     *
+     * @param user                    User who sent the packet
+     * @param buffer                  Packet, starting with the packet id
+     * @param autoProtocolTranslation Whether packet types are resolved with the server version
+     * @return Whether the packet may be processed, if not it has to be dropped
+     */
+    @ApiStatus.Internal
+    public boolean tryAcquire(User user, Object buffer, boolean autoProtocolTranslation) {
+        Map<PacketTypeCommon, Rule> rules = this.rules;
+        PacketEventsSettings settings = PacketEvents.getAPI().getSettings();
+        int maxPacketSize = settings.getMaxPacketSize();
+        if (rules.isEmpty() && maxPacketSize <= 0) {
+            return true;
+        }
+        int size = ByteBufHelper.readableBytes(buffer);
+        if (maxPacketSize > 0 && size > maxPacketSize) {
+            oversized.increment();
+            return reject(user, settings);
+        }
+        if (rules.isEmpty()) {
+            return true;
+        }
+        int index = ByteBufHelper.readerIndex(buffer);
+        long packetId = HandshakeValidator.getVarInt(buffer, index, index + size);
+        if (packetId == HandshakeValidator.INVALID) {
+            // Leave it to the decoder to report
+            return true;
+        }
+        PacketTypeCommon type = PacketType.getById(PacketSide.CLIENT, user.getDecoderState(),
+                user.getEventContext(autoProtocolTranslation).getClientVersion(), HandshakeValidator.value(packetId));
+        Rule rule = type != null ? rules.get(type) : null;
+        if (rule == null) {
+            return true;
+        }
+        if (rule.maxSize >= 0 && size > rule.maxSize) {
+            oversized.increment();
+            rule.rejected.increment();
+            return reject(user, settings);
+        }
+        if (rule.interval > 0L && !take(user, rule)) {
+            rateLimited.increment();
+            rule.rejected.increment();
+            return reject(user, settings);
+        }
+        return true;
+    }
+
+    private boolean take(User user, Rule rule) {
+        long[] buckets = user.getPacketBuckets();
+        if (buckets == null || buckets.length <= rule.index) {
+            long[] grown = new long[rule.index + 8];
+            if (buckets != null) {
+                System.arraycopy(buckets, 0, grown, 0, buckets.length);
+            }
+            user.setPacketBuckets(buckets = grown);
+        }
+        long now = nanoClock.getAsLong();
+        long full = buckets[rule.index];
+        // 0 is an unused bucket, which is full
+        long start = full != 0L && full - now > 0 ? full : now;
+        if (start - now > rule.tolerance) {
+            return false;
+        }
+        buckets[rule.index] = start + rule.interval;
+        return true;
+    }
+
+    private boolean reject(User user, PacketEventsSettings settings) {
+        if (settings.getPacketLimitPolicy() == PacketLimitPolicy.KICK && ChannelHelper.isOpen(user.getChannel())) {
+            kicked.increment();
+            PacketEvents.getAPI().getLogManager().debug("Disconnecting " + user.getName() + " for exceeding a packet limit");
+            user.closeConnection();
+        }
+        return false;
+    }
+
+    /**
+     * @return How many packets were dropped for exceeding a rate limit
+     */
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    /**
+     * @return How many packets were dropped for being too big
+     */
+    public long getOversized() {
+        return oversized.sum();
+    }
+
+    /**
+     * @return How many connections were closed for exceeding a limit
+     */
+    public long getKicked() {
+        return kicked.sum();
+    }
+
+    /**
+     * @param type Packet type
+     * @return How many packets of the type were dropped, or 0 if the type has no limits
+     */
+    public long getRejected(PacketTypeCommon type) {
+        Rule rule = rules.get(type);
+        return rule != null ? rule.rejected.sum() : 0L;
+    }
+
+    private static final class Rule {
+        private final int index;
+        private final long interval;
+        private final long tolerance;
+        private final int maxSize;
+        private final LongAdder rejected = new LongAdder();
+
+        private Rule(int index, long interval, long tolerance, int maxSize) {
+            this.index = index;
+            this.interval = interval;
+            this.tolerance = tolerance;
+            this.maxSize = maxSize;
+        }
+    }
+}
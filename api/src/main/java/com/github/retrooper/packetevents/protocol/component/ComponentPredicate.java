@@ -22,7 +22,6 @@ import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -49,14 +48,13 @@ public class ComponentPredicate implements Predicate<IComponentMap> {
 
     @SuppressWarnings("unchecked")
     public static ComponentPredicate fromPatches(PatchableComponentMap components) {
-        Map<ComponentType<?>, Optional<?>> patches = components.getPatches();
-        List<ComponentValue<?>> values = new ArrayList<>(patches.size());
-        for (Map.Entry<ComponentType<?>, Optional<?>> patch : patches.entrySet()) {
-            if (patch.getValue().isPresent()) {
+        int patchCount = components.getPatchCount();
+        List<ComponentValue<?>> values = new ArrayList<>(patchCount);
+        for (int i = 0; i < patchCount; i++) {
+            Object value = components.getPatchValue(i);
+            if (value != null) {
                 values.add(new ComponentValue<>(
-                        (ComponentType<Object>) patch.getKey(),
-                        patch.getValue().get()
-                ));
+                        (ComponentType<Object>) components.getPatchType(i), value));
             }
         }
         return new ComponentPredicate(values);
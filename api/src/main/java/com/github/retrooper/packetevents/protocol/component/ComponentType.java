@@ -20,10 +20,22 @@ package com.github.retrooper.packetevents.protocol.component;
 
 import com.github.retrooper.packetevents.protocol.mapper.MappedEntity;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
 
 public interface ComponentType<T> extends MappedEntity {
 
     T read(PacketWrapper<?> wrapper);
 
     void write(PacketWrapper<?> wrapper, T content);
+
+    /**
+     * Dense index assigned when the type is registered through {@link ComponentTypes#define},
+     * used by component maps for array lookups instead of hashing.
+     *
+     * @return the runtime index of this type, or -1 if it hasn't been registered
+     */
+    @ApiStatus.Internal
+    default int getRuntimeIndex() {
+        return -1;
+    }
 }
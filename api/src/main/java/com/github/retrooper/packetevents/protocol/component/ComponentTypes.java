@@ -67,6 +67,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -75,6 +76,7 @@ public class ComponentTypes {
     private static final Map<String, ComponentType<?>> COMPONENT_TYPE_MAP = new HashMap<>();
     private static final Map<Byte, Map<Integer, ComponentType<?>>> COMPONENT_TYPE_ID_MAP = new HashMap<>();
     private static final TypesBuilder TYPES_BUILDER = new TypesBuilder("item/item_component_mappings");
+    private static final AtomicInteger RUNTIME_INDEX = new AtomicInteger();
 
     public static <T> ComponentType<T> define(String key) {
         return define(key, null, null);
@@ -82,6 +84,7 @@ public class ComponentTypes {
 
     public static <T> ComponentType<T> define(String key, @Nullable Reader<T> reader, @Nullable Writer<T> writer) {
         TypesBuilderData data = TYPES_BUILDER.define(key);
+        int runtimeIndex = RUNTIME_INDEX.getAndIncrement();
         ComponentType<T> type = new ComponentType<T>() {
             @Override
             public T read(PacketWrapper<?> wrapper) {
@@ -105,6 +108,11 @@ public class ComponentTypes {
                 return MappingHelper.getId(version, TYPES_BUILDER, data);
             }
 
+            @Override
+            public int getRuntimeIndex() {
+                return runtimeIndex;
+            }
+
             @Override
             public boolean equals(Object obj) {
                 if (obj instanceof ComponentType<?>) {
@@ -15,56 +15,114 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.github.retrooper.packetevents.protocol.component;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 public class PatchableComponentMap implements IComponentMap {
 
-    public static final PatchableComponentMap EMPTY = new PatchableComponentMap(
-            Collections.emptyMap(), Collections.emptyMap());
+    public static final PatchableComponentMap EMPTY = new PatchableComponentMap(StaticComponentMap.EMPTY);
+
+    private static final ComponentType<?>[] NO_TYPES = new ComponentType<?>[0];
+    private static final Object[] NO_VALUES = new Object[0];
 
-    private final Map<ComponentType<?>, ?> base;
-    private final Map<ComponentType<?>, Optional<?>> patches;
+    // shared by reference between all stacks of the same item type
+    private final StaticComponentMap base;
+    // sparse patch overlay, a null value marks a removed component
+    private ComponentType<?>[] patchTypes;
+    private Object[] patchValues;
+    private int patchCount;
 
     public PatchableComponentMap(StaticComponentMap base) {
-        this(base.getDelegate(), new HashMap<>());
+        this.base = base;
+        this.patchTypes = NO_TYPES;
+        this.patchValues = NO_VALUES;
     }
 
     public PatchableComponentMap(Map<ComponentType<?>, ?> base) {
-        this(base, new HashMap<>());
+        this(new StaticComponentMap(base));
     }
 
     public PatchableComponentMap(
             StaticComponentMap base,
             Map<ComponentType<?>, Optional<?>> patches
     ) {
-        this(base.getDelegate(), patches);
+        this(base);
+        this.patchTypes = new ComponentType<?>[patches.size()];
+        this.patchValues = new Object[patches.size()];
+        for (Map.Entry<ComponentType<?>, Optional<?>> patch : patches.entrySet()) {
+            this.putPatch(patch.getKey(), patch.getValue().orElse(null));
+        }
     }
 
     public PatchableComponentMap(
             Map<ComponentType<?>, ?> base,
             Map<ComponentType<?>, Optional<?>> patches
     ) {
-        this.base = Collections.unmodifiableMap(new HashMap<>(base));
-        this.patches = patches;
+        this(new StaticComponentMap(base), patches);
+    }
+
+    private PatchableComponentMap(PatchableComponentMap other) {
+        this.base = other.base;
+        this.patchTypes = Arrays.copyOf(other.patchTypes, other.patchCount);
+        this.patchValues = Arrays.copyOf(other.patchValues, other.patchCount);
+        this.patchCount = other.patchCount;
+    }
+
+    private int indexOfPatch(ComponentType<?> type) {
+        // patches rarely contain more than a handful of entries, a linear scan beats hashing
+        for (int i = 0; i < this.patchCount; i++) {
+            ComponentType<?> patchType = this.patchTypes[i];
+            if (patchType == type || patchType.equals(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void putPatch(ComponentType<?> type, @Nullable Object value) {
+        int index = this.indexOfPatch(type);
+        if (index >= 0) {
+            this.patchValues[index] = value;
+            return;
+        }
+        if (this.patchCount == this.patchTypes.length) {
+            int length = Math.max(4, this.patchCount * 2);
+            this.patchTypes = Arrays.copyOf(this.patchTypes, length);
+            this.patchValues = Arrays.copyOf(this.patchValues, length);
+        }
+        this.patchTypes[this.patchCount] = type;
+        this.patchValues[this.patchCount++] = value;
+    }
+
+    private void removePatch(ComponentType<?> type) {
+        int index = this.indexOfPatch(type);
+        if (index < 0) {
+            return;
+        }
+        int last = --this.patchCount;
+        // order of patches isn't significant, move the last entry into the gap
+        this.patchTypes[index] = this.patchTypes[last];
+        this.patchValues[index] = this.patchValues[last];
+        this.patchTypes[last] = null;
+        this.patchValues[last] = null;
     }
 
     @SuppressWarnings("unchecked") // no
     @Override
     public <T> @Nullable T get(ComponentType<T> type) {
-        Optional<?> patched = this.patches.get(type);
-        if (patched != null) {
-            return (T) patched.orElse(null);
+        int index = this.indexOfPatch(type);
+        if (index >= 0) {
+            return (T) this.patchValues[index];
         }
-        return (T) this.base.get(type);
+        return this.base.get(type);
     }
 
     @Override
@@ -72,32 +130,72 @@ public class PatchableComponentMap implements IComponentMap {
         Object baseVal = this.base.get(type);
         T newVal = value.orElse(null);
         if (Objects.equals(baseVal, newVal)) {
-            this.patches.remove(type); // fallback to base
+            this.removePatch(type); // fallback to base
         } else {
-            this.patches.put(type, value);
+            this.putPatch(type, newVal);
         }
     }
 
     @Override
     public boolean has(ComponentType<?> type) {
-        Optional<?> patched = this.patches.get(type);
-        return patched != null ? patched.isPresent() : this.base.containsKey(type);
+        int index = this.indexOfPatch(type);
+        return index >= 0 ? this.patchValues[index] != null : this.base.has(type);
     }
 
     public PatchableComponentMap copy() {
-        return new PatchableComponentMap(this.base, new HashMap<>(this.patches));
+        return new PatchableComponentMap(this);
     }
 
-    public Map<ComponentType<?>, ?> getBase() {
+    public StaticComponentMap getStaticBase() {
         return this.base;
     }
 
+    public Map<ComponentType<?>, ?> getBase() {
+        return this.base.getDelegate();
+    }
+
+    public boolean hasPatches() {
+        return this.patchCount != 0;
+    }
+
+    public int getPatchCount() {
+        return this.patchCount;
+    }
+
+    public ComponentType<?> getPatchType(int index) {
+        if (index >= this.patchCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.patchCount);
+        }
+        return this.patchTypes[index];
+    }
+
+    /**
+     * @return the patched value at the specified index, or null if the component has been removed
+     */
+    public @Nullable Object getPatchValue(int index) {
+        if (index >= this.patchCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.patchCount);
+        }
+        return this.patchValues[index];
+    }
+
+    /**
+     * Patches are stored as a sparse overlay, so this returns an unmodifiable snapshot;
+     * use {@link #set(ComponentType, Optional)} to modify them.
+     */
     public Map<ComponentType<?>, Optional<?>> getPatches() {
-        return this.patches;
+        if (this.patchCount == 0) {
+            return Collections.emptyMap();
+        }
+        Map<ComponentType<?>, Optional<?>> patches = new LinkedHashMap<>(this.patchCount * 2);
+        for (int i = 0; i < this.patchCount; i++) {
+            patches.put(this.patchTypes[i], Optional.ofNullable(this.patchValues[i]));
+        }
+        return Collections.unmodifiableMap(patches);
     }
 
     @Override
     public String toString() {
-        return "PatchableComponentMap{base=" + this.base + ", patches=" + this.patches + '}';
+        return "PatchableComponentMap{base=" + this.base.getDelegate() + ", patches=" + this.getPatches() + '}';
     }
 }
@@ -41,13 +41,29 @@ public class StaticComponentMap implements IComponentMap {
             .set(ComponentTypes.RARITY, ItemRarity.COMMON)
             .build();
 
+    private static final Object[] EMPTY_VALUES = new Object[0];
+
     private final boolean empty;
     private final Map<ComponentType<?>, ?> delegate;
+    // indexed by ComponentType#getRuntimeIndex, unregistered types are only kept in the delegate
+    private final Object[] values;
 
     public StaticComponentMap(Map<ComponentType<?>, ?> delegate) {
         this.empty = delegate.isEmpty();
         this.delegate = this.empty ? Collections.emptyMap()
                 : Collections.unmodifiableMap(new HashMap<>(delegate));
+
+        int length = 0;
+        for (ComponentType<?> type : this.delegate.keySet()) {
+            length = Math.max(length, type.getRuntimeIndex() + 1);
+        }
+        this.values = length == 0 ? EMPTY_VALUES : new Object[length];
+        for (Map.Entry<ComponentType<?>, ?> entry : this.delegate.entrySet()) {
+            int index = entry.getKey().getRuntimeIndex();
+            if (index >= 0) {
+                this.values[index] = entry.getValue();
+            }
+        }
     }
 
     public static Builder builder() {
@@ -56,13 +72,20 @@ public class StaticComponentMap implements IComponentMap {
 
     @Override
     public boolean has(ComponentType<?> type) {
-        return !this.empty && this.delegate.containsKey(type);
+        return this.get(type) != null;
     }
 
     @SuppressWarnings("unchecked") // no
     @Override
     public <T> @Nullable T get(ComponentType<T> type) {
-        return this.empty ? null : (T) this.delegate.get(type);
+        if (this.empty) {
+            return null;
+        }
+        int index = type.getRuntimeIndex();
+        if (index < 0) {
+            return (T) this.delegate.get(type);
+        }
+        return index < this.values.length ? (T) this.values[index] : null;
     }
 
     @Override
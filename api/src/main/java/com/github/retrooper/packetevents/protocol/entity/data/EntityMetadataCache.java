@@ -0,0 +1,144 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.entity.data;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.util.collection.IntObjectHashMap;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Remembers the metadata each entity has on the client of a user, so a full desired metadata set
+ * can be passed in and only the entries which differ are sent.
+ * <p>
+ * Metadata sent by the server or by other plugins is remembered as well, unless the packet is cancelled.
+ * Values are compared with {@link Object#equals(Object)},
+ * so mutable values (e.g. item stacks) should be passed as new instances instead of being modified in place.
+ * The state of an entity is dropped once the entity is destroyed on the client or the client switches worlds.
+ */
+public class EntityMetadataCache {
+
+    private final User user;
+    // entity id -> entries sent to the client, indexed by metadata index
+    private final IntObjectHashMap<EntityData[]> entities = new IntObjectHashMap<>();
+
+    public EntityMetadataCache(User user) {
+        this.user = user;
+    }
+
+    /**
+     * Computes the entries of the desired metadata which differ from what the client has,
+     * and remembers the desired metadata as sent.
+     *
+     * @return The changed entries, empty if the client is up-to-date
+     */
+    public synchronized List<EntityData> diff(int entityId, List<EntityData> desired) {
+        List<EntityData> changed = null;
+        for (EntityData data : desired) {
+            if (!this.put(entityId, data)) {
+                continue;
+            }
+            if (changed == null) {
+                changed = new ArrayList<>();
+            }
+            changed.add(data);
+        }
+        return changed == null ? Collections.emptyList() : changed;
+    }
+
+    /**
+     * Remembers metadata which has been sent to the client.
+     */
+    @ApiStatus.Internal
+    public synchronized void record(int entityId, List<EntityData> sent) {
+        for (EntityData data : sent) {
+            this.put(entityId, data);
+        }
+    }
+
+    // returns whether the entry differs from what the client has
+    private boolean put(int entityId, EntityData data) {
+        EntityData[] known = this.entities.get(entityId);
+        int index = data.getIndex();
+        if (known == null) {
+            known = new EntityData[Math.max(16, index + 1)];
+            this.entities.put(entityId, known);
+        } else if (index >= known.length) {
+            known = Arrays.copyOf(known, Math.max(index + 1, known.length << 1));
+            this.entities.put(entityId, known);
+        }
+        EntityData previous = known[index];
+        if (previous != null && previous.getType() == data.getType()
+                && Objects.equals(previous.getValue(), data.getValue())) {
+            return false;
+        }
+        // copied, callers commonly reuse their entity data objects
+        known[index] = new EntityData(index, data.getType(), data.getValue());
+        return true;
+    }
+
+    /**
+     * Sends the entries of the desired metadata which differ from what the client has.
+     *
+     * @return Whether a packet was sent
+     */
+    public boolean update(int entityId, List<EntityData> desired) {
+        List<EntityData> changed = this.diff(entityId, desired);
+        if (changed.isEmpty()) {
+            return false;
+        }
+        this.user.sendPacket(new WrapperPlayServerEntityMetadata(entityId, changed));
+        return true;
+    }
+
+    public boolean update(int entityId, EntityMetadataProvider metadata) {
+        return this.update(entityId, metadata.entityData(
+                PacketEvents.getAPI().getServerManager().getVersion().toClientVersion()));
+    }
+
+    /**
+     * Forgets the metadata of the entity, the next update sends every entry.
+     */
+    public synchronized void forget(int entityId) {
+        this.entities.remove(entityId);
+    }
+
+    public synchronized int size() {
+        return this.entities.size();
+    }
+
+    @ApiStatus.Internal
+    public synchronized void destroy(int[] entityIds) {
+        for (int entityId : entityIds) {
+            this.entities.remove(entityId);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void clear() {
+        this.entities.clear();
+    }
+}
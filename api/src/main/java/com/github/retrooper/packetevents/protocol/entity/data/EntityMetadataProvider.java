@@ -32,4 +32,14 @@ public interface EntityMetadataProvider {
     default List<EntityData> entityData() {
         return entityData(ClientVersion.getLatest());
     }
+
+    /**
+     * PacketEvents is writing the metadata of this specific entity.
+     * Implement this to write your fields directly, without creating a list of boxed {@link EntityData}.
+     * By default, the result of {@link #entityData(ClientVersion)} is written.
+     * @param writer Writes the entries in the format of {@link EntityMetadataWriter#getVersion()}.
+     */
+    default void writeEntityData(EntityMetadataWriter writer) {
+        writer.writeAll(entityData(writer.getVersion()));
+    }
 }
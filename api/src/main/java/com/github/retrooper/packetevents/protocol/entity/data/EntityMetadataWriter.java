@@ -0,0 +1,131 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.entity.data;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.List;
+
+/**
+ * Writes entity metadata entries straight into a packet.
+ * The primitive methods don't box their values, which makes them suited for metadata sent every tick.
+ *
+ * @see EntityMetadataProvider#writeEntityData(EntityMetadataWriter)
+ */
+public final class EntityMetadataWriter {
+
+    private final PacketWrapper<?> wrapper;
+    private final ClientVersion version;
+    private final boolean modern;
+    private final boolean varIntTypes;
+
+    @ApiStatus.Internal
+    public EntityMetadataWriter(PacketWrapper<?> wrapper) {
+        this.wrapper = wrapper;
+        ServerVersion serverVersion = wrapper.getServerVersion();
+        this.version = serverVersion.toClientVersion();
+        this.modern = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9);
+        this.varIntTypes = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_10);
+    }
+
+    /**
+     * @return The protocol version the metadata is written in
+     */
+    public ClientVersion getVersion() {
+        return this.version;
+    }
+
+    public EntityMetadataWriter writeByte(int index, int value) {
+        this.writeHeader(index, EntityDataTypes.BYTE);
+        this.wrapper.writeByte(value);
+        return this;
+    }
+
+    public EntityMetadataWriter writeInt(int index, int value) {
+        this.writeHeader(index, EntityDataTypes.INT);
+        if (this.modern) {
+            this.wrapper.writeVarInt(value);
+        } else {
+            this.wrapper.writeInt(value);
+        }
+        return this;
+    }
+
+    public EntityMetadataWriter writeFloat(int index, float value) {
+        this.writeHeader(index, EntityDataTypes.FLOAT);
+        this.wrapper.writeFloat(value);
+        return this;
+    }
+
+    public EntityMetadataWriter writeBoolean(int index, boolean value) {
+        this.writeHeader(index, EntityDataTypes.BOOLEAN);
+        this.wrapper.writeBoolean(value);
+        return this;
+    }
+
+    public EntityMetadataWriter writeString(int index, String value) {
+        this.writeHeader(index, EntityDataTypes.STRING);
+        this.wrapper.writeString(value);
+        return this;
+    }
+
+    public <T> EntityMetadataWriter write(int index, EntityDataType<T> type, T value) {
+        this.writeHeader(index, type);
+        type.getDataSerializer().accept(this.wrapper, value);
+        return this;
+    }
+
+    public EntityMetadataWriter write(EntityData data) {
+        this.writeHeader(data.getIndex(), data.getType());
+        data.getType().getDataSerializer().accept(this.wrapper, data.getValue());
+        return this;
+    }
+
+    public EntityMetadataWriter writeAll(List<EntityData> list) {
+        for (EntityData data : list) {
+            this.write(data);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the end of the metadata array, no entries may be written afterwards.
+     */
+    @ApiStatus.Internal
+    public void end() {
+        this.wrapper.writeByte(this.modern ? 255 : 127);
+    }
+
+    private void writeHeader(int index, EntityDataType<?> type) {
+        int typeId = type.getId(this.version);
+        if (!this.modern) {
+            this.wrapper.writeByte((typeId << 5 | index & 31) & 255);
+            return;
+        }
+        this.wrapper.writeByte(index);
+        if (this.varIntTypes) {
+            this.wrapper.writeVarInt(typeId);
+        } else {
+            this.wrapper.writeByte(typeId);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.entity.tracker;
+
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityType;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.util.collection.IntObjectHashMap;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Client-side view of the entities a user can see, built from the spawn, movement, metadata
+ * and destroy packets sent to the user.
+ * <p>
+ * The tracker is updated on the netty thread of the user after all listeners have handled the packets,
+ * so it reflects what the client actually received. Query methods can be called from any thread.
+ */
+public class EntityTracker {
+
+    private final IntObjectHashMap<TrackedEntity> entities = new IntObjectHashMap<>(64);
+
+    public synchronized boolean isTracked(int entityId) {
+        return this.entities.containsKey(entityId);
+    }
+
+    public synchronized @Nullable EntityType getEntityType(int entityId) {
+        TrackedEntity entity = this.entities.get(entityId);
+        return entity == null ? null : entity.getType();
+    }
+
+    public synchronized @Nullable Vector3d getPosition(int entityId) {
+        TrackedEntity entity = this.entities.get(entityId);
+        return entity == null ? null : entity.getPosition();
+    }
+
+    public synchronized @Nullable EntityData getMetadata(int entityId, int index) {
+        TrackedEntity entity = this.entities.get(entityId);
+        return entity == null ? null : entity.getMetadata(index);
+    }
+
+    public synchronized @Nullable List<EntityData> getMetadata(int entityId) {
+        TrackedEntity entity = this.entities.get(entityId);
+        return entity == null ? null : entity.getMetadata();
+    }
+
+    public synchronized int size() {
+        return this.entities.size();
+    }
+
+    /**
+     * Runs the action with the tracked entity while holding the lock of this tracker,
+     * so the entity can't be modified concurrently.
+     *
+     * @return false if the entity isn't tracked
+     */
+    public synchronized boolean withEntity(int entityId, Consumer<TrackedEntity> action) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity == null) {
+            return false;
+        }
+        action.accept(entity);
+        return true;
+    }
+
+    /**
+     * Runs the action for all tracked entities while holding the lock of this tracker.
+     */
+    public synchronized void forEach(Consumer<TrackedEntity> action) {
+        this.entities.forEach((id, entity) -> action.accept(entity));
+    }
+
+    /**
+     * @return ids of all tracked entities within the radius around the position
+     */
+    public synchronized int[] getEntitiesInRange(Vector3d position, double radius) {
+        double radiusSquared = radius * radius;
+        List<Integer> ids = new ArrayList<>();
+        this.entities.forEach((id, entity) -> {
+            if (entity.distanceSquared(position.getX(), position.getY(), position.getZ()) <= radiusSquared) {
+                ids.add(id);
+            }
+        });
+        int[] array = new int[ids.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = ids.get(i);
+        }
+        return array;
+    }
+
+    @ApiStatus.Internal
+    public synchronized void spawn(int entityId, @Nullable UUID uuid, EntityType type, Vector3d position,
+                                   float yaw, float pitch, float headYaw, @Nullable List<EntityData> metadata) {
+        TrackedEntity entity = new TrackedEntity(entityId, uuid, type);
+        entity.setPosition(position.getX(), position.getY(), position.getZ());
+        entity.setRotation(yaw, pitch);
+        entity.setHeadYaw(headYaw);
+        entity.updateMetadata(metadata);
+        this.entities.put(entityId, entity);
+    }
+
+    @ApiStatus.Internal
+    public synchronized void move(int entityId, double deltaX, double deltaY, double deltaZ) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity != null) {
+            entity.move(deltaX, deltaY, deltaZ);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void moveAndRotate(int entityId, double deltaX, double deltaY, double deltaZ,
+                                           float yaw, float pitch) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity != null) {
+            entity.move(deltaX, deltaY, deltaZ);
+            entity.setRotation(yaw, pitch);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void rotate(int entityId, float yaw, float pitch) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity != null) {
+            entity.setRotation(yaw, pitch);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void teleport(int entityId, Vector3d position, float yaw, float pitch) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity != null) {
+            entity.setPosition(position.getX(), position.getY(), position.getZ());
+            entity.setRotation(yaw, pitch);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void headLook(int entityId, float headYaw) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity != null) {
+            entity.setHeadYaw(headYaw);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void updateMetadata(int entityId, List<EntityData> metadata) {
+        TrackedEntity entity = this.entities.get(entityId);
+        if (entity != null) {
+            entity.updateMetadata(metadata);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void destroy(int[] entityIds) {
+        for (int entityId : entityIds) {
+            this.entities.remove(entityId);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void clear() {
+        this.entities.clear();
+    }
+}
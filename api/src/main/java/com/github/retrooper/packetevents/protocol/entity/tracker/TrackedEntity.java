@@ -0,0 +1,163 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.entity.tracker;
+
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityType;
+import com.github.retrooper.packetevents.util.Vector3d;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * An entity as the client currently sees it. Instances are updated in place by the {@link EntityTracker}
+ * which owns them, read them while holding the tracker's lock or through the tracker's query methods.
+ */
+public class TrackedEntity {
+
+    private static final EntityData[] NO_METADATA = new EntityData[0];
+
+    private final int entityId;
+    private final @Nullable UUID uuid;
+    private final EntityType type;
+    private double x;
+    private double y;
+    private double z;
+    private float yaw;
+    private float pitch;
+    private float headYaw;
+    // indexed by the entity data index, metadata packets only contain changed values
+    private EntityData[] metadata = NO_METADATA;
+
+    TrackedEntity(int entityId, @Nullable UUID uuid, EntityType type) {
+        this.entityId = entityId;
+        this.uuid = uuid;
+        this.type = type;
+    }
+
+    void setPosition(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    void move(double deltaX, double deltaY, double deltaZ) {
+        this.x += deltaX;
+        this.y += deltaY;
+        this.z += deltaZ;
+    }
+
+    void setRotation(float yaw, float pitch) {
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    void setHeadYaw(float headYaw) {
+        this.headYaw = headYaw;
+    }
+
+    void updateMetadata(@Nullable List<EntityData> changes) {
+        if (changes == null) {
+            return;
+        }
+        for (EntityData data : changes) {
+            int index = data.getIndex();
+            if (index < 0) {
+                continue;
+            }
+            if (index >= this.metadata.length) {
+                this.metadata = Arrays.copyOf(this.metadata, Math.max(index + 1, this.metadata.length * 2));
+            }
+            this.metadata[index] = data;
+        }
+    }
+
+    public int getEntityId() {
+        return this.entityId;
+    }
+
+    public @Nullable UUID getUUID() {
+        return this.uuid;
+    }
+
+    public EntityType getType() {
+        return this.type;
+    }
+
+    public double getX() {
+        return this.x;
+    }
+
+    public double getY() {
+        return this.y;
+    }
+
+    public double getZ() {
+        return this.z;
+    }
+
+    public Vector3d getPosition() {
+        return new Vector3d(this.x, this.y, this.z);
+    }
+
+    public float getYaw() {
+        return this.yaw;
+    }
+
+    public float getPitch() {
+        return this.pitch;
+    }
+
+    public float getHeadYaw() {
+        return this.headYaw;
+    }
+
+    public @Nullable EntityData getMetadata(int index) {
+        return index >= 0 && index < this.metadata.length ? this.metadata[index] : null;
+    }
+
+    /**
+     * @return a copy of all metadata the client has received for this entity, sorted by index
+     */
+    public List<EntityData> getMetadata() {
+        List<EntityData> list = new ArrayList<>(this.metadata.length);
+        for (EntityData data : this.metadata) {
+            if (data != null) {
+                list.add(data);
+            }
+        }
+        return list;
+    }
+
+    double distanceSquared(double x, double y, double z) {
+        double dx = this.x - x;
+        double dy = this.y - y;
+        double dz = this.z - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    @Override
+    public String toString() {
+        return "TrackedEntity{entityId=" + this.entityId + ", type=" + this.type.getName()
+                + ", x=" + this.x + ", y=" + this.y + ", z=" + this.z + '}';
+    }
+}
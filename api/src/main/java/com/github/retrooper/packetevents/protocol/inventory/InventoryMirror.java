@@ -0,0 +1,301 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.inventory;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.item.ItemStack;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientClickWindow;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSetSlot;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerWindowItems;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side mirror of the inventory contents a user can currently see, tracked from the
+ * window items, set slot and click window packets passing through packetevents.
+ * <p>
+ * Instead of resending full window contents, {@link #sync(int, List)} only sends the slots which differ
+ * from what the client already has. Item stacks are compared by their encoded form, which is cached per slot.
+ */
+public class InventoryMirror {
+
+    public static final int PLAYER_WINDOW_ID = 0;
+    private static final int CURSOR_WINDOW_ID = -1;
+    private static final int CURSOR_SLOT = -1;
+    // modern servers use this to update player inventory slots with inventory (not window) indices
+    private static final int PLAYER_INVENTORY_WINDOW_ID = -2;
+    private static final byte[] EMPTY_ENCODING = new byte[0];
+
+    private final User user;
+    private final Window playerWindow = new Window(PLAYER_WINDOW_ID);
+    private @Nullable Window openWindow;
+    private ItemStack carriedItem = ItemStack.EMPTY;
+    private int stateId;
+    // reused for encoding stacks, only accessed while holding the monitor
+    private @Nullable Object scratchBuffer;
+
+    public InventoryMirror(User user) {
+        this.user = user;
+    }
+
+    /**
+     * @return an unmodifiable copy of the mirrored window contents, or null if they aren't known
+     */
+    public synchronized @Nullable List<ItemStack> getItems(int windowId) {
+        Window window = this.getWindow(windowId);
+        if (window == null || window.items == null) {
+            return null;
+        }
+        return Collections.unmodifiableList(Arrays.asList(window.items.clone()));
+    }
+
+    public synchronized @Nullable ItemStack getItem(int windowId, int slot) {
+        Window window = this.getWindow(windowId);
+        if (window == null || window.items == null || slot < 0 || slot >= window.items.length) {
+            return null;
+        }
+        return window.items[slot];
+    }
+
+    public synchronized ItemStack getCarriedItem() {
+        return this.carriedItem;
+    }
+
+    public synchronized int getStateId() {
+        return this.stateId;
+    }
+
+    public synchronized int getOpenWindowId() {
+        return this.openWindow == null ? PLAYER_WINDOW_ID : this.openWindow.id;
+    }
+
+    /**
+     * Computes the packets needed to bring the window to the desired state and updates the mirror.
+     * A full window items packet is used when the contents aren't known yet or when more than
+     * half of the slots would change, single set slot packets otherwise.
+     *
+     * @return the packets to send in order, empty if the client is already up-to-date
+     */
+    public synchronized List<PacketWrapper<?>> diff(int windowId, List<ItemStack> desired) {
+        Window window = this.getWindow(windowId);
+        if (window == null) {
+            return Collections.emptyList(); // not open, the client would ignore any update
+        }
+        int size = desired.size();
+        if (window.items == null || window.items.length != size) {
+            return Collections.singletonList(this.resend(window, desired));
+        }
+
+        int[] changed = new int[size];
+        byte[][] encoded = new byte[size][];
+        int changedCount = 0;
+        for (int slot = 0; slot < size; slot++) {
+            ItemStack stack = nonNull(desired.get(slot));
+            if (stack.isEmpty() && window.items[slot].isEmpty()) {
+                continue;
+            }
+            byte[] bytes = this.encode(stack);
+            if (!Arrays.equals(bytes, window.getEncoded(this, slot))) {
+                encoded[changedCount] = bytes;
+                changed[changedCount++] = slot;
+            }
+        }
+        if (changedCount == 0) {
+            return Collections.emptyList();
+        }
+        if (changedCount > size / 2) {
+            return Collections.singletonList(this.resend(window, desired));
+        }
+
+        List<PacketWrapper<?>> packets = new ArrayList<>(changedCount);
+        for (int i = 0; i < changedCount; i++) {
+            int slot = changed[i];
+            ItemStack stack = nonNull(desired.get(slot)).copy();
+            window.set(slot, stack, encoded[i]);
+            packets.add(new WrapperPlayServerSetSlot(window.id, this.stateId, slot, stack));
+        }
+        return packets;
+    }
+
+    /**
+     * Sends the packets computed by {@link #diff(int, List)} to the user with a single flush.
+     *
+     * @return the amount of packets sent
+     */
+    public int sync(int windowId, List<ItemStack> desired) {
+        List<PacketWrapper<?>> packets = this.diff(windowId, desired);
+        if (packets.isEmpty()) {
+            return 0;
+        }
+        for (PacketWrapper<?> packet : packets) {
+            this.user.writePacket(packet);
+        }
+        this.user.flushPackets();
+        return packets.size();
+    }
+
+    /**
+     * Forgets all mirrored contents, the next sync of each window will resend everything.
+     */
+    public synchronized void invalidate() {
+        this.playerWindow.reset(null);
+        this.openWindow = null;
+        this.carriedItem = ItemStack.EMPTY;
+    }
+
+    @ApiStatus.Internal
+    public synchronized void handleWindowItems(WrapperPlayServerWindowItems windowItems) {
+        this.stateId = windowItems.getStateId();
+        windowItems.getCarriedItem().ifPresent(item -> this.carriedItem = item);
+        Window window = this.getWindow(windowItems.getWindowId());
+        if (window != null) {
+            List<ItemStack> items = windowItems.getItems();
+            ItemStack[] array = new ItemStack[items.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = nonNull(items.get(i));
+            }
+            window.reset(array);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void handleSetSlot(WrapperPlayServerSetSlot setSlot) {
+        this.stateId = setSlot.getStateId();
+        int windowId = setSlot.getWindowId();
+        if (windowId == CURSOR_WINDOW_ID && setSlot.getSlot() == CURSOR_SLOT) {
+            this.carriedItem = nonNull(setSlot.getItem());
+        } else if (windowId == PLAYER_INVENTORY_WINDOW_ID) {
+            // inventory indices don't match window slots, resend everything next time
+            this.playerWindow.reset(null);
+        } else {
+            Window window = this.getWindow(windowId);
+            if (window != null) {
+                window.set(setSlot.getSlot(), nonNull(setSlot.getItem()), null);
+            }
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void handleClickWindow(WrapperPlayClientClickWindow clickWindow) {
+        Window window = this.getWindow(clickWindow.getWindowId());
+        if (window == null) {
+            return;
+        }
+        clickWindow.getStateId().ifPresent(id -> this.stateId = id);
+        if (!clickWindow.getSlots().isPresent()) {
+            // older clients don't tell us what they predicted
+            window.reset(null);
+            return;
+        }
+        for (Map.Entry<Integer, ItemStack> entry : clickWindow.getSlots().get().entrySet()) {
+            window.set(entry.getKey(), nonNull(entry.getValue()), null);
+        }
+        this.carriedItem = nonNull(clickWindow.getCarriedItemStack());
+    }
+
+    @ApiStatus.Internal
+    public synchronized void handleOpenWindow(int windowId) {
+        this.openWindow = windowId == PLAYER_WINDOW_ID ? null : new Window(windowId);
+    }
+
+    @ApiStatus.Internal
+    public synchronized void handleCloseWindow() {
+        this.openWindow = null;
+        this.carriedItem = ItemStack.EMPTY;
+    }
+
+    private @Nullable Window getWindow(int windowId) {
+        if (windowId == PLAYER_WINDOW_ID) {
+            return this.playerWindow;
+        }
+        Window window = this.openWindow;
+        return window != null && window.id == windowId ? window : null;
+    }
+
+    private WrapperPlayServerWindowItems resend(Window window, List<ItemStack> desired) {
+        List<ItemStack> items = new ArrayList<>(desired.size());
+        ItemStack[] array = new ItemStack[desired.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = nonNull(desired.get(i)).copy();
+            items.add(array[i]);
+        }
+        window.reset(array);
+        return new WrapperPlayServerWindowItems(window.id, this.stateId, items, this.carriedItem);
+    }
+
+    private byte[] encode(ItemStack stack) {
+        if (stack.isEmpty()) {
+            return EMPTY_ENCODING;
+        }
+        Object buffer = this.scratchBuffer;
+        if (buffer == null) {
+            buffer = this.scratchBuffer = UnpooledByteBufAllocationHelper.buffer();
+        }
+        ByteBufHelper.clear(buffer);
+        PacketWrapper<?> wrapper = PacketWrapper.createUniversalPacketWrapper(buffer);
+        wrapper.writeItemStack(stack);
+        return ByteBufHelper.copyBytes(buffer);
+    }
+
+    private static ItemStack nonNull(@Nullable ItemStack stack) {
+        return stack == null ? ItemStack.EMPTY : stack;
+    }
+
+    private static final class Window {
+
+        private final int id;
+        // null if the contents aren't known
+        private ItemStack[] items;
+        private byte[][] encoded;
+
+        private Window(int id) {
+            this.id = id;
+        }
+
+        private void reset(ItemStack[] items) {
+            this.items = items;
+            this.encoded = items == null ? null : new byte[items.length][];
+        }
+
+        private void set(int slot, ItemStack stack, byte[] encoded) {
+            if (this.items == null || slot < 0 || slot >= this.items.length) {
+                return;
+            }
+            this.items[slot] = stack;
+            this.encoded[slot] = encoded;
+        }
+
+        private byte[] getEncoded(InventoryMirror mirror, int slot) {
+            byte[] bytes = this.encoded[slot];
+            if (bytes == null) {
+                bytes = this.encoded[slot] = mirror.encode(this.items[slot]);
+            }
+            return bytes;
+        }
+    }
+}
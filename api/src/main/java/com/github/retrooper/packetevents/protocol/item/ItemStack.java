@@ -219,13 +219,12 @@ public class ItemStack {
     }
 
     public boolean hasComponentPatches() {
-        return this.components != null && !this.components.getPatches().isEmpty();
+        return this.components != null && this.components.hasPatches();
     }
 
     public PatchableComponentMap getComponents() {
         if (this.components == null) { // lazy load on access
-            this.components = new PatchableComponentMap(
-                    this.type.getComponents(), new HashMap<>(4));
+            this.components = new PatchableComponentMap(this.type.getComponents());
         }
         return this.components;
     }
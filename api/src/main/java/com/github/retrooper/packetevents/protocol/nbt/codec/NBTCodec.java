@@ -179,6 +179,72 @@ public class NBTCodec {
         return null;
     }
 
+    /**
+     * Moves the reader index of the buffer past an nbt tag without decoding it, only supports 1.8+.
+     */
+    public static void skipNBTFromBuffer(Object byteBuf, ServerVersion serverVersion) {
+        byte type = ByteBufHelper.readByte(byteBuf);
+        if (type == 0) { // end tag, the nbt is empty
+            return;
+        }
+        if (serverVersion.isOlderThan(ServerVersion.V_1_20_2)) {
+            ByteBufHelper.skipBytes(byteBuf, ByteBufHelper.readUnsignedShort(byteBuf)); // root name
+        }
+        skipTagPayload(byteBuf, type, 0);
+    }
+
+    private static void skipTagPayload(Object byteBuf, int type, int depth) {
+        if (depth > 512) {
+            throw new IllegalArgumentException("NBT is nested too deep");
+        }
+        switch (type) {
+            case 1: // byte
+                ByteBufHelper.skipBytes(byteBuf, 1);
+                break;
+            case 2: // short
+                ByteBufHelper.skipBytes(byteBuf, 2);
+                break;
+            case 3: // int
+            case 5: // float
+                ByteBufHelper.skipBytes(byteBuf, 4);
+                break;
+            case 4: // long
+            case 6: // double
+                ByteBufHelper.skipBytes(byteBuf, 8);
+                break;
+            case 7: // byte array
+                ByteBufHelper.skipBytes(byteBuf, ByteBufHelper.readInt(byteBuf));
+                break;
+            case 8: // string
+                ByteBufHelper.skipBytes(byteBuf, ByteBufHelper.readUnsignedShort(byteBuf));
+                break;
+            case 9: { // list
+                byte elementType = ByteBufHelper.readByte(byteBuf);
+                int length = ByteBufHelper.readInt(byteBuf);
+                for (int i = 0; i < length; i++) {
+                    skipTagPayload(byteBuf, elementType, depth + 1);
+                }
+                break;
+            }
+            case 10: { // compound
+                byte entryType;
+                while ((entryType = ByteBufHelper.readByte(byteBuf)) != 0) {
+                    ByteBufHelper.skipBytes(byteBuf, ByteBufHelper.readUnsignedShort(byteBuf));
+                    skipTagPayload(byteBuf, entryType, depth + 1);
+                }
+                break;
+            }
+            case 11: // int array
+                ByteBufHelper.skipBytes(byteBuf, ByteBufHelper.readInt(byteBuf) * 4);
+                break;
+            case 12: // long array
+                ByteBufHelper.skipBytes(byteBuf, ByteBufHelper.readInt(byteBuf) * 8);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown NBT type " + type);
+        }
+    }
+
     public static void writeNBTToBuffer(Object byteBuf, ServerVersion serverVersion, NBTCompound tag) {
         writeNBTToBuffer(byteBuf, serverVersion, (NBT) tag);
     }
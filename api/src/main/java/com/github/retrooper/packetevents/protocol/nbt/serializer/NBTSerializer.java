@@ -78,6 +78,15 @@ public class NBTSerializer<IN, OUT> {
         writeTag(to, tag);
     }
 
+    /**
+     * Writes the tag as an entry of a compound.
+     */
+    public void serializeNamedTag(OUT to, String name, NBT tag) throws IOException {
+        writeTagType(to, tag.getType());
+        writeTagName(to, name);
+        writeTag(to, tag);
+    }
+
     protected <T extends NBT> void registerType(
             NBTType<T> type, int id,
             TagReader<IN, T> typeReader,
@@ -31,6 +31,7 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NPC {
     private final int id;
@@ -48,7 +49,8 @@ public class NPC {
     private ItemStack chestPlate = null;
     private ItemStack leggings = null;
     private ItemStack boots = null;
-    private final Set<Object> channels = new HashSet<>();
+    // written from whatever thread spawns the npc, while other threads broadcast updates
+    private final Set<Object> channels = ConcurrentHashMap.newKeySet();
 
     public NPC(UserProfile profile, int entityId, GameMode gamemode, @Nullable Component tabName, @Nullable NamedTextColor nameColor,
                @Nullable Component prefixName, @Nullable Component suffixName) {
@@ -75,7 +77,26 @@ public class NPC {
     }
 
     public void spawn(Object channel) {
-        if (hasSpawned(channel)) return;
+        if (!channels.add(channel)) return;
+        broadcast(Collections.singleton(channel), true, createSpawnPackets());
+    }
+
+    /**
+     * Spawns this NPC for all channels which can't see it yet, encoding the spawn packets only once.
+     *
+     * @param channels Receivers
+     */
+    public void spawn(Collection<?> channels) {
+        List<Object> receivers = new ArrayList<>(channels.size());
+        for (Object channel : channels) {
+            if (this.channels.add(channel)) {
+                receivers.add(channel);
+            }
+        }
+        broadcast(receivers, true, createSpawnPackets());
+    }
+
+    PacketWrapper<?>[] createSpawnPackets() {
         PacketWrapper<?> playerInfo;
         if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
             playerInfo = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
@@ -84,51 +105,46 @@ public class NPC {
         else {
             playerInfo = new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.ADD_PLAYER, getLegacyPlayerInfoData());
         }
-        PacketEvents.getAPI().getProtocolManager().sendPacket(channel, playerInfo);
 
         //TODO Later if we want entity metadata, its not supported on newer server versions though(confirm if its mandatory on older versions)
 
-        PacketWrapper<?> spawnPacket;
-        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
-            spawnPacket = new WrapperPlayServerSpawnEntity(getId(), getProfile().getUUID(), EntityTypes.PLAYER, getLocation(), getLocation().getYaw(), 0, null);
-        }
-        else {
-            spawnPacket = new WrapperPlayServerSpawnPlayer(getId(),
-                    getProfile().getUUID(),
-                    getLocation());
-        }
-        PacketEvents.getAPI().getProtocolManager().sendPacket(channel, spawnPacket);
+        PacketWrapper<?> spawnPacket = createSpawnPacket();
 
         //Create team
         if (getNameColor() != null || getPrefixName() != null
                 || getSuffixName() != null) {
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, generateTeamsData());
+            return new PacketWrapper<?>[]{playerInfo, spawnPacket, generateTeamsData()};
+        }
+        return new PacketWrapper<?>[]{playerInfo, spawnPacket};
+    }
+
+    private PacketWrapper<?> createSpawnPacket() {
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
+            return new WrapperPlayServerSpawnEntity(getId(), getProfile().getUUID(), EntityTypes.PLAYER, getLocation(), getLocation().getYaw(), 0, null);
         }
-        channels.add(channel);
+        return new WrapperPlayServerSpawnPlayer(getId(),
+                getProfile().getUUID(),
+                getLocation());
     }
 
     public void despawn(Object channel) {
-        if (!hasSpawned(channel)) return;
+        if (!channels.remove(channel)) return;
         //TODO Confirm if we need to destroy the team too
         WrapperPlayServerDestroyEntities destroyEntities = new WrapperPlayServerDestroyEntities(getId());
-        PacketEvents.getAPI().getProtocolManager().sendPacket(channel, destroyEntities);
-        channels.remove(channel);
+        broadcast(Collections.singleton(channel), false, destroyEntities);
     }
 
     public void despawnAll() {
-        for (Object channel : channels) {
-            WrapperPlayServerDestroyEntities destroyEntities = new WrapperPlayServerDestroyEntities(getId());
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, destroyEntities);
-        }
-        channels.clear();
+        List<Object> receivers = new ArrayList<>(channels);
+        channels.removeAll(receivers);
+        WrapperPlayServerDestroyEntities destroyEntities = new WrapperPlayServerDestroyEntities(getId());
+        broadcast(receivers, false, destroyEntities);
     }
 
     public void teleport(Location to) {
         setLocation(to);
-        for (Object channel : channels) {
-            WrapperPlayServerEntityTeleport entityTeleport = new WrapperPlayServerEntityTeleport(getId(), to, true);
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, entityTeleport);
-        }
+        WrapperPlayServerEntityTeleport entityTeleport = new WrapperPlayServerEntityTeleport(getId(), to, true);
+        broadcast(channels, false, entityTeleport);
     }
 
     public void updateLocation(Location to) {
@@ -140,199 +156,171 @@ public class NPC {
         boolean shouldUseEntityTeleport = distXAbs > 8 ||
                 distYAbs > 8 ||
                 distZAbs > 8;
-        for (Object channel : channels) {
-            if (shouldUseEntityTeleport) {
-                WrapperPlayServerEntityTeleport entityTeleport =
-                        new WrapperPlayServerEntityTeleport(getId(), to, true);
-                PacketEvents.getAPI().getProtocolManager().sendPacket(channel, entityTeleport);
-            } else {
-                boolean rotationChanged =
-                        to.getYaw() != from.getYaw() || to.getPitch() != from.getPitch();
-                boolean positionChanged =
-                        to.getPosition().getX() != from.getPosition().getX() ||
-                                to.getPosition().getY() != from.getPosition().getY() ||
-                                to.getPosition().getZ() != from.getPosition().getZ();
-                double deltaX = positionChanged ? (to.getPosition().getX() - from.getPosition().getX()) : 0;
-                double deltaY = positionChanged ? (to.getPosition().getY() - from.getPosition().getY()) : 0;
-                double deltaZ = positionChanged ? (to.getPosition().getZ() - from.getPosition().getZ()) : 0;
-                if (positionChanged && rotationChanged) {
-                    WrapperPlayServerEntityRelativeMoveAndRotation entityRelativeMoveAndRotation =
-                            new WrapperPlayServerEntityRelativeMoveAndRotation(getId(), deltaX, deltaY, deltaZ,
-                                    to.getYaw(), to.getPitch(), true);
-                    PacketEvents.getAPI().getProtocolManager()
-                            .sendPacket(channel, entityRelativeMoveAndRotation);
-
-                    WrapperPlayServerEntityHeadLook headYaw =
-                            new WrapperPlayServerEntityHeadLook(getId(), to.getYaw());
-                    PacketEvents.getAPI().getProtocolManager().sendPacket(channel, headYaw);
-                } else if (positionChanged) {
-                    WrapperPlayServerEntityRelativeMove entityRelativeMove =
-                            new WrapperPlayServerEntityRelativeMove(getId(), deltaX, deltaY, deltaZ, true);
-                    PacketEvents.getAPI().getProtocolManager().sendPacket(channel, entityRelativeMove);
-                } else if (rotationChanged) {
-                    WrapperPlayServerEntityRotation entityRotation =
-                            new WrapperPlayServerEntityRotation(getId(), to.getYaw(), to.getPitch(), true);
-                    PacketEvents.getAPI().getProtocolManager().sendPacket(channel, entityRotation);
-
-                    WrapperPlayServerEntityHeadLook headYaw =
-                            new WrapperPlayServerEntityHeadLook(getId(), to.getYaw());
-                    PacketEvents.getAPI().getProtocolManager().sendPacket(channel, headYaw);
-                }
-            }
+        if (shouldUseEntityTeleport) {
+            WrapperPlayServerEntityTeleport entityTeleport =
+                    new WrapperPlayServerEntityTeleport(getId(), to, true);
+            broadcast(channels, false, entityTeleport);
+            return;
+        }
+        boolean rotationChanged =
+                to.getYaw() != from.getYaw() || to.getPitch() != from.getPitch();
+        boolean positionChanged =
+                to.getPosition().getX() != from.getPosition().getX() ||
+                        to.getPosition().getY() != from.getPosition().getY() ||
+                        to.getPosition().getZ() != from.getPosition().getZ();
+        double deltaX = positionChanged ? (to.getPosition().getX() - from.getPosition().getX()) : 0;
+        double deltaY = positionChanged ? (to.getPosition().getY() - from.getPosition().getY()) : 0;
+        double deltaZ = positionChanged ? (to.getPosition().getZ() - from.getPosition().getZ()) : 0;
+        if (positionChanged && rotationChanged) {
+            WrapperPlayServerEntityRelativeMoveAndRotation entityRelativeMoveAndRotation =
+                    new WrapperPlayServerEntityRelativeMoveAndRotation(getId(), deltaX, deltaY, deltaZ,
+                            to.getYaw(), to.getPitch(), true);
+            WrapperPlayServerEntityHeadLook headYaw =
+                    new WrapperPlayServerEntityHeadLook(getId(), to.getYaw());
+            broadcast(channels, false, entityRelativeMoveAndRotation, headYaw);
+        } else if (positionChanged) {
+            WrapperPlayServerEntityRelativeMove entityRelativeMove =
+                    new WrapperPlayServerEntityRelativeMove(getId(), deltaX, deltaY, deltaZ, true);
+            broadcast(channels, false, entityRelativeMove);
+        } else if (rotationChanged) {
+            WrapperPlayServerEntityRotation entityRotation =
+                    new WrapperPlayServerEntityRotation(getId(), to.getYaw(), to.getPitch(), true);
+            WrapperPlayServerEntityHeadLook headYaw =
+                    new WrapperPlayServerEntityHeadLook(getId(), to.getYaw());
+            broadcast(channels, false, entityRotation, headYaw);
         }
     }
 
     public void updateRotation(float yaw, float pitch) {
         getLocation().setYaw(yaw);
         getLocation().setPitch(pitch);
-        for (Object channel : channels) {
-            WrapperPlayServerEntityRotation entityRotation =
-                    new WrapperPlayServerEntityRotation(getId(), yaw, pitch, true);
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, entityRotation);
-
-            WrapperPlayServerEntityHeadLook headYaw =
-                    new WrapperPlayServerEntityHeadLook(getId(), yaw);
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, headYaw);
-        }
+        WrapperPlayServerEntityRotation entityRotation =
+                new WrapperPlayServerEntityRotation(getId(), yaw, pitch, true);
+        WrapperPlayServerEntityHeadLook headYaw =
+                new WrapperPlayServerEntityHeadLook(getId(), yaw);
+        broadcast(channels, false, entityRotation, headYaw);
     }
 
     public void updateTabPing(int ping) {
         setDisplayPing(ping);
-        for (Object channel : channels) {
-            PacketWrapper<?> playerInfo;
-            if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
-                playerInfo = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY, getModernPlayerInfoData());
-            }
-            else {
-                playerInfo =
-                        new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.UPDATE_LATENCY, getLegacyPlayerInfoData());
-            }
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, playerInfo);
+        PacketWrapper<?> playerInfo;
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
+            playerInfo = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_LATENCY, getModernPlayerInfoData());
+        }
+        else {
+            playerInfo =
+                    new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.UPDATE_LATENCY, getLegacyPlayerInfoData());
         }
+        broadcast(channels, false, playerInfo);
     }
 
     public void updateGameMode(GameMode gamemode) {
         setGameMode(gamemode);
-        for (Object channel : channels) {
-            PacketWrapper<?> playerInfo;
-            if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
-                playerInfo = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
-                        getModernPlayerInfoData());
-            }
-            else {
-                playerInfo =
-                        new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.UPDATE_GAME_MODE, getLegacyPlayerInfoData());
-            }
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, playerInfo);
+        PacketWrapper<?> playerInfo;
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
+            playerInfo = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.UPDATE_GAME_MODE,
+                    getModernPlayerInfoData());
+        }
+        else {
+            playerInfo =
+                    new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.UPDATE_GAME_MODE, getLegacyPlayerInfoData());
         }
+        broadcast(channels, false, playerInfo);
     }
 
     public void changeSkin(UUID skinUUID, List<TextureProperty> skinTextureProperties) {
-        for (Object channel : channels) {
-            PacketWrapper<?> playerInfoRemove;
-            if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
-                playerInfoRemove = new WrapperPlayServerPlayerInfoRemove(getProfile().getUUID());
-            }
-            else {
-                playerInfoRemove =
-                        new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.REMOVE_PLAYER, getLegacyPlayerInfoData());
-            }
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, playerInfoRemove);
-
-            WrapperPlayServerDestroyEntities destroyEntities =
-                    new WrapperPlayServerDestroyEntities(getId());
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, destroyEntities);
-
-            getProfile().setTextureProperties(skinTextureProperties);
-            getProfile().setUUID(skinUUID);
-            PacketWrapper<?> playerInfoAdd;
-            if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
-                playerInfoAdd = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
-                        getModernPlayerInfoData());
-            }
-            else {
-                playerInfoAdd =
-                        new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.ADD_PLAYER, getLegacyPlayerInfoData());
-            }
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, playerInfoAdd);
+        PacketWrapper<?> playerInfoRemove;
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
+            playerInfoRemove = new WrapperPlayServerPlayerInfoRemove(getProfile().getUUID());
+        }
+        else {
+            playerInfoRemove =
+                    new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.REMOVE_PLAYER, getLegacyPlayerInfoData());
+        }
 
-            PacketWrapper<?> spawnPacket;
-            if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
-                spawnPacket = new WrapperPlayServerSpawnEntity(getId(), getProfile().getUUID(), EntityTypes.PLAYER, getLocation(), getLocation().getYaw(), 0, null);
-            }
-            else {
-                spawnPacket = new WrapperPlayServerSpawnPlayer(getId(),
-                        getProfile().getUUID(),
-                        getLocation());
-            }
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, spawnPacket);
+        WrapperPlayServerDestroyEntities destroyEntities =
+                new WrapperPlayServerDestroyEntities(getId());
+
+        getProfile().setTextureProperties(skinTextureProperties);
+        getProfile().setUUID(skinUUID);
+        PacketWrapper<?> playerInfoAdd;
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
+            playerInfoAdd = new WrapperPlayServerPlayerInfoUpdate(WrapperPlayServerPlayerInfoUpdate.Action.ADD_PLAYER,
+                    getModernPlayerInfoData());
         }
+        else {
+            playerInfoAdd =
+                    new WrapperPlayServerPlayerInfo(WrapperPlayServerPlayerInfo.Action.ADD_PLAYER, getLegacyPlayerInfoData());
+        }
+
+        broadcast(channels, true, playerInfoRemove, destroyEntities, playerInfoAdd, createSpawnPacket());
     }
 
     public void updateNameTag() {
-        for (Object channel : channels) {
-            //Destroy team
-            WrapperPlayServerTeams removeTeam =
-                    new WrapperPlayServerTeams("custom_name_team",
-                            WrapperPlayServerTeams.TeamMode.REMOVE,
-                            Optional.empty());
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, removeTeam);
-
-            if (this.getNameColor() != null || this.getPrefixName() != null
-                    || this.getSuffixName() != null) {
-                PacketEvents.getAPI().getProtocolManager().sendPacket(channel, generateTeamsData());
-            }
+        //Destroy team
+        WrapperPlayServerTeams removeTeam =
+                new WrapperPlayServerTeams("custom_name_team",
+                        WrapperPlayServerTeams.TeamMode.REMOVE,
+                        Optional.empty());
+
+        if (this.getNameColor() != null || this.getPrefixName() != null
+                || this.getSuffixName() != null) {
+            broadcast(channels, true, removeTeam, generateTeamsData());
+        } else {
+            broadcast(channels, false, removeTeam);
         }
     }
 
     public void updateEquipment() {
-        for (Object channel : channels) {
-            List<Equipment> equipmentList = new ArrayList<>();
-            ItemStack handItem = getMainHand();
-            if (handItem == null) {
-                handItem = ItemStack.EMPTY;
-            }
-            equipmentList.add(new Equipment(EquipmentSlot.MAIN_HAND,
-                    handItem));
-            if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_9)) {
-                ItemStack offHandItem = getOffHand();
-                if (offHandItem == null) {
-                    offHandItem = ItemStack.EMPTY;
-                }
-                equipmentList.add(new Equipment(EquipmentSlot.OFF_HAND,
-                        offHandItem));
-            }
-            ItemStack helmetItem = getHelmet();
-            if (helmetItem == null) {
-                helmetItem = ItemStack.EMPTY;
-            }
-            equipmentList.add(new Equipment(EquipmentSlot.HELMET,
-                    helmetItem));
-
-            ItemStack chestPlateItem = getChestplate();
-            if (chestPlateItem == null) {
-                chestPlateItem = ItemStack.EMPTY;
-            }
-            equipmentList.add(new Equipment(EquipmentSlot.CHEST_PLATE,
-                    chestPlateItem));
-            ItemStack leggingsItem = getLeggings();
-            if (leggingsItem == null) {
-                leggingsItem = ItemStack.EMPTY;
-            }
-            equipmentList.add(new Equipment(EquipmentSlot.LEGGINGS,
-                    leggingsItem));
-            ItemStack bootsItem = getBoots();
-            if (bootsItem == null) {
-                bootsItem = ItemStack.EMPTY;
+        List<Equipment> equipmentList = new ArrayList<>();
+        ItemStack handItem = getMainHand();
+        if (handItem == null) {
+            handItem = ItemStack.EMPTY;
+        }
+        equipmentList.add(new Equipment(EquipmentSlot.MAIN_HAND,
+                handItem));
+        if (PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_9)) {
+            ItemStack offHandItem = getOffHand();
+            if (offHandItem == null) {
+                offHandItem = ItemStack.EMPTY;
             }
-            equipmentList.add(new Equipment(EquipmentSlot.BOOTS,
-                    bootsItem));
+            equipmentList.add(new Equipment(EquipmentSlot.OFF_HAND,
+                    offHandItem));
+        }
+        ItemStack helmetItem = getHelmet();
+        if (helmetItem == null) {
+            helmetItem = ItemStack.EMPTY;
+        }
+        equipmentList.add(new Equipment(EquipmentSlot.HELMET,
+                helmetItem));
 
-            WrapperPlayServerEntityEquipment equipmentPacket
-                    = new WrapperPlayServerEntityEquipment(getId(),
-                    equipmentList);
-            PacketEvents.getAPI().getProtocolManager().sendPacket(channel, equipmentPacket);
+        ItemStack chestPlateItem = getChestplate();
+        if (chestPlateItem == null) {
+            chestPlateItem = ItemStack.EMPTY;
         }
+        equipmentList.add(new Equipment(EquipmentSlot.CHEST_PLATE,
+                chestPlateItem));
+        ItemStack leggingsItem = getLeggings();
+        if (leggingsItem == null) {
+            leggingsItem = ItemStack.EMPTY;
+        }
+        equipmentList.add(new Equipment(EquipmentSlot.LEGGINGS,
+                leggingsItem));
+        ItemStack bootsItem = getBoots();
+        if (bootsItem == null) {
+            bootsItem = ItemStack.EMPTY;
+        }
+        equipmentList.add(new Equipment(EquipmentSlot.BOOTS,
+                bootsItem));
+
+        WrapperPlayServerEntityEquipment equipmentPacket
+                = new WrapperPlayServerEntityEquipment(getId(),
+                equipmentList);
+        broadcast(channels, false, equipmentPacket);
+    }
+
+    private static void broadcast(Collection<?> channels, boolean bundle, PacketWrapper<?>... wrappers) {
+        PacketEvents.getAPI().getProtocolManager().broadcastPackets(channels, bundle, wrappers);
     }
 
     public ItemStack getMainHand() {
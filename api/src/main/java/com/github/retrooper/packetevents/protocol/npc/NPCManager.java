@@ -0,0 +1,209 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.npc;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketListenerAbstract;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPlayerFlying;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of a group of {@link NPC}s (usually all npcs of one world) and spawns or despawns them for
+ * viewers depending on their distance.
+ * <p>
+ * Register the manager as a packet listener to update viewers automatically from their movement packets,
+ * or call {@link #updateViewer(Object, Vector3d)} yourself.
+ */
+public class NPCManager extends PacketListenerAbstract {
+
+    // vanilla clients disconnect when receiving bundles with more packets
+    private static final int MAX_BUNDLE_SIZE = 4096;
+    // don't rescan all npcs for every tiny movement
+    private static final double RESCAN_DISTANCE_SQUARED = 1.0D;
+
+    private final Map<Integer, NPC> npcs = new ConcurrentHashMap<>();
+    private final Map<Object, Vector3d> lastScanPositions = new ConcurrentHashMap<>();
+    private volatile double viewDistanceSquared;
+    private volatile Predicate<User> viewerFilter = user -> true;
+
+    public NPCManager(double viewDistance) {
+        this(viewDistance, PacketListenerPriority.MONITOR);
+    }
+
+    public NPCManager(double viewDistance, PacketListenerPriority priority) {
+        super(priority);
+        this.setViewDistance(viewDistance);
+    }
+
+    public void register(NPC npc) {
+        this.npcs.put(npc.getId(), npc);
+    }
+
+    public @Nullable NPC unregister(int entityId) {
+        NPC npc = this.npcs.remove(entityId);
+        if (npc != null) {
+            npc.despawnAll();
+        }
+        return npc;
+    }
+
+    public @Nullable NPC getNPC(int entityId) {
+        return this.npcs.get(entityId);
+    }
+
+    public Collection<NPC> getNPCs() {
+        return Collections.unmodifiableCollection(this.npcs.values());
+    }
+
+    public double getViewDistance() {
+        return Math.sqrt(this.viewDistanceSquared);
+    }
+
+    public void setViewDistance(double viewDistance) {
+        this.viewDistanceSquared = viewDistance * viewDistance;
+        this.lastScanPositions.clear(); // rescan everyone with the next movement
+    }
+
+    /**
+     * @param viewerFilter Decides which users are handled by this manager when updating automatically,
+     *                     e.g. only users in the world of the npcs
+     */
+    public void setViewerFilter(Predicate<User> viewerFilter) {
+        this.viewerFilter = viewerFilter;
+    }
+
+    /**
+     * Spawns all npcs in view distance of the position which the viewer can't see yet
+     * and despawns all the viewer can see but are too far away.
+     * Spawn packets of all npcs are sent in bundles with a single flush per bundle.
+     *
+     * @param channel  Viewer
+     * @param position Position of the viewer
+     */
+    public void updateViewer(Object channel, Vector3d position) {
+        this.lastScanPositions.put(channel, position);
+        double viewDistanceSquared = this.viewDistanceSquared;
+
+        List<PacketWrapper<?>> spawnPackets = new ArrayList<>();
+        int[] despawnIds = new int[8];
+        int despawnCount = 0;
+        for (NPC npc : this.npcs.values()) {
+            boolean inRange = npc.getLocation().getPosition().distanceSquared(position) <= viewDistanceSquared;
+            if (inRange) {
+                if (npc.getChannels().add(channel)) {
+                    Collections.addAll(spawnPackets, npc.createSpawnPackets());
+                }
+            } else if (npc.getChannels().remove(channel)) {
+                if (despawnCount == despawnIds.length) {
+                    despawnIds = Arrays.copyOf(despawnIds, despawnCount * 2);
+                }
+                despawnIds[despawnCount++] = npc.getId();
+            }
+        }
+
+        Collection<Object> receivers = Collections.singleton(channel);
+        if (despawnCount != 0) {
+            WrapperPlayServerDestroyEntities destroyEntities =
+                    new WrapperPlayServerDestroyEntities(Arrays.copyOf(despawnIds, despawnCount));
+            PacketEvents.getAPI().getProtocolManager().broadcastPackets(receivers, false, destroyEntities);
+        }
+        for (int i = 0; i < spawnPackets.size(); i += MAX_BUNDLE_SIZE) {
+            List<PacketWrapper<?>> bundle = spawnPackets.subList(i, Math.min(spawnPackets.size(), i + MAX_BUNDLE_SIZE));
+            PacketEvents.getAPI().getProtocolManager().broadcastPackets(receivers, true,
+                    bundle.toArray(new PacketWrapper<?>[0]));
+        }
+    }
+
+    /**
+     * Forgets the viewer, e.g. after it left the world of the npcs.
+     *
+     * @param channel Viewer
+     * @param despawn Whether to send destroy packets, not needed if the client already unloaded the entities
+     */
+    public void removeViewer(Object channel, boolean despawn) {
+        this.lastScanPositions.remove(channel);
+        int[] despawnIds = new int[8];
+        int despawnCount = 0;
+        for (NPC npc : this.npcs.values()) {
+            if (npc.getChannels().remove(channel)) {
+                if (despawnCount == despawnIds.length) {
+                    despawnIds = Arrays.copyOf(despawnIds, despawnCount * 2);
+                }
+                despawnIds[despawnCount++] = npc.getId();
+            }
+        }
+        if (despawn && despawnCount != 0) {
+            WrapperPlayServerDestroyEntities destroyEntities =
+                    new WrapperPlayServerDestroyEntities(Arrays.copyOf(despawnIds, despawnCount));
+            PacketEvents.getAPI().getProtocolManager().broadcastPackets(
+                    Collections.singleton(channel), false, destroyEntities);
+        }
+    }
+
+    @Override
+    public void onPacketReceive(PacketReceiveEvent event) {
+        if (!WrapperPlayClientPlayerFlying.isFlying(event.getPacketType()) || event.isCancelled()) {
+            return;
+        }
+        User user = event.getUser();
+        if (!this.viewerFilter.test(user)) {
+            return;
+        }
+        WrapperPlayClientPlayerFlying flying = PacketWrapper.peek(event, WrapperPlayClientPlayerFlying::new);
+        if (!flying.hasPositionChanged()) {
+            return;
+        }
+        Vector3d position = flying.getLocation().getPosition();
+        Vector3d lastPosition = this.lastScanPositions.get(user.getChannel());
+        if (lastPosition == null || lastPosition.distanceSquared(position) >= RESCAN_DISTANCE_SQUARED) {
+            this.updateViewer(user.getChannel(), position);
+        }
+    }
+
+    @Override
+    public void onPacketSend(PacketSendEvent event) {
+        // the client forgets all entities when switching worlds, npcs spawned from now on are written after the respawn
+        if (event.getPacketType() == PacketType.Play.Server.RESPAWN && !event.isCancelled()) {
+            this.removeViewer(event.getChannel(), false);
+        }
+    }
+
+    @Override
+    public void onUserDisconnect(UserDisconnectEvent event) {
+        this.removeViewer(event.getUser().getChannel(), false);
+    }
+}
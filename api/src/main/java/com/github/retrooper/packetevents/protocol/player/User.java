@@ -19,6 +19,7 @@
 package com.github.retrooper.packetevents.protocol.player;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketEventContext;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
@@ -27,9 +28,16 @@ import com.github.retrooper.packetevents.protocol.chat.ChatTypes;
 import com.github.retrooper.packetevents.protocol.chat.message.ChatMessage;
 import com.github.retrooper.packetevents.protocol.chat.message.ChatMessageLegacy;
 import com.github.retrooper.packetevents.protocol.chat.message.ChatMessage_v1_16;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataCache;
+import com.github.retrooper.packetevents.protocol.entity.tracker.EntityTracker;
+import com.github.retrooper.packetevents.protocol.inventory.InventoryMirror;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
 import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import com.github.retrooper.packetevents.protocol.world.BlockUpdateAccumulator;
 import com.github.retrooper.packetevents.protocol.world.Dimension;
+import com.github.retrooper.packetevents.protocol.world.dimension.DimensionRegistry;
+import com.github.retrooper.packetevents.protocol.world.dimension.DimensionRegistryStore;
+import com.github.retrooper.packetevents.protocol.world.mirror.WorldMirror;
 import com.github.retrooper.packetevents.util.adventure.AdventureSerializer;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerChatMessage;
@@ -40,10 +48,10 @@ import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSe
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSystemChatMessage;
 import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerTitle;
 import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.net.InetSocketAddress;
-import java.util.List;
 import java.util.UUID;
 
 public class User {
@@ -55,8 +63,16 @@ public class User {
     private int entityId = -1;
     private int minWorldHeight = 0;
     private int totalWorldHeight = 256;
-    private List<NBTCompound> worldNBT;
+    private DimensionRegistry dimensionRegistry;
     private Dimension dimension = new Dimension(0);
+    private PacketEventContext eventContext;
+    private volatile InventoryMirror inventoryMirror;
+    private volatile EntityTracker entityTracker;
+    private volatile WorldMirror worldMirror;
+    private volatile BlockUpdateAccumulator blockUpdateAccumulator;
+    private volatile EntityMetadataCache entityMetadataCache;
+    // Token buckets of the packet limiter, only accessed on the event loop
+    private long[] packetBuckets;
 
     public User(Object channel,
                 ConnectionState connectionState, ClientVersion clientVersion,
@@ -110,12 +126,129 @@ public class User {
                 "Transitioned " + this.getName() + "'s encoder into " + encoderState + " state!");
     }
 
+    @ApiStatus.Internal
+    public long[] getPacketBuckets() {
+        return packetBuckets;
+    }
+
+    @ApiStatus.Internal
+    public void setPacketBuckets(long[] packetBuckets) {
+        this.packetBuckets = packetBuckets;
+    }
+
     public ClientVersion getClientVersion() {
         return clientVersion;
     }
 
     public void setClientVersion(ClientVersion clientVersion) {
         this.clientVersion = clientVersion;
+        // Versions are resolved again with the next packet
+        this.eventContext = null;
+    }
+
+    /**
+     * The cached context which is handed to every packet event of this user.
+     *
+     * @param autoProtocolTranslation Whether the platform translates packets to the server version
+     * @return Event context
+     */
+    @ApiStatus.Internal
+    public PacketEventContext getEventContext(boolean autoProtocolTranslation) {
+        PacketEventContext context = this.eventContext;
+        if (context == null || context.isAutoProtocolTranslation() != autoProtocolTranslation) {
+            context = PacketEventContext.create(this.clientVersion, autoProtocolTranslation);
+            this.eventContext = context;
+        }
+        return context;
+    }
+
+    /**
+     * Inventory tracking has to be enabled in the {@link com.github.retrooper.packetevents.settings.PacketEventsSettings}.
+     *
+     * @return The mirrored inventory contents of this user, or null if inventory tracking is disabled
+     */
+    public @Nullable InventoryMirror getInventoryMirror() {
+        InventoryMirror mirror = this.inventoryMirror;
+        if (mirror == null && PacketEvents.getAPI().getSettings().isInventoryTrackingEnabled()) {
+            synchronized (this) {
+                mirror = this.inventoryMirror;
+                if (mirror == null) {
+                    this.inventoryMirror = mirror = new InventoryMirror(this);
+                }
+            }
+        }
+        return mirror;
+    }
+
+    /**
+     * Entity tracking has to be enabled in the {@link com.github.retrooper.packetevents.settings.PacketEventsSettings}.
+     *
+     * @return The entities this user can see, or null if entity tracking is disabled
+     */
+    public @Nullable EntityTracker getEntityTracker() {
+        EntityTracker tracker = this.entityTracker;
+        if (tracker == null && PacketEvents.getAPI().getSettings().isEntityTrackingEnabled()) {
+            synchronized (this) {
+                tracker = this.entityTracker;
+                if (tracker == null) {
+                    this.entityTracker = tracker = new EntityTracker();
+                }
+            }
+        }
+        return tracker;
+    }
+
+    /**
+     * World tracking has to be enabled in the {@link com.github.retrooper.packetevents.settings.PacketEventsSettings}.
+     *
+     * @return The blocks this user can see, or null if world tracking is disabled
+     */
+    public @Nullable WorldMirror getWorldMirror() {
+        WorldMirror mirror = this.worldMirror;
+        if (mirror == null && PacketEvents.getAPI().getSettings().isWorldTrackingEnabled()) {
+            synchronized (this) {
+                mirror = this.worldMirror;
+                if (mirror == null) {
+                    this.worldMirror = mirror = new WorldMirror(this,
+                            PacketEvents.getAPI().getSettings().getWorldTrackingChunkLimit());
+                }
+            }
+        }
+        return mirror;
+    }
+
+    /**
+     * @return Batches block changes sent to this user per chunk section
+     */
+    public BlockUpdateAccumulator getBlockUpdateAccumulator() {
+        BlockUpdateAccumulator accumulator = this.blockUpdateAccumulator;
+        if (accumulator == null) {
+            synchronized (this) {
+                accumulator = this.blockUpdateAccumulator;
+                if (accumulator == null) {
+                    this.blockUpdateAccumulator = accumulator = new BlockUpdateAccumulator(this);
+                }
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * Entity metadata caching has to be enabled in the {@link com.github.retrooper.packetevents.settings.PacketEventsSettings}.
+     *
+     * @return The entity metadata this user has received, or null if entity metadata caching is disabled
+     */
+    public @Nullable EntityMetadataCache getEntityMetadataCache() {
+        EntityMetadataCache cache = this.entityMetadataCache;
+        if (cache == null && PacketEvents.getAPI().getSettings().isEntityMetadataCachingEnabled()) {
+            synchronized (this) {
+                cache = this.entityMetadataCache;
+                if (cache == null) {
+                    this.entityMetadataCache = cache = new EntityMetadataCache(this);
+                }
+            }
+        }
+        return cache;
     }
 
     public UserProfile getProfile() {
@@ -266,12 +399,12 @@ public class User {
     }
 
     public void switchDimensionType(ServerVersion version, Dimension dimension) {
-        NBTCompound dimensionData = this.getWorldNBT(dimension);
+        DimensionRegistry registry = this.dimensionRegistry;
+        DimensionRegistry.Entry dimensionData = registry == null ? null : registry.getEntry(dimension);
         if (dimensionData != null) {
-            NBTCompound worldNBT = dimensionData.getCompoundTagOrNull("element");
-            if (worldNBT != null) {
-                this.setMinWorldHeight(worldNBT.getNumberTagOrNull("min_y").getAsInt());
-                this.setTotalWorldHeight(worldNBT.getNumberTagOrNull("height").getAsInt());
+            if (dimensionData.hasHeights()) {
+                this.setMinWorldHeight(dimensionData.getMinY());
+                this.setTotalWorldHeight(dimensionData.getHeight());
                 return;
             } else {
                 this.setDefaultWorldHeights(version, dimension);
@@ -301,7 +434,26 @@ public class User {
     }
 
     public void setWorldNBT(NBTList<NBTCompound> worldNBT) {
-        this.worldNBT = worldNBT.getTags();
+        this.setDimensionRegistry(new DimensionRegistry(worldNBT.getTags()));
+    }
+
+    public @Nullable DimensionRegistry getDimensionRegistry() {
+        return this.dimensionRegistry;
+    }
+
+    /**
+     * Replaces the dimension types of this user, releasing the previous registry.
+     * Setting the registry this user already holds does nothing.
+     *
+     * @param dimensionRegistry A registry this user holds a reference to, see {@link DimensionRegistryStore}
+     */
+    public void setDimensionRegistry(@Nullable DimensionRegistry dimensionRegistry) {
+        DimensionRegistry previous = this.dimensionRegistry;
+        if (previous == dimensionRegistry) {
+            return; // releasing first could drop the registry still in use
+        }
+        this.dimensionRegistry = dimensionRegistry;
+        DimensionRegistryStore.release(previous);
     }
 
     public Dimension getDimension() {
@@ -314,27 +466,15 @@ public class User {
 
     @Nullable
     public NBTCompound getWorldNBT(String worldName) {
-        if (worldNBT == null) {
-            return null;
-        }
-        for (NBTCompound compound : worldNBT) {
-            if (compound.getStringTagOrNull("name").getValue().equals(worldName)) {
-                return compound;
-            }
-        }
-        return null;
+        DimensionRegistry registry = this.dimensionRegistry;
+        DimensionRegistry.Entry entry = registry == null ? null : registry.getEntry(worldName);
+        return entry == null ? null : entry.getCompound();
     }
 
     public @Nullable NBTCompound getWorldNBT(int worldId) {
-        if (this.worldNBT == null) {
-            return null;
-        }
-        for (NBTCompound element : this.worldNBT) {
-            if (element.getNumberTagOrNull("id").getAsInt() == worldId) {
-                return element;
-            }
-        }
-        return null;
+        DimensionRegistry registry = this.dimensionRegistry;
+        DimensionRegistry.Entry entry = registry == null ? null : registry.getEntry(worldId);
+        return entry == null ? null : entry.getCompound();
     }
 
     public @Nullable NBTCompound getWorldNBT(Dimension dimension) {
@@ -346,15 +486,9 @@ public class User {
     }
 
     public @Nullable String getWorldName(int worldId) {
-        if (this.worldNBT == null) {
-            return null;
-        }
-        for (NBTCompound element : this.worldNBT) {
-            if (element.getNumberTagOrNull("id").getAsInt() == worldId) {
-                return element.getStringTagValueOrNull("name");
-            }
-        }
-        return null;
+        DimensionRegistry registry = this.dimensionRegistry;
+        DimensionRegistry.Entry entry = registry == null ? null : registry.getEntry(worldId);
+        return entry == null ? null : entry.getName();
     }
 
     public @Nullable String getWorldName(Dimension dimension) {
@@ -0,0 +1,198 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState;
+import com.github.retrooper.packetevents.util.Vector3i;
+import com.github.retrooper.packetevents.util.collection.LongObjectHashMap;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBlockChange;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects block changes for a user and sends them batched per chunk section.
+ * <p>
+ * Changes are stored as packed {@code long}s in the multi block change format
+ * ({@code blockId << 12 | localX << 8 | localZ << 4 | localY}). Writing the same position
+ * multiple times before a {@link #flush()} only sends the last block. Sections with a single
+ * change are sent as a normal block change, every other section as one multi block change.
+ * <p>
+ * Call {@link #flush()} once per tick, or whenever the changes should become visible.
+ */
+public class BlockUpdateAccumulator {
+
+    private final User user;
+    private final LongObjectHashMap<Section> sections = new LongObjectHashMap<>();
+    // local position -> index of the last write, -1 if unset; only used while flushing
+    private final int[] lastWrite = new int[4096];
+
+    public BlockUpdateAccumulator(User user) {
+        this.user = user;
+        Arrays.fill(this.lastWrite, -1);
+    }
+
+    public void setBlock(int x, int y, int z, WrappedBlockState state) {
+        this.setBlock(x, y, z, state.getGlobalId());
+    }
+
+    public synchronized void setBlock(int x, int y, int z, int blockId) {
+        long key = sectionKey(x >> 4, y >> 4, z >> 4);
+        Section section = this.sections.get(key);
+        if (section == null) {
+            section = new Section();
+            this.sections.put(key, section);
+        }
+        if (section.count >= 8192) {
+            // keep sections which are rewritten over and over from growing until the next flush
+            this.deduplicate(section);
+        }
+        section.add((long) blockId << 12 | (x & 0xF) << 8 | (z & 0xF) << 4 | (y & 0xF));
+    }
+
+    /**
+     * @return the amount of sections with pending changes
+     */
+    public synchronized int getPendingSections() {
+        return this.sections.size();
+    }
+
+    /**
+     * Drops all pending changes without sending them.
+     */
+    public synchronized void clear() {
+        this.sections.clear();
+    }
+
+    /**
+     * Builds the packets for all pending changes and removes them from this accumulator.
+     */
+    public synchronized List<PacketWrapper<?>> drain() {
+        if (this.sections.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        List<PacketWrapper<?>> packets = new ArrayList<>(this.sections.size());
+        boolean modern = PacketEvents.getAPI().getServerManager().getVersion().isNewerThanOrEquals(ServerVersion.V_1_16);
+        this.sections.forEach((key, section) -> {
+            int count = this.deduplicate(section);
+            int sectionX = (int) (key >> 42);
+            int sectionY = (int) (key << 44 >> 44);
+            int sectionZ = (int) (key << 22 >> 42);
+            if (count == 1) {
+                long entry = section.entries[0];
+                Vector3i position = new Vector3i(
+                        (sectionX << 4) + (int) (entry >>> 8 & 0xF),
+                        (sectionY << 4) + (int) (entry & 0xF),
+                        (sectionZ << 4) + (int) (entry >>> 4 & 0xF));
+                packets.add(new WrapperPlayServerBlockChange(position, (int) (entry >>> 12)));
+                return;
+            }
+            Vector3i sectionPosition = new Vector3i(sectionX, sectionY, sectionZ);
+            if (modern) {
+                packets.add(new WrapperPlayServerMultiBlockChange(sectionPosition, true,
+                        Arrays.copyOf(section.entries, count)));
+                return;
+            }
+            long[] entries = new long[count];
+            for (int i = 0; i < count; i++) {
+                // legacy packets are relative to the chunk column
+                long entry = section.entries[i];
+                entries[i] = entry >>> 12 << 16 | (entry & 0xFF0) << 4 | ((sectionY << 4) + (entry & 0xF) & 0xFF);
+            }
+            packets.add(new WrapperPlayServerMultiBlockChange(sectionPosition, true, entries));
+        });
+        this.sections.clear();
+        return packets;
+    }
+
+    /**
+     * Sends all pending changes to the user with a single flush.
+     *
+     * @return the amount of packets sent
+     */
+    public int flush() {
+        List<PacketWrapper<?>> packets = this.drain();
+        if (packets.isEmpty()) {
+            return 0;
+        }
+        for (PacketWrapper<?> packet : packets) {
+            this.user.writePacket(packet);
+        }
+        this.user.flushPackets();
+        return packets.size();
+    }
+
+    /**
+     * Removes all but the last write to each position, keeping the order of the remaining writes.
+     *
+     * @return the new amount of entries
+     */
+    private int deduplicate(Section section) {
+        long[] entries = section.entries;
+        int count = section.count;
+        if (count == 1) {
+            return 1;
+        }
+        int[] lastWrite = this.lastWrite;
+        for (int i = 0; i < count; i++) {
+            lastWrite[(int) (entries[i] & 0xFFF)] = i;
+        }
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            int position = (int) (entries[i] & 0xFFF);
+            if (lastWrite[position] == i) {
+                entries[size++] = entries[i];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            lastWrite[(int) (entries[i] & 0xFFF)] = -1;
+        }
+        section.count = size;
+        return size;
+    }
+
+    private static long sectionKey(int sectionX, int sectionY, int sectionZ) {
+        // same layout as the section position of the multi block change packet
+        return (sectionX & 0x3FFFFFL) << 42 | (sectionZ & 0x3FFFFFL) << 20 | (sectionY & 0xFFFFFL);
+    }
+
+    private static final class Section {
+
+        private long[] entries = new long[8];
+        private int count;
+
+        private void add(long entry) {
+            // repeated writes to the same position are common, e.g. animations
+            if (this.count != 0 && (this.entries[this.count - 1] & 0xFFF) == (entry & 0xFFF)) {
+                this.entries[this.count - 1] = entry;
+                return;
+            }
+            if (this.count == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.count << 1);
+            }
+            this.entries[this.count++] = entry;
+        }
+    }
+}
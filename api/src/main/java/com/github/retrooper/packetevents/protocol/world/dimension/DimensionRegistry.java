@@ -0,0 +1,154 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.dimension;
+
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTNumber;
+import com.github.retrooper.packetevents.protocol.world.Dimension;
+import com.github.retrooper.packetevents.util.collection.IntObjectHashMap;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the dimension types a server sent, with the world heights of every
+ * dimension type computed once. Snapshots received from the same server are shared between
+ * all users through the {@link DimensionRegistryStore}.
+ * <p>
+ * The snapshot keeps its own copy of the nbt it was created from, and only hands out copies of it.
+ */
+public final class DimensionRegistry {
+
+    private final List<NBTCompound> elements;
+    private final Map<String, Entry> byName;
+    private final IntObjectHashMap<Entry> byId;
+    // the key in the store, null if this snapshot isn't shared
+    final @Nullable Object storeKey;
+    int references;
+
+    public DimensionRegistry(List<NBTCompound> elements) {
+        this(elements, null);
+    }
+
+    DimensionRegistry(List<NBTCompound> elements, @Nullable Object storeKey) {
+        List<NBTCompound> copies = new ArrayList<>(elements.size());
+        this.storeKey = storeKey;
+        this.byName = new HashMap<>(elements.size());
+        this.byId = new IntObjectHashMap<>(elements.size());
+        for (NBTCompound element : elements) {
+            // the nbt passed in may still be modified by its owner
+            NBTCompound compound = element.copy();
+            copies.add(compound);
+            Entry entry = new Entry(compound);
+            if (entry.name != null) {
+                this.byName.putIfAbsent(entry.name, entry);
+            }
+            if (entry.id != -1 && !this.byId.containsKey(entry.id)) {
+                this.byId.put(entry.id, entry);
+            }
+        }
+        this.elements = Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * @return copies of the dimension types
+     */
+    public List<NBTCompound> getElements() {
+        List<NBTCompound> elements = new ArrayList<>(this.elements.size());
+        for (NBTCompound element : this.elements) {
+            elements.add(element.copy());
+        }
+        return elements;
+    }
+
+    public @Nullable Entry getEntry(String name) {
+        return this.byName.get(name);
+    }
+
+    public @Nullable Entry getEntry(int id) {
+        return this.byId.get(id);
+    }
+
+    public @Nullable Entry getEntry(Dimension dimension) {
+        String dimensionName = dimension.getDimensionName();
+        return dimensionName.isEmpty() ? this.getEntry(dimension.getId()) : this.getEntry(dimensionName);
+    }
+
+    public static final class Entry {
+
+        private final NBTCompound compound;
+        private final @Nullable String name;
+        private final int id;
+        private final boolean heights;
+        private final int minY;
+        private final int height;
+
+        private Entry(NBTCompound compound) {
+            this.compound = compound;
+            this.name = compound.getStringTagValueOrNull("name");
+            NBTNumber id = compound.getNumberTagOrNull("id");
+            this.id = id == null ? -1 : id.getAsInt();
+            NBTCompound element = compound.getCompoundTagOrNull("element");
+            NBTNumber minY = element == null ? null : element.getNumberTagOrNull("min_y");
+            NBTNumber height = element == null ? null : element.getNumberTagOrNull("height");
+            this.heights = minY != null && height != null;
+            this.minY = minY == null ? 0 : minY.getAsInt();
+            this.height = height == null ? 256 : height.getAsInt();
+        }
+
+        /**
+         * @return a copy of the dimension type
+         */
+        public NBTCompound getCompound() {
+            return this.compound.copy();
+        }
+
+        public @Nullable String getName() {
+            return this.name;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        /**
+         * @return whether the server sent the world heights of this dimension type
+         */
+        public boolean hasHeights() {
+            return this.heights;
+        }
+
+        public int getMinY() {
+            return this.minY;
+        }
+
+        public int getHeight() {
+            return this.height;
+        }
+
+        @Override
+        public String toString() {
+            return this.compound.toString();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.dimension;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.NBTList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content addressed store of the {@link DimensionRegistry} snapshots in use.
+ * <p>
+ * Every player on a server receives the same registry data, so registries are looked up by
+ * the raw packet payload before it is decoded, and only the first player's payload is parsed.
+ * Snapshots are reference counted and removed once no user holds them anymore.
+ */
+public final class DimensionRegistryStore {
+
+    private static final Map<Object, DimensionRegistry> REGISTRIES = new HashMap<>();
+
+    private DimensionRegistryStore() {
+    }
+
+    /**
+     * Acquires the registry previously interned for an identical payload.
+     *
+     * @return the registry, or null if the payload has to be decoded and {@link #intern(ServerVersion, byte[], NBTList)}
+     */
+    public static @Nullable DimensionRegistry acquire(ServerVersion version, byte[] payload) {
+        synchronized (REGISTRIES) {
+            DimensionRegistry registry = REGISTRIES.get(new PayloadKey(version, payload));
+            if (registry != null) {
+                registry.references++;
+            }
+            return registry;
+        }
+    }
+
+    /**
+     * Interns the registry decoded from the payload, the caller holds a reference to the returned registry.
+     */
+    public static DimensionRegistry intern(ServerVersion version, byte[] payload, NBTList<NBTCompound> elements) {
+        return intern(new PayloadKey(version, payload), elements);
+    }
+
+    private static DimensionRegistry intern(PayloadKey key, NBTList<NBTCompound> elements) {
+        synchronized (REGISTRIES) {
+            DimensionRegistry registry = REGISTRIES.get(key);
+            if (registry == null) {
+                registry = new DimensionRegistry(elements.getTags(), key);
+                REGISTRIES.put(key, registry);
+            }
+            registry.references++;
+            return registry;
+        }
+    }
+
+    /**
+     * Releases a reference, the registry is dropped once the last reference is released.
+     */
+    public static void release(@Nullable DimensionRegistry registry) {
+        if (registry == null || registry.storeKey == null) {
+            return;
+        }
+        synchronized (REGISTRIES) {
+            if (--registry.references <= 0) {
+                REGISTRIES.remove(registry.storeKey, registry);
+            }
+        }
+    }
+
+    public static int size() {
+        synchronized (REGISTRIES) {
+            return REGISTRIES.size();
+        }
+    }
+
+    private static final class PayloadKey {
+
+        private final ServerVersion version;
+        private final byte[] payload;
+        private final int hash;
+
+        private PayloadKey(ServerVersion version, byte[] payload) {
+            this.version = version;
+            this.payload = payload;
+            this.hash = 31 * version.hashCode() + Arrays.hashCode(payload);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PayloadKey)) {
+                return false;
+            }
+            PayloadKey other = (PayloadKey) obj;
+            return this.hash == other.hash && this.version == other.version
+                    && Arrays.equals(this.payload, other.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.mirror;
+
+import com.github.retrooper.packetevents.protocol.stream.NetStreamInput;
+import com.github.retrooper.packetevents.protocol.stream.NetStreamOutput;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.DataPalette;
+import com.github.retrooper.packetevents.protocol.world.chunk.palette.GlobalPalette;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns chunk sections by their content, so identical sections (e.g. the same spawn area
+ * sent to every player) are only kept once across all users.
+ * Interned sections must never be modified, use {@link #copy(Chunk_v1_18)} before writing to them.
+ */
+final class SharedSections {
+
+    private static final Map<Integer, SectionRef> SECTIONS = new HashMap<>();
+    // sections are dropped once no mirror references them anymore
+    private static final ReferenceQueue<Chunk_v1_18> QUEUE = new ReferenceQueue<>();
+
+    private SharedSections() {
+    }
+
+    static Chunk_v1_18 intern(Chunk_v1_18 section) {
+        int hash = hash(section);
+        synchronized (SECTIONS) {
+            expunge();
+            for (SectionRef ref = SECTIONS.get(hash); ref != null; ref = ref.next) {
+                Chunk_v1_18 shared = ref.get();
+                if (shared != null && contentEquals(shared, section)) {
+                    return shared;
+                }
+            }
+            SectionRef ref = new SectionRef(section, hash, SECTIONS.get(hash));
+            SECTIONS.put(hash, ref);
+            return section;
+        }
+    }
+
+    static Chunk_v1_18 copy(Chunk_v1_18 section) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Chunk_v1_18.write(new NetStreamOutput(bytes), section);
+        return Chunk_v1_18.read(new NetStreamInput(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    static int size() {
+        synchronized (SECTIONS) {
+            expunge();
+            int size = 0;
+            for (SectionRef ref : SECTIONS.values()) {
+                for (; ref != null; ref = ref.next) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+
+    private static void expunge() {
+        SectionRef cleared;
+        while ((cleared = (SectionRef) QUEUE.poll()) != null) {
+            SectionRef head = SECTIONS.get(cleared.hash);
+            if (head == cleared) {
+                if (cleared.next == null) {
+                    SECTIONS.remove(cleared.hash);
+                } else {
+                    SECTIONS.put(cleared.hash, cleared.next);
+                }
+                continue;
+            }
+            for (SectionRef ref = head; ref != null; ref = ref.next) {
+                if (ref.next == cleared) {
+                    ref.next = cleared.next;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int hash(Chunk_v1_18 section) {
+        int hash = section.getBlockCount();
+        hash = 31 * hash + hash(section.getChunkData());
+        return 31 * hash + hash(section.getBiomeData());
+    }
+
+    private static int hash(DataPalette palette) {
+        int hash = palette.palette.getClass().getName().hashCode();
+        if (!(palette.palette instanceof GlobalPalette)) {
+            int size = palette.palette.size();
+            for (int i = 0; i < size; i++) {
+                hash = 31 * hash + palette.palette.idToState(i);
+            }
+        }
+        if (palette.storage != null) {
+            hash = 31 * hash + palette.storage.getBitsPerEntry();
+            hash = 31 * hash + Arrays.hashCode(palette.storage.getData());
+        }
+        return hash;
+    }
+
+    private static boolean contentEquals(Chunk_v1_18 first, Chunk_v1_18 second) {
+        return first.getBlockCount() == second.getBlockCount()
+                && contentEquals(first.getChunkData(), second.getChunkData())
+                && contentEquals(first.getBiomeData(), second.getBiomeData());
+    }
+
+    private static boolean contentEquals(DataPalette first, DataPalette second) {
+        if (first.palette.getClass() != second.palette.getClass()) {
+            return false;
+        }
+        if (!(first.palette instanceof GlobalPalette)) {
+            int size = first.palette.size();
+            if (size != second.palette.size()) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (first.palette.idToState(i) != second.palette.idToState(i)) {
+                    return false;
+                }
+            }
+        }
+        if (first.storage == null || second.storage == null) {
+            return first.storage == second.storage;
+        }
+        return first.storage.getBitsPerEntry() == second.storage.getBitsPerEntry()
+                && Arrays.equals(first.storage.getData(), second.storage.getData());
+    }
+
+    private static final class SectionRef extends WeakReference<Chunk_v1_18> {
+
+        private final int hash;
+        private SectionRef next;
+
+        private SectionRef(Chunk_v1_18 section, int hash, SectionRef next) {
+            super(section, QUEUE);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.protocol.world.mirror;
+
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.world.chunk.BaseChunk;
+import com.github.retrooper.packetevents.protocol.world.chunk.Column;
+import com.github.retrooper.packetevents.protocol.world.chunk.impl.v_1_18.Chunk_v1_18;
+import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState;
+import com.github.retrooper.packetevents.util.collection.LongObjectHashMap;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Client-side view of the blocks a user can see, built from the chunk and block change packets sent to the user.
+ * <p>
+ * 1.18+ chunk sections are interned by their content, so identical sections are shared between all users
+ * and only copied once a block change modifies them. The amount of mirrored chunks is capped,
+ * exceeding the cap evicts the chunks furthest away from the client's view center.
+ */
+public class WorldMirror {
+
+    private final User user;
+    private final int chunkLimit;
+    private final LongObjectHashMap<MirroredColumn> columns = new LongObjectHashMap<>(256);
+    private int centerX;
+    private int centerZ;
+    // most lookups hit the same chunk repeatedly
+    private MirroredColumn lastColumn;
+
+    public WorldMirror(User user, int chunkLimit) {
+        this.user = user;
+        this.chunkLimit = chunkLimit;
+    }
+
+    /**
+     * @return the global block state id the client sees at the position, 0 (air) if the chunk isn't loaded
+     */
+    public synchronized int getBlockId(int x, int y, int z) {
+        MirroredColumn column = this.getColumn(x >> 4, z >> 4);
+        if (column == null) {
+            return 0;
+        }
+        BaseChunk section = column.getSection(y);
+        return section == null ? 0 : section.getBlockId(x & 15, y & 15, z & 15);
+    }
+
+    public WrappedBlockState getBlockState(int x, int y, int z) {
+        return WrappedBlockState.getByGlobalId(this.user.getClientVersion(), this.getBlockId(x, y, z));
+    }
+
+    public synchronized boolean isChunkLoaded(int chunkX, int chunkZ) {
+        return this.getColumn(chunkX, chunkZ) != null;
+    }
+
+    public synchronized int getLoadedChunks() {
+        return this.columns.size();
+    }
+
+    /**
+     * @return the amount of distinct chunk sections currently shared between all users
+     */
+    public static int getSharedSections() {
+        return SharedSections.size();
+    }
+
+    private MirroredColumn getColumn(int chunkX, int chunkZ) {
+        MirroredColumn column = this.lastColumn;
+        if (column != null && column.x == chunkX && column.z == chunkZ) {
+            return column;
+        }
+        column = this.columns.get(PacketWrapper.getChunkKey(chunkX, chunkZ));
+        if (column != null) {
+            this.lastColumn = column;
+        }
+        return column;
+    }
+
+    @ApiStatus.Internal
+    public synchronized void loadColumn(Column column) {
+        long key = PacketWrapper.getChunkKey(column.getX(), column.getZ());
+        MirroredColumn existing = this.columns.get(key);
+        BaseChunk[] chunks = column.getChunks();
+        if (!column.isFullChunk() && existing != null) {
+            // pre 1.17 servers may only send some sections
+            for (int i = 0; i < chunks.length && i < existing.sections.length; i++) {
+                if (chunks[i] != null) {
+                    existing.setSection(i, chunks[i]);
+                }
+            }
+            return;
+        }
+
+        MirroredColumn mirrored = new MirroredColumn(column.getX(), column.getZ(),
+                this.user.getMinWorldHeight() >> 4, chunks.length);
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null) {
+                mirrored.setSection(i, chunks[i]);
+            }
+        }
+        this.columns.put(key, mirrored);
+        this.lastColumn = null;
+        if (this.columns.size() > this.chunkLimit) {
+            this.evictFurthest();
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void unloadColumn(int chunkX, int chunkZ) {
+        this.columns.remove(PacketWrapper.getChunkKey(chunkX, chunkZ));
+        this.lastColumn = null;
+    }
+
+    @ApiStatus.Internal
+    public synchronized void setCenter(int chunkX, int chunkZ) {
+        this.centerX = chunkX;
+        this.centerZ = chunkZ;
+    }
+
+    @ApiStatus.Internal
+    public synchronized void setBlock(int x, int y, int z, int blockId) {
+        MirroredColumn column = this.getColumn(x >> 4, z >> 4);
+        if (column != null) {
+            column.setBlock(x & 15, y, z & 15, blockId);
+        }
+    }
+
+    @ApiStatus.Internal
+    public synchronized void clear() {
+        this.columns.clear();
+        this.lastColumn = null;
+    }
+
+    private void evictFurthest() {
+        long[] furthestKey = {0L};
+        long[] furthestDistance = {-1L};
+        this.columns.forEach((key, column) -> {
+            long dx = column.x - this.centerX;
+            long dz = column.z - this.centerZ;
+            long distance = dx * dx + dz * dz;
+            if (distance > furthestDistance[0]) {
+                furthestDistance[0] = distance;
+                furthestKey[0] = key;
+            }
+        });
+        this.columns.remove(furthestKey[0]);
+        this.lastColumn = null;
+    }
+
+    private static final class MirroredColumn {
+
+        private final int x;
+        private final int z;
+        private final int minSection;
+        private final BaseChunk[] sections;
+        // interned sections have to be copied before modifying them
+        private final boolean[] shared;
+
+        private MirroredColumn(int x, int z, int minSection, int sectionCount) {
+            this.x = x;
+            this.z = z;
+            this.minSection = minSection;
+            this.sections = new BaseChunk[sectionCount];
+            this.shared = new boolean[sectionCount];
+        }
+
+        private void setSection(int index, BaseChunk section) {
+            if (section instanceof Chunk_v1_18) {
+                this.sections[index] = SharedSections.intern((Chunk_v1_18) section);
+                this.shared[index] = true;
+            } else {
+                this.sections[index] = section;
+                this.shared[index] = false;
+            }
+        }
+
+        private BaseChunk getSection(int y) {
+            int index = (y >> 4) - this.minSection;
+            return index >= 0 && index < this.sections.length ? this.sections[index] : null;
+        }
+
+        private void setBlock(int localX, int y, int localZ, int blockId) {
+            int index = (y >> 4) - this.minSection;
+            if (index < 0 || index >= this.sections.length) {
+                return;
+            }
+            BaseChunk section = this.sections[index];
+            if (section == null) {
+                if (blockId == 0) {
+                    return;
+                }
+                section = BaseChunk.create();
+                this.sections[index] = section;
+            } else if (this.shared[index]) {
+                section = SharedSections.copy((Chunk_v1_18) section);
+                this.sections[index] = section;
+                this.shared[index] = false;
+            }
+            section.set(localX, y & 15, localZ, blockId);
+        }
+    }
+}
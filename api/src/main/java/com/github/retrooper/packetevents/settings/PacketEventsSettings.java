@@ -18,6 +18,10 @@
 
 package com.github.retrooper.packetevents.settings;
 
+import com.github.retrooper.packetevents.event.AsyncDropPolicy;
+import com.github.retrooper.packetevents.event.SuspensionTimeoutPolicy;
+import com.github.retrooper.packetevents.netty.channel.PacketLimitPolicy;
+import com.github.retrooper.packetevents.netty.channel.PacketLimiter;
 import com.github.retrooper.packetevents.util.TimeStampMode;
 
 import java.io.InputStream;
@@ -33,11 +37,31 @@ public class PacketEventsSettings {
 
     private TimeStampMode timestampMode = TimeStampMode.MILLIS;
     private boolean defaultReencode = true; // true for backwards compat and more idiot-proof
+    private boolean reEncodeOnlyModified = false;
     private boolean checkForUpdates = true;
     private boolean downsampleColors = false;
     private boolean debugEnabled = false;
     private boolean fullStackTraceEnabled = false;
     private boolean kickOnPacketExceptionEnabled = true;
+    private boolean eventPoolingEnabled = false;
+    private boolean inventoryTrackingEnabled = false;
+    private boolean entityTrackingEnabled = false;
+    private boolean worldTrackingEnabled = false;
+    private boolean entityMetadataCachingEnabled = false;
+    private boolean sharedPipelineEnabled = false;
+    private boolean handshakeValidationEnabled = false;
+    private int connectionRateLimit = 0;
+    private int connectionBurstLimit = 10;
+    private int asyncListenerQueueSize = 1024;
+    private AsyncDropPolicy asyncDropPolicy = AsyncDropPolicy.DROP_NEWEST;
+    private int asyncListenerThreads = 0;
+    private long suspensionTimeout = 30000L;
+    private SuspensionTimeoutPolicy suspensionTimeoutPolicy = SuspensionTimeoutPolicy.DISCONNECT;
+    private int suspendedPacketLimit = 1024; // far more than a client sends while a task runs, at most a few MB per channel
+    private int maxPacketSize = 0;
+    private PacketLimitPolicy packetLimitPolicy = PacketLimitPolicy.KICK;
+    private int componentCacheSize = 1024; // about a megabyte, as typical components are a few hundred bytes
+    private int worldTrackingChunkLimit = 1089; // a view distance of 16 chunks
     private Function<String, InputStream> resourceProvider = path -> PacketEventsSettings.class
             .getClassLoader()
             .getResourceAsStream(path);
@@ -70,6 +94,21 @@ public class PacketEventsSettings {
         return this;
     }
 
+    /**
+     * Do we only re-encode packets if a listener actually modified the wrapper?
+     * Wrapper setters and getters returning nested info objects mark the wrapper as modified. Bulk data (entity
+     * metadata, items, NBT, chunks, raw arrays) modified in place has to be flagged with
+     * {@link com.github.retrooper.packetevents.wrapper.PacketWrapper#markDirty()}, so reading it stays cheap.
+     * Explicitly calling {@link com.github.retrooper.packetevents.event.ProtocolPacketEvent#markForReEncode(boolean)}
+     * always takes precedence.
+     * @param reEncodeOnlyModified Value
+     * @return Settings instance
+     */
+    public PacketEventsSettings reEncodeOnlyModified(boolean reEncodeOnlyModified) {
+        this.reEncodeOnlyModified = reEncodeOnlyModified;
+        return this;
+    }
+
     /**
      * This decides if PacketEvents should check for updates and notify when your server starts.
      *
@@ -137,6 +176,243 @@ public class PacketEventsSettings {
         return this;
     }
 
+    /**
+     * This decides if PacketEvents should recycle packet events on each netty thread instead of allocating new ones.
+     * Listeners must not keep references to events after handling them, a retained event is reused for a later packet.
+     * Use {@link com.github.retrooper.packetevents.event.ProtocolPacketEvent#clone()} to retain an event,
+     * clones are never pooled. Wrappers created from an event don't depend on it and may be kept.
+     *
+     * @param eventPoolingEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings eventPooling(boolean eventPoolingEnabled) {
+        this.eventPoolingEnabled = eventPoolingEnabled;
+        return this;
+    }
+
+    /**
+     * This decides if PacketEvents should mirror the inventory contents each user can see.
+     * The mirror is accessible with {@link com.github.retrooper.packetevents.protocol.player.User#getInventoryMirror()}.
+     *
+     * @param inventoryTrackingEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings inventoryTracking(boolean inventoryTrackingEnabled) {
+        this.inventoryTrackingEnabled = inventoryTrackingEnabled;
+        return this;
+    }
+
+    /**
+     * This decides if PacketEvents should track the entities each user can see.
+     * The entities are accessible with {@link com.github.retrooper.packetevents.protocol.player.User#getEntityTracker()}.
+     * This has to be decided before PacketEvents is loaded.
+     *
+     * @param entityTrackingEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings entityTracking(boolean entityTrackingEnabled) {
+        this.entityTrackingEnabled = entityTrackingEnabled;
+        return this;
+    }
+
+    /**
+     * This decides if PacketEvents should mirror the blocks each user can see.
+     * The blocks are accessible with {@link com.github.retrooper.packetevents.protocol.player.User#getWorldMirror()}.
+     * This has to be decided before PacketEvents is loaded.
+     *
+     * @param worldTrackingEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings worldTracking(boolean worldTrackingEnabled) {
+        this.worldTrackingEnabled = worldTrackingEnabled;
+        return this;
+    }
+
+    /**
+     * This decides how many chunks PacketEvents mirrors per user at most,
+     * the chunks furthest away from the user are dropped first.
+     *
+     * @param worldTrackingChunkLimit Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings worldTrackingChunkLimit(int worldTrackingChunkLimit) {
+        this.worldTrackingChunkLimit = worldTrackingChunkLimit;
+        return this;
+    }
+
+    /**
+     * This decides if PacketEvents should remember the entity metadata sent to each user,
+     * to only send changed metadata with {@link com.github.retrooper.packetevents.protocol.player.User#getEntityMetadataCache()}.
+     *
+     * @param entityMetadataCachingEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings entityMetadataCaching(boolean entityMetadataCachingEnabled) {
+        this.entityMetadataCachingEnabled = entityMetadataCachingEnabled;
+        return this;
+    }
+
+    /**
+     * This decides how many serialized components PacketEvents should cache per wire format.
+     * Components which are sent often, like chat prefixes, are then only serialized once. 0 disables the cache.
+     * The default of 1024 covers the distinct scoreboard lines, tab list entries and chat prefixes of a busy server,
+     * while typical components of a few hundred bytes keep the caches at about a megabyte together.
+     * This has to be decided before PacketEvents is loaded.
+     *
+     * @param componentCacheSize Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings componentCacheSize(int componentCacheSize) {
+        this.componentCacheSize = componentCacheSize;
+        return this;
+    }
+
+    /**
+     * This decides if PacketEvents should share its netty handlers with other copies of PacketEvents on the server.
+     * The first copy which loads injects the handlers, copies loaded afterwards dispatch their listeners through it,
+     * interleaved by priority with the listeners of the first copy. Listeners of later copies can't suspend packets.
+     * Copies with an incompatible version fall back to injecting their own handlers.
+     *
+     * @param sharedPipelineEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings sharedPipeline(boolean sharedPipelineEnabled) {
+        this.sharedPipelineEnabled = sharedPipelineEnabled;
+        return this;
+    }
+
+    /**
+     * This decides if PacketEvents should validate the handshake of new connections before setting them up.
+     * Connections are then only given a {@link com.github.retrooper.packetevents.protocol.player.User} (and the
+     * {@link com.github.retrooper.packetevents.event.UserConnectEvent} is only called) once a well-formed handshake
+     * arrived, connections which never send one are closed without creating anything.
+     *
+     * @param handshakeValidationEnabled Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings handshakeValidation(boolean handshakeValidationEnabled) {
+        this.handshakeValidationEnabled = handshakeValidationEnabled;
+        return this;
+    }
+
+    /**
+     * This decides how many connections per second PacketEvents should accept from the same address.
+     * Connections above the limit are closed right after being accepted. Loopback addresses are never limited.
+     * Behind a proxy all connections share the address of the proxy, so the limit is ignored on servers configured
+     * for BungeeCord or Velocity forwarding. 0 disables the limit.
+     *
+     * @param connectionRateLimit Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings connectionRateLimit(int connectionRateLimit) {
+        this.connectionRateLimit = connectionRateLimit;
+        return this;
+    }
+
+    /**
+     * This decides how many connections PacketEvents should accept at once from the same address,
+     * before the {@link #connectionRateLimit(int)} applies.
+     *
+     * @param connectionBurstLimit Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings connectionBurstLimit(int connectionBurstLimit) {
+        this.connectionBurstLimit = connectionBurstLimit;
+        return this;
+    }
+
+    /**
+     * This decides how many events PacketEvents should queue per user for asynchronous listeners.
+     *
+     * @param asyncListenerQueueSize Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings asyncListenerQueueSize(int asyncListenerQueueSize) {
+        this.asyncListenerQueueSize = asyncListenerQueueSize;
+        return this;
+    }
+
+    /**
+     * This decides which events PacketEvents should drop once the queue of a user for asynchronous listeners is full.
+     *
+     * @param asyncDropPolicy Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings asyncDropPolicy(AsyncDropPolicy asyncDropPolicy) {
+        this.asyncDropPolicy = asyncDropPolicy;
+        return this;
+    }
+
+    /**
+     * This decides how many threads PacketEvents should run asynchronous listeners on.
+     * 0 uses virtual threads on Java 21 and newer, and half of the available processors otherwise.
+     *
+     * @param asyncListenerThreads Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings asyncListenerThreads(int asyncListenerThreads) {
+        this.asyncListenerThreads = asyncListenerThreads;
+        return this;
+    }
+
+    /**
+     * This decides how many milliseconds PacketEvents should wait for the task of a suspended packet.
+     * 0 waits forever.
+     *
+     * @param suspensionTimeout Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings suspensionTimeout(long suspensionTimeout) {
+        this.suspensionTimeout = suspensionTimeout;
+        return this;
+    }
+
+    /**
+     * This decides what PacketEvents should do with a suspended packet whose task didn't finish in time.
+     *
+     * @param suspensionTimeoutPolicy Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings suspensionTimeoutPolicy(SuspensionTimeoutPolicy suspensionTimeoutPolicy) {
+        this.suspensionTimeoutPolicy = suspensionTimeoutPolicy;
+        return this;
+    }
+
+    /**
+     * This decides how many packets PacketEvents should hold back per channel while packets are suspended.
+     * Clients exceeding the limit are disconnected. 0 disables the limit.
+     *
+     * @param suspendedPacketLimit Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings suspendedPacketLimit(int suspendedPacketLimit) {
+        this.suspendedPacketLimit = suspendedPacketLimit;
+        return this;
+    }
+
+    /**
+     * This decides how big serverbound packets may be, before PacketEvents drops them without processing them.
+     * 0 disables the limit. Limits per packet type can be set on the {@link PacketLimiter}.
+     *
+     * @param maxPacketSize Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings maxPacketSize(int maxPacketSize) {
+        this.maxPacketSize = maxPacketSize;
+        return this;
+    }
+
+    /**
+     * This decides what PacketEvents should do with users who exceed a limit of the {@link PacketLimiter}.
+     *
+     * @param packetLimitPolicy Value
+     * @return Settings instance.
+     */
+    public PacketEventsSettings packetLimitPolicy(PacketLimitPolicy packetLimitPolicy) {
+        this.packetLimitPolicy = packetLimitPolicy;
+        return this;
+    }
+
     /**
      * Some projects may want to implement a CDN with resources like asset mappings
      * By default, all resources are retrieved from the ClassLoader
@@ -157,6 +433,14 @@ public class PacketEventsSettings {
         return defaultReencode;
     }
 
+    /**
+     * Should unmodified wrappers be skipped when re-encoding?
+     * @return Getter for {@link #reEncodeOnlyModified}
+     */
+    public boolean reEncodeOnlyModified() {
+        return reEncodeOnlyModified;
+    }
+
     /**
      * Should we check for updates?
      *
@@ -215,6 +499,177 @@ public class PacketEventsSettings {
         return kickOnPacketExceptionEnabled;
     }
 
+    /**
+     * Should packetevents recycle packet events?
+     *
+     * @return Getter for {@link #eventPoolingEnabled}
+     */
+    public boolean isEventPoolingEnabled() {
+        return eventPoolingEnabled;
+    }
+
+    /**
+     * Should packetevents mirror the inventories of users?
+     *
+     * @return Getter for {@link #inventoryTrackingEnabled}
+     */
+    public boolean isInventoryTrackingEnabled() {
+        return inventoryTrackingEnabled;
+    }
+
+    /**
+     * Should packetevents track the entities of users?
+     *
+     * @return Getter for {@link #entityTrackingEnabled}
+     */
+    public boolean isEntityTrackingEnabled() {
+        return entityTrackingEnabled;
+    }
+
+    /**
+     * Should packetevents mirror the blocks users can see?
+     *
+     * @return Getter for {@link #worldTrackingEnabled}
+     */
+    public boolean isWorldTrackingEnabled() {
+        return worldTrackingEnabled;
+    }
+
+    /**
+     * How many chunks should packetevents mirror per user?
+     *
+     * @return Getter for {@link #worldTrackingChunkLimit}
+     */
+    public int getWorldTrackingChunkLimit() {
+        return worldTrackingChunkLimit;
+    }
+
+    /**
+     * Should packetevents remember the entity metadata sent to each user?
+     *
+     * @return Getter for {@link #entityMetadataCachingEnabled}
+     */
+    public boolean isEntityMetadataCachingEnabled() {
+        return entityMetadataCachingEnabled;
+    }
+
+    /**
+     * How many serialized components should packetevents cache per wire format?
+     *
+     * @return Getter for {@link #componentCacheSize}
+     */
+    public int getComponentCacheSize() {
+        return componentCacheSize;
+    }
+
+    /**
+     * Should packetevents share its netty handlers with other copies of packetevents?
+     *
+     * @return Getter for {@link #sharedPipelineEnabled}
+     */
+    public boolean isSharedPipelineEnabled() {
+        return sharedPipelineEnabled;
+    }
+
+    /**
+     * Should packetevents validate the handshake of new connections before setting them up?
+     *
+     * @return Getter for {@link #handshakeValidationEnabled}
+     */
+    public boolean isHandshakeValidationEnabled() {
+        return handshakeValidationEnabled;
+    }
+
+    /**
+     * How many connections per second should packetevents accept from the same address?
+     *
+     * @return Getter for {@link #connectionRateLimit}
+     */
+    public int getConnectionRateLimit() {
+        return connectionRateLimit;
+    }
+
+    /**
+     * How many connections should packetevents accept at once from the same address?
+     *
+     * @return Getter for {@link #connectionBurstLimit}
+     */
+    public int getConnectionBurstLimit() {
+        return connectionBurstLimit;
+    }
+
+    /**
+     * How many events should packetevents queue per user for asynchronous listeners?
+     *
+     * @return Getter for {@link #asyncListenerQueueSize}
+     */
+    public int getAsyncListenerQueueSize() {
+        return asyncListenerQueueSize;
+    }
+
+    /**
+     * Which events should packetevents drop once the queue of a user for asynchronous listeners is full?
+     *
+     * @return Getter for {@link #asyncDropPolicy}
+     */
+    public AsyncDropPolicy getAsyncDropPolicy() {
+        return asyncDropPolicy;
+    }
+
+    /**
+     * How many threads should packetevents run asynchronous listeners on?
+     *
+     * @return Getter for {@link #asyncListenerThreads}
+     */
+    public int getAsyncListenerThreads() {
+        return asyncListenerThreads;
+    }
+
+    /**
+     * How many milliseconds should packetevents wait for the task of a suspended packet?
+     *
+     * @return Getter for {@link #suspensionTimeout}
+     */
+    public long getSuspensionTimeout() {
+        return suspensionTimeout;
+    }
+
+    /**
+     * What should packetevents do with a suspended packet whose task didn't finish in time?
+     *
+     * @return Getter for {@link #suspensionTimeoutPolicy}
+     */
+    public SuspensionTimeoutPolicy getSuspensionTimeoutPolicy() {
+        return suspensionTimeoutPolicy;
+    }
+
+    /**
+     * How many packets should packetevents hold back per channel while packets are suspended?
+     *
+     * @return Getter for {@link #suspendedPacketLimit}
+     */
+    public int getSuspendedPacketLimit() {
+        return suspendedPacketLimit;
+    }
+
+    /**
+     * How big may serverbound packets be?
+     *
+     * @return Getter for {@link #maxPacketSize}
+     */
+    public int getMaxPacketSize() {
+        return maxPacketSize;
+    }
+
+    /**
+     * What should packetevents do with users who exceed a packet limit?
+     *
+     * @return Getter for {@link #packetLimitPolicy}
+     */
+    public PacketLimitPolicy getPacketLimitPolicy() {
+        return packetLimitPolicy;
+    }
+
     /**
      * As described above, this method retrieves the function that acquires the InputStream
      * of a desired resource by its path.
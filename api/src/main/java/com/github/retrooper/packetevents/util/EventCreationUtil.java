@@ -18,15 +18,25 @@
 
 package com.github.retrooper.packetevents.util;
 
+import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
 import com.github.retrooper.packetevents.event.simple.*;
 import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.Nullable;
 
 public class EventCreationUtil {
+    // Events are handled on the netty threads, every thread recycles its own events
+    private static final ThreadLocal<EventPool> POOLS = ThreadLocal.withInitial(EventPool::new);
+
     public static PacketReceiveEvent createReceiveEvent(Object channel, User user, Object player, Object buffer,
                                                         boolean autoProtocolTranslation) throws PacketProcessException {
+        if (user.getEventContext(autoProtocolTranslation).isEventPoolingEnabled()) {
+            return createPooledReceiveEvent(channel, user, player, buffer, autoProtocolTranslation);
+        }
         switch (user.getDecoderState()) {
             case HANDSHAKING:
                 return new PacketHandshakeReceiveEvent(channel, user, player, buffer, autoProtocolTranslation);
@@ -44,6 +54,9 @@ public class EventCreationUtil {
 
     public static PacketSendEvent createSendEvent(Object channel, User user, Object player, Object buffer,
                                                   boolean autoProtocolTranslation) throws PacketProcessException{
+        if (user.getEventContext(autoProtocolTranslation).isEventPoolingEnabled()) {
+            return createPooledSendEvent(channel, user, player, buffer, autoProtocolTranslation);
+        }
         switch (user.getEncoderState()) {
             case HANDSHAKING:
                 return new PacketHandshakeSendEvent(channel, user, player, buffer, autoProtocolTranslation);
@@ -58,4 +71,118 @@ public class EventCreationUtil {
         }
         throw new RuntimeException("Unknown connection state " + user.getEncoderState() + "!");
     }
+
+    /**
+     * Hands a fully processed event back to the event pool of the current thread.
+     * Does nothing if event pooling is disabled or if the event is a clone.
+     *
+     * @param event The event, it must not be used anymore after this call.
+     */
+    public static void releaseEvent(@Nullable ProtocolPacketEvent<?> event) {
+        if (event == null || event.isClone()
+                || !PacketEvents.getAPI().getSettings().isEventPoolingEnabled()) {
+            return;
+        }
+        ConnectionState state = event.getConnectionState();
+        if (state == null) {
+            // Failed to initialize, it was never handed out
+            return;
+        }
+        event.recycle();
+        POOLS.get().release(event instanceof PacketReceiveEvent, state, event);
+    }
+
+    private static PacketReceiveEvent createPooledReceiveEvent(Object channel, User user, Object player, Object buffer,
+                                                               boolean autoProtocolTranslation) throws PacketProcessException {
+        ConnectionState state = user.getDecoderState();
+        PacketReceiveEvent event = (PacketReceiveEvent) POOLS.get().acquire(true, state);
+        if (event == null) {
+            switch (state) {
+                case HANDSHAKING:
+                    event = new PacketHandshakeReceiveEvent();
+                    break;
+                case STATUS:
+                    event = new PacketStatusReceiveEvent();
+                    break;
+                case LOGIN:
+                    event = new PacketLoginReceiveEvent();
+                    break;
+                case PLAY:
+                    event = new PacketPlayReceiveEvent();
+                    break;
+                case CONFIGURATION:
+                    event = new PacketConfigReceiveEvent();
+                    break;
+                default:
+                    throw new RuntimeException("Unknown connection state " + state + "!");
+            }
+        }
+        event.init(channel, user, player, buffer, autoProtocolTranslation);
+        return event;
+    }
+
+    private static PacketSendEvent createPooledSendEvent(Object channel, User user, Object player, Object buffer,
+                                                         boolean autoProtocolTranslation) throws PacketProcessException {
+        ConnectionState state = user.getEncoderState();
+        PacketSendEvent event = (PacketSendEvent) POOLS.get().acquire(false, state);
+        if (event == null) {
+            switch (state) {
+                case HANDSHAKING:
+                    event = new PacketHandshakeSendEvent();
+                    break;
+                case STATUS:
+                    event = new PacketStatusSendEvent();
+                    break;
+                case LOGIN:
+                    event = new PacketLoginSendEvent();
+                    break;
+                case PLAY:
+                    event = new PacketPlaySendEvent();
+                    break;
+                case CONFIGURATION:
+                    event = new PacketConfigSendEvent();
+                    break;
+                default:
+                    throw new RuntimeException("Unknown connection state " + state + "!");
+            }
+        }
+        event.init(channel, user, player, buffer, autoProtocolTranslation);
+        return event;
+    }
+
+    private static final class EventPool {
+        // Sending a packet while handling another one nests events on the same thread, so a single slot isn't enough
+        private static final int MAX_POOLED_EVENTS = 8;
+        private static final int STATES = ConnectionState.values().length;
+
+        private final ProtocolPacketEvent<?>[][] events = new ProtocolPacketEvent<?>[STATES * 2][MAX_POOLED_EVENTS];
+        private final int[] sizes = new int[STATES * 2];
+
+        private static int index(boolean serverBound, ConnectionState state) {
+            return serverBound ? state.ordinal() : STATES + state.ordinal();
+        }
+
+        @Nullable
+        ProtocolPacketEvent<?> acquire(boolean serverBound, ConnectionState state) {
+            int index = index(serverBound, state);
+            int size = sizes[index];
+            if (size == 0) {
+                return null;
+            }
+            ProtocolPacketEvent<?>[] stack = events[index];
+            ProtocolPacketEvent<?> event = stack[--size];
+            stack[size] = null;
+            sizes[index] = size;
+            return event;
+        }
+
+        void release(boolean serverBound, ConnectionState state, ProtocolPacketEvent<?> event) {
+            int index = index(serverBound, state);
+            int size = sizes[index];
+            if (size < MAX_POOLED_EVENTS) {
+                events[index][size] = event;
+                sizes[index] = size + 1;
+            }
+        }
+    }
 }
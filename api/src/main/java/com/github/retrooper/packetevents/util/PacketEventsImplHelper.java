@@ -22,16 +22,22 @@ import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.event.UserDisconnectEvent;
-import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.protocol.PacketSide;
 import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.util.capture.PacketCapture;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
 
 public class PacketEventsImplHelper {
-    
+
+    /**
+     * Processes an outgoing packet, the returned event has to be handed back with
+     * {@link EventCreationUtil#releaseEvent(com.github.retrooper.packetevents.event.ProtocolPacketEvent)}
+     * once the caller is done with it.
+     */
     public static PacketSendEvent handleClientBoundPacket(Object channel, 
                                                               User user, 
                                                               Object player, 
@@ -39,33 +45,53 @@ public class PacketEventsImplHelper {
                                                              boolean autoProtocolTranslation) throws Exception {
         if (!ByteBufHelper.isReadable(buffer)) return null;
 
+        PacketCapture capture = PacketCapture.getActive();
+        if (capture != null) {
+            capture.record(channel, user, PacketSide.SERVER, buffer);
+        }
         int preProcessIndex = ByteBufHelper.readerIndex(buffer);
         PacketSendEvent packetSendEvent = EventCreationUtil.createSendEvent(channel, user, player, buffer, autoProtocolTranslation);
-        int processIndex = ByteBufHelper.readerIndex(buffer);
-        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> {
-            ByteBufHelper.readerIndex(buffer, processIndex);
-        });
-        if (!packetSendEvent.isCancelled()) {
-            //Did they ever use a wrapper?
-            if (packetSendEvent.getLastUsedWrapper() != null) {
-                //Rewrite the buffer
-                ByteBufHelper.clear(buffer);
-                packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
-                packetSendEvent.getLastUsedWrapper().write();
+        try {
+            int processIndex = ByteBufHelper.readerIndex(buffer);
+            SharedPipeline.Dispatch shared = SharedPipeline.begin(channel, packetSendEvent, buffer, preProcessIndex, processIndex);
+            if (shared == null) {
+                PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> {
+                    ByteBufHelper.readerIndex(buffer, processIndex);
+                });
             } else {
-                //If no wrappers were used, just pass on the original buffer.
-                //Correct the reader index, basically what the next handler is expecting.
-                ByteBufHelper.readerIndex(buffer, preProcessIndex);
+                // Guests run within our priorities, they hand the packet back rewritten in place
+                try {
+                    PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, shared::resetReaderIndex, shared::afterPriority);
+                } finally {
+                    shared.end();
+                }
+                preProcessIndex = shared.getStartIndex();
+            }
+            if (!packetSendEvent.isCancelled()) {
+                //Did they ever use a wrapper?
+                if (packetSendEvent.getLastUsedWrapper() != null) {
+                    //Rewrite the buffer
+                    ByteBufHelper.clear(buffer);
+                    packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
+                    packetSendEvent.getLastUsedWrapper().write();
+                } else {
+                    //If no wrappers were used, just pass on the original buffer.
+                    //Correct the reader index, basically what the next handler is expecting.
+                    ByteBufHelper.readerIndex(buffer, preProcessIndex);
+                }
+            } else {
+                //Make the buffer unreadable for the next handlers
+                ByteBufHelper.clear(buffer);
             }
-        } else {
-            //Make the buffer unreadable for the next handlers
-            ByteBufHelper.clear(buffer);
-        }
 
-        if (packetSendEvent.hasPostTasks()) {
-            for (Runnable task : packetSendEvent.getPostTasks()) {
-                task.run();
+            if (packetSendEvent.hasPostTasks()) {
+                for (Runnable task : packetSendEvent.getPostTasks()) {
+                    task.run();
+                }
             }
+        } catch (Throwable t) {
+            EventCreationUtil.releaseEvent(packetSendEvent);
+            throw t;
         }
 
         return packetSendEvent;
@@ -77,56 +103,87 @@ public class PacketEventsImplHelper {
                                                              boolean autoProtocolTranslation) throws Exception {
         if (!ByteBufHelper.isReadable(buffer)) return null;
 
+        PacketCapture capture = PacketCapture.getActive();
+        if (capture != null) {
+            capture.record(channel, user, PacketSide.CLIENT, buffer);
+        }
         int preProcessIndex = ByteBufHelper.readerIndex(buffer);
         PacketReceiveEvent packetReceiveEvent = EventCreationUtil.createReceiveEvent(channel, user, player, buffer, autoProtocolTranslation);
-        int processIndex = ByteBufHelper.readerIndex(buffer);
-        Object finalBuffer = buffer;
-        PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> {
-            ByteBufHelper.readerIndex(finalBuffer, processIndex);
-        });
-        if (!packetReceiveEvent.isCancelled()) {
-            //Did they ever use a wrapper?
-            if (packetReceiveEvent.getLastUsedWrapper() != null) {
-                //Rewrite the buffer
-                ByteBufHelper.clear(buffer);
-                buffer = UnpooledByteBufAllocationHelper.buffer();
-                packetReceiveEvent.getLastUsedWrapper().setBuffer(buffer);
-                packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                packetReceiveEvent.getLastUsedWrapper().write();
+        try {
+            int processIndex = ByteBufHelper.readerIndex(buffer);
+            SharedPipeline.Dispatch shared = SharedPipeline.begin(channel, packetReceiveEvent, buffer, preProcessIndex, processIndex);
+            if (shared == null) {
+                Object finalBuffer = buffer;
+                PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> {
+                    ByteBufHelper.readerIndex(finalBuffer, processIndex);
+                });
             } else {
-                //If no wrappers were used, just pass on the original buffer.
-                //Correct the reader index, basically what the next handler is expecting.
-                ByteBufHelper.readerIndex(buffer, preProcessIndex);
+                // Guests run within our priorities, a rewritten packet is handed back in a new buffer
+                try {
+                    PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, shared::resetReaderIndex, shared::afterPriority);
+                } finally {
+                    shared.end();
+                }
+                if (shared.getBuffer() != buffer) {
+                    ByteBufHelper.clear(buffer);
+                    buffer = shared.getBuffer();
+                }
+                preProcessIndex = shared.getStartIndex();
             }
-        } else {
-            //Cancelling the packet, lets clear the buffer
-            ByteBufHelper.clear(buffer);
-        }
-        if (packetReceiveEvent.hasPostTasks()) {
-            for (Runnable task : packetReceiveEvent.getPostTasks()) {
-                task.run();
+            if (!packetReceiveEvent.isCancelled()) {
+                //Did they ever use a wrapper?
+                if (packetReceiveEvent.getLastUsedWrapper() != null) {
+                    //Rewrite the buffer
+                    ByteBufHelper.clear(buffer);
+                    buffer = UnpooledByteBufAllocationHelper.buffer();
+                    packetReceiveEvent.getLastUsedWrapper().setBuffer(buffer);
+                    packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
+                    packetReceiveEvent.getLastUsedWrapper().write();
+                } else {
+                    //If no wrappers were used, just pass on the original buffer.
+                    //Correct the reader index, basically what the next handler is expecting.
+                    ByteBufHelper.readerIndex(buffer, preProcessIndex);
+                }
+            } else {
+                //Cancelling the packet, lets clear the buffer
+                ByteBufHelper.clear(buffer);
+            }
+            if (!packetReceiveEvent.isCancelled()
+                    && (packetReceiveEvent.isSuspended() || SuspendedPackets.isHolding(channel))) {
+                //Hold a copy back and pass on nothing for now
+                SuspendedPackets.hold(channel, buffer, packetReceiveEvent.getSuspension(),
+                        packetReceiveEvent.getSuspensionTimeout(), packetReceiveEvent.getSuspensionTimeoutPolicy());
+                ByteBufHelper.clear(buffer);
+            }
+            if (packetReceiveEvent.hasPostTasks()) {
+                for (Runnable task : packetReceiveEvent.getPostTasks()) {
+                    task.run();
+                }
             }
+            return buffer;
+        } finally {
+            // Listeners may throw, the pooled event is handed back either way
+            EventCreationUtil.releaseEvent(packetReceiveEvent);
         }
-        return buffer;
     }
 
+    /**
+     * Called from the close listener of the channel, so this runs on its event loop,
+     * just like the initialization of the channel. No locks are needed.
+     */
     public static void handleDisconnection(Object channel, @Nullable UUID uuid) {
-        synchronized (channel) {
-            User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
+        User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
 
-            if (user != null) {
-                UserDisconnectEvent disconnectEvent = new UserDisconnectEvent(user);
-                PacketEvents.getAPI().getEventManager().callEvent(disconnectEvent);
-                PacketEvents.getAPI().getProtocolManager().removeUser(user.getChannel());
-            }
-
-            if (uuid == null) {
-                // Only way to be sure of removing a channel
-                ProtocolManager.CHANNELS.entrySet().removeIf(pair -> pair.getValue() == channel);
-            } else {
-                // This is the efficient way that we should prefer
-                ProtocolManager.CHANNELS.remove(uuid);
-            }
+        if (user != null) {
+            UserDisconnectEvent disconnectEvent = new UserDisconnectEvent(user);
+            PacketEvents.getAPI().getEventManager().callEvent(disconnectEvent);
+            PacketEvents.getAPI().getProtocolManager().removeUser(user.getChannel());
+            // registries are shared between users, release this user's reference
+            user.setDimensionRegistry(null);
         }
+
+        SuspendedPackets.discard(channel);
+        // The channel remembers which uuid it was mapped with, so this never has to scan all channels
+        PacketEvents.getAPI().getProtocolManager().removeChannel(channel, uuid);
     }
 }
@@ -0,0 +1,552 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.EventManager;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.ProtocolPacketEvent;
+import com.github.retrooper.packetevents.event.UserConnectEvent;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Lets multiple shaded copies of PacketEvents on the same server share one pair of netty handlers.
+ * <p>
+ * The first copy to join becomes the owner, it injects its handlers as usual and dispatches every packet to the
+ * listeners of all copies, one priority at a time: after its own listeners of a priority, the listeners of every
+ * guest with the same priority run. Copies joining afterwards become guests, they don't inject anything and only
+ * register hooks into the owner.
+ * <p>
+ * Every copy relocates PacketEvents into its own package, so the copies can't see each other's classes.
+ * The owner publishes the name of its relocated copy of this class as a system property, guests load that class
+ * through their plugin class loader, which looks classes up in every plugin, and fetch the published hooks from it.
+ * All data crossing copies only uses JDK types, the channel and buffers are passed as plain objects, and packets
+ * are handed from one copy to the next as bytes: changes made through a wrapper are written back into the buffer
+ * before the listeners of another copy run.
+ * Copies which speak a different {@link #PROTOCOL} fall back to injecting their own handlers.
+ * Guests can't suspend packets.
+ */
+@ApiStatus.Internal
+public final class SharedPipeline {
+    /**
+     * Bumped whenever the published map or the hook signatures change.
+     */
+    public static final int PROTOCOL = 2;
+    // Must not look like a package name, or relocation would rewrite it per copy
+    private static final String PROPERTY = "packetevents:shared-pipeline";
+
+    private static final String KEY_PROTOCOL = "protocol";
+    private static final String KEY_OWNER = "owner";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_ENCODER = "encoder";
+    private static final String KEY_DECODER = "decoder";
+    private static final String KEY_GUESTS = "guests";
+    private static final String KEY_ID = "id";
+    private static final String KEY_CONNECT = "connect";
+    private static final String KEY_DISCONNECT = "disconnect";
+    private static final String KEY_BEGIN = "begin";
+    private static final String KEY_DISPATCH = "dispatch";
+    private static final String KEY_END = "end";
+
+    public enum Role {
+        /**
+         * This copy injects its own handlers and doesn't share them.
+         */
+        STANDALONE,
+        /**
+         * This copy injects the handlers and runs the listeners of all guests.
+         */
+        OWNER,
+        /**
+         * This copy doesn't inject handlers, its listeners run inside the owner's handlers.
+         */
+        GUEST
+    }
+
+    private static volatile Role role = Role.STANDALONE;
+    private static volatile Map<Object, Object> published;
+    // Owner: hooks of every guest, in join order
+    private static volatile List<Map<String, Object>> guests;
+    // Guest: the hooks this copy registered into the owner
+    private static Map<String, Object> hooks;
+    // Guest: players are normally stored on our own handlers, which guests don't have
+    private static final Map<Object, Object> PLAYERS = new ConcurrentHashMap<>();
+
+    private SharedPipeline() {
+    }
+
+    public static Role getRole() {
+        return role;
+    }
+
+    public static boolean isOwner() {
+        return role == Role.OWNER;
+    }
+
+    public static boolean isGuest() {
+        return role == Role.GUEST;
+    }
+
+    /**
+     * Looked up reflectively by other copies, through the class name published by the owner.
+     *
+     * @return The map the owner published, or null if this copy isn't the owner
+     */
+    public static @Nullable Map<Object, Object> published() {
+        return role == Role.OWNER ? published : null;
+    }
+
+    /**
+     * Joins the shared pipeline, either as the owner if no other copy published itself yet or as a guest.
+     * Guests take over the handler names of the owner, so sending packets silently skips the owner's handlers.
+     *
+     * @param identifier Identifier of this copy, only used for logging
+     * @return The role of this copy
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized Role join(String identifier) {
+        if (role != Role.STANDALONE) {
+            return role;
+        }
+        Map<Object, Object> candidate = new ConcurrentHashMap<>();
+        candidate.put(KEY_PROTOCOL, PROTOCOL);
+        candidate.put(KEY_OWNER, identifier);
+        candidate.put(KEY_VERSION, PacketEvents.getAPI().getVersion().toString());
+        candidate.put(KEY_ENCODER, PacketEvents.ENCODER_NAME);
+        candidate.put(KEY_DECODER, PacketEvents.DECODER_NAME);
+        List<Map<String, Object>> candidateGuests = new CopyOnWriteArrayList<>();
+        candidate.put(KEY_GUESTS, candidateGuests);
+
+        // Properties is a Hashtable, putIfAbsent is atomic across all copies
+        published = candidate;
+        guests = candidateGuests;
+        role = Role.OWNER;
+        Object existing = System.getProperties().putIfAbsent(PROPERTY, SharedPipeline.class.getName());
+        if (existing == null) {
+            return Role.OWNER;
+        }
+        published = null;
+        guests = null;
+        role = Role.STANDALONE;
+
+        Map<Object, Object> owner = existing instanceof String ? lookup((String) existing) : null;
+        if (owner == null
+                || !Integer.valueOf(PROTOCOL).equals(owner.get(KEY_PROTOCOL))
+                || !(owner.get(KEY_GUESTS) instanceof List)) {
+            PacketEvents.getAPI().getLogManager().warn("Another copy of PacketEvents uses an incompatible shared pipeline, "
+                    + identifier + " will inject its own handlers.");
+            return Role.STANDALONE;
+        }
+        Map<String, Object> ownHooks = new HashMap<>();
+        ownHooks.put(KEY_ID, identifier);
+        ownHooks.put(KEY_CONNECT, (BiConsumer<Object, String>) SharedPipeline::onConnect);
+        ownHooks.put(KEY_DISCONNECT, (Consumer<Object>) SharedPipeline::onDisconnect);
+        ownHooks.put(KEY_BEGIN, (BiFunction<Object, Boolean, Object>) SharedPipeline::onBegin);
+        ownHooks.put(KEY_DISPATCH, (BiFunction<Object, Object[], Object[]>) SharedPipeline::onDispatch);
+        ownHooks.put(KEY_END, (Function<Object, List<Runnable>>) SharedPipeline::onEnd);
+        ((List<Object>) owner.get(KEY_GUESTS)).add(ownHooks);
+
+        PacketEvents.ENCODER_NAME = (String) owner.get(KEY_ENCODER);
+        PacketEvents.DECODER_NAME = (String) owner.get(KEY_DECODER);
+        published = owner;
+        hooks = ownHooks;
+        PacketEvents.getAPI().getLogManager().debug(identifier + " shares the handlers of " + owner.get(KEY_OWNER)
+                + " (PacketEvents " + owner.get(KEY_VERSION) + ")");
+        return role = Role.GUEST;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @Nullable Map<Object, Object> lookup(String ownerClassName) {
+        try {
+            Class<?> ownerClass = Class.forName(ownerClassName, true, SharedPipeline.class.getClassLoader());
+            if (ownerClass == SharedPipeline.class) {
+                return null; // the owner relocated PacketEvents into the same package, we can't reach it
+            }
+            Object owner = ownerClass.getMethod("published").invoke(null);
+            return owner instanceof Map ? (Map<Object, Object>) owner : null;
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Leaves the shared pipeline. If the owner leaves, guests keep running until the server stops,
+     * but packets are no longer dispatched to them.
+     */
+    public static synchronized void leave() {
+        if (role == Role.OWNER) {
+            System.getProperties().remove(PROPERTY, SharedPipeline.class.getName());
+            guests.clear();
+            guests = null;
+        } else if (role == Role.GUEST) {
+            Object list = published.get(KEY_GUESTS);
+            if (list instanceof List) {
+                ((List<?>) list).remove(hooks);
+            }
+            hooks = null;
+            PLAYERS.clear();
+        }
+        published = null;
+        role = Role.STANDALONE;
+    }
+
+    // Owner side, called from our handlers
+
+    public static boolean hasGuests() {
+        List<Map<String, Object>> guests = SharedPipeline.guests;
+        return guests != null && !guests.isEmpty();
+    }
+
+    private static List<Map<String, Object>> guests() {
+        List<Map<String, Object>> guests = SharedPipeline.guests;
+        return guests != null ? guests : Collections.emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void connect(Object channel, ConnectionState connectionState) {
+        for (Map<String, Object> guest : guests()) {
+            try {
+                ((BiConsumer<Object, String>) guest.get(KEY_CONNECT)).accept(channel, connectionState.name());
+            } catch (RuntimeException ex) {
+                PacketEvents.getAPI().getLogManager().warn("Shared pipeline guest " + guest.get(KEY_ID)
+                        + " failed to handle a connection: " + ex);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void disconnect(Object channel) {
+        for (Map<String, Object> guest : guests()) {
+            try {
+                ((Consumer<Object>) guest.get(KEY_DISCONNECT)).accept(channel);
+            } catch (RuntimeException ex) {
+                PacketEvents.getAPI().getLogManager().warn("Shared pipeline guest " + guest.get(KEY_ID)
+                        + " failed to handle a disconnection: " + ex);
+            }
+        }
+    }
+
+    /**
+     * Prepares dispatching a packet to the guests, which have to be called through {@link Dispatch#afterPriority}
+     * after our own listeners of every priority, and released with {@link Dispatch#end()}.
+     *
+     * @param startIndex Reader index of the packet id
+     * @param processIndex Reader index of the packet content
+     * @return The dispatch, or null if no guest handles the packet
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nullable Dispatch begin(Object channel, ProtocolPacketEvent<?> event, Object buffer,
+                                           int startIndex, int processIndex) {
+        List<Map<String, Object>> guests = guests();
+        if (guests.isEmpty()) {
+            return null;
+        }
+        boolean serverBound = !(event instanceof PacketSendEvent);
+        List<Map<String, Object>> handling = null;
+        List<Object> contexts = null;
+        for (Map<String, Object> guest : guests) {
+            Object context;
+            try {
+                context = ((BiFunction<Object, Boolean, Object>) guest.get(KEY_BEGIN)).apply(channel, serverBound);
+            } catch (RuntimeException ex) {
+                PacketEvents.getAPI().getLogManager().warn("Shared pipeline guest " + guest.get(KEY_ID)
+                        + " failed to handle a packet: " + ex);
+                continue;
+            }
+            if (context == null) {
+                continue; // no user on this channel
+            }
+            if (handling == null) {
+                handling = new ArrayList<>(guests.size());
+                contexts = new ArrayList<>(guests.size());
+            }
+            handling.add(guest);
+            contexts.add(context);
+        }
+        return handling == null ? null
+                : new Dispatch(event, buffer, startIndex, processIndex, serverBound, handling, contexts);
+    }
+
+    /**
+     * Writes the changes made through the last used wrapper back into the packet, so the next copy reads them.
+     *
+     * @return Whether the packet was rewritten, it then starts at index 0 of {@link ProtocolPacketEvent#getByteBuf()}
+     */
+    private static boolean handOver(ProtocolPacketEvent<?> event, boolean serverBound) {
+        PacketWrapper<?> wrapper = event.getLastUsedWrapper();
+        if (wrapper == null) {
+            return false;
+        }
+        boolean reEncode = !event.isCancelled() && event.isReEncodeRequired();
+        // the next copy may change the packet, the wrapper has to be read again
+        event.setLastUsedWrapper(null);
+        if (!reEncode) {
+            return false;
+        }
+        Object buffer = event.getByteBuf();
+        if (serverBound) {
+            // the decoder's input can't grow
+            buffer = UnpooledByteBufAllocationHelper.buffer();
+            wrapper.setBuffer(buffer);
+            event.setByteBuf(buffer);
+        } else {
+            ByteBufHelper.clear(buffer);
+        }
+        wrapper.writeVarInt(event.getPacketId());
+        wrapper.write();
+        return true;
+    }
+
+    /**
+     * A packet being dispatched to the guests, owned by the handler which processes the packet.
+     */
+    public static final class Dispatch {
+
+        private final ProtocolPacketEvent<?> event;
+        private final Object originalBuffer;
+        private final boolean serverBound;
+        private final List<Map<String, Object>> guests;
+        private final List<Object> contexts;
+        private Object buffer;
+        private int startIndex;
+        private int processIndex;
+
+        private Dispatch(ProtocolPacketEvent<?> event, Object buffer, int startIndex, int processIndex,
+                         boolean serverBound, List<Map<String, Object>> guests, List<Object> contexts) {
+            this.event = event;
+            this.originalBuffer = buffer;
+            this.buffer = buffer;
+            this.startIndex = startIndex;
+            this.processIndex = processIndex;
+            this.serverBound = serverBound;
+            this.guests = guests;
+            this.contexts = contexts;
+        }
+
+        /**
+         * Replaces the post listener action, the packet may have been moved by a guest.
+         */
+        public void resetReaderIndex() {
+            ByteBufHelper.readerIndex(this.buffer, this.processIndex);
+        }
+
+        /**
+         * Runs the listeners of every guest with the priority whose listeners of ours just ran.
+         */
+        @SuppressWarnings("unchecked")
+        public void afterPriority(PacketListenerPriority priority) {
+            if (handOver(this.event, this.serverBound)) {
+                this.replaceBuffer(this.event.getByteBuf());
+                this.startIndex = 0;
+            }
+            for (int i = 0; i < this.guests.size(); i++) {
+                Map<String, Object> guest = this.guests.get(i);
+                Object[] result;
+                try {
+                    result = ((BiFunction<Object, Object[], Object[]>) guest.get(KEY_DISPATCH)).apply(this.contexts.get(i),
+                            new Object[]{this.buffer, this.startIndex, priority.ordinal(), this.event.isCancelled()});
+                } catch (RuntimeException ex) {
+                    PacketEvents.getAPI().getLogManager().warn("Shared pipeline guest " + guest.get(KEY_ID)
+                            + " failed to handle a packet: " + ex);
+                    continue;
+                }
+                if (result[0] != this.buffer) {
+                    this.replaceBuffer(result[0]);
+                }
+                this.startIndex = (Integer) result[1];
+                this.event.setCancelled((Boolean) result[2]);
+            }
+            ByteBufHelper.readerIndex(this.buffer, this.startIndex);
+            ByteBufHelper.readVarInt(this.buffer);
+            this.processIndex = ByteBufHelper.readerIndex(this.buffer);
+        }
+
+        private void replaceBuffer(Object buffer) {
+            // buffers created while dispatching are ours, the original one belongs to the handler
+            if (this.buffer != this.originalBuffer) {
+                ByteBufHelper.release(this.buffer);
+            }
+            this.buffer = buffer;
+            this.event.setByteBuf(buffer);
+        }
+
+        /**
+         * Releases the events of the guests, their tasks after send are added to our event.
+         */
+        @SuppressWarnings("unchecked")
+        public void end() {
+            for (int i = 0; i < this.guests.size(); i++) {
+                Map<String, Object> guest = this.guests.get(i);
+                try {
+                    List<Runnable> tasks = ((Function<Object, List<Runnable>>) guest.get(KEY_END)).apply(this.contexts.get(i));
+                    if (tasks != null && this.event instanceof PacketSendEvent) {
+                        ((PacketSendEvent) this.event).getTasksAfterSend().addAll(tasks);
+                    }
+                } catch (RuntimeException ex) {
+                    PacketEvents.getAPI().getLogManager().warn("Shared pipeline guest " + guest.get(KEY_ID)
+                            + " failed to handle a packet: " + ex);
+                }
+            }
+        }
+
+        /**
+         * @return The buffer holding the packet, a new one if a wrapper rewrote a serverbound packet
+         */
+        public Object getBuffer() {
+            return this.buffer;
+        }
+
+        /**
+         * @return The reader index of the packet id
+         */
+        public int getStartIndex() {
+            return this.startIndex;
+        }
+    }
+
+    // Guest side, called by the owner's handlers
+
+    public static void setPlayer(Object channel, Object player) {
+        PLAYERS.put(channel, player);
+    }
+
+    private static void onConnect(Object channel, String connectionStateName) {
+        ConnectionState connectionState = ConnectionState.valueOf(connectionStateName);
+        User user = new User(channel, connectionState, null, new UserProfile(null, null));
+        if (connectionState == ConnectionState.PLAY) {
+            // Same assumption the owner makes for late injections
+            user.setClientVersion(PacketEvents.getAPI().getServerManager().getVersion().toClientVersion());
+        }
+        UserConnectEvent connectEvent = new UserConnectEvent(user);
+        PacketEvents.getAPI().getEventManager().callEvent(connectEvent);
+        if (connectEvent.isCancelled()) {
+            ChannelHelper.close(channel);
+            return;
+        }
+        PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+    }
+
+    private static void onDisconnect(Object channel) {
+        PLAYERS.remove(channel);
+        User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
+        PacketEventsImplHelper.handleDisconnection(channel, user != null ? user.getUUID() : null);
+    }
+
+    private static @Nullable Object onBegin(Object channel, Boolean serverBound) {
+        User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
+        return user == null ? null : new GuestPacket(channel, user, serverBound);
+    }
+
+    private static Object[] onDispatch(Object context, Object[] args) {
+        GuestPacket packet = (GuestPacket) context;
+        Object buffer = args[0];
+        int startIndex = (Integer) args[1];
+        PacketListenerPriority priority = PacketListenerPriority.values()[(Integer) args[2]];
+        boolean cancelled = (Boolean) args[3];
+        EventManager eventManager = PacketEvents.getAPI().getEventManager();
+        if (!eventManager.hasListeners(priority)) {
+            return args;
+        }
+
+        ByteBufHelper.readerIndex(buffer, startIndex);
+        ProtocolPacketEvent<?> event = packet.event;
+        if (event == null) {
+            try {
+                Object player = PLAYERS.get(packet.channel);
+                event = packet.serverBound
+                        ? EventCreationUtil.createReceiveEvent(packet.channel, packet.user, player, buffer, true)
+                        : EventCreationUtil.createSendEvent(packet.channel, packet.user, player, buffer, true);
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            packet.event = event;
+            eventManager.beginEvent(event);
+        } else {
+            event.setByteBuf(buffer);
+            ByteBufHelper.readVarInt(buffer);
+        }
+        event.setCancelled(cancelled);
+        int processIndex = ByteBufHelper.readerIndex(buffer);
+        eventManager.callListeners(event, priority, () -> ByteBufHelper.readerIndex(buffer, processIndex));
+        if (handOver(event, packet.serverBound)) {
+            return new Object[]{event.getByteBuf(), 0, event.isCancelled()};
+        }
+        return new Object[]{buffer, startIndex, event.isCancelled()};
+    }
+
+    private static @Nullable List<Runnable> onEnd(Object context) {
+        ProtocolPacketEvent<?> event = ((GuestPacket) context).event;
+        if (event == null) {
+            return null;
+        }
+        try {
+            PacketEvents.getAPI().getEventManager().endEvent(event);
+            if (event.hasPostTasks()) {
+                for (Runnable task : event.getPostTasks()) {
+                    task.run();
+                }
+            }
+            if (event instanceof PacketSendEvent && ((PacketSendEvent) event).hasTasksAfterSend()) {
+                // The event is recycled below, so only hand out the tasks
+                return new ArrayList<>(((PacketSendEvent) event).getTasksAfterSend());
+            }
+            return null;
+        } finally {
+            EventCreationUtil.releaseEvent(event);
+        }
+    }
+
+    // A packet being dispatched to our listeners one priority at a time
+    private static final class GuestPacket {
+
+        private final Object channel;
+        private final User user;
+        private final boolean serverBound;
+        private @Nullable ProtocolPacketEvent<?> event;
+
+        private GuestPacket(Object channel, User user, boolean serverBound) {
+            this.channel = channel;
+            this.user = user;
+            this.serverBound = serverBound;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.SuspensionTimeoutPolicy;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+/**
+ * Holds back serverbound packets of a channel while a suspended packet is processed off the event loop.
+ * Once a packet is suspended, every later packet of the channel waits behind it, so the server
+ * receives them in the order they arrived. Packets are passed on from the context of the decoder
+ * on the event loop of the channel. Channels holding back more packets than
+ * {@link com.github.retrooper.packetevents.settings.PacketEventsSettings#getSuspendedPacketLimit()} are closed.
+ * <p>
+ * Tasks run on virtual threads on Java 21 and newer, on a cached pool of daemon threads otherwise.
+ */
+@ApiStatus.Internal
+public final class SuspendedPackets {
+    // Keyed by our own (possibly relocated) class name, so every shaded copy of packetevents holds back its own packets
+    private static final String ATTRIBUTE = SuspendedPackets.class.getName() + "#packets";
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "packetevents-suspension-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object channel;
+    // Only accessed on the event loop
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    private SuspendedPackets(Object channel) {
+        this.channel = channel;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            // Java 21+
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ignored) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "packetevents-suspended-packet-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return Whether packets of the channel are currently held back, later packets have to wait as well
+     */
+    public static boolean isHolding(Object channel) {
+        SuspendedPackets packets = (SuspendedPackets) ChannelHelper.getAttribute(channel, ATTRIBUTE);
+        return packets != null && !packets.entries.isEmpty();
+    }
+
+    /**
+     * Holds back the packet, it is passed on once it and all packets before it are resumed.
+     * Has to be called on the event loop of the channel. The channel is closed instead if it holds back too many packets.
+     *
+     * @param channel Channel
+     * @param buffer  Packet, starting with the packet id, the caller keeps ownership of it
+     * @param task    Task deciding whether the packet proceeds, or null if it only waits for the packets before it
+     * @param timeout Milliseconds after which the policy applies
+     * @param policy  What to do with the packet if the task doesn't finish in time
+     */
+    public static void hold(Object channel, Object buffer, @Nullable Callable<Boolean> task,
+                            long timeout, SuspensionTimeoutPolicy policy) {
+        SuspendedPackets packets = (SuspendedPackets) ChannelHelper.getAttribute(channel, ATTRIBUTE);
+        if (packets == null) {
+            packets = new SuspendedPackets(channel);
+            ChannelHelper.setAttribute(channel, ATTRIBUTE, packets);
+        }
+        int limit = PacketEvents.getAPI().getSettings().getSuspendedPacketLimit();
+        if (limit > 0 && packets.entries.size() >= limit) {
+            // The client keeps sending while its packets are held back, the held packets are dropped on close
+            PacketEvents.getAPI().getLogManager().debug("Disconnecting " + ChannelHelper.remoteAddress(channel)
+                    + ", more than " + limit + " packets were held back");
+            ChannelHelper.close(channel);
+            return;
+        }
+        Entry entry = new Entry(ByteBufHelper.copy(buffer));
+        packets.entries.add(entry);
+        if (task == null) {
+            entry.state.set(State.PROCEED);
+            return;
+        }
+        SuspendedPackets finalPackets = packets;
+        if (timeout > 0L) {
+            entry.timeout = TIMEOUTS.schedule(() -> {
+                State state = policy == SuspensionTimeoutPolicy.PROCEED ? State.PROCEED : State.CANCEL;
+                if (finalPackets.resolve(entry, state) && policy == SuspensionTimeoutPolicy.DISCONNECT) {
+                    ChannelHelper.close(channel);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+        EXECUTOR.execute(() -> {
+            State state;
+            try {
+                state = Boolean.TRUE.equals(task.call()) ? State.PROCEED : State.CANCEL;
+            } catch (Exception ex) {
+                PacketEvents.getAPI().getLogger().log(Level.WARNING, "PacketEvents caught an unhandled exception while running a suspended packet task.", ex);
+                state = State.CANCEL;
+            }
+            finalPackets.resolve(entry, state);
+        });
+    }
+
+    /**
+     * Drops the packets held back for a closed channel, tasks which are still running are ignored.
+     */
+    public static void discard(Object channel) {
+        SuspendedPackets packets = (SuspendedPackets) ChannelHelper.getAttribute(channel, ATTRIBUTE);
+        if (packets != null) {
+            packets.flush();
+        }
+    }
+
+    private boolean resolve(Entry entry, State state) {
+        if (!entry.state.compareAndSet(State.PENDING, state)) {
+            return false;
+        }
+        ScheduledFuture<?> timeout = entry.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        ChannelHelper.runInEventLoop(channel, this::flush);
+        return true;
+    }
+
+    private void flush() {
+        boolean open = ChannelHelper.isOpen(channel);
+        Entry entry;
+        while ((entry = entries.peek()) != null) {
+            State state = entry.state.get();
+            if (state == State.PENDING && open) {
+                break;
+            }
+            entries.poll();
+            if (state == State.PROCEED && open) {
+                ChannelHelper.fireChannelReadInContext(channel, PacketEvents.DECODER_NAME, entry.buffer);
+            } else {
+                ByteBufHelper.release(entry.buffer);
+            }
+        }
+    }
+
+    private enum State {
+        PENDING,
+        PROCEED,
+        CANCEL
+    }
+
+    private static final class Entry {
+        private final Object buffer;
+        private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+        private volatile @Nullable ScheduledFuture<?> timeout;
+
+        private Entry(Object buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import com.github.retrooper.packetevents.protocol.nbt.NBTNumber;
 import com.github.retrooper.packetevents.protocol.nbt.NBTShort;
 import com.github.retrooper.packetevents.protocol.nbt.NBTString;
 import com.github.retrooper.packetevents.protocol.nbt.NBTType;
+import com.github.retrooper.packetevents.protocol.nbt.serializer.DefaultNBTSerializer;
 import net.kyori.adventure.key.Key;
 import net.kyori.adventure.nbt.api.BinaryTagHolder;
 import net.kyori.adventure.text.BlockNBTComponent;
@@ -60,6 +61,8 @@ import net.kyori.adventure.text.serializer.gson.BackwardCompatUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -72,6 +75,13 @@ import java.util.function.Function;
 
 public class AdventureNBTSerializer implements ComponentSerializer<Component, Component, NBT> {
 
+    // nbt type ids, used when writing components directly
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+
     private final boolean downsampleColor;
 
     public AdventureNBTSerializer(boolean downsampleColor) {
@@ -218,6 +228,116 @@ public class AdventureNBTSerializer implements ComponentSerializer<Component, Co
         return serializeComponent(component);
     }
 
+    /**
+     * Writes the component in the unnamed network format (1.20.2+), without creating intermediate nbt tags
+     * for text and translatable components.
+     */
+    public void serialize(@NotNull Component component, @NotNull DataOutput output) throws IOException {
+        if (component instanceof TextComponent && !component.hasStyling() && component.children().isEmpty()) {
+            output.writeByte(TAG_STRING);
+            output.writeUTF(((TextComponent) component).content());
+            return;
+        }
+        output.writeByte(TAG_COMPOUND);
+        this.writeComponent(component, output);
+    }
+
+    private void writeComponent(Component component, DataOutput output) throws IOException {
+        if (component instanceof TextComponent) {
+            writeString(output, "text", ((TextComponent) component).content());
+        } else if (component instanceof TranslatableComponent) {
+            TranslatableComponent translatable = (TranslatableComponent) component;
+            writeString(output, "translate", translatable.key());
+            String fallback = translatable.fallback();
+            if (fallback != null) {
+                writeString(output, "fallback", fallback);
+            }
+            List<Component> args = translatable.args();
+            if (!args.isEmpty()) {
+                this.beginCompoundList(output, "with", args.size());
+                if (BackwardCompatUtil.IS_4_15_0_OR_NEWER) {
+                    for (TranslationArgument argument : translatable.arguments()) {
+                        this.writeComponent(argument.asComponent(), output);
+                    }
+                } else {
+                    for (Component arg : args) {
+                        this.writeComponent(arg, output);
+                    }
+                }
+            }
+        } else {
+            // rarely used component types go through the tag based serializer
+            for (Map.Entry<String, NBT> entry : this.serializeComponent(component).getTags().entrySet()) {
+                DefaultNBTSerializer.INSTANCE.serializeNamedTag(output, entry.getKey(), entry.getValue());
+            }
+            output.writeByte(TAG_END);
+            return;
+        }
+
+        if (component.hasStyling()) {
+            this.writeStyle(component.style(), output);
+        }
+
+        List<Component> children = component.children();
+        if (!children.isEmpty()) {
+            this.beginCompoundList(output, "extra", children.size());
+            for (Component child : children) {
+                this.writeComponent(child, output);
+            }
+        }
+        output.writeByte(TAG_END);
+    }
+
+    private void writeStyle(Style style, DataOutput output) throws IOException {
+        if (style.hoverEvent() != null) {
+            // hover events may contain items and entities, use the tag based serializer
+            for (Map.Entry<String, NBT> entry : this.serializeStyle(style).getTags().entrySet()) {
+                DefaultNBTSerializer.INSTANCE.serializeNamedTag(output, entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+
+        Key font = style.font();
+        if (font != null) writeString(output, "font", font.asString());
+
+        TextColor color = style.color();
+        if (color != null) writeString(output, "color", this.serializeColor(color));
+
+        for (Map.Entry<TextDecoration, String> decoration : TextDecoration.NAMES.valueToKey().entrySet()) {
+            TextDecoration.State state = style.decoration(decoration.getKey());
+            if (state != TextDecoration.State.NOT_SET) {
+                output.writeByte(TAG_BYTE);
+                output.writeUTF(decoration.getValue());
+                output.writeByte(state == TextDecoration.State.TRUE ? 1 : 0);
+            }
+        }
+
+        String insertion = style.insertion();
+        if (insertion != null) writeString(output, "insertion", insertion);
+
+        ClickEvent clickEvent = style.clickEvent();
+        if (clickEvent != null) {
+            output.writeByte(TAG_COMPOUND);
+            output.writeUTF("clickEvent");
+            writeString(output, "action", clickEvent.action().toString());
+            writeString(output, "value", clickEvent.value());
+            output.writeByte(TAG_END);
+        }
+    }
+
+    private void beginCompoundList(DataOutput output, String name, int size) throws IOException {
+        output.writeByte(TAG_LIST);
+        output.writeUTF(name);
+        output.writeByte(TAG_COMPOUND);
+        output.writeInt(size);
+    }
+
+    private static void writeString(DataOutput output, String name, String value) throws IOException {
+        output.writeByte(TAG_STRING);
+        output.writeUTF(name);
+        output.writeUTF(value);
+    }
+
     private @NotNull NBTCompound serializeComponent(Component component) {
         NBTWriter writer = new NBTWriter(new NBTCompound());
 
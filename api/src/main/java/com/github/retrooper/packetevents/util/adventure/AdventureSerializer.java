@@ -34,6 +34,7 @@ public class AdventureSerializer {
     private static GsonComponentSerializer GSON;
     private static LegacyComponentSerializer LEGACY;
     private static AdventureNBTSerializer NBT;
+    private static ComponentCache CACHE;
 
     public static GsonComponentSerializer getGsonSerializer() {
         if (GSON == null) {
@@ -78,6 +79,13 @@ public class AdventureSerializer {
         return NBT;
     }
 
+    public static ComponentCache getComponentCache() {
+        if (CACHE == null) {
+            CACHE = new ComponentCache(PacketEvents.getAPI().getSettings().getComponentCacheSize());
+        }
+        return CACHE;
+    }
+
     public static String asVanilla(Component component) {
         return getLegacySerializer().serialize(component);
     }
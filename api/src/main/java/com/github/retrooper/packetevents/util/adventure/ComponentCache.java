@@ -0,0 +1,185 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.adventure;
+
+import net.kyori.adventure.text.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded caches of serialized components.
+ * <p>
+ * Components are immutable, so they are keyed by equality. Chat prefixes, item lore or scoreboard lines
+ * are usually equal components sent over and over, which then only have to be serialized once per wire format.
+ * Entries larger than {@link #MAX_ENTRY_BYTES} aren't cached.
+ * <p>
+ * The caches are read from every netty thread at once, so lookups never lock. Eviction approximates
+ * least recently used with the clock algorithm: entries are evicted in insertion order,
+ * unless they have been read since the clock last passed them.
+ */
+public final class ComponentCache {
+
+    public static final int MAX_ENTRY_BYTES = 16384;
+
+    private final ClockCache<Component, byte[]> json;
+    private final ClockCache<Component, byte[]> nbt;
+    private final ClockCache<String, Component> parsedJson;
+    private final boolean enabled;
+
+    public ComponentCache(int maxSize) {
+        this.enabled = maxSize > 0;
+        this.json = new ClockCache<>(maxSize);
+        this.nbt = new ClockCache<>(maxSize);
+        this.parsedJson = new ClockCache<>(maxSize);
+    }
+
+    /**
+     * @return the component as UTF-8 encoded json
+     */
+    public byte[] toJson(Component component) {
+        byte[] bytes = this.enabled ? this.json.get(component) : null;
+        if (bytes == null) {
+            bytes = AdventureSerializer.toJson(component).getBytes(StandardCharsets.UTF_8);
+            this.put(this.json, component, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the component in the unnamed network nbt format, used by 1.20.2+
+     */
+    public byte[] toNbt(Component component) {
+        byte[] bytes = this.enabled ? this.nbt.get(component) : null;
+        if (bytes == null) {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream(64);
+            try {
+                AdventureSerializer.getNBTSerializer().serialize(component, new DataOutputStream(stream));
+            } catch (IOException exception) {
+                throw new IllegalStateException(exception);
+            }
+            bytes = stream.toByteArray();
+            this.put(this.nbt, component, bytes);
+        }
+        return bytes;
+    }
+
+    public Component parseJson(String json) {
+        if (!this.enabled || json.length() > MAX_ENTRY_BYTES) {
+            return AdventureSerializer.parseComponent(json);
+        }
+        Component component = this.parsedJson.get(json);
+        if (component == null) {
+            component = AdventureSerializer.parseComponent(json);
+            if (component != null) {
+                this.parsedJson.put(json, component);
+            }
+        }
+        return component;
+    }
+
+    public void clear() {
+        this.json.clear();
+        this.nbt.clear();
+        this.parsedJson.clear();
+    }
+
+    private void put(ClockCache<Component, byte[]> cache, Component component, byte[] bytes) {
+        if (this.enabled && bytes.length <= MAX_ENTRY_BYTES) {
+            cache.put(component, bytes);
+        }
+    }
+
+    private static final class ClockCache<K, V> {
+
+        private final int maxSize;
+        private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+        // the clock hand walks over the keys in insertion order
+        private final Queue<K> clock = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        private ClockCache(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private V get(K key) {
+            Entry<V> entry = this.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            // only written when needed, hot entries are read by many threads
+            if (!entry.referenced) {
+                entry.referenced = true;
+            }
+            return entry.value;
+        }
+
+        private void put(K key, V value) {
+            if (this.entries.putIfAbsent(key, new Entry<>(value)) != null) {
+                return; // serialized by another thread in the meantime
+            }
+            this.clock.offer(key);
+            if (this.size.incrementAndGet() > this.maxSize) {
+                this.evict();
+            }
+        }
+
+        private void evict() {
+            K key;
+            while ((key = this.clock.poll()) != null) {
+                Entry<V> entry = this.entries.get(key);
+                if (entry == null) {
+                    continue; // cleared
+                }
+                if (entry.referenced) {
+                    // second chance, every entry is passed at most once before one is evicted
+                    entry.referenced = false;
+                    this.clock.offer(key);
+                    continue;
+                }
+                if (this.entries.remove(key, entry)) {
+                    this.size.decrementAndGet();
+                }
+                return;
+            }
+        }
+
+        private void clear() {
+            this.entries.clear();
+            this.clock.clear();
+            this.size.set(0);
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+}
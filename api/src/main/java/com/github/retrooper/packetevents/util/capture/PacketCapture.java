@@ -0,0 +1,269 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.capture;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the raw packets packetevents processes into an append-only, memory-mapped file,
+ * which {@link PacketReplay} can feed through the listeners again later.
+ * Packets are recorded as they arrive, before any listener ran.
+ * <p>
+ * The file starts with a header ({@link #MAGIC}, {@link #VERSION}, segment size) and is split into segments of equal
+ * size. Each record is laid out as
+ * {@code int length, long nanos since the capture started, int user id, byte side, byte connection state,
+ * int protocol version, packet bytes (starting with the packet id)}, where the length covers everything after itself.
+ * Writers reserve their space in the current segment without locking and mark it with the negated length until the
+ * record is complete, so readers can skip records which were never completed. A length of 0 means the rest of the
+ * segment is unused and the next record starts in the next segment.
+ */
+public final class PacketCapture implements Closeable {
+    public static final int MAGIC = 0x50454350; // "PECP"
+    public static final int VERSION = 2;
+    public static final int FILE_HEADER_SIZE = 12;
+    public static final int RECORD_HEADER_SIZE = 4 + 8 + 4 + 1 + 1 + 4;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static volatile @Nullable PacketCapture active;
+
+    private final RandomAccessFile file;
+    private final FileChannel fileChannel;
+    private final int segmentSize;
+    private final long startTime = System.nanoTime();
+    // channel -> id of the user in this capture, weak so closed connections are not kept alive
+    private final Map<Object, Integer> userIds = new WeakHashMap<>();
+    private int nextUserId; // guarded by userIds
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    // Records being written, the file is only truncated once they are done
+    private final AtomicInteger writers = new AtomicInteger();
+    private volatile Segment segment;
+    private volatile boolean closed;
+    private boolean finished;
+
+    private PacketCapture(File target, int segmentSize) throws IOException {
+        this.file = new RandomAccessFile(target, "rw");
+        this.file.setLength(0L);
+        this.fileChannel = file.getChannel();
+        this.segmentSize = segmentSize;
+        this.segment = new Segment(fileChannel.map(FileChannel.MapMode.READ_WRITE, 0L, segmentSize), 0L, FILE_HEADER_SIZE);
+        this.segment.buffer.putInt(0, MAGIC);
+        this.segment.buffer.putInt(4, VERSION);
+        this.segment.buffer.putInt(8, segmentSize);
+    }
+
+    /**
+     * Starts capturing all packets into the file, replacing its contents.
+     *
+     * @param target      File to write to
+     * @param segmentSize Size of the mapped segments, packets bigger than this are skipped
+     * @return The new capture
+     * @throws IllegalStateException if a capture is already running
+     */
+    public static synchronized PacketCapture start(File target, int segmentSize) throws IOException {
+        if (active != null) {
+            throw new IllegalStateException("A packet capture is already running");
+        }
+        PacketCapture capture = new PacketCapture(target, segmentSize);
+        active = capture;
+        return capture;
+    }
+
+    public static PacketCapture start(File target) throws IOException {
+        return start(target, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @return The running capture, or null
+     */
+    public static @Nullable PacketCapture getActive() {
+        return active;
+    }
+
+    /**
+     * Records a packet, the reader index of the buffer is left untouched.
+     *
+     * @param channel Channel of the user
+     * @param user    User the packet belongs to
+     * @param side    {@link PacketSide#CLIENT} for serverbound packets, {@link PacketSide#SERVER} for clientbound ones
+     * @param buffer  Packet, starting with the packet id
+     */
+    public void record(Object channel, User user, PacketSide side, Object buffer) {
+        writers.incrementAndGet();
+        try {
+            // Checked after announcing ourselves, so close either waits for us or we see it
+            if (!closed) {
+                write(channel, user, side, buffer);
+            }
+        } finally {
+            // The capture may have stopped itself while we were writing, the last writer finishes it
+            if (writers.decrementAndGet() == 0 && closed) {
+                finishQuietly();
+            }
+        }
+    }
+
+    private void write(Object channel, User user, PacketSide side, Object buffer) {
+        int index = ByteBufHelper.readerIndex(buffer);
+        int length = ByteBufHelper.readableBytes(buffer);
+        int size = RECORD_HEADER_SIZE + length;
+        if (size > segmentSize - FILE_HEADER_SIZE) {
+            skipped.increment();
+            return;
+        }
+        byte[] bytes = new byte[length];
+        ByteBufHelper.getBytes(buffer, index, bytes);
+        ClientVersion clientVersion = user.getClientVersion();
+
+        while (true) {
+            Segment segment = this.segment;
+            int position = segment.position.getAndAdd(size);
+            if (position + size > segmentSize) {
+                nextSegment(segment);
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            // Reserved, a record which is never completed can still be skipped
+            segment.buffer.putInt(position, -(size - 4));
+            ByteBuffer target = segment.buffer.duplicate();
+            target.position(position + 4);
+            target.putLong(System.nanoTime() - startTime);
+            target.putInt(getUserId(channel));
+            target.put((byte) side.ordinal());
+            target.put((byte) (side == PacketSide.CLIENT ? user.getDecoderState() : user.getEncoderState()).ordinal());
+            target.putInt(clientVersion != null ? clientVersion.getProtocolVersion() : -1);
+            target.put(bytes);
+            segment.buffer.putInt(position, size - 4);
+            recorded.increment();
+            return;
+        }
+    }
+
+    private int getUserId(Object channel) {
+        synchronized (userIds) {
+            Integer id = userIds.get(channel);
+            if (id == null) {
+                id = ++nextUserId;
+                userIds.put(channel, id);
+            }
+            return id;
+        }
+    }
+
+    private synchronized void nextSegment(Segment full) {
+        if (segment != full || closed) {
+            return;
+        }
+        try {
+            long base = full.base + segmentSize;
+            segment = new Segment(fileChannel.map(FileChannel.MapMode.READ_WRITE, base, segmentSize), base, 0);
+        } catch (IOException ex) {
+            PacketEvents.getAPI().getLogManager().warn("Stopping the packet capture, the next segment could not be mapped: " + ex);
+            // We are a writer ourselves, the last writer finishes the capture
+            stop();
+        }
+    }
+
+    /**
+     * @return How many packets were recorded
+     */
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    /**
+     * @return How many packets were too big to be recorded
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * Stops the capture, waits for the packets which are being recorded and trims the unused part of the last segment.
+     * Packets recorded afterwards are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        stop();
+        while (writers.get() != 0) {
+            Thread.yield();
+        }
+        finish();
+    }
+
+    private void stop() {
+        closed = true;
+        synchronized (PacketCapture.class) {
+            if (active == this) {
+                active = null;
+            }
+        }
+    }
+
+    // Only called once no writer is left
+    private synchronized void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        Segment last = segment;
+        last.buffer.force();
+        fileChannel.truncate(last.base + Math.min(last.position.get(), segmentSize));
+        file.close();
+    }
+
+    private void finishQuietly() {
+        try {
+            finish();
+        } catch (IOException ex) {
+            PacketEvents.getAPI().getLogManager().warn("Failed to finish the packet capture: " + ex);
+        }
+    }
+
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private final long base;
+        private final AtomicInteger position;
+
+        private Segment(MappedByteBuffer buffer, long base, int position) {
+            this.buffer = buffer;
+            this.base = base;
+            this.position = new AtomicInteger(position);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.capture;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Feeds a file written by {@link PacketCapture} through the registered listeners again,
+ * in the order the packets were recorded and as fast as possible.
+ * Every captured user is replayed with its own user and channel, the channels are created with the given factory
+ * (e.g. {@code EmbeddedChannel::new}) as the listeners expect real channels of the platform.
+ * Nothing is written to these channels, the processed packets are discarded.
+ */
+public final class PacketReplay {
+    private static final ConnectionState[] STATES = ConnectionState.values();
+
+    private final File source;
+    private final Supplier<Object> channelFactory;
+
+    public PacketReplay(File source, Supplier<Object> channelFactory) {
+        this.source = source;
+        this.channelFactory = channelFactory;
+    }
+
+    /**
+     * Replays the whole capture on the calling thread.
+     *
+     * @return What was replayed
+     * @throws IOException if the capture could not be read or is no capture file
+     */
+    public Result replay() throws IOException {
+        Map<Integer, User> users = new HashMap<>();
+        long packets = 0L;
+        long failures = 0L;
+        long skipped = 0L;
+        long startTime = System.nanoTime();
+        try (RandomAccessFile file = new RandomAccessFile(source, "r")) {
+            FileChannel fileChannel = file.getChannel();
+            long fileSize = fileChannel.size();
+            if (fileSize < PacketCapture.FILE_HEADER_SIZE) {
+                throw new IOException("Not a packet capture: " + source);
+            }
+            ByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0L, PacketCapture.FILE_HEADER_SIZE);
+            if (header.getInt() != PacketCapture.MAGIC) {
+                throw new IOException("Not a packet capture: " + source);
+            }
+            int version = header.getInt();
+            if (version != PacketCapture.VERSION) {
+                throw new IOException("Unsupported packet capture version " + version + ": " + source);
+            }
+            int segmentSize = header.getInt();
+
+            for (long base = 0L; base < fileSize; base += segmentSize) {
+                MappedByteBuffer segment = fileChannel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(segmentSize, fileSize - base));
+                if (base == 0L) {
+                    segment.position(PacketCapture.FILE_HEADER_SIZE);
+                }
+                while (segment.remaining() >= PacketCapture.RECORD_HEADER_SIZE) {
+                    int length = segment.getInt();
+                    if (length < 0 && length >= -segment.remaining()) {
+                        // Reserved but never completed, the capture was not closed properly
+                        segment.position(segment.position() - length);
+                        skipped++;
+                        continue;
+                    }
+                    if (length <= 0 || length > segment.remaining()) {
+                        // Rest of the segment is unused
+                        break;
+                    }
+                    segment.getLong(); // Timestamp, the replay runs at full speed
+                    int userId = segment.getInt();
+                    PacketSide side = segment.get() == PacketSide.CLIENT.ordinal() ? PacketSide.CLIENT : PacketSide.SERVER;
+                    ConnectionState state = STATES[segment.get()];
+                    int protocolVersion = segment.getInt();
+                    byte[] bytes = new byte[length - (PacketCapture.RECORD_HEADER_SIZE - 4)];
+                    segment.get(bytes);
+
+                    User user = users.computeIfAbsent(userId, this::createUser);
+                    prepare(user, side, state, protocolVersion);
+                    try {
+                        process(user, side, bytes);
+                    } catch (Exception ex) {
+                        failures++;
+                        PacketEvents.getAPI().getLogManager().debug("Failed to replay a packet of user " + userId + ": " + ex);
+                    }
+                    packets++;
+                }
+            }
+        } finally {
+            for (User user : users.values()) {
+                // Same cleanup as a real connection, so listeners see the user leave
+                PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID());
+                ChannelHelper.close(user.getChannel());
+            }
+        }
+        return new Result(packets, failures, skipped, users.size(), System.nanoTime() - startTime);
+    }
+
+    private User createUser(int id) {
+        Object channel = channelFactory.get();
+        User user = new User(channel, ConnectionState.HANDSHAKING, null,
+                new UserProfile(new UUID(0L, id), "replay-" + id));
+        PacketEvents.getAPI().getProtocolManager().registerUser(channel, user);
+        return user;
+    }
+
+    private static void prepare(User user, PacketSide side, ConnectionState state, int protocolVersion) {
+        if (side == PacketSide.CLIENT) {
+            if (user.getDecoderState() != state) {
+                user.setDecoderState(state);
+            }
+        } else if (user.getEncoderState() != state) {
+            user.setEncoderState(state);
+        }
+        if (protocolVersion != -1) {
+            ClientVersion clientVersion = user.getClientVersion();
+            if (clientVersion == null || clientVersion.getProtocolVersion() != protocolVersion) {
+                user.setClientVersion(ClientVersion.getById(protocolVersion));
+            }
+        }
+    }
+
+    private static void process(User user, PacketSide side, byte[] bytes) throws Exception {
+        Object buffer = UnpooledByteBufAllocationHelper.wrappedBuffer(bytes);
+        try {
+            if (side == PacketSide.CLIENT) {
+                Object result = PacketEventsImplHelper.handleServerBoundPacket(user.getChannel(), user, null, buffer, true);
+                if (result != null && result != buffer) {
+                    ByteBufHelper.release(result);
+                }
+            } else {
+                PacketSendEvent event = PacketEventsImplHelper.handleClientBoundPacket(user.getChannel(), user, null, buffer, true);
+                if (event != null) {
+                    EventCreationUtil.releaseEvent(event);
+                }
+            }
+        } finally {
+            ByteBufHelper.release(buffer);
+        }
+    }
+
+    public static final class Result {
+        private final long packets;
+        private final long failures;
+        private final long skipped;
+        private final int users;
+        private final long nanos;
+
+        private Result(long packets, long failures, long skipped, int users, long nanos) {
+            this.packets = packets;
+            this.failures = failures;
+            this.skipped = skipped;
+            this.users = users;
+            this.nanos = nanos;
+        }
+
+        public long getPackets() {
+            return packets;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return How many records were never completed and therefore skipped
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{packets=" + packets + ", failures=" + failures + ", skipped=" + skipped + ", users=" + users
+                    + ", millis=" + nanos / 1_000_000L + '}';
+        }
+    }
+}
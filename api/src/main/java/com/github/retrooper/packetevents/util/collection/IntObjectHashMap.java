@@ -0,0 +1,192 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.retrooper.packetevents.util.collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map with primitive int keys, which avoids boxing keys and allocating entries.
+ * Not thread-safe.
+ *
+ * @param <V> Value type
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5F;
+
+    private int[] keys;
+    private Object[] values; // a null value marks a free slot
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        this.allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        return Math.max(capacity, DEFAULT_CAPACITY);
+    }
+
+    private static int hash(int key) {
+        // entity ids are mostly sequential, spread them over the table
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(int key) {
+        int index = hash(key) & this.mask;
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable V get(int key) {
+        int index = this.indexOf(key);
+        return index < 0 ? null : (V) this.values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        int index = hash(key) & this.mask;
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                V previous = (V) this.values[index];
+                this.values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & this.mask;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        if (++this.size > this.resizeThreshold) {
+            this.rehash(this.keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable V remove(int key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) this.values[index];
+        this.values[index] = null;
+        this.size--;
+
+        // shift following entries of the probe sequence back, so lookups don't stop early
+        int free = index;
+        int next = (index + 1) & this.mask;
+        while (this.values[next] != null) {
+            int ideal = hash(this.keys[next]) & this.mask;
+            if (((next - ideal) & this.mask) >= ((next - free) & this.mask)) {
+                this.keys[free] = this.keys[next];
+                this.values[free] = this.values[next];
+                this.values[next] = null;
+                free = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+        return previous;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int index = hash(oldKeys[i]) & this.mask;
+                while (this.values[index] != null) {
+                    index = (index + 1) & this.mask;
+                }
+                this.keys[index] = oldKeys[i];
+                this.values[index] = value;
+            }
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        if (this.size != 0) {
+            Arrays.fill(this.values, null);
+            this.size = 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> consumer) {
+        Object[] values = this.values;
+        int[] keys = this.keys;
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null) {
+                consumer.accept(keys[i], (V) value);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+
+        void accept(int key, V value);
+    }
+}
@@ -70,6 +70,7 @@ import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityDataType;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
 import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataProvider;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityMetadataWriter;
 import com.github.retrooper.packetevents.protocol.entity.villager.VillagerData;
 import com.github.retrooper.packetevents.protocol.item.ItemStack;
 import com.github.retrooper.packetevents.protocol.item.type.ItemType;
@@ -117,6 +118,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -129,6 +131,11 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     protected ClientVersion clientVersion;
     protected ServerVersion serverVersion;
     private PacketTypeData packetTypeData;
+    private boolean dirty;
+    // Encoded packets per protocol version, only set while frozen
+    @Nullable
+    private volatile Map<ClientVersion, byte[][]> frozenEncodings;
+    private boolean encodingFrozen;
     // For sending chunk data packets, which need this data
     @Nullable
     protected User user;
@@ -198,6 +205,27 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         this.packetTypeData = new PacketTypeData(packetType, id);
     }
 
+    /**
+     * Reads a wrapper for bookkeeping, without attaching it to the event.
+     * Unlike creating the wrapper directly, this never causes the packet to be re-encoded,
+     * and listeners called afterwards don't see the wrapper.
+     *
+     * @param event       The event to read from
+     * @param constructor Usually the event constructor of the wrapper, e.g. {@code WrapperPlayServerRespawn::new}
+     * @return The read wrapper, it must not be modified
+     */
+    public static <E extends ProtocolPacketEvent<?>, W extends PacketWrapper<?>> W peek(E event, Function<E, W> constructor) {
+        PacketWrapper<?> last = event.getLastUsedWrapper();
+        Object buffer = event.getByteBuf();
+        int readerIndex = ByteBufHelper.readerIndex(buffer);
+        try {
+            return constructor.apply(event);
+        } finally {
+            event.setLastUsedWrapper(last);
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+        }
+    }
+
     public static PacketWrapper<?> createUniversalPacketWrapper(Object byteBuf) {
         PacketWrapper<?> wrapper = new PacketWrapper<>(ClientVersion.UNKNOWN, PacketEvents.getAPI().getServerManager().getVersion(), -2);
         wrapper.buffer = byteBuf;
@@ -265,13 +293,84 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     public final void readEvent(ProtocolPacketEvent<?> event) {
         PacketWrapper<?> last = event.getLastUsedWrapper();
         if (last != null) {
+            // Copying calls the getters of the previous wrapper, which mark it as modified
+            boolean lastDirty = last.dirty;
             copy((T) last);
+            // Keep changes of previous listeners
+            dirty = lastDirty;
         } else {
             read();
+            dirty = false;
         }
         event.setLastUsedWrapper(this);
     }
 
+    /**
+     * Marks this wrapper as modified, so its content is written back into the packet.
+     * Setters and getters returning nested info objects (or lists of them) call this by themselves,
+     * as the returned object may be modified in place.
+     * Getters of bulk data (entity metadata, items, NBT, chunks, light, raw byte and id arrays) don't, so
+     * listeners only reading them don't force a re-encode. Modify those through their setter or call this.
+     */
+    public void markDirty() {
+        this.dirty = true;
+        Map<ClientVersion, byte[][]> encodings = this.frozenEncodings;
+        // write() may call getters while a frozen encoding is produced
+        if (encodings != null && !this.encodingFrozen) {
+            encodings.clear();
+        }
+    }
+
+    /**
+     * Freezes this wrapper, so it is only encoded once per protocol version when sent.
+     * This is meant for packets sent to many users, such as tab lists or boss bars.
+     * Modifying the wrapper (setters, getters of nested info objects or {@link #markDirty()}) drops the encoded packets.
+     * A frozen wrapper must not be modified while it is being sent.
+     *
+     * @return This wrapper
+     */
+    @SuppressWarnings("unchecked")
+    public T freeze() {
+        if (this.frozenEncodings == null) {
+            this.frozenEncodings = new ConcurrentHashMap<>(4);
+        }
+        return (T) this;
+    }
+
+    /**
+     * Drops the encoded packets, this wrapper is encoded on every send again.
+     */
+    public void unfreeze() {
+        this.frozenEncodings = null;
+    }
+
+    public boolean isFrozen() {
+        return this.frozenEncodings != null;
+    }
+
+    @ApiStatus.Internal
+    public byte @Nullable [][] getFrozenEncoding(ClientVersion version) {
+        Map<ClientVersion, byte[][]> encodings = this.frozenEncodings;
+        return encodings == null ? null : encodings.get(version);
+    }
+
+    @ApiStatus.Internal
+    public void setFrozenEncoding(ClientVersion version, byte[][] encoded) {
+        Map<ClientVersion, byte[][]> encodings = this.frozenEncodings;
+        if (encodings != null) {
+            encodings.put(version, encoded);
+        }
+    }
+
+    @ApiStatus.Internal
+    public void setEncodingFrozen(boolean encodingFrozen) {
+        this.encodingFrozen = encodingFrozen;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
     public ClientVersion getClientVersion() {
         return clientVersion;
     }
@@ -470,8 +569,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
             return ItemStack.builder().type(itemType).amount(count).build();
         }
 
-        PatchableComponentMap components = new PatchableComponentMap(
-                itemType.getComponents(), new HashMap<>(4));
+        PatchableComponentMap components = new PatchableComponentMap(itemType.getComponents());
         for (int i = 0; i < presentCount; i++) {
             ComponentType<?> type = ComponentTypes.getById(version, this.readVarInt());
             components.set((ComponentType<Object>) type, type.read(this));
@@ -534,30 +632,32 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
         }
 
         // write component patch counts
-        Map<ComponentType<?>, Optional<?>> allPatches = itemStack.getComponents().getPatches();
-        int presentCount = 0, absentCount = 0;
-        for (Map.Entry<ComponentType<?>, Optional<?>> patch : allPatches.entrySet()) {
-            if (patch.getValue().isPresent()) {
+        PatchableComponentMap components = itemStack.getComponents();
+        int patchCount = components.getPatchCount();
+        int presentCount = 0;
+        for (int i = 0; i < patchCount; i++) {
+            if (components.getPatchValue(i) != null) {
                 presentCount++;
-            } else {
-                absentCount++;
             }
         }
         this.writeVarInt(presentCount);
-        this.writeVarInt(absentCount);
+        this.writeVarInt(patchCount - presentCount);
 
+        ClientVersion version = this.serverVersion.toClientVersion();
         // write present patches
-        for (Map.Entry<ComponentType<?>, Optional<?>> patch : allPatches.entrySet()) {
-            if (patch.getValue().isPresent()) {
-                this.writeVarInt(patch.getKey().getId(this.serverVersion.toClientVersion()));
-                ((ComponentType<Object>) patch.getKey()).write(this, patch.getValue().get());
+        for (int i = 0; i < patchCount; i++) {
+            Object value = components.getPatchValue(i);
+            if (value != null) {
+                ComponentType<?> type = components.getPatchType(i);
+                this.writeVarInt(type.getId(version));
+                ((ComponentType<Object>) type).write(this, value);
             }
         }
 
         // write absent patches
-        for (Map.Entry<ComponentType<?>, Optional<?>> patch : allPatches.entrySet()) {
-            if (!patch.getValue().isPresent()) {
-                this.writeVarInt(patch.getKey().getId(this.serverVersion.toClientVersion()));
+        for (int i = 0; i < patchCount; i++) {
+            if (components.getPatchValue(i) == null) {
+                this.writeVarInt(components.getPatchType(i).getId(version));
             }
         }
     }
@@ -685,7 +785,7 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
 
     public Component readComponentAsJSON() {
         String jsonString = this.readString(this.getMaxMessageLength());
-        return AdventureSerializer.parseComponent(jsonString);
+        return AdventureSerializer.getComponentCache().parseJson(jsonString);
     }
 
     public void writeComponent(Component component) {
@@ -697,12 +797,23 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public void writeComponentAsNBT(Component component) {
-        writeNBTRaw(AdventureSerializer.toNbt(component));
+        if (this.serverVersion.isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
+            ByteBufHelper.writeBytes(buffer, AdventureSerializer.getComponentCache().toNbt(component));
+        } else {
+            writeNBTRaw(AdventureSerializer.toNbt(component));
+        }
     }
 
     public void writeComponentAsJSON(Component component) {
-        String jsonString = AdventureSerializer.toJson(component);
-        this.writeString(jsonString, this.getMaxMessageLength());
+        byte[] json = AdventureSerializer.getComponentCache().toJson(component);
+        int maxLen = this.getMaxMessageLength();
+        if (json.length > maxLen) {
+            // let writeString shorten it
+            this.writeString(new String(json, StandardCharsets.UTF_8), maxLen);
+            return;
+        }
+        writeVarInt(json.length);
+        ByteBufHelper.writeBytes(buffer, json);
     }
 
     public Style readStyle() {
@@ -970,35 +1081,17 @@ public class PacketWrapper<T extends PacketWrapper<T>> {
     }
 
     public void writeEntityMetadata(List<EntityData> list) {
-        if (list == null) {
-            list = new ArrayList<>();
-        }
-        if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)) {
-            boolean v1_10 = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_10);
-            for (EntityData entityData : list) {
-                writeByte(entityData.getIndex());
-                if (v1_10) {
-                    writeVarInt(entityData.getType().getId(serverVersion.toClientVersion()));
-                } else {
-                    writeByte(entityData.getType().getId(serverVersion.toClientVersion()));
-                }
-                entityData.getType().getDataSerializer().accept(this, entityData.getValue());
-            }
-            writeByte(255); // End of metadata array
-        } else {
-            for (EntityData entityData : list) {
-                int typeID = entityData.getType().getId(serverVersion.toClientVersion());
-                int index = entityData.getIndex();
-                int data = (typeID << 5 | index & 31) & 255;
-                writeByte(data);
-                entityData.getType().getDataSerializer().accept(this, entityData.getValue());
-            }
-            writeByte(127); // End of metadata array
+        EntityMetadataWriter writer = new EntityMetadataWriter(this);
+        if (list != null) {
+            writer.writeAll(list);
         }
+        writer.end();
     }
 
     public void writeEntityMetadata(EntityMetadataProvider metadata) {
-        writeEntityMetadata(metadata.entityData(serverVersion.toClientVersion()));
+        EntityMetadataWriter writer = new EntityMetadataWriter(this);
+        metadata.writeEntityData(writer);
+        writer.end();
     }
 
     public Dimension readDimension() {
@@ -70,6 +70,7 @@ public abstract class WrapperCommonCookieResponse<T extends WrapperCommonCookieR
     }
 
     public void setKey(ResourceLocation key) {
+        markDirty();
         this.key = key;
     }
 
@@ -78,6 +79,7 @@ public abstract class WrapperCommonCookieResponse<T extends WrapperCommonCookieR
     }
 
     public void setPayload(byte @Nullable [] payload) {
+        markDirty();
         this.payload = payload;
     }
 }
@@ -62,10 +62,12 @@ public abstract class WrapperCommonServerCustomReportDetails<T extends WrapperCo
     }
 
     public Map<String, String> getDetails() {
+        markDirty();
         return this.details;
     }
 
     public void setDetails(Map<String, String> details) {
+        markDirty();
         this.details = details;
     }
 }
@@ -56,10 +56,12 @@ public abstract class WrapperCommonServerServerLinks<T extends WrapperCommonServ
     }
 
     public List<ServerLink> getLinks() {
+        markDirty();
         return this.links;
     }
 
     public void setLinks(List<ServerLink> links) {
+        markDirty();
         this.links = links;
     }
 
@@ -72,6 +72,7 @@ public class WrapperConfigClientResourcePackStatus extends PacketWrapper<Wrapper
     }
 
     public void setPackId(UUID packId) {
+        markDirty();
         this.packId = packId;
     }
 
@@ -80,6 +81,7 @@ public class WrapperConfigClientResourcePackStatus extends PacketWrapper<Wrapper
     }
 
     public void setResult(Result result) {
+        markDirty();
         this.result = result;
     }
 
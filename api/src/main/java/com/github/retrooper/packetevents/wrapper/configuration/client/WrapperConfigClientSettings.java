@@ -93,6 +93,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setLocale(String locale) {
+        markDirty();
         this.locale = locale;
     }
 
@@ -101,6 +102,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setViewDistance(int viewDistance) {
+        markDirty();
         this.viewDistance = viewDistance;
     }
 
@@ -109,6 +111,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setVisibility(ChatVisibility visibility) {
+        markDirty();
         this.visibility = visibility;
     }
 
@@ -117,6 +120,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setChatColorable(boolean chatColorable) {
+        markDirty();
         this.chatColorable = chatColorable;
     }
 
@@ -125,6 +129,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setVisibleSkinSectionMask(byte visibleSkinSectionMask) {
+        markDirty();
         this.visibleSkinSectionMask = visibleSkinSectionMask;
     }
 
@@ -133,6 +138,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setHand(HumanoidArm hand) {
+        markDirty();
         this.hand = hand;
     }
 
@@ -141,6 +147,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setTextFilteringEnabled(boolean textFilteringEnabled) {
+        markDirty();
         this.textFilteringEnabled = textFilteringEnabled;
     }
 
@@ -149,6 +156,7 @@ public class WrapperConfigClientSettings extends PacketWrapper<WrapperConfigClie
     }
 
     public void setAllowServerListings(boolean allowServerListings) {
+        markDirty();
         this.allowServerListings = allowServerListings;
     }
 
@@ -56,6 +56,7 @@ public class WrapperConfigServerCookieRequest extends PacketWrapper<WrapperConfi
     }
 
     public void setKey(ResourceLocation key) {
+        markDirty();
         this.key = key;
     }
 }
@@ -56,6 +56,7 @@ public class WrapperConfigServerDisconnect extends PacketWrapper<WrapperConfigSe
     }
 
     public void setReason(Component reason) {
+        markDirty();
         this.reason = reason;
     }
 }
@@ -111,6 +111,7 @@ public class WrapperConfigServerRegistryData extends PacketWrapper<WrapperConfig
 
     @ApiStatus.Obsolete
     public void setRegistryData(NBTCompound registryData) {
+        markDirty();
         this.registryData = registryData;
     }
 
@@ -119,14 +120,17 @@ public class WrapperConfigServerRegistryData extends PacketWrapper<WrapperConfig
     }
 
     public void setRegistryKey(ResourceLocation registryKey) {
+        markDirty();
         this.registryKey = registryKey;
     }
 
     public @Nullable List<RegistryElement> getElements() {
+        markDirty();
         return this.elements;
     }
 
     public void setElements(List<RegistryElement> elements) {
+        markDirty();
         this.elements = elements;
     }
 
@@ -100,6 +100,7 @@ public class WrapperLoginClientLoginStart extends PacketWrapper<WrapperLoginClie
     }
 
     public void setUsername(String username) {
+        markDirty();
         this.username = username;
     }
 
@@ -108,6 +109,7 @@ public class WrapperLoginClientLoginStart extends PacketWrapper<WrapperLoginClie
     }
 
     public void setSignatureData(@Nullable SignatureData signatureData) {
+        markDirty();
         this.signatureData = signatureData;
     }
 
@@ -116,6 +118,7 @@ public class WrapperLoginClientLoginStart extends PacketWrapper<WrapperLoginClie
     }
 
     public void setPlayerUUID(@Nullable UUID playerUUID) {
+        markDirty();
         this.playerUUID = playerUUID;
     }
 }
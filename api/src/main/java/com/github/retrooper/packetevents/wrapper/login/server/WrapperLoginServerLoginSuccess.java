@@ -110,10 +110,12 @@ public class WrapperLoginServerLoginSuccess extends PacketWrapper<WrapperLoginSe
     }
 
     public UserProfile getUserProfile() {
+        markDirty();
         return userProfile;
     }
 
     public void setUserProfile(UserProfile userProfile) {
+        markDirty();
         this.userProfile = userProfile;
     }
 
@@ -122,6 +124,7 @@ public class WrapperLoginServerLoginSuccess extends PacketWrapper<WrapperLoginSe
     }
 
     public void setStrictErrorHandling(boolean strictErrorHandling) {
+        markDirty();
         this.strictErrorHandling = strictErrorHandling;
     }
 }
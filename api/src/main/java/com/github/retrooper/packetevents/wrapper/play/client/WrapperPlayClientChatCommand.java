@@ -93,22 +93,27 @@ public class WrapperPlayClientChatCommand extends PacketWrapper<WrapperPlayClien
     }
 
     public void setCommand(String command) {
+        markDirty();
         this.command = command;
     }
 
     public MessageSignData getMessageSignData() {
+        markDirty();
         return messageSignData;
     }
 
     public void setMessageSignData(MessageSignData messageSignData) {
+        markDirty();
         this.messageSignData = messageSignData;
     }
 
     public List<SignedCommandArgument> getSignedArguments() {
+        markDirty();
         return signedArguments;
     }
 
     public void setSignedArguments(List<SignedCommandArgument> signedArguments) {
+        markDirty();
         this.signedArguments = signedArguments;
     }
 
@@ -117,14 +122,17 @@ public class WrapperPlayClientChatCommand extends PacketWrapper<WrapperPlayClien
     }
 
     public void setLastSeenMessages(LastSeenMessages.@Nullable Update lastSeenMessages) {
+        markDirty();
         this.lastSeenMessages = lastSeenMessages;
     }
 
     public @Nullable LastSeenMessages.LegacyUpdate getLegacyLastSeenMessages() {
+        markDirty();
         return legacyLastSeenMessages;
     }
 
     public void setLegacyLastSeenMessages(@Nullable LastSeenMessages.LegacyUpdate lastSeenMessages) {
+        markDirty();
         this.legacyLastSeenMessages = lastSeenMessages;
     }
 }
\ No newline at end of file
@@ -55,6 +55,7 @@ public class WrapperPlayClientChatSessionUpdate extends PacketWrapper<WrapperPla
     }
 
     public void setChatSession(RemoteChatSession chatSession) {
+        markDirty();
         this.chatSession = chatSession;
     }
 }
@@ -54,6 +54,7 @@ public class WrapperPlayClientCloseWindow extends PacketWrapper<WrapperPlayClien
     }
 
     public void setWindowId(int windowID) {
+        markDirty();
         this.windowID = windowID;
     }
 }
@@ -83,14 +83,17 @@ public class WrapperPlayClientCraftRecipeRequest extends PacketWrapper<WrapperPl
     }
 
     public void setWindowId(int windowId) {
+        markDirty();
         this.windowId = windowId;
     }
 
     public <T> T getRecipe() {
+        markDirty();
         return (T) (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_13) ? recipeModern : recipeLegacy);
     }
 
     public <T> void setRecipe(T recipe) {
+        markDirty();
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_13)) {
             this.recipeModern = (String) recipe;
         } else {
@@ -103,6 +106,7 @@ public class WrapperPlayClientCraftRecipeRequest extends PacketWrapper<WrapperPl
     }
 
     public void setMakeAll(boolean makeAll) {
+        markDirty();
         this.makeAll = makeAll;
     }
 }
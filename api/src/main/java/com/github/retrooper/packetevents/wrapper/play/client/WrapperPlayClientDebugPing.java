@@ -55,6 +55,7 @@ public class WrapperPlayClientDebugPing extends PacketWrapper<WrapperPlayClientD
     }
 
     public void setTimestamp(long timestamp) {
+        markDirty();
         this.timestamp = timestamp;
     }
 }
@@ -78,6 +78,7 @@ public class WrapperPlayClientGenerateStructure extends PacketWrapper<WrapperPla
      * @param blockPosition Block location
      */
     public void setBlockPosition(Vector3i blockPosition) {
+        markDirty();
         this.blockPosition = blockPosition;
     }
 
@@ -96,6 +97,7 @@ public class WrapperPlayClientGenerateStructure extends PacketWrapper<WrapperPla
      * @param levels Levels
      */
     public void setLevels(int levels) {
+        markDirty();
         this.levels = levels;
     }
 
@@ -114,6 +116,7 @@ public class WrapperPlayClientGenerateStructure extends PacketWrapper<WrapperPla
      * @param keepJigsaws Keep Jigsaws
      */
     public void setKeepJigsaws(boolean keepJigsaws) {
+        markDirty();
         this.keepJigsaws = keepJigsaws;
     }
 }
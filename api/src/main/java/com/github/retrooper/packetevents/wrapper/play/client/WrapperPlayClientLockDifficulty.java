@@ -54,6 +54,7 @@ public class WrapperPlayClientLockDifficulty extends PacketWrapper<WrapperPlayCl
     }
 
     public void setLocked(boolean locked) {
+        markDirty();
         this.locked = locked;
     }
 }
@@ -153,6 +153,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setHand(InteractionHand interactionHand) {
+        markDirty();
         this.interactionHand = interactionHand;
     }
 
@@ -161,6 +162,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setBlockPosition(Vector3i blockPosition) {
+        markDirty();
         this.blockPosition = blockPosition;
     }
 
@@ -169,6 +171,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setFaceId(int faceId) {
+        markDirty();
         this.faceId = faceId;
         this.face = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_9)
                 ? BlockFace.getBlockFaceByValue(faceId)
@@ -180,6 +183,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setFace(BlockFace face) {
+        markDirty();
         this.face = face;
         this.faceId = face.getFaceValue();
     }
@@ -189,6 +193,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setCursorPosition(Vector3f cursorPosition) {
+        markDirty();
         this.cursorPosition = cursorPosition;
     }
 
@@ -197,6 +202,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setItemStack(Optional<ItemStack> itemStack) {
+        markDirty();
         this.itemStack = itemStack;
     }
 
@@ -205,6 +211,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setInsideBlock(Optional<Boolean> insideBlock) {
+        markDirty();
         this.insideBlock = insideBlock;
     }
 
@@ -213,6 +220,7 @@ public class WrapperPlayClientPlayerBlockPlacement extends PacketWrapper<Wrapper
     }
 
     public void setSequence(int sequence) {
+        markDirty();
         this.sequence = sequence;
     }
 }
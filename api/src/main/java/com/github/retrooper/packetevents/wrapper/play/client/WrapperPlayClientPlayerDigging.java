@@ -100,6 +100,7 @@ public class WrapperPlayClientPlayerDigging extends PacketWrapper<WrapperPlayCli
     }
 
     public void setAction(DiggingAction action) {
+        markDirty();
         this.action = action;
     }
 
@@ -108,6 +109,7 @@ public class WrapperPlayClientPlayerDigging extends PacketWrapper<WrapperPlayCli
     }
 
     public void setBlockPosition(Vector3i blockPosition) {
+        markDirty();
         this.blockPosition = blockPosition;
     }
 
@@ -116,6 +118,7 @@ public class WrapperPlayClientPlayerDigging extends PacketWrapper<WrapperPlayCli
     }
 
     public void setBlockFace(BlockFace blockFace) {
+        markDirty();
         this.blockFace = blockFace;
     }
 
@@ -124,6 +127,7 @@ public class WrapperPlayClientPlayerDigging extends PacketWrapper<WrapperPlayCli
     }
 
     public void setSequence(int sequence) {
+        markDirty();
         this.sequence = sequence;
     }
 }
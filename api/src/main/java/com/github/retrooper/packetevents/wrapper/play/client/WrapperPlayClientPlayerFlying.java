@@ -112,6 +112,7 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
     }
 
     public void setLocation(Location location) {
+        markDirty();
         this.location = location;
     }
 
@@ -120,6 +121,7 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
     }
 
     public void setPositionChanged(boolean positionChanged) {
+        markDirty();
         this.positionChanged = positionChanged;
     }
 
@@ -128,6 +130,7 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
     }
 
     public void setRotationChanged(boolean rotationChanged) {
+        markDirty();
         this.rotationChanged = rotationChanged;
     }
 
@@ -136,6 +139,7 @@ public class WrapperPlayClientPlayerFlying extends PacketWrapper<WrapperPlayClie
     }
 
     public void setOnGround(boolean onGround) {
+        markDirty();
         this.onGround = onGround;
     }
 }
@@ -100,6 +100,7 @@ public class WrapperPlayClientPluginMessage extends PacketWrapper<WrapperPlayCli
      * @param channelName The channel name.
      */
     public void setChannelName(String channelName) {
+        markDirty();
         this.channelName = channelName;
     }
 
@@ -118,6 +119,7 @@ public class WrapperPlayClientPluginMessage extends PacketWrapper<WrapperPlayCli
      * @param data The data.
      */
     public void setData(byte[] data) {
+        markDirty();
         this.data = data;
     }
 }
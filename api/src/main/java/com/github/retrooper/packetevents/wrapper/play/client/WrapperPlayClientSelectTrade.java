@@ -54,6 +54,7 @@ public class WrapperPlayClientSelectTrade extends PacketWrapper<WrapperPlayClien
     }
 
     public void setSlot(int slot) {
+        markDirty();
         this.slot = slot;
     }
 }
@@ -70,6 +70,7 @@ public class WrapperPlayClientSetBeaconEffect extends PacketWrapper<WrapperPlayC
     }
 
     public void setPrimaryEffect(int primaryEffect) {
+        markDirty();
         this.primaryEffect = primaryEffect;
     }
 
@@ -78,6 +79,7 @@ public class WrapperPlayClientSetBeaconEffect extends PacketWrapper<WrapperPlayC
     }
 
     public void setSecondaryEffect(int secondaryEffect) {
+        markDirty();
         this.secondaryEffect = secondaryEffect;
     }
 
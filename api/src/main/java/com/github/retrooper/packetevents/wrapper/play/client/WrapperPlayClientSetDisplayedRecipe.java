@@ -55,6 +55,7 @@ public class WrapperPlayClientSetDisplayedRecipe extends PacketWrapper<WrapperPl
     }
 
     public void setRecipe(ResourceLocation recipe) {
+        markDirty();
         this.recipe = recipe;
     }
 }
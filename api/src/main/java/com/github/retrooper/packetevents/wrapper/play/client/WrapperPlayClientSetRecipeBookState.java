@@ -65,6 +65,7 @@ public class WrapperPlayClientSetRecipeBookState extends PacketWrapper<WrapperPl
     }
 
     public void setBookType(BookType bookType) {
+        markDirty();
         this.bookType = bookType;
     }
 
@@ -73,6 +74,7 @@ public class WrapperPlayClientSetRecipeBookState extends PacketWrapper<WrapperPl
     }
 
     public void setBookOpen(boolean bookOpen) {
+        markDirty();
         this.bookOpen = bookOpen;
     }
 
@@ -81,6 +83,7 @@ public class WrapperPlayClientSetRecipeBookState extends PacketWrapper<WrapperPl
     }
 
     public void setFilterActive(boolean filterActive) {
+        markDirty();
         this.filterActive = filterActive;
     }
 }
@@ -65,6 +65,7 @@ public class WrapperPlayClientSlotStateChange extends PacketWrapper<WrapperPlayC
     }
 
     public void setSlot(int slot) {
+        markDirty();
         this.slot = slot;
     }
 
@@ -73,6 +74,7 @@ public class WrapperPlayClientSlotStateChange extends PacketWrapper<WrapperPlayC
     }
 
     public void setWindowId(int windowId) {
+        markDirty();
         this.windowId = windowId;
     }
 
@@ -81,6 +83,7 @@ public class WrapperPlayClientSlotStateChange extends PacketWrapper<WrapperPlayC
     }
 
     public void setState(boolean state) {
+        markDirty();
         this.state = state;
     }
 }
@@ -69,6 +69,7 @@ public class WrapperPlayClientSpectate extends PacketWrapper<WrapperPlayClientSp
      * @param uuid UUID of target entity
      */
     public void setTargetUUID(UUID uuid) {
+        markDirty();
         this.targetUUID = uuid;
     }
 }
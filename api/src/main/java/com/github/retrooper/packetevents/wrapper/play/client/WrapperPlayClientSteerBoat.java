@@ -68,6 +68,7 @@ public class WrapperPlayClientSteerBoat extends PacketWrapper<WrapperPlayClientS
     }
 
     public void setLeftPaddleTurning(boolean leftPaddleTurning) {
+        markDirty();
         this.leftPaddleTurning = leftPaddleTurning;
     }
 
@@ -76,6 +77,7 @@ public class WrapperPlayClientSteerBoat extends PacketWrapper<WrapperPlayClientS
     }
 
     public void setRightPaddleTurning(boolean rightPaddleTurning) {
+        markDirty();
         this.rightPaddleTurning = rightPaddleTurning;
     }
 }
@@ -72,6 +72,7 @@ public class WrapperPlayClientSteerVehicle extends PacketWrapper<WrapperPlayClie
     }
 
     public void setSideways(float sideways) {
+        markDirty();
         this.sideways = sideways;
     }
 
@@ -80,6 +81,7 @@ public class WrapperPlayClientSteerVehicle extends PacketWrapper<WrapperPlayClie
     }
 
     public void setForward(float forward) {
+        markDirty();
         this.forward = forward;
     }
 
@@ -88,6 +90,7 @@ public class WrapperPlayClientSteerVehicle extends PacketWrapper<WrapperPlayClie
     }
 
     public void setFlags(byte flags) {
+        markDirty();
         this.flags = flags;
     }
 
@@ -96,6 +99,7 @@ public class WrapperPlayClientSteerVehicle extends PacketWrapper<WrapperPlayClie
     }
 
     public void setJump(boolean jump) {
+        markDirty();
         if (jump) {
             flags |= 0x01;
         } else {
@@ -108,6 +112,7 @@ public class WrapperPlayClientSteerVehicle extends PacketWrapper<WrapperPlayClie
     }
 
     public void setUnmount(boolean unmount) {
+        markDirty();
         if (unmount) {
             flags |= 0x02;
         } else {
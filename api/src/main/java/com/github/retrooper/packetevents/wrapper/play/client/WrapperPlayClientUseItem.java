@@ -88,6 +88,7 @@ public class WrapperPlayClientUseItem extends PacketWrapper<WrapperPlayClientUse
     }
 
     public void setHand(InteractionHand hand) {
+        markDirty();
         this.hand = hand;
     }
 
@@ -96,6 +97,7 @@ public class WrapperPlayClientUseItem extends PacketWrapper<WrapperPlayClientUse
     }
 
     public void setSequence(int sequence) {
+        markDirty();
         this.sequence = sequence;
     }
 
@@ -104,6 +106,7 @@ public class WrapperPlayClientUseItem extends PacketWrapper<WrapperPlayClientUse
     }
 
     public void setYaw(float yaw) {
+        markDirty();
         this.yaw = yaw;
     }
 
@@ -112,6 +115,7 @@ public class WrapperPlayClientUseItem extends PacketWrapper<WrapperPlayClientUse
     }
 
     public void setPitch(float pitch) {
+        markDirty();
         this.pitch = pitch;
     }
 }
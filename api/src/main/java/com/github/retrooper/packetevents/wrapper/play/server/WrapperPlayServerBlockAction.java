@@ -85,6 +85,7 @@ public class WrapperPlayServerBlockAction extends PacketWrapper<WrapperPlayServe
     }
 
     public void setBlockPosition(Vector3i blockPosition) {
+        markDirty();
         this.blockPosition = blockPosition;
     }
 
@@ -93,6 +94,7 @@ public class WrapperPlayServerBlockAction extends PacketWrapper<WrapperPlayServe
     }
 
     public void setActionId(int actionID) {
+        markDirty();
         this.actionID = actionID;
     }
 
@@ -101,6 +103,7 @@ public class WrapperPlayServerBlockAction extends PacketWrapper<WrapperPlayServe
     }
 
     public void setActionData(int actionData) {
+        markDirty();
         this.actionData = actionData;
     }
 
@@ -109,6 +112,7 @@ public class WrapperPlayServerBlockAction extends PacketWrapper<WrapperPlayServe
     }
 
     public void setBlockTypeId(int blockTypeID) {
+        markDirty();
         this.blockTypeID = blockTypeID;
     }
 
@@ -117,6 +121,7 @@ public class WrapperPlayServerBlockAction extends PacketWrapper<WrapperPlayServe
     }
 
     public void setBlockType(WrappedBlockState blockType) {
+        markDirty();
         this.blockTypeID = blockType.getGlobalId();
     }
 }
@@ -79,6 +79,7 @@ public class WrapperPlayServerBlockBreakAnimation extends PacketWrapper<WrapperP
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -87,6 +88,7 @@ public class WrapperPlayServerBlockBreakAnimation extends PacketWrapper<WrapperP
     }
 
     public void setBlockPosition(Vector3i blockPosition) {
+        markDirty();
         this.blockPosition = blockPosition;
     }
 
@@ -95,6 +97,7 @@ public class WrapperPlayServerBlockBreakAnimation extends PacketWrapper<WrapperP
     }
 
     public void setDestroyStage(byte destroyStage) {
+        markDirty();
         this.destroyStage = destroyStage;
     }
 }
@@ -401,6 +401,7 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
     }
 
     public void setColumn(Column column) {
+        markDirty();
         this.column = column;
     }
 
@@ -409,6 +410,7 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
     }
 
     public void setLightData(LightData lightData) {
+        markDirty();
         this.lightData = lightData;
     }
 
@@ -417,6 +419,7 @@ public class WrapperPlayServerChunkData extends PacketWrapper<WrapperPlayServerC
     }
 
     public void setIgnoreOldData(boolean ignoreOldData) {
+        markDirty();
         this.ignoreOldData = ignoreOldData;
     }
 
@@ -77,14 +77,17 @@ public class WrapperPlayServerCraftRecipeResponse extends PacketWrapper<WrapperP
     }
 
     public void setWindowId(int windowId) {
+        markDirty();
         this.windowId = windowId;
     }
 
     public <T> T getRecipe() {
+        markDirty();
         return (T) (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_13) ? recipeModern : recipeLegacy);
     }
 
     public <T> void setRecipe(T recipe) {
+        markDirty();
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_13)) {
             this.recipeModern = (String) recipe;
         } else {
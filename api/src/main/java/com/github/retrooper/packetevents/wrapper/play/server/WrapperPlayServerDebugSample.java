@@ -60,6 +60,7 @@ public class WrapperPlayServerDebugSample extends PacketWrapper<WrapperPlayServe
     }
 
     public void setSample(long[] sample) {
+        markDirty();
         this.sample = sample;
     }
 
@@ -68,6 +69,7 @@ public class WrapperPlayServerDebugSample extends PacketWrapper<WrapperPlayServe
     }
 
     public void setSampleType(SampleType sampleType) {
+        markDirty();
         this.sampleType = sampleType;
     }
 
@@ -53,10 +53,12 @@ public class WrapperPlayServerDeclareCommands extends PacketWrapper<WrapperPlayS
     }
 
     public List<Node> getNodes() {
+        markDirty();
         return nodes;
     }
 
     public void setNodes(List<Node> nodes) {
+        markDirty();
         this.nodes = nodes;
     }
 
@@ -65,6 +67,7 @@ public class WrapperPlayServerDeclareCommands extends PacketWrapper<WrapperPlayS
     }
 
     public void setRootIndex(int rootIndex) {
+        markDirty();
         this.rootIndex = rootIndex;
     }
 }
@@ -46,10 +46,12 @@ public class WrapperPlayServerDeclareRecipes extends PacketWrapper<WrapperPlaySe
     }
 
     public Recipe<?>[] getRecipes() {
+        markDirty();
         return this.recipes;
     }
 
     public void setRecipes(Recipe<?>[] recipes) {
+        markDirty();
         this.recipes = recipes;
     }
 }
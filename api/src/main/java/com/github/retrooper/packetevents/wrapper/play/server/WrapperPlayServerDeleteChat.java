@@ -54,6 +54,7 @@ public class WrapperPlayServerDeleteChat extends PacketWrapper<WrapperPlayServer
     }
 
     public void setSignature(byte[] signature) {
+        markDirty();
         this.signature = signature;
     }
 }
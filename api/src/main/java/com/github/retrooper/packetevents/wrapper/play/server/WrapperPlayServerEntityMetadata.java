@@ -31,6 +31,8 @@ import java.util.List;
 public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlayServerEntityMetadata> {
     private int entityID;
     private List<EntityData> entityMetadata;
+    // only set by setDeferredEntityMetadata, written directly if the list was never requested
+    private EntityMetadataProvider metadataProvider;
 
     public WrapperPlayServerEntityMetadata(PacketSendEvent event) {
         super(event);
@@ -50,6 +52,7 @@ public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlaySe
     public void read() {
         entityID = serverVersion.isNewerThanOrEquals(ServerVersion.V_1_8) ? readVarInt() : readInt();
         entityMetadata = readEntityMetadata();
+        metadataProvider = null;
     }
 
     @Override
@@ -59,13 +62,18 @@ public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlaySe
         } else {
             writeInt(entityID);
         }
-        writeEntityMetadata(entityMetadata);
+        if (metadataProvider != null) {
+            writeEntityMetadata(metadataProvider);
+        } else {
+            writeEntityMetadata(entityMetadata);
+        }
     }
 
     @Override
     public void copy(WrapperPlayServerEntityMetadata wrapper) {
         entityID = wrapper.entityID;
         entityMetadata = wrapper.entityMetadata;
+        metadataProvider = wrapper.metadataProvider;
     }
 
     public int getEntityId() {
@@ -73,18 +81,38 @@ public class WrapperPlayServerEntityMetadata extends PacketWrapper<WrapperPlaySe
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
     public List<EntityData> getEntityMetadata() {
+        if (metadataProvider != null) {
+            entityMetadata = metadataProvider.entityData(serverVersion.toClientVersion());
+            metadataProvider = null;
+        }
         return entityMetadata;
     }
 
     public void setEntityMetadata(List<EntityData> entityMetadata) {
+        markDirty();
         this.entityMetadata = entityMetadata;
+        this.metadataProvider = null;
     }
 
     public void setEntityMetadata(EntityMetadataProvider metadata) {
+        markDirty();
         this.entityMetadata = metadata.entityData(serverVersion.toClientVersion());
+        this.metadataProvider = null;
+    }
+
+    /**
+     * The metadata is written with {@link EntityMetadataProvider#writeEntityData} once the packet is encoded,
+     * unless {@link #getEntityMetadata()} is called before.
+     * The provider must not change until the packet has been sent.
+     */
+    public void setDeferredEntityMetadata(EntityMetadataProvider metadata) {
+        markDirty();
+        this.metadataProvider = metadata;
+        this.entityMetadata = null;
     }
 }
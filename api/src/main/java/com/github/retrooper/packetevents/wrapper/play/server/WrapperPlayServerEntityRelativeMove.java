@@ -93,6 +93,7 @@ public class WrapperPlayServerEntityRelativeMove extends PacketWrapper<WrapperPl
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -101,6 +102,7 @@ public class WrapperPlayServerEntityRelativeMove extends PacketWrapper<WrapperPl
     }
 
     public void setDeltaX(double deltaX) {
+        markDirty();
         this.deltaX = deltaX;
     }
 
@@ -109,6 +111,7 @@ public class WrapperPlayServerEntityRelativeMove extends PacketWrapper<WrapperPl
     }
 
     public void setDeltaY(double deltaY) {
+        markDirty();
         this.deltaY = deltaY;
     }
 
@@ -117,6 +120,7 @@ public class WrapperPlayServerEntityRelativeMove extends PacketWrapper<WrapperPl
     }
 
     public void setDeltaZ(double deltaZ) {
+        markDirty();
         this.deltaZ = deltaZ;
     }
 
@@ -125,6 +129,7 @@ public class WrapperPlayServerEntityRelativeMove extends PacketWrapper<WrapperPl
     }
 
     public void setOnGround(boolean onGround) {
+        markDirty();
         this.onGround = onGround;
     }
 }
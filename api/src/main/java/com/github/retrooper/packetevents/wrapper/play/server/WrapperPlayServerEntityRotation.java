@@ -70,6 +70,7 @@ public class WrapperPlayServerEntityRotation extends PacketWrapper<WrapperPlaySe
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -78,6 +79,7 @@ public class WrapperPlayServerEntityRotation extends PacketWrapper<WrapperPlaySe
     }
 
     public void setYaw(float yaw) {
+        markDirty();
         this.yaw = yaw;
     }
 
@@ -86,6 +88,7 @@ public class WrapperPlayServerEntityRotation extends PacketWrapper<WrapperPlaySe
     }
 
     public void setPitch(float pitch) {
+        markDirty();
         this.pitch = pitch;
     }
 
@@ -94,6 +97,7 @@ public class WrapperPlayServerEntityRotation extends PacketWrapper<WrapperPlaySe
     }
 
     public void setOnGround(boolean onGround) {
+        markDirty();
         this.onGround = onGround;
     }
 }
@@ -59,6 +59,7 @@ public class WrapperPlayServerEntityStatus extends PacketWrapper<WrapperPlayServ
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -67,6 +68,7 @@ public class WrapperPlayServerEntityStatus extends PacketWrapper<WrapperPlayServ
     }
 
     public void setStatus(int status) {
+        markDirty();
         this.status = status;
     }
 }
@@ -113,6 +113,7 @@ public class WrapperPlayServerEntityTeleport extends PacketWrapper<WrapperPlaySe
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -121,6 +122,7 @@ public class WrapperPlayServerEntityTeleport extends PacketWrapper<WrapperPlaySe
     }
 
     public void setPosition(Vector3d position) {
+        markDirty();
         this.position = position;
     }
 
@@ -129,6 +131,7 @@ public class WrapperPlayServerEntityTeleport extends PacketWrapper<WrapperPlaySe
     }
 
     public void setYaw(float yaw) {
+        markDirty();
         this.yaw = yaw;
     }
 
@@ -137,6 +140,7 @@ public class WrapperPlayServerEntityTeleport extends PacketWrapper<WrapperPlaySe
     }
 
     public void setPitch(float pitch) {
+        markDirty();
         this.pitch = pitch;
     }
 
@@ -145,6 +149,7 @@ public class WrapperPlayServerEntityTeleport extends PacketWrapper<WrapperPlaySe
     }
 
     public void setOnGround(boolean onGround) {
+        markDirty();
         this.onGround = onGround;
     }
 }
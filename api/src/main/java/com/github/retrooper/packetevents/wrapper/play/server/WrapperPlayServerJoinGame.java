@@ -20,7 +20,10 @@ package com.github.retrooper.packetevents.wrapper.play.server;
 
 import com.github.retrooper.packetevents.event.PacketSendEvent;
 import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.buffer.UnpooledByteBufAllocationHelper;
 import com.github.retrooper.packetevents.protocol.nbt.NBTCompound;
+import com.github.retrooper.packetevents.protocol.nbt.codec.NBTCodec;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.player.GameMode;
 import com.github.retrooper.packetevents.protocol.world.Difficulty;
@@ -29,6 +32,7 @@ import com.github.retrooper.packetevents.protocol.world.DimensionType;
 import com.github.retrooper.packetevents.protocol.world.WorldBlockPosition;
 import com.github.retrooper.packetevents.protocol.world.WorldType;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
@@ -45,6 +49,8 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
 
     private List<String> worldNames;
     private NBTCompound dimensionCodec;
+    // the undecoded codec as read from the packet, decoded on first access
+    private byte @Nullable [] dimensionCodecBytes;
     private Dimension dimension;
     private Difficulty difficulty;
     private String worldName;
@@ -152,7 +158,12 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
                 worldNames.add(readString());
             }
             if (!v1_20_2) {
-                dimensionCodec = readNBT();
+                // the codec is large and rarely needed, only remember its bytes
+                int codecStart = ByteBufHelper.readerIndex(buffer);
+                NBTCodec.skipNBTFromBuffer(buffer, serverVersion);
+                dimensionCodecBytes = new byte[ByteBufHelper.readerIndex(buffer) - codecStart];
+                ByteBufHelper.getBytes(buffer, codecStart, dimensionCodecBytes);
+                dimensionCodec = null;
                 dimension = readDimension();
                 worldName = readString();
             }
@@ -241,7 +252,11 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
                 writeString(name);
             }
             if (!v1_20_2) {
-                writeNBT(dimensionCodec);
+                if (dimensionCodec == null && dimensionCodecBytes != null) {
+                    ByteBufHelper.writeBytes(buffer, dimensionCodecBytes);
+                } else {
+                    writeNBT(dimensionCodec);
+                }
                 writeDimension(dimension);
                 writeString(worldName);
             }
@@ -319,6 +334,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
         previousGameMode = wrapper.previousGameMode;
         worldNames = wrapper.worldNames;
         dimensionCodec = wrapper.dimensionCodec;
+        dimensionCodecBytes = wrapper.dimensionCodecBytes;
         dimension = wrapper.dimension;
         difficulty = wrapper.difficulty;
         worldName = wrapper.worldName;
@@ -341,6 +357,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -349,6 +366,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setHardcore(boolean hardcore) {
+        markDirty();
         this.hardcore = hardcore;
     }
 
@@ -357,6 +375,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setGameMode(GameMode gameMode) {
+        markDirty();
         this.gameMode = gameMode;
     }
 
@@ -366,23 +385,44 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setPreviousGameMode(@Nullable GameMode previousGameMode) {
+        markDirty();
         this.previousGameMode = previousGameMode;
     }
 
     public List<String> getWorldNames() {
+        markDirty();
         return worldNames;
     }
 
     public void setWorldNames(List<String> worldNames) {
+        markDirty();
         this.worldNames = worldNames;
     }
 
     public NBTCompound getDimensionCodec() {
+        if (dimensionCodec == null && dimensionCodecBytes != null) {
+            Object buffer = UnpooledByteBufAllocationHelper.wrappedBuffer(dimensionCodecBytes);
+            dimensionCodec = (NBTCompound) NBTCodec.readNBTFromBuffer(buffer, serverVersion);
+            dimensionCodecBytes = null;
+        }
         return dimensionCodec;
     }
 
     public void setDimensionCodec(NBTCompound dimensionCodec) {
+        markDirty();
         this.dimensionCodec = dimensionCodec;
+        this.dimensionCodecBytes = null;
+    }
+
+    /**
+     * The encoded codec as read from the packet, the same for every player on a server.
+     * Must not be modified.
+     *
+     * @return The undecoded codec, or null if it was decoded or replaced
+     */
+    @ApiStatus.Internal
+    public byte @Nullable [] getDimensionCodecBytes() {
+        return dimensionCodecBytes;
     }
 
     public Dimension getDimension() {
@@ -390,6 +430,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setDimension(Dimension dimension) {
+        markDirty();
         this.dimension = dimension;
     }
 
@@ -398,6 +439,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setDifficulty(Difficulty difficulty) {
+        markDirty();
         this.difficulty = difficulty;
     }
 
@@ -406,6 +448,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setWorldName(String worldName) {
+        markDirty();
         this.worldName = worldName;
     }
 
@@ -414,6 +457,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setHashedSeed(long hashedSeed) {
+        markDirty();
         this.hashedSeed = hashedSeed;
     }
 
@@ -422,6 +466,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setMaxPlayers(int maxPlayers) {
+        markDirty();
         this.maxPlayers = maxPlayers;
     }
 
@@ -430,6 +475,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setViewDistance(int viewDistance) {
+        markDirty();
         this.viewDistance = viewDistance;
     }
 
@@ -438,6 +484,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setSimulationDistance(int simulationDistance) {
+        markDirty();
         this.simulationDistance = simulationDistance;
     }
 
@@ -446,6 +493,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setReducedDebugInfo(boolean reducedDebugInfo) {
+        markDirty();
         this.reducedDebugInfo = reducedDebugInfo;
     }
 
@@ -454,6 +502,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setRespawnScreenEnabled(boolean enableRespawnScreen) {
+        markDirty();
         this.enableRespawnScreen = enableRespawnScreen;
     }
 
@@ -462,6 +511,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setLimitedCrafting(boolean limitedCrafting) {
+        markDirty();
         this.limitedCrafting = limitedCrafting;
     }
 
@@ -470,6 +520,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setDebug(boolean isDebug) {
+        markDirty();
         this.isDebug = isDebug;
     }
 
@@ -478,14 +529,17 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setFlat(boolean isFlat) {
+        markDirty();
         this.isFlat = isFlat;
     }
 
     public @Nullable WorldBlockPosition getLastDeathPosition() {
+        markDirty();
         return lastDeathPosition;
     }
 
     public void setLastDeathPosition(@Nullable WorldBlockPosition lastDeathPosition) {
+        markDirty();
         this.lastDeathPosition = lastDeathPosition;
     }
 
@@ -494,6 +548,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setPortalCooldown(int portalCooldown) {
+        markDirty();
         this.portalCooldown = portalCooldown;
     }
 
@@ -502,6 +557,7 @@ public class WrapperPlayServerJoinGame extends PacketWrapper<WrapperPlayServerJo
     }
 
     public void setEnforcesSecureChat(boolean enforcesSecureChat) {
+        markDirty();
         this.enforcesSecureChat = enforcesSecureChat;
     }
 }
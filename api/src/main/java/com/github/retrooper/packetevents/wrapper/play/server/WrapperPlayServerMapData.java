@@ -225,6 +225,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setMapId(int mapId) {
+        markDirty();
         this.mapId = mapId;
     }
 
@@ -233,6 +234,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setScale(byte scale) {
+        markDirty();
         this.scale = scale;
     }
 
@@ -241,6 +243,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setTrackingPosition(boolean trackingPosition) {
+        markDirty();
         this.trackingPosition = trackingPosition;
     }
 
@@ -249,14 +252,17 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setLocked(boolean locked) {
+        markDirty();
         this.locked = locked;
     }
 
     public @Nullable List<MapDecoration> getDecorations() {
+        markDirty();
         return this.decorations;
     }
 
     public void setDecorations(@Nullable List<MapDecoration> decorations) {
+        markDirty();
         this.decorations = decorations;
     }
 
@@ -265,6 +271,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setColumns(int columns) {
+        markDirty();
         this.columns = columns;
     }
 
@@ -273,6 +280,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setRows(int rows) {
+        markDirty();
         this.rows = rows;
     }
 
@@ -281,6 +289,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setX(int x) {
+        markDirty();
         this.x = x;
     }
 
@@ -289,6 +298,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setZ(int z) {
+        markDirty();
         this.z = z;
     }
 
@@ -297,6 +307,7 @@ public class WrapperPlayServerMapData extends PacketWrapper<WrapperPlayServerMap
     }
 
     public void setData(byte @Nullable [] data) {
+        markDirty();
         this.data = data;
     }
 }
@@ -101,14 +101,17 @@ public class WrapperPlayServerMerchantOffers extends PacketWrapper<WrapperPlaySe
     }
 
     public void setContainerId(int containerId) {
+        markDirty();
         this.containerId = containerId;
     }
 
     public List<MerchantOffer> getMerchantOffers() {
+        markDirty();
         return merchantOffers;
     }
 
     public void setMerchantOffers(List<MerchantOffer> merchantOffers) {
+        markDirty();
         this.merchantOffers = merchantOffers;
     }
 
@@ -117,6 +120,7 @@ public class WrapperPlayServerMerchantOffers extends PacketWrapper<WrapperPlaySe
     }
 
     public void setVillagerLevel(int villagerLevel) {
+        markDirty();
         this.villagerLevel = villagerLevel;
     }
 
@@ -125,6 +129,7 @@ public class WrapperPlayServerMerchantOffers extends PacketWrapper<WrapperPlaySe
     }
 
     public void setVillagerXp(int villagerXp) {
+        markDirty();
         this.villagerXp = villagerXp;
     }
 
@@ -133,6 +138,7 @@ public class WrapperPlayServerMerchantOffers extends PacketWrapper<WrapperPlaySe
     }
 
     public void setShowProgress(boolean showProgress) {
+        markDirty();
         this.showProgress = showProgress;
     }
 
@@ -141,6 +147,7 @@ public class WrapperPlayServerMerchantOffers extends PacketWrapper<WrapperPlaySe
     }
 
     public void setCanRestock(boolean canRestock) {
+        markDirty();
         this.canRestock = canRestock;
     }
 }
@@ -27,11 +27,21 @@ import com.github.retrooper.packetevents.util.Vector3i;
 import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+
 // Inspired heavily by MCProtocolLib
 public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlayServerMultiBlockChange> {
     private Vector3i chunkPosition;
     //Suppress light
     private Boolean trustEdges;
+    /*
+     * Blocks are stored as packed longs, EncodedBlock objects are only created when requested.
+     * 1.16+ layout: blockId << 12 | localX << 8 | localZ << 4 | localY, relative to the chunk section
+     * Legacy layout: blockId << 16 | localX << 12 | localZ << 8 | y, relative to the chunk column
+     */
+    private long[] entries;
+    private boolean legacyLayout;
+    // either views over the entries or the array passed to setBlocks, in which case entries is null
     private EncodedBlock[] blockData;
 
     public WrapperPlayServerMultiBlockChange(PacketSendEvent event) {
@@ -42,11 +52,24 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
         super(PacketType.Play.Server.MULTI_BLOCK_CHANGE);
         this.chunkPosition = chunkPosition;
         this.trustEdges = trustEdges;
+        this.legacyLayout = serverVersion.isOlderThan(ServerVersion.V_1_16);
         this.blockData = blockData;
     }
 
+    /**
+     * @param entries Blocks packed in the layout of the server version, see {@link #setEntries(long[])}
+     */
+    public WrapperPlayServerMultiBlockChange(Vector3i chunkPosition, @Nullable Boolean trustEdges, long[] entries) {
+        super(PacketType.Play.Server.MULTI_BLOCK_CHANGE);
+        this.chunkPosition = chunkPosition;
+        this.trustEdges = trustEdges;
+        this.legacyLayout = serverVersion.isOlderThan(ServerVersion.V_1_16);
+        this.entries = entries;
+    }
+
     @Override
     public void read() {
+        blockData = null;
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_16)) {
             long encodedPosition = readLong();
 
@@ -59,30 +82,28 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
                 trustEdges = readBoolean();
             }
 
-            blockData = new EncodedBlock[readVarInt()];
-            for (int i = 0; i < blockData.length; i++) {
-                blockData[i] = new EncodedBlock(chunkPosition, readVarLong());
+            legacyLayout = false;
+            entries = new long[readVarInt()];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = readVarLong();
             }
         } else { // Copied from MCProtocolLib
             int chunkX = readInt();
             int chunkZ = readInt();
             chunkPosition = new Vector3i(chunkX, 0, chunkZ);
-            int len = readVarInt();
-            blockData = new EncodedBlock[len];
-            for (int i = 0; i < len; i++) {
+            legacyLayout = true;
+            entries = new long[readVarInt()];
+            for (int i = 0; i < entries.length; i++) {
                 short pos = readShort();
-                //chunkX << 4 = chunkX * 16
-                int x = (chunkX << 4) + (pos >> 12 & 15);
-                int y = pos & 255;
-                int z = (chunkZ << 4) + (pos >> 8 & 15);
                 int blockId = readVarInt();
-                this.blockData[i] = new EncodedBlock(blockId, x, y, z);
+                entries[i] = (long) blockId << 16 | (pos & 0xFFFF);
             }
         }
     }
 
     @Override
     public void write() {
+        long[] entries = this.entries != null ? this.entries : pack(blockData, legacyLayout);
         if (serverVersion.isNewerThanOrEquals(ServerVersion.V_1_16)) {
             long encodedPos = 0;
             encodedPos |= (chunkPosition.getX() & 0x3FFFFFL) << 42;
@@ -93,20 +114,30 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
                 writeBoolean(Boolean.TRUE.equals(trustEdges));
             }
 
-            writeVarInt(blockData.length);
-            for (EncodedBlock blockDatum : blockData) {
-                writeVarLong(blockDatum.toLong());
+            writeVarInt(entries.length);
+            if (legacyLayout) {
+                // all blocks are expected to be in the section of the chunk position
+                for (long entry : entries) {
+                    writeVarLong(entry >>> 16 << 12 | (entry >>> 4 & 0xFF0) | (entry & 0xF));
+                }
+            } else {
+                for (long entry : entries) {
+                    writeVarLong(entry);
+                }
             }
         } else { // Copied from MCProtocolLib
             writeInt(chunkPosition.getX());
             writeInt(chunkPosition.getZ());
-            writeVarInt(this.blockData.length);
-            for (EncodedBlock record : blockData) {
-                int x = record.getX() & 0xF;
-                int z = record.getZ() & 0xF;
-                short pos = (short) (x << 12 | z << 8 | record.getY());
-                writeShort(pos);
-                writeVarInt(record.getBlockId());
+            writeVarInt(entries.length);
+            int baseY = legacyLayout ? 0 : chunkPosition.getY() << 4;
+            for (long entry : entries) {
+                if (legacyLayout) {
+                    writeShort((short) entry);
+                    writeVarInt((int) (entry >>> 16));
+                } else {
+                    writeShort((short) ((entry & 0xFF0) << 4 | ((baseY + (int) (entry & 0xF)) & 0xFF)));
+                    writeVarInt((int) (entry >>> 12));
+                }
             }
         }
     }
@@ -115,7 +146,9 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
     public void copy(WrapperPlayServerMultiBlockChange wrapper) {
         chunkPosition = wrapper.chunkPosition;
         trustEdges = wrapper.trustEdges;
-        blockData = wrapper.blockData;
+        legacyLayout = wrapper.legacyLayout;
+        entries = wrapper.entries;
+        blockData = wrapper.entries != null ? null : wrapper.blockData;
     }
 
     public Vector3i getChunkPosition() {
@@ -123,6 +156,7 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
     }
 
     public void setChunkPosition(Vector3i chunkPosition) {
+        markDirty();
         this.chunkPosition = chunkPosition;
     }
 
@@ -131,15 +165,183 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
     }
 
     public void setTrustEdges(Boolean trustEdges) {
+        markDirty();
         this.trustEdges = trustEdges;
     }
 
+    /**
+     * The blocks are created on first access and are backed by the packet, changing them changes the packet.
+     * Prefer the index based accessors for large packets.
+     */
     public EncodedBlock[] getBlocks() {
+        if (blockData == null) {
+            long[] entries = this.entries;
+            EncodedBlock[] blocks = new EncodedBlock[entries.length];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = new EntryView(this, i);
+            }
+            blockData = blocks;
+        }
         return blockData;
     }
 
     public void setBlocks(EncodedBlock[] blocks) {
-        this.blockData = blocks;
+        markDirty();
+        this.blockData = detach(blocks);
+        this.entries = null;
+    }
+
+    // blocks returned by getBlocks read from the entries, copy them before the entries are replaced
+    private static EncodedBlock[] detach(EncodedBlock[] blocks) {
+        EncodedBlock[] detached = blocks;
+        for (int i = 0; i < blocks.length; i++) {
+            EncodedBlock block = blocks[i];
+            if (block instanceof EntryView) {
+                if (detached == blocks) {
+                    detached = blocks.clone();
+                }
+                detached[i] = new EncodedBlock(block.getBlockId(), block.getX(), block.getY(), block.getZ());
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Packed blocks of this packet, see {@link #setEntries(long[])} for the layout.
+     * Prefer the index based accessors, they work with both layouts.
+     *
+     * Call {@link #markDirty()} after modifying the returned array.
+     *
+     * @return The packed blocks
+     */
+    public long[] getEntries() {
+        return entries();
+    }
+
+    /**
+     * On 1.16+ servers blocks are packed as {@code blockId << 12 | localX << 8 | localZ << 4 | localY},
+     * relative to the chunk section at {@link #getChunkPosition()}.
+     * On older servers blocks are packed as {@code blockId << 16 | localX << 12 | localZ << 8 | y},
+     * relative to the chunk column.
+     *
+     * @param entries Packed blocks in the layout of the server version
+     */
+    public void setEntries(long[] entries) {
+        markDirty();
+        this.entries = entries;
+        this.legacyLayout = serverVersion.isOlderThan(ServerVersion.V_1_16);
+        this.blockData = null;
+    }
+
+    public int getBlockCount() {
+        return entries != null ? entries.length : blockData.length;
+    }
+
+    public int getBlockId(int index) {
+        long entry = entries()[index];
+        return (int) (legacyLayout ? entry >>> 16 : entry >>> 12);
+    }
+
+    public void setBlockId(int index, int blockId) {
+        markDirty();
+        long[] entries = entries();
+        if (legacyLayout) {
+            entries[index] = (long) blockId << 16 | (entries[index] & 0xFFFF);
+        } else {
+            entries[index] = (long) blockId << 12 | (entries[index] & 0xFFF);
+        }
+    }
+
+    /**
+     * @return Global X position of the block at the index
+     */
+    public int getX(int index) {
+        long entry = entries()[index];
+        return (chunkPosition.getX() << 4) + (int) (legacyLayout ? entry >>> 12 & 0xF : entry >>> 8 & 0xF);
+    }
+
+    /**
+     * @return Global Y position of the block at the index
+     */
+    public int getY(int index) {
+        long entry = entries()[index];
+        return legacyLayout ? (int) (entry & 0xFF) : (chunkPosition.getY() << 4) + (int) (entry & 0xF);
+    }
+
+    /**
+     * @return Global Z position of the block at the index
+     */
+    public int getZ(int index) {
+        long entry = entries()[index];
+        return (chunkPosition.getZ() << 4) + (int) (legacyLayout ? entry >>> 8 & 0xF : entry >>> 4 & 0xF);
+    }
+
+    /**
+     * Calls the consumer with the global position and block id of every block, without creating objects.
+     */
+    public void forEachBlock(BlockConsumer consumer) {
+        int count = entries().length;
+        for (int i = 0; i < count; i++) {
+            consumer.accept(getX(i), getY(i), getZ(i), getBlockId(i));
+        }
+    }
+
+    /**
+     * Removes all blocks matching the filter, e.g. blocks a viewer shouldn't see.
+     *
+     * @return The amount of removed blocks
+     */
+    public int removeIf(BlockPredicate filter) {
+        long[] entries = entries();
+        long[] kept = new long[entries.length];
+        int size = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (!filter.test(getX(i), getY(i), getZ(i), getBlockId(i))) {
+                kept[size++] = entries[i];
+            }
+        }
+        int removed = entries.length - size;
+        if (removed != 0) {
+            markDirty();
+            this.entries = size == kept.length ? kept : Arrays.copyOf(kept, size);
+            this.blockData = null;
+        }
+        return removed;
+    }
+
+    private long[] entries() {
+        if (entries == null) {
+            entries = pack(blockData, legacyLayout);
+            // the passed blocks are no longer used from here on
+            blockData = null;
+        }
+        return entries;
+    }
+
+    private static long[] pack(EncodedBlock[] blocks, boolean legacyLayout) {
+        long[] entries = new long[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            EncodedBlock block = blocks[i];
+            if (legacyLayout) {
+                entries[i] = (long) block.getBlockId() << 16
+                        | (block.getX() & 0xF) << 12 | (block.getZ() & 0xF) << 8 | (block.getY() & 0xFF);
+            } else {
+                entries[i] = block.toLong();
+            }
+        }
+        return entries;
+    }
+
+    @FunctionalInterface
+    public interface BlockConsumer {
+
+        void accept(int x, int y, int z, int blockId);
+    }
+
+    @FunctionalInterface
+    public interface BlockPredicate {
+
+        boolean test(int x, int y, int z, int blockId);
     }
 
     public static class EncodedBlock {
@@ -148,6 +350,9 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
         private int y;
         private int z;
 
+        private EncodedBlock() {
+        }
+
         public EncodedBlock(int blockID, int x, int y, int z) {
             this.blockID = blockID;
             this.x = x;
@@ -171,7 +376,7 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
         }
 
         public long toLong() {
-            return (long) blockID << 12 | (x & 0xF) << 8 | (z & 0xF) << 4 | (y & 0xF);
+            return (long) getBlockId() << 12 | (getX() & 0xF) << 8 | (getZ() & 0xF) << 4 | (getY() & 0xF);
         }
 
         public int getBlockId() {
@@ -183,11 +388,11 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
         }
 
         public WrappedBlockState getBlockState(ClientVersion version) {
-            return WrappedBlockState.getByGlobalId(version, blockID);
+            return WrappedBlockState.getByGlobalId(version, getBlockId());
         }
 
         public void setBlockState(WrappedBlockState blockState) {
-            blockID = blockState.getGlobalId();
+            setBlockId(blockState.getGlobalId());
         }
 
         /**
@@ -232,4 +437,67 @@ public class WrapperPlayServerMultiBlockChange extends PacketWrapper<WrapperPlay
             this.z = z;
         }
     }
+
+    /**
+     * Block backed by an entry of the packet, positions can only be moved within the chunk section (or column).
+     */
+    private static final class EntryView extends EncodedBlock {
+        private final WrapperPlayServerMultiBlockChange wrapper;
+        private final int index;
+
+        private EntryView(WrapperPlayServerMultiBlockChange wrapper, int index) {
+            this.wrapper = wrapper;
+            this.index = index;
+        }
+
+        @Override
+        public int getBlockId() {
+            return wrapper.getBlockId(index);
+        }
+
+        @Override
+        public void setBlockId(int blockID) {
+            wrapper.setBlockId(index, blockID);
+        }
+
+        @Override
+        public int getX() {
+            return wrapper.getX(index);
+        }
+
+        @Override
+        public int getY() {
+            return wrapper.getY(index);
+        }
+
+        @Override
+        public int getZ() {
+            return wrapper.getZ(index);
+        }
+
+        @Override
+        public void setX(int x) {
+            set(x & 0xF, wrapper.legacyLayout ? 12 : 8, 0xF);
+        }
+
+        @Override
+        public void setY(int y) {
+            if (wrapper.legacyLayout) {
+                set(y & 0xFF, 0, 0xFF);
+            } else {
+                set(y & 0xF, 0, 0xF);
+            }
+        }
+
+        @Override
+        public void setZ(int z) {
+            set(z & 0xF, wrapper.legacyLayout ? 8 : 4, 0xF);
+        }
+
+        private void set(int value, int shift, int mask) {
+            wrapper.markDirty();
+            long[] entries = wrapper.entries();
+            entries[index] = entries[index] & ~((long) mask << shift) | (long) value << shift;
+        }
+    }
 }
@@ -151,10 +151,12 @@ public class WrapperPlayServerParticle extends PacketWrapper<WrapperPlayServerPa
     }
 
     public Particle<?> getParticle() {
+        markDirty();
         return particle;
     }
 
     public void setParticle(Particle<?> particle) {
+        markDirty();
         this.particle = particle;
     }
 
@@ -163,6 +165,7 @@ public class WrapperPlayServerParticle extends PacketWrapper<WrapperPlayServerPa
     }
 
     public void setLongDistance(boolean longDistance) {
+        markDirty();
         this.longDistance = longDistance;
     }
 
@@ -171,6 +174,7 @@ public class WrapperPlayServerParticle extends PacketWrapper<WrapperPlayServerPa
     }
 
     public void setPosition(Vector3d position) {
+        markDirty();
         this.position = position;
     }
 
@@ -179,6 +183,7 @@ public class WrapperPlayServerParticle extends PacketWrapper<WrapperPlayServerPa
     }
 
     public void setOffset(Vector3f offset) {
+        markDirty();
         this.offset = offset;
     }
 
@@ -187,6 +192,7 @@ public class WrapperPlayServerParticle extends PacketWrapper<WrapperPlayServerPa
     }
 
     public void setMaxSpeed(float maxSpeed) {
+        markDirty();
         this.maxSpeed = maxSpeed;
     }
 
@@ -195,6 +201,7 @@ public class WrapperPlayServerParticle extends PacketWrapper<WrapperPlayServerPa
     }
 
     public void setParticleCount(int particleCount) {
+        markDirty();
         this.particleCount = particleCount;
     }
 
@@ -62,6 +62,7 @@ public class WrapperPlayServerPing extends PacketWrapper<WrapperPlayServerPing>
     }
 
     public void setId(int id) {
+        markDirty();
         this.id = id;
     }
 }
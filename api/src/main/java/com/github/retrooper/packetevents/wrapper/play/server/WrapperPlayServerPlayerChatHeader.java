@@ -84,6 +84,7 @@ public class WrapperPlayServerPlayerChatHeader extends PacketWrapper<WrapperPlay
      * @param previousSignature the previous message signature.
      */
     public void setPreviousSignature(byte @Nullable [] previousSignature) {
+        markDirty();
         this.previousSignature = previousSignature;
     }
 
@@ -102,6 +103,7 @@ public class WrapperPlayServerPlayerChatHeader extends PacketWrapper<WrapperPlay
      * @param playerUUID The UUID of the message sender.
      */
     public void setPlayerUUID(UUID playerUUID) {
+        markDirty();
         this.playerUUID = playerUUID;
     }
 
@@ -120,6 +122,7 @@ public class WrapperPlayServerPlayerChatHeader extends PacketWrapper<WrapperPlay
      * @param signature The signature of the current message.
      */
     public void setSignature(byte[] signature) {
+        markDirty();
         this.signature = signature;
     }
 
@@ -138,6 +141,7 @@ public class WrapperPlayServerPlayerChatHeader extends PacketWrapper<WrapperPlay
      * @param hash the hash of the chat message.
      */
     public void setHash(byte[] hash) {
+        markDirty();
         this.hash = hash;
     }
 }
@@ -215,14 +215,17 @@ public class WrapperPlayServerPlayerInfo extends PacketWrapper<WrapperPlayServer
     }
 
     public void setAction(@NotNull Action action) {
+        markDirty();
         this.action = action;
     }
 
     public List<PlayerData> getPlayerDataList() {
+        markDirty();
         return playerDataList;
     }
 
     public void setPlayerDataList(List<PlayerData> playerDataList) {
+        markDirty();
         this.playerDataList = playerDataList;
     }
 
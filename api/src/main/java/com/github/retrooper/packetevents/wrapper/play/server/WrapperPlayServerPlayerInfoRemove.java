@@ -61,10 +61,12 @@ public class WrapperPlayServerPlayerInfoRemove extends PacketWrapper<WrapperPlay
     }
 
     public List<UUID> getProfileIds() {
+        markDirty();
         return profileIds;
     }
 
     public void setProfileIds(List<UUID> profileIds) {
+        markDirty();
         this.profileIds = profileIds;
     }
 }
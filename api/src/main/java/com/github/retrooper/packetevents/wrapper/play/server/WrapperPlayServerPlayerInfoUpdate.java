@@ -235,18 +235,22 @@ public class WrapperPlayServerPlayerInfoUpdate extends PacketWrapper<WrapperPlay
     }
 
     public EnumSet<Action> getActions() {
+        markDirty();
         return actions;
     }
 
     public void setActions(EnumSet<Action> actions) {
+        markDirty();
         this.actions = actions;
     }
 
     public List<PlayerInfo> getEntries() {
+        markDirty();
         return entries;
     }
 
     public void setEntries(List<PlayerInfo> entries) {
+        markDirty();
         this.entries = entries;
     }
 }
@@ -98,6 +98,7 @@ public class WrapperPlayServerPluginMessage extends PacketWrapper<WrapperPlaySer
      * @param channelName The channel name.
      */
     public void setChannelName(String channelName) {
+        markDirty();
        this.channelName = channelName;
     }
 
@@ -116,6 +117,7 @@ public class WrapperPlayServerPluginMessage extends PacketWrapper<WrapperPlaySer
      * @param data The data.
      */
     public void setData(byte[] data) {
+        markDirty();
         this.data = data;
     }
 }
@@ -83,6 +83,7 @@ public class WrapperPlayServerProjectilePower extends PacketWrapper<WrapperPlayS
     }
 
     public void setEntityId(int entityId) {
+        markDirty();
         this.entityId = entityId;
     }
 
@@ -91,6 +92,7 @@ public class WrapperPlayServerProjectilePower extends PacketWrapper<WrapperPlayS
     }
 
     public void setPower(double power) {
+        markDirty();
         this.powerX = power;
         this.powerY = power;
         this.powerZ = power;
@@ -101,6 +103,7 @@ public class WrapperPlayServerProjectilePower extends PacketWrapper<WrapperPlayS
     }
 
     public void setPowerX(double powerX) {
+        markDirty();
         this.powerX = powerX;
     }
 
@@ -109,6 +112,7 @@ public class WrapperPlayServerProjectilePower extends PacketWrapper<WrapperPlayS
     }
 
     public void setPowerY(double powerY) {
+        markDirty();
         this.powerY = powerY;
     }
 
@@ -117,6 +121,7 @@ public class WrapperPlayServerProjectilePower extends PacketWrapper<WrapperPlayS
     }
 
     public void setPowerZ(double powerZ) {
+        markDirty();
         this.powerZ = powerZ;
     }
 }
@@ -212,6 +212,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setDimension(Dimension dimension) {
+        markDirty();
         this.dimension = dimension;
     }
 
@@ -220,6 +221,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setWorldName(@Nullable String worldName) {
+        markDirty();
         this.worldName = Optional.ofNullable(worldName);
     }
 
@@ -228,6 +230,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setDifficulty(Difficulty difficulty) {
+        markDirty();
         this.difficulty = difficulty;
     }
 
@@ -236,6 +239,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setHashedSeed(long hashedSeed) {
+        markDirty();
         this.hashedSeed = hashedSeed;
     }
 
@@ -244,6 +248,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setGameMode(GameMode gameMode) {
+        markDirty();
         this.gameMode = gameMode;
     }
 
@@ -253,6 +258,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setPreviousGameMode(@Nullable GameMode previousGameMode) {
+        markDirty();
         this.previousGameMode = previousGameMode;
     }
 
@@ -261,6 +267,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setWorldDebug(boolean worldDebug) {
+        markDirty();
         this.worldDebug = worldDebug;
     }
 
@@ -269,6 +276,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setWorldFlat(boolean worldFlat) {
+        markDirty();
         this.worldFlat = worldFlat;
     }
 
@@ -277,6 +285,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setKeepingAllPlayerData(boolean keepAllPlayerData) {
+        markDirty();
         this.keptData = keepAllPlayerData ? KEEP_ALL_DATA : KEEP_ENTITY_DATA;
     }
    
@@ -285,14 +294,17 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setKeptData(byte keptData) {
+        markDirty();
         this.keptData = keptData;
     }
 
     public @Nullable WorldBlockPosition getLastDeathPosition() {
+        markDirty();
         return lastDeathPosition;
     }
 
     public void setLastDeathPosition(@Nullable WorldBlockPosition lastDeathPosition) {
+        markDirty();
         this.lastDeathPosition = lastDeathPosition;
     }
 
@@ -301,6 +313,7 @@ public class WrapperPlayServerRespawn extends PacketWrapper<WrapperPlayServerRes
     }
 
     public void setPortalCooldown(int portalCooldown) {
+        markDirty();
         this.portalCooldown = portalCooldown;
     }
 }
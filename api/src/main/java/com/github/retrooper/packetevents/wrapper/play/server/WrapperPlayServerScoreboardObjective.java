@@ -128,6 +128,7 @@ public class WrapperPlayServerScoreboardObjective extends PacketWrapper<WrapperP
     }
 
     public void setName(String name) {
+        markDirty();
         this.name = name;
     }
 
@@ -136,6 +137,7 @@ public class WrapperPlayServerScoreboardObjective extends PacketWrapper<WrapperP
     }
 
     public void setMode(ObjectiveMode mode) {
+        markDirty();
         this.mode = mode;
     }
 
@@ -144,6 +146,7 @@ public class WrapperPlayServerScoreboardObjective extends PacketWrapper<WrapperP
     }
 
     public void setDisplayName(@Nullable Component displayName) {
+        markDirty();
         this.displayName = displayName;
     }
 
@@ -152,6 +155,7 @@ public class WrapperPlayServerScoreboardObjective extends PacketWrapper<WrapperP
     }
 
     public void setRenderType(@Nullable RenderType renderType) {
+        markDirty();
         this.renderType = renderType;
     }
 
@@ -160,6 +164,7 @@ public class WrapperPlayServerScoreboardObjective extends PacketWrapper<WrapperP
     }
 
     public void setScoreFormat(@Nullable ScoreFormat scoreFormat) {
+        markDirty();
         this.scoreFormat = scoreFormat;
     }
 
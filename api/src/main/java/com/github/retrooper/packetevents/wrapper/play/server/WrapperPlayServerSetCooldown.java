@@ -61,6 +61,7 @@ public class WrapperPlayServerSetCooldown extends PacketWrapper<WrapperPlayServe
     }
 
     public void setItem(ItemType item) {
+        markDirty();
         this.item = item;
     }
 
@@ -69,6 +70,7 @@ public class WrapperPlayServerSetCooldown extends PacketWrapper<WrapperPlayServe
     }
 
     public void setCooldownTicks(int cooldownTicks) {
+        markDirty();
         this.cooldownTicks = cooldownTicks;
     }
 }
@@ -75,6 +75,7 @@ public class WrapperPlayServerSetExperience extends PacketWrapper<WrapperPlaySer
     }
 
     public void setExperienceBar(float experienceBar) {
+        markDirty();
         this.experienceBar = experienceBar;
     }
 
@@ -83,6 +84,7 @@ public class WrapperPlayServerSetExperience extends PacketWrapper<WrapperPlaySer
     }
 
     public void setLevel(int level) {
+        markDirty();
         this.level = level;
     }
 
@@ -91,6 +93,7 @@ public class WrapperPlayServerSetExperience extends PacketWrapper<WrapperPlaySer
     }
 
     public void setTotalExperience(int totalExperience) {
+        markDirty();
         this.totalExperience = totalExperience;
     }
 }
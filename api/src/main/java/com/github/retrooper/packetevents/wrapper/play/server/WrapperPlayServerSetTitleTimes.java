@@ -64,6 +64,7 @@ public class WrapperPlayServerSetTitleTimes extends PacketWrapper<WrapperPlaySer
     }
 
     public void setFadeInTicks(int fadeInTicks) {
+        markDirty();
         this.fadeInTicks = fadeInTicks;
     }
 
@@ -72,6 +73,7 @@ public class WrapperPlayServerSetTitleTimes extends PacketWrapper<WrapperPlaySer
     }
 
     public void setStayTicks(int stayTicks) {
+        markDirty();
         this.stayTicks = stayTicks;
     }
 
@@ -80,6 +82,7 @@ public class WrapperPlayServerSetTitleTimes extends PacketWrapper<WrapperPlaySer
     }
 
     public void setFadeOutTicks(int fadeOutTicks) {
+        markDirty();
         this.fadeOutTicks = fadeOutTicks;
     }
 }
@@ -141,6 +141,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
     }
 
     public void setSound(Sound sound) {
+        markDirty();
         this.sound = sound;
     }
 
@@ -151,6 +152,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
 
     @Deprecated
     public void setSoundId(int soundId) {
+        markDirty();
         this.setSound(Sounds.getById(this.serverVersion.toClientVersion(), soundId));
     }
 
@@ -160,6 +162,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
     }
 
     public void setSoundCategory(SoundCategory soundCategory) {
+        markDirty();
         this.soundCategory = soundCategory;
     }
 
@@ -168,6 +171,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
     }
 
     public void setEffectPosition(Vector3i effectPosition) {
+        markDirty();
         this.effectPosition = effectPosition;
     }
 
@@ -176,6 +180,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
     }
 
     public void setVolume(float volume) {
+        markDirty();
         this.volume = volume;
     }
 
@@ -184,6 +189,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
     }
 
     public void setPitch(float pitch) {
+        markDirty();
         this.pitch = pitch;
     }
 
@@ -202,6 +208,7 @@ public class WrapperPlayServerSoundEffect extends PacketWrapper<WrapperPlayServe
      * @param seed the seed to set
      */
     public void setSeed(long seed) {
+        markDirty();
         this.seed = seed;
     }
 }
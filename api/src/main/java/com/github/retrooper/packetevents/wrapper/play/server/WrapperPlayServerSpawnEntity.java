@@ -208,6 +208,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -216,6 +217,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setUUID(Optional<UUID> uuid) {
+        markDirty();
         this.uuid = uuid;
     }
 
@@ -224,6 +226,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setEntityType(EntityType entityType) {
+        markDirty();
         this.entityType = entityType;
     }
 
@@ -232,6 +235,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setPosition(Vector3d position) {
+        markDirty();
         this.position = position;
     }
 
@@ -240,6 +244,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setPitch(float pitch) {
+        markDirty();
         this.pitch = pitch;
     }
 
@@ -248,6 +253,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setYaw(float yaw) {
+        markDirty();
         this.yaw = yaw;
     }
 
@@ -256,6 +262,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setHeadYaw(float headYaw) {
+        markDirty();
         this.headYaw = headYaw;
     }
 
@@ -264,6 +271,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setData(int data) {
+        markDirty();
         this.data = data;
     }
 
@@ -272,6 +280,7 @@ public class WrapperPlayServerSpawnEntity extends PacketWrapper<WrapperPlayServe
     }
 
     public void setVelocity(Optional<Vector3d> velocity) {
+        markDirty();
         this.velocity = velocity;
     }
 }
@@ -88,6 +88,7 @@ public class WrapperPlayServerSpawnExperienceOrb extends PacketWrapper<WrapperPl
     }
 
     public void setEntityId(int entityId) {
+        markDirty();
         this.entityId = entityId;
     }
 
@@ -96,6 +97,7 @@ public class WrapperPlayServerSpawnExperienceOrb extends PacketWrapper<WrapperPl
     }
 
     public void setX(double x) {
+        markDirty();
         this.x = x;
     }
 
@@ -104,6 +106,7 @@ public class WrapperPlayServerSpawnExperienceOrb extends PacketWrapper<WrapperPl
     }
 
     public void setY(double y) {
+        markDirty();
         this.y = y;
     }
 
@@ -112,6 +115,7 @@ public class WrapperPlayServerSpawnExperienceOrb extends PacketWrapper<WrapperPl
     }
 
     public void setZ(double z) {
+        markDirty();
         this.z = z;
     }
 
@@ -120,6 +124,7 @@ public class WrapperPlayServerSpawnExperienceOrb extends PacketWrapper<WrapperPl
     }
 
     public void setCount(short count) {
+        markDirty();
         this.count = count;
     }
 }
@@ -142,6 +142,7 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
     }
 
     public void setEntityId(int entityID) {
+        markDirty();
         this.entityID = entityID;
     }
 
@@ -150,6 +151,7 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
     }
 
     public void setUUID(UUID uuid) {
+        markDirty();
         this.uuid = uuid;
     }
 
@@ -158,6 +160,7 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
     }
 
     public void setPosition(Vector3d position) {
+        markDirty();
         this.position = position;
     }
 
@@ -166,6 +169,7 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
     }
 
     public void setYaw(float yaw) {
+        markDirty();
         this.yaw = yaw;
     }
 
@@ -174,6 +178,7 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
     }
 
     public void setPitch(float pitch) {
+        markDirty();
         this.pitch = pitch;
     }
 
@@ -184,11 +189,13 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
 
     @Deprecated
     public void setEntityMetadata(List<EntityData> entityMetadata) {
+        markDirty();
         this.entityMetadata = entityMetadata;
     }
 
     @Deprecated
     public void setEntityMetadata(EntityMetadataProvider metadata) {
+        markDirty();
         this.entityMetadata = metadata.entityData(serverVersion.toClientVersion());
     }
 
@@ -199,6 +206,7 @@ public class WrapperPlayServerSpawnPlayer extends PacketWrapper<WrapperPlayServe
 
     @Deprecated
     public void setItem(ItemType item) {
+        markDirty();
         this.item = item;
     }
 }
\ No newline at end of file
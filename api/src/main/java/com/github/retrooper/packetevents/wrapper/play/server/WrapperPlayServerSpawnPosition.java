@@ -86,6 +86,7 @@ public class WrapperPlayServerSpawnPosition extends PacketWrapper<WrapperPlaySer
     }
 
     public void setPosition(Vector3i position) {
+        markDirty();
         this.position = position;
     }
 
@@ -94,6 +95,7 @@ public class WrapperPlayServerSpawnPosition extends PacketWrapper<WrapperPlaySer
     }
 
     public void setAngle(float angle) {
+        markDirty();
         this.angle = angle;
     }
 }
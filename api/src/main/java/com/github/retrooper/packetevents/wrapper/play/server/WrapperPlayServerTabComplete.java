@@ -118,22 +118,27 @@ public class WrapperPlayServerTabComplete extends PacketWrapper<WrapperPlayServe
     }
 
     public void setTransactionId(@Nullable Integer transactionID) {
+        markDirty();
         this.transactionID = Optional.ofNullable(transactionID);
     }
 
     public Optional<CommandRange> getCommandRange() {
+        markDirty();
         return commandRange;
     }
 
     public void setCommandRange(@Nullable CommandRange commandRange) {
+        markDirty();
         this.commandRange = Optional.ofNullable(commandRange);
     }
 
     public List<CommandMatch> getCommandMatches() {
+        markDirty();
         return commandMatches;
     }
 
     public void setCommandMatches(List<CommandMatch> commandMatches) {
+        markDirty();
         this.commandMatches = commandMatches;
     }
 
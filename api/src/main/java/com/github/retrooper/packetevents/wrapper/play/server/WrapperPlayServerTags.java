@@ -77,15 +77,18 @@ public class WrapperPlayServerTags extends PacketWrapper<WrapperPlayServerTags>
     }
 
     public Map<ResourceLocation, List<Tag>> getTagMap() {
+        markDirty();
         return this.tags;
     }
 
     public void setTagMap(Map<ResourceLocation, List<Tag>> tags) {
+        markDirty();
         this.tags = tags;
     }
 
     @Deprecated
     public Map<String, List<Tag>> getTags() {
+        markDirty();
         if (this.tags == null) {
             return null;
         }
@@ -98,6 +101,7 @@ public class WrapperPlayServerTags extends PacketWrapper<WrapperPlayServerTags>
 
     @Deprecated
     public void setTags(HashMap<String, List<Tag>> tags) {
+        markDirty();
         if (tags == null) {
             this.tags = null;
         } else {
@@ -273,6 +273,7 @@ public class WrapperPlayServerTeams extends PacketWrapper<WrapperPlayServerTeams
 
 
     public void setTeamName(String teamName) {
+        markDirty();
         this.teamName = teamName;
     }
 
@@ -281,22 +282,27 @@ public class WrapperPlayServerTeams extends PacketWrapper<WrapperPlayServerTeams
     }
 
     public void setTeamMode(TeamMode teamMode) {
+        markDirty();
         this.teamMode = teamMode;
     }
 
     public Collection<String> getPlayers() {
+        markDirty();
         return players;
     }
 
     public void setPlayers(Collection<String> players) {
+        markDirty();
         this.players = players;
     }
 
     public Optional<ScoreBoardTeamInfo> getTeamInfo() {
+        markDirty();
         return teamInfo;
     }
 
     public void setTeamInfo(@Nullable ScoreBoardTeamInfo teamInfo) {
+        markDirty();
         this.teamInfo = Optional.ofNullable(teamInfo);
     }
 
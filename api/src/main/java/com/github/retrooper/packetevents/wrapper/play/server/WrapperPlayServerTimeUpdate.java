@@ -59,6 +59,7 @@ public class WrapperPlayServerTimeUpdate extends PacketWrapper<WrapperPlayServer
     }
 
     public void setWorldAge(long worldAge) {
+        markDirty();
         this.worldAge = worldAge;
     }
 
@@ -67,6 +68,7 @@ public class WrapperPlayServerTimeUpdate extends PacketWrapper<WrapperPlayServer
     }
 
     public void setTimeOfDay(long timeOfDay) {
+        markDirty();
         this.timeOfDay = timeOfDay;
     }
 }
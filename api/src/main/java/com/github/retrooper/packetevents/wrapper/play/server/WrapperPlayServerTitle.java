@@ -134,6 +134,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setAction(TitleAction action) {
+        markDirty();
         this.action = action;
     }
 
@@ -142,6 +143,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setTitle(@Nullable Component title) {
+        markDirty();
         this.title = title;
     }
 
@@ -152,6 +154,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
 
     @Deprecated
     public void setTitleJson(@Nullable String titleJson) {
+        markDirty();
         this.setTitle(AdventureSerializer.parseComponent(titleJson));
     }
 
@@ -160,6 +163,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setSubtitle(@Nullable Component subtitle) {
+        markDirty();
         this.subtitle = subtitle;
     }
 
@@ -170,6 +174,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
 
     @Deprecated
     public void setSubtitleJson(@Nullable String subtitleJson) {
+        markDirty();
         this.setSubtitle(AdventureSerializer.parseComponent(subtitleJson));
     }
 
@@ -178,6 +183,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setActionBar(@Nullable Component actionBar) {
+        markDirty();
         this.actionBar = actionBar;
     }
 
@@ -188,6 +194,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
 
     @Deprecated
     public void setActionBarJson(@Nullable String actionBarJson) {
+        markDirty();
         this.setActionBar(AdventureSerializer.parseComponent(actionBarJson));
     }
 
@@ -196,6 +203,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setFadeInTicks(int fadeInTicks) {
+        markDirty();
         this.fadeInTicks = fadeInTicks;
     }
 
@@ -204,6 +212,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setStayTicks(int stayTicks) {
+        markDirty();
         this.stayTicks = stayTicks;
     }
 
@@ -212,6 +221,7 @@ public class WrapperPlayServerTitle extends PacketWrapper<WrapperPlayServerTitle
     }
 
     public void setFadeOutTicks(int fadeOutTicks) {
+        markDirty();
         this.fadeOutTicks = fadeOutTicks;
     }
 
@@ -53,10 +53,12 @@ public class WrapperPlayServerUpdateEnabledFeatures extends PacketWrapper<Wrappe
     }
 
     public Set<ResourceLocation> getFeatures() {
+        markDirty();
         return features;
     }
 
     public void setFeatures(Set<ResourceLocation> features) {
+        markDirty();
         this.features = features;
     }
 }
@@ -60,6 +60,7 @@ public class WrapperPlayServerUpdateEntityNBT extends PacketWrapper<WrapperPlayS
     }
 
     public void setEntityId(int entityId) {
+        markDirty();
         this.entityId = entityId;
     }
 
@@ -68,6 +69,7 @@ public class WrapperPlayServerUpdateEntityNBT extends PacketWrapper<WrapperPlayS
     }
 
     public void setNBTCompound(NBTCompound nbtCompound) {
+        markDirty();
         this.nbtCompound = nbtCompound;
     }
 }
@@ -73,6 +73,7 @@ public class WrapperPlayServerUpdateHealth extends PacketWrapper<WrapperPlayServ
     }
 
     public void setHealth(float health) {
+        markDirty();
         this.health = health;
     }
 
@@ -81,6 +82,7 @@ public class WrapperPlayServerUpdateHealth extends PacketWrapper<WrapperPlayServ
     }
 
     public void setFood(int food) {
+        markDirty();
         this.food = food;
     }
 
@@ -89,6 +91,7 @@ public class WrapperPlayServerUpdateHealth extends PacketWrapper<WrapperPlayServ
     }
 
     public void setFoodSaturation(float foodSaturation) {
+        markDirty();
         this.foodSaturation = foodSaturation;
     }
 }
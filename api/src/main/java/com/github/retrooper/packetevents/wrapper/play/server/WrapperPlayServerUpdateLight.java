@@ -41,6 +41,7 @@ public class WrapperPlayServerUpdateLight extends PacketWrapper<WrapperPlayServe
     }
 
     public void setX(int x) {
+        markDirty();
         this.x = x;
     }
 
@@ -49,6 +50,7 @@ public class WrapperPlayServerUpdateLight extends PacketWrapper<WrapperPlayServe
     }
 
     public void setZ(int z) {
+        markDirty();
         this.z = z;
     }
 
@@ -57,6 +59,7 @@ public class WrapperPlayServerUpdateLight extends PacketWrapper<WrapperPlayServe
     }
 
     public void setLightData(LightData lightData) {
+        markDirty();
         this.lightData = lightData;
     }
 
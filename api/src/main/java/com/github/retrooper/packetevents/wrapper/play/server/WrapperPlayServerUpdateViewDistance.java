@@ -54,6 +54,7 @@ public class WrapperPlayServerUpdateViewDistance extends PacketWrapper<WrapperPl
     }
 
     public void setViewDistance(int viewDistance) {
+        markDirty();
         this.viewDistance = viewDistance;
     }
 }
@@ -101,6 +101,7 @@ public class WrapperPlayServerWindowItems extends PacketWrapper<WrapperPlayServe
     }
 
     public void setWindowId(int windowID) {
+        markDirty();
         this.windowID = windowID;
     }
 
@@ -109,6 +110,7 @@ public class WrapperPlayServerWindowItems extends PacketWrapper<WrapperPlayServe
     }
 
     public void setStateId(int stateID) {
+        markDirty();
         this.stateID = stateID;
     }
 
@@ -117,6 +119,7 @@ public class WrapperPlayServerWindowItems extends PacketWrapper<WrapperPlayServe
     }
 
     public void setItems(List<ItemStack> items) {
+        markDirty();
         this.items = items;
     }
 
@@ -125,6 +128,7 @@ public class WrapperPlayServerWindowItems extends PacketWrapper<WrapperPlayServe
     }
 
     public void setCarriedItem(@Nullable ItemStack carriedItem) {
+        markDirty();
         this.carriedItem = Optional.ofNullable(carriedItem);
     }
 }
\ No newline at end of file
@@ -56,10 +56,12 @@ public class WrapperStatusServerResponse extends PacketWrapper<WrapperStatusServ
     }
 
     public JsonObject getComponent() {
+        markDirty();
         return AdventureSerializer.getGsonSerializer().serializer().fromJson(componentJson, JsonObject.class);
     }
 
     public void setComponent(JsonObject component) {
+        markDirty();
         this.componentJson = AdventureSerializer.getGsonSerializer().serializer().toJson(component);
     }
 
@@ -68,6 +70,7 @@ public class WrapperStatusServerResponse extends PacketWrapper<WrapperStatusServ
     }
 
     public void setComponentJson(String componentJson) {
+        markDirty();
         this.componentJson = componentJson;
     }
 }
@@ -0,0 +1,150 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import com.github.retrooper.packetevents.util.Vector3i;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerMultiBlockChange.EncodedBlock;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MultiBlockChangeLayoutTest extends BaseDummyAPITest {
+
+    // section -3 -4 7, so every coordinate sign is covered
+    private static final Vector3i SECTION = new Vector3i(-3, -4, 7);
+
+    private static ByteBuf write(WrapperPlayServerMultiBlockChange wrapper) {
+        ByteBuf buffer = Unpooled.buffer();
+        wrapper.setBuffer(buffer);
+        wrapper.write();
+        return buffer;
+    }
+
+    private static WrapperPlayServerMultiBlockChange read(ServerVersion version, ByteBuf buffer) {
+        WrapperPlayServerMultiBlockChange wrapper = new WrapperPlayServerMultiBlockChange(Vector3i.zero(), null, new long[0]);
+        wrapper.setServerVersion(version);
+        wrapper.setBuffer(buffer);
+        wrapper.read();
+        return wrapper;
+    }
+
+    private static ByteBuf legacyPacket(int chunkX, int chunkZ, int localX, int y, int localZ, int blockId) {
+        ByteBuf buffer = Unpooled.buffer();
+        PacketWrapper<?> out = PacketWrapper.createUniversalPacketWrapper(buffer);
+        out.writeInt(chunkX);
+        out.writeInt(chunkZ);
+        out.writeVarInt(1);
+        out.writeShort(localX << 12 | localZ << 8 | y);
+        out.writeVarInt(blockId);
+        return buffer;
+    }
+
+    @Test
+    @DisplayName("Test packed section layout round trip")
+    public void testModernRoundTrip() {
+        EncodedBlock[] blocks = {
+                new EncodedBlock(1234, -43, -55, 124),
+                new EncodedBlock(1, -48, -64, 112),
+                new EncodedBlock(27000, -33, -49, 127)
+        };
+        WrapperPlayServerMultiBlockChange wrapper = new WrapperPlayServerMultiBlockChange(SECTION, false, blocks);
+        WrapperPlayServerMultiBlockChange read = read(ServerVersion.getLatest(), write(wrapper));
+
+        assertEquals(SECTION, read.getChunkPosition());
+        assertEquals(blocks.length, read.getBlockCount());
+        for (int i = 0; i < blocks.length; i++) {
+            assertEquals(blocks[i].getX(), read.getX(i));
+            assertEquals(blocks[i].getY(), read.getY(i));
+            assertEquals(blocks[i].getZ(), read.getZ(i));
+            assertEquals(blocks[i].getBlockId(), read.getBlockId(i));
+        }
+        assertEquals(1234L << 12 | 5 << 8 | 12 << 4 | 9, read.getEntries()[0]);
+    }
+
+    @Test
+    @DisplayName("Test packed entries encode like blocks")
+    public void testEntriesMatchBlocks() {
+        EncodedBlock block = new EncodedBlock(1234, -43, -55, 124);
+        ByteBuf fromBlocks = write(new WrapperPlayServerMultiBlockChange(SECTION, false, new EncodedBlock[]{block}));
+        ByteBuf fromEntries = write(new WrapperPlayServerMultiBlockChange(SECTION, false, new long[]{block.toLong()}));
+        assertArrayEquals(ByteBufUtil.getBytes(fromBlocks), ByteBufUtil.getBytes(fromEntries));
+    }
+
+    @Test
+    @DisplayName("Test packed column layout round trip")
+    public void testLegacyRoundTrip() {
+        ByteBuf packet = legacyPacket(-3, 7, 5, 200, 12, 1234);
+        byte[] bytes = ByteBufUtil.getBytes(packet);
+        WrapperPlayServerMultiBlockChange read = read(ServerVersion.V_1_12_2, packet);
+
+        assertEquals(1, read.getBlockCount());
+        assertEquals(-43, read.getX(0));
+        assertEquals(200, read.getY(0));
+        assertEquals(124, read.getZ(0));
+        assertEquals(1234, read.getBlockId(0));
+        assertEquals(1234L << 16 | 5 << 12 | 12 << 8 | 200, read.getEntries()[0]);
+
+        assertArrayEquals(bytes, ByteBufUtil.getBytes(write(read)));
+    }
+
+    @Test
+    @DisplayName("Test column layout is converted to the section layout")
+    public void testLegacyToModern() {
+        WrapperPlayServerMultiBlockChange legacy = read(ServerVersion.V_1_12_2, legacyPacket(-3, 7, 5, 9, 12, 1234));
+        legacy.setServerVersion(ServerVersion.getLatest());
+        WrapperPlayServerMultiBlockChange read = read(ServerVersion.getLatest(), write(legacy));
+
+        assertEquals(new Vector3i(-3, 0, 7), read.getChunkPosition());
+        assertEquals(-43, read.getX(0));
+        assertEquals(9, read.getY(0));
+        assertEquals(124, read.getZ(0));
+        assertEquals(1234, read.getBlockId(0));
+    }
+
+    @Test
+    @DisplayName("Test block views write through to the packed entries")
+    public void testBlockViews() {
+        WrapperPlayServerMultiBlockChange wrapper = new WrapperPlayServerMultiBlockChange(SECTION, false,
+                new long[]{1234L << 12 | 5 << 8 | 12 << 4 | 9});
+        EncodedBlock view = wrapper.getBlocks()[0];
+        view.setX(-48 + 15);
+        view.setY(-64);
+        view.setZ(112 + 1);
+        view.setBlockId(42);
+        assertEquals(42L << 12 | 15 << 8 | 1 << 4, wrapper.getEntries()[0]);
+
+        WrapperPlayServerMultiBlockChange legacy = read(ServerVersion.V_1_12_2, legacyPacket(-3, 7, 5, 200, 12, 1234));
+        EncodedBlock legacyView = legacy.getBlocks()[0];
+        legacyView.setY(255);
+        legacyView.setBlockId(42);
+        assertEquals(255, legacy.getY(0));
+        assertEquals(42L << 16 | 5 << 12 | 12 << 8 | 255, legacy.getEntries()[0]);
+    }
+
+    @Test
+    @DisplayName("Test setting the blocks returned by the wrapper")
+    public void testSetOwnBlocks() {
+        WrapperPlayServerMultiBlockChange wrapper = new WrapperPlayServerMultiBlockChange(SECTION, false, new long[]{
+                1234L << 12 | 5 << 8 | 12 << 4 | 9,
+                1L << 12,
+                27000L << 12 | 15 << 8 | 15 << 4 | 15
+        });
+        EncodedBlock[] blocks = wrapper.getBlocks();
+        wrapper.setBlocks(new EncodedBlock[]{blocks[0], blocks[2]});
+        WrapperPlayServerMultiBlockChange read = read(ServerVersion.getLatest(), write(wrapper));
+        assertEquals(2, read.getBlockCount());
+        assertEquals(1234L << 12 | 5 << 8 | 12 << 4 | 9, read.getEntries()[0]);
+        assertEquals(27000L << 12 | 15 << 8 | 15 << 4 | 15, read.getEntries()[1]);
+
+        wrapper.setBlocks(wrapper.getBlocks());
+        assertEquals(27000, wrapper.getBlockId(1));
+        assertArrayEquals(read.getEntries(), wrapper.getEntries());
+    }
+}
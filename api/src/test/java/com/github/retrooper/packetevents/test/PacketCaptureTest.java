@@ -0,0 +1,169 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.event.PacketListener;
+import com.github.retrooper.packetevents.event.PacketListenerCommon;
+import com.github.retrooper.packetevents.event.PacketListenerPriority;
+import com.github.retrooper.packetevents.event.PacketReceiveEvent;
+import com.github.retrooper.packetevents.event.UserDisconnectEvent;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.PacketSide;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import com.github.retrooper.packetevents.util.capture.PacketCapture;
+import com.github.retrooper.packetevents.util.capture.PacketReplay;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientKeepAlive;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PacketCaptureTest extends BaseDummyAPITest {
+
+    // Small segments, so the capture spans several of them
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    File directory;
+
+    private final List<Long> received = new ArrayList<>();
+    private int disconnected;
+    private PacketListenerCommon listener;
+
+    @BeforeEach
+    public void registerListener() {
+        PacketEvents.getAPI().load();
+        listener = PacketEvents.getAPI().getEventManager().registerListener(new PacketListener() {
+            @Override
+            public void onPacketReceive(PacketReceiveEvent event) {
+                if (event.getPacketType() == PacketType.Play.Client.KEEP_ALIVE) {
+                    received.add(new WrapperPlayClientKeepAlive(event).getId());
+                }
+            }
+
+            @Override
+            public void onUserDisconnect(UserDisconnectEvent event) {
+                disconnected++;
+            }
+        }, PacketListenerPriority.NORMAL);
+    }
+
+    @AfterEach
+    public void unregisterListener() {
+        PacketEvents.getAPI().getEventManager().unregisterListener(listener);
+    }
+
+    private static byte[] keepAlive(long id) {
+        ByteBuf buffer = Unpooled.buffer();
+        WrapperPlayClientKeepAlive wrapper = new WrapperPlayClientKeepAlive(id);
+        wrapper.setBuffer(buffer);
+        wrapper.writeVarInt(PacketType.Play.Client.KEEP_ALIVE.getId(ClientVersion.getLatest()));
+        wrapper.write();
+        return ByteBufUtil.getBytes(buffer);
+    }
+
+    private static void putRecord(ByteBuffer target, int length, byte[] packet) {
+        target.putInt(length);
+        target.putLong(0L);
+        target.putInt(1);
+        target.put((byte) PacketSide.CLIENT.ordinal());
+        target.put((byte) ConnectionState.PLAY.ordinal());
+        target.putInt(ClientVersion.getLatest().getProtocolVersion());
+        target.put(packet);
+    }
+
+    @Test
+    @DisplayName("Test replaying a capture in recorded order")
+    public void testRoundTrip() throws IOException {
+        File file = new File(directory, "round-trip.pecp");
+        EmbeddedChannel channel = new EmbeddedChannel();
+        User user = new User(channel, ConnectionState.PLAY, ClientVersion.getLatest(),
+                new UserProfile(UUID.randomUUID(), "capture"));
+
+        int count = 200;
+        List<Long> expected = new ArrayList<>(count);
+        try (PacketCapture capture = PacketCapture.start(file, SEGMENT_SIZE)) {
+            for (long id = 0; id < count; id++) {
+                capture.record(channel, user, PacketSide.CLIENT, Unpooled.wrappedBuffer(keepAlive(id)));
+                expected.add(id);
+            }
+            assertEquals(count, capture.getRecorded());
+        }
+        channel.close();
+
+        PacketReplay.Result result = new PacketReplay(file, EmbeddedChannel::new).replay();
+        assertEquals(count, result.getPackets());
+        assertEquals(0, result.getFailures());
+        assertEquals(1, result.getUsers());
+        assertEquals(expected, received);
+        assertEquals(1, disconnected);
+    }
+
+    @Test
+    @DisplayName("Test skipping records which were never completed")
+    public void testSkipUnfinished() throws IOException {
+        byte[] unfinished = keepAlive(1L);
+        byte[] finished = keepAlive(2L);
+        int recordBody = PacketCapture.RECORD_HEADER_SIZE - 4;
+        ByteBuffer content = ByteBuffer.allocate(PacketCapture.FILE_HEADER_SIZE
+                + 2 * PacketCapture.RECORD_HEADER_SIZE + unfinished.length + finished.length);
+        content.putInt(PacketCapture.MAGIC);
+        content.putInt(PacketCapture.VERSION);
+        content.putInt(SEGMENT_SIZE);
+        putRecord(content, -(recordBody + unfinished.length), unfinished);
+        putRecord(content, recordBody + finished.length, finished);
+        File file = new File(directory, "unfinished.pecp");
+        Files.write(file.toPath(), content.array());
+
+        PacketReplay.Result result = new PacketReplay(file, EmbeddedChannel::new).replay();
+        assertEquals(1, result.getPackets());
+        assertEquals(1, result.getSkipped());
+        assertEquals(1, received.size());
+        assertEquals(2L, received.get(0));
+    }
+
+    @Test
+    @DisplayName("Test user ids of one capture do not leak into the next")
+    public void testUserIdsPerCapture() throws IOException {
+        EmbeddedChannel first = new EmbeddedChannel();
+        EmbeddedChannel second = new EmbeddedChannel();
+        User firstUser = new User(first, ConnectionState.PLAY, ClientVersion.getLatest(),
+                new UserProfile(UUID.randomUUID(), "first"));
+        User secondUser = new User(second, ConnectionState.PLAY, ClientVersion.getLatest(),
+                new UserProfile(UUID.randomUUID(), "second"));
+
+        try (PacketCapture capture = PacketCapture.start(new File(directory, "earlier.pecp"), SEGMENT_SIZE)) {
+            capture.record(first, firstUser, PacketSide.CLIENT, Unpooled.wrappedBuffer(keepAlive(0L)));
+        }
+        File file = new File(directory, "later.pecp");
+        try (PacketCapture capture = PacketCapture.start(file, SEGMENT_SIZE)) {
+            capture.record(second, secondUser, PacketSide.CLIENT, Unpooled.wrappedBuffer(keepAlive(1L)));
+            capture.record(first, firstUser, PacketSide.CLIENT, Unpooled.wrappedBuffer(keepAlive(2L)));
+        }
+        first.close();
+        second.close();
+
+        PacketReplay.Result result = new PacketReplay(file, EmbeddedChannel::new).replay();
+        assertEquals(2, result.getPackets());
+        assertEquals(2, result.getUsers());
+        assertEquals(2, disconnected);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.netty.channel.PacketLimitPolicy;
+import com.github.retrooper.packetevents.netty.channel.PacketLimiter;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PacketLimiterTest extends BaseDummyAPITest {
+
+    // Driven by the test instead of the wall clock, far away from 0 which marks an unused bucket
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1000L));
+    private PacketLimitPolicy previousPolicy;
+    private EmbeddedChannel channel;
+    private User user;
+    private ByteBuf animation;
+
+    @BeforeEach
+    public void setupUser() {
+        PacketEvents.getAPI().load();
+        // The settings are shared between tests
+        previousPolicy = PacketEvents.getAPI().getSettings().getPacketLimitPolicy();
+        PacketEvents.getAPI().getSettings().packetLimitPolicy(PacketLimitPolicy.DROP);
+        channel = new EmbeddedChannel();
+        user = new User(channel, ConnectionState.PLAY, ClientVersion.getLatest(),
+                new UserProfile(UUID.randomUUID(), "limited"));
+        animation = Unpooled.buffer();
+        ByteBufHelper.writeVarInt(animation, PacketType.Play.Client.ANIMATION.getId(ClientVersion.getLatest()));
+        animation.writeByte(0); // main hand
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        PacketEvents.getAPI().getSettings().packetLimitPolicy(previousPolicy);
+        channel.close();
+        animation.release();
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private boolean send(PacketLimiter limiter) {
+        animation.readerIndex(0);
+        return limiter.tryAcquire(user, animation, true);
+    }
+
+    @Test
+    @DisplayName("Test the burst allows exactly burst packets")
+    public void testBurstBoundary() {
+        PacketLimiter limiter = new PacketLimiter(clock::get);
+        // 20 milliseconds per packet, idling ten times as long still only fills the bucket up to the burst
+        limiter.limit(PacketType.Play.Client.ANIMATION, 50, 3);
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(send(limiter), "packet " + i + " of the burst was dropped");
+            }
+            assertFalse(send(limiter));
+            advance(200L);
+        }
+        assertEquals(2, limiter.getRateLimited());
+        assertEquals(2, limiter.getRejected(PacketType.Play.Client.ANIMATION));
+        assertTrue(channel.isOpen());
+    }
+
+    @Test
+    @DisplayName("Test an emptied bucket refills one packet per interval")
+    public void testRefill() {
+        PacketLimiter limiter = new PacketLimiter(clock::get);
+        // 200 milliseconds per packet
+        limiter.limit(PacketType.Play.Client.ANIMATION, 5, 3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(send(limiter));
+        }
+        assertFalse(send(limiter));
+
+        // More than one interval, but less than two
+        advance(300L);
+        assertTrue(send(limiter));
+        assertFalse(send(limiter));
+
+        // Exactly one interval later the next packet is due
+        advance(100L);
+        assertTrue(send(limiter));
+        assertFalse(send(limiter));
+        assertEquals(3, limiter.getRateLimited());
+    }
+
+    @Test
+    @DisplayName("Test packets of other types are not limited")
+    public void testOtherTypes() {
+        PacketLimiter limiter = new PacketLimiter(clock::get);
+        limiter.limit(PacketType.Play.Client.CHAT_MESSAGE, 1, 1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(send(limiter));
+        }
+        assertEquals(0, limiter.getRateLimited());
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.retrooper.packetevents.test;
+
+import com.github.retrooper.packetevents.protocol.component.ComponentTypes;
+import com.github.retrooper.packetevents.protocol.component.PatchableComponentMap;
+import com.github.retrooper.packetevents.protocol.component.StaticComponentMap;
+import com.github.retrooper.packetevents.test.base.BaseDummyAPITest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PatchableComponentMapTest extends BaseDummyAPITest {
+
+    private static StaticComponentMap base() {
+        return StaticComponentMap.builder()
+                .set(ComponentTypes.MAX_STACK_SIZE, 64)
+                .set(ComponentTypes.REPAIR_COST, 0)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Test patches override the base")
+    public void testPatch() {
+        StaticComponentMap base = base();
+        PatchableComponentMap map = new PatchableComponentMap(base);
+        assertFalse(map.hasPatches());
+
+        map.set(ComponentTypes.MAX_STACK_SIZE, 16);
+        map.set(ComponentTypes.DAMAGE, 3);
+        assertEquals(16, map.get(ComponentTypes.MAX_STACK_SIZE));
+        assertEquals(3, map.get(ComponentTypes.DAMAGE));
+        assertEquals(0, map.get(ComponentTypes.REPAIR_COST));
+        assertEquals(2, map.getPatchCount());
+        assertEquals(Optional.of(16), map.getPatches().get(ComponentTypes.MAX_STACK_SIZE));
+
+        // the shared base is never touched
+        assertSame(base, map.getStaticBase());
+        assertEquals(64, base.get(ComponentTypes.MAX_STACK_SIZE));
+        assertFalse(base.has(ComponentTypes.DAMAGE));
+    }
+
+    @Test
+    @DisplayName("Test setting the base value drops the patch")
+    public void testPatchFallback() {
+        PatchableComponentMap map = new PatchableComponentMap(base());
+        map.set(ComponentTypes.MAX_STACK_SIZE, 16);
+        map.set(ComponentTypes.MAX_STACK_SIZE, 64);
+        assertFalse(map.hasPatches());
+        assertEquals(64, map.get(ComponentTypes.MAX_STACK_SIZE));
+
+        // removing a component the base doesn't have isn't a patch either
+        map.unset(ComponentTypes.DAMAGE);
+        assertFalse(map.hasPatches());
+    }
+
+    @Test
+    @DisplayName("Test removing a base component")
+    public void testRemoval() {
+        PatchableComponentMap map = new PatchableComponentMap(base());
+        map.unset(ComponentTypes.REPAIR_COST);
+        assertFalse(map.has(ComponentTypes.REPAIR_COST));
+        assertNull(map.get(ComponentTypes.REPAIR_COST));
+        assertEquals(1, map.getPatchCount());
+        assertSame(ComponentTypes.REPAIR_COST, map.getPatchType(0));
+        assertNull(map.getPatchValue(0));
+        assertEquals(Optional.empty(), map.getPatches().get(ComponentTypes.REPAIR_COST));
+
+        // restoring it drops the removal
+        map.set(ComponentTypes.REPAIR_COST, 0);
+        assertTrue(map.has(ComponentTypes.REPAIR_COST));
+        assertFalse(map.hasPatches());
+    }
+
+    @Test
+    @DisplayName("Test removing patches keeps the remaining ones")
+    public void testPatchRemovalOrder() {
+        PatchableComponentMap map = new PatchableComponentMap(StaticComponentMap.EMPTY);
+        map.set(ComponentTypes.MAX_STACK_SIZE, 1);
+        map.set(ComponentTypes.MAX_DAMAGE, 2);
+        map.set(ComponentTypes.DAMAGE, 3);
+        map.set(ComponentTypes.REPAIR_COST, 4);
+        map.set(ComponentTypes.CUSTOM_MODEL_DATA, 5); // grows the overlay
+        map.set(ComponentTypes.UNBREAKABLE, true);
+        assertEquals(6, map.getPatchCount());
+
+        map.unset(ComponentTypes.MAX_DAMAGE);
+        map.unset(ComponentTypes.MAX_STACK_SIZE);
+        assertEquals(4, map.getPatchCount());
+        assertFalse(map.has(ComponentTypes.MAX_STACK_SIZE));
+        assertFalse(map.has(ComponentTypes.MAX_DAMAGE));
+        assertEquals(3, map.get(ComponentTypes.DAMAGE));
+        assertEquals(4, map.get(ComponentTypes.REPAIR_COST));
+        assertEquals(5, map.get(ComponentTypes.CUSTOM_MODEL_DATA));
+        assertEquals(true, map.get(ComponentTypes.UNBREAKABLE));
+    }
+
+    @Test
+    @DisplayName("Test copies don't share patches")
+    public void testCopy() {
+        PatchableComponentMap map = new PatchableComponentMap(base());
+        map.set(ComponentTypes.DAMAGE, 3);
+        PatchableComponentMap copy = map.copy();
+        copy.set(ComponentTypes.DAMAGE, 5);
+        copy.unset(ComponentTypes.MAX_STACK_SIZE);
+
+        assertEquals(3, map.get(ComponentTypes.DAMAGE));
+        assertEquals(64, map.get(ComponentTypes.MAX_STACK_SIZE));
+        assertEquals(5, copy.get(ComponentTypes.DAMAGE));
+        assertSame(map.getStaticBase(), copy.getStaticBase());
+    }
+}
@@ -23,6 +23,7 @@ import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.SuspendedPackets;
 import io.github.retrooper.packetevents.injector.ServerConnectionInitializer;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler;
@@ -43,28 +44,41 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
 
     public void read(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> output) throws Exception {
+        if (!PacketEvents.getAPI().getPacketLimiter().tryAcquire(user, byteBuf, false)) {
+            return;
+        }
         ByteBuf transformed = ctx.alloc().buffer().writeBytes(byteBuf);
         try {
             int firstReaderIndex = transformed.readerIndex();
             PacketReceiveEvent packetReceiveEvent = EventCreationUtil.createReceiveEvent(ctx.channel(),
                     user, player, transformed, false);
-            int readerIndex = transformed.readerIndex();
-            PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> transformed.readerIndex(readerIndex));
-            if (!packetReceiveEvent.isCancelled()) {
-                if (packetReceiveEvent.getLastUsedWrapper() != null) {
-                    ByteBufHelper.clear(packetReceiveEvent.getByteBuf());
-                    packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                    packetReceiveEvent.getLastUsedWrapper().write();
-                }
-                else {
-                    transformed.readerIndex(firstReaderIndex);
+            try {
+                int readerIndex = transformed.readerIndex();
+                PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> transformed.readerIndex(readerIndex));
+                if (!packetReceiveEvent.isCancelled()) {
+                    if (packetReceiveEvent.getLastUsedWrapper() != null) {
+                        ByteBufHelper.clear(packetReceiveEvent.getByteBuf());
+                        packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
+                        packetReceiveEvent.getLastUsedWrapper().write();
+                    }
+                    else {
+                        transformed.readerIndex(firstReaderIndex);
+                    }
+                    if (packetReceiveEvent.isSuspended() || SuspendedPackets.isHolding(ctx.channel())) {
+                        // Hold a copy back and pass on nothing for now
+                        SuspendedPackets.hold(ctx.channel(), transformed, packetReceiveEvent.getSuspension(),
+                                packetReceiveEvent.getSuspensionTimeout(), packetReceiveEvent.getSuspensionTimeoutPolicy());
+                    } else {
+                        output.add(transformed.retain());
+                    }
                 }
-                output.add(transformed.retain());
-            }
-            if (packetReceiveEvent.hasPostTasks()) {
-                for (Runnable task : packetReceiveEvent.getPostTasks()) {
-                    task.run();
+                if (packetReceiveEvent.hasPostTasks()) {
+                    for (Runnable task : packetReceiveEvent.getPostTasks()) {
+                        task.run();
+                    }
                 }
+            } finally {
+                EventCreationUtil.releaseEvent(packetReceiveEvent);
             }
         } finally {
             transformed.release();
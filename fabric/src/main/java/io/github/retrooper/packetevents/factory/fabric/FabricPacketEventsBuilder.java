@@ -5,6 +5,10 @@ import com.github.retrooper.packetevents.PacketEventsAPI;
 import com.github.retrooper.packetevents.event.SimplePacketListenerAbstract;
 import com.github.retrooper.packetevents.event.simple.PacketPlaySendEvent;
 import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.manager.EntityTrackerListener;
+import com.github.retrooper.packetevents.manager.WorldMirrorListener;
+import com.github.retrooper.packetevents.manager.EntityMetadataCacheListener;
+import com.github.retrooper.packetevents.manager.InventoryMirrorListener;
 import com.github.retrooper.packetevents.manager.InternalPacketListener;
 import com.github.retrooper.packetevents.manager.player.PlayerManager;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
@@ -180,6 +184,19 @@ public class FabricPacketEventsBuilder {
                     //Register internal packet listener (should be the first listener)
                     //This listener doesn't do any modifications to the packets, just reads data
                     getEventManager().registerListener(new InternalPacketListener());
+                    //Tracking and caching listeners run with monitor priority, after all other listeners
+                    if (settings.isEntityTrackingEnabled()) {
+                        getEventManager().registerListener(new EntityTrackerListener());
+                    }
+                    if (settings.isWorldTrackingEnabled()) {
+                        getEventManager().registerListener(new WorldMirrorListener());
+                    }
+                    if (settings.isEntityMetadataCachingEnabled()) {
+                        getEventManager().registerListener(new EntityMetadataCacheListener());
+                    }
+                    if (settings.isInventoryTrackingEnabled()) {
+                        getEventManager().registerListener(new InventoryMirrorListener());
+                    }
                     //TODO Look into how to set the correct player (fabric server support)
                     getEventManager().registerListener(new SimplePacketListenerAbstract() {
                         @Override
@@ -0,0 +1,10 @@
+plugins {
+    packetevents.`library-conventions`
+}
+
+// Standalone tool, platforms don't depend on or shade this module
+dependencies {
+    implementation(libs.netty)
+    implementation(project(":api", "shadow"))
+    implementation(project(":netty-common"))
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.loadgen;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.MessageToMessageCodec;
+
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compression the server enables during login, packets at or above the threshold are zlib compressed.
+ */
+public class CompressionCodec extends MessageToMessageCodec<ByteBuf, ByteBuf> {
+    private final Deflater deflater = new Deflater();
+    private final Inflater inflater = new Inflater();
+    private final byte[] chunk = new byte[8192];
+    private int threshold;
+
+    public CompressionCodec(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
+        int length = msg.readableBytes();
+        ByteBuf buffer = ctx.alloc().buffer(length + 5);
+        if (length < threshold) {
+            ByteBufHelper.writeVarInt(buffer, 0);
+            buffer.writeBytes(msg);
+        } else {
+            ByteBufHelper.writeVarInt(buffer, length);
+            byte[] input = new byte[length];
+            msg.readBytes(input);
+            deflater.setInput(input);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                buffer.writeBytes(chunk, 0, written);
+            }
+            deflater.reset();
+        }
+        out.add(buffer);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws DataFormatException {
+        int length = ByteBufHelper.readVarInt(msg);
+        if (length == 0) {
+            out.add(msg.retain());
+            return;
+        }
+        byte[] input = new byte[msg.readableBytes()];
+        msg.readBytes(input);
+        inflater.setInput(input);
+        ByteBuf buffer = ctx.alloc().buffer(length);
+        try {
+            byte[] output = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(output, read, length - read);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new DecoderException("Expected " + length + " bytes after decompression, got " + read);
+            }
+            buffer.writeBytes(output);
+            out.add(buffer);
+            buffer = null;
+        } finally {
+            inflater.reset();
+            if (buffer != null) {
+                buffer.release();
+            }
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        super.handlerRemoved(ctx);
+        deflater.end();
+        inflater.end();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.loadgen;
+
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.List;
+
+/**
+ * Splits the stream into packets and prefixes outgoing packets with their length, both as var ints.
+ */
+public class FrameCodec extends ByteToMessageCodec<ByteBuf> {
+    private static final int MAX_LENGTH_BYTES = 3;
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) {
+        int length = msg.readableBytes();
+        out.ensureWritable(varIntSize(length) + length);
+        ByteBufHelper.writeVarInt(out, length);
+        out.writeBytes(msg);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        while (in.isReadable()) {
+            int start = in.readerIndex();
+            int length = 0;
+            int i = 0;
+            boolean complete = false;
+            while (i < MAX_LENGTH_BYTES && in.isReadable()) {
+                byte b = in.readByte();
+                length |= (b & 0x7F) << (i++ * 7);
+                if ((b & 0x80) == 0) {
+                    complete = true;
+                    break;
+                }
+            }
+            if (!complete) {
+                if (i == MAX_LENGTH_BYTES) {
+                    throw new CorruptedFrameException("Frame length is wider than " + MAX_LENGTH_BYTES + " bytes");
+                }
+                in.readerIndex(start);
+                return;
+            }
+            if (in.readableBytes() < length) {
+                in.readerIndex(start);
+                return;
+            }
+            out.add(in.readRetainedSlice(length));
+        }
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.loadgen;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.PacketEventsAPI;
+import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.protocol.ProtocolVersion;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.settings.PacketEventsSettings;
+import io.github.retrooper.packetevents.impl.netty.BuildData;
+import io.github.retrooper.packetevents.impl.netty.factory.NettyPacketEventsBuilder;
+import io.github.retrooper.packetevents.impl.netty.manager.player.PlayerManagerAbstract;
+import io.github.retrooper.packetevents.impl.netty.manager.protocol.ProtocolManagerAbstract;
+import io.github.retrooper.packetevents.impl.netty.manager.server.ServerManagerAbstract;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens simulated clients against a server to capacity test it without real clients.
+ * The clients log in (offline mode only), answer keep alives and teleports, and then walk, chat,
+ * swing and ping at the configured rates. A report is printed every 10 seconds and once the run is over.
+ * <p>
+ * Run it with {@code java -cp <loadgen, netty-common and netty> io.github.retrooper.packetevents.impl.netty.loadgen.LoadGenerator
+ * --host localhost --port 25565 --clients 100 --version 1.21}, see {@link LoadGeneratorSettings#fromArguments(String[])}.
+ */
+public class LoadGenerator {
+    private static final long REPORT_INTERVAL_SECONDS = 10;
+
+    private final LoadGeneratorSettings settings;
+    private final LoadReport report = new LoadReport();
+    private final EventLoopGroup group = new NioEventLoopGroup();
+    private final ChannelGroup channels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+
+    public LoadGenerator(LoadGeneratorSettings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadGeneratorSettings settings = LoadGeneratorSettings.fromArguments(args);
+        new LoadGenerator(settings).run();
+    }
+
+    public LoadReport getReport() {
+        return report;
+    }
+
+    /**
+     * Connects all clients, runs for the configured duration and disconnects them again.
+     */
+    public void run() throws InterruptedException {
+        if (PacketEvents.getAPI() == null) {
+            PacketEvents.setAPI(createAPI(settings.getVersion()));
+            PacketEvents.getAPI().init();
+        }
+        if (!PacketType.isPrepared()) {
+            PacketType.prepare();
+        }
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true);
+        AtomicInteger index = new AtomicInteger();
+        CountDownLatch connected = new CountDownLatch(1);
+        long connectPeriod = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(settings.getConnectRate(), 0.001));
+        ScheduledFuture<?>[] connector = new ScheduledFuture<?>[1];
+        connector[0] = group.next().scheduleAtFixedRate(() -> {
+            int i = index.getAndIncrement();
+            if (i >= settings.getClients()) {
+                // May run before the future was stored
+                if (connector[0] != null) {
+                    connector[0].cancel(false);
+                }
+                connected.countDown();
+                return;
+            }
+            String name = settings.getNamePrefix() + i;
+            bootstrap.clone().handler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel channel) {
+                    channel.pipeline().addLast("frame", new FrameCodec());
+                    channel.pipeline().addLast("client", new SimulatedClient(settings, report, name));
+                    channels.add(channel);
+                }
+            }).connect(settings.getHost(), settings.getPort()).addListener(future -> {
+                if (!future.isSuccess()) {
+                    report.recordFailure("connect: " + future.cause().getMessage());
+                }
+            });
+        }, 0L, connectPeriod, TimeUnit.NANOSECONDS);
+
+        ScheduledFuture<?> reporter = group.next().scheduleAtFixedRate(() -> report.print(System.out),
+                REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        try {
+            connected.await();
+            TimeUnit.SECONDS.sleep(settings.getDurationSeconds());
+        } finally {
+            connector[0].cancel(false);
+            reporter.cancel(false);
+            channels.close().awaitUninterruptibly();
+            group.shutdownGracefully().awaitUninterruptibly();
+            report.print(System.out);
+        }
+    }
+
+    /**
+     * The load generator isn't a platform, it only needs packetevents to know the protocol version it speaks.
+     */
+    private static PacketEventsAPI<BuildData> createAPI(ServerVersion version) {
+        ChannelInjector injector = new ChannelInjector() {
+            @Override
+            public void inject() {
+            }
+
+            @Override
+            public void uninject() {
+            }
+
+            @Override
+            public void updateUser(Object channel, User user) {
+            }
+
+            @Override
+            public void setPlayer(Object channel, Object player) {
+            }
+
+            @Override
+            public boolean isProxy() {
+                return false;
+            }
+        };
+        ProtocolManagerAbstract protocolManager = new ProtocolManagerAbstract() {
+            @Override
+            public ProtocolVersion getPlatformVersion() {
+                return ProtocolVersion.UNKNOWN;
+            }
+        };
+        ServerManagerAbstract serverManager = new ServerManagerAbstract() {
+            @Override
+            public ServerVersion getVersion() {
+                return version;
+            }
+        };
+        PlayerManagerAbstract playerManager = new PlayerManagerAbstract() {
+            @Override
+            public int getPing(@NotNull Object player) {
+                return -1;
+            }
+
+            @Override
+            public Object getChannel(@NotNull Object player) {
+                return null;
+            }
+        };
+        return NettyPacketEventsBuilder.buildNoCache(new BuildData("loadgen"), injector, protocolManager,
+                serverManager, playerManager, new PacketEventsSettings().checkForUpdates(false));
+    }
+}
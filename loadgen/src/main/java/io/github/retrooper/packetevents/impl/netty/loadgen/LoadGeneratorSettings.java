@@ -0,0 +1,235 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.loadgen;
+
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+
+/**
+ * What the {@link LoadGenerator} connects to and what the simulated clients do once they joined.
+ * Rates are per client, a rate of 0 disables the action.
+ */
+public class LoadGeneratorSettings {
+    private String host = "localhost";
+    private int port = 25565;
+    private ServerVersion version = ServerVersion.getLatest();
+    private int clients = 10;
+    private double connectRate = 10;
+    private String namePrefix = "Bot";
+    private int durationSeconds = 60;
+    private double moveRate = 20;
+    private double chatRate = 0;
+    private String chatMessage = "Hello";
+    private double swingRate = 1;
+    private double pingRate = 1;
+
+    /**
+     * Parses command line arguments like {@code --clients 100 --version 1.21 --chat 0.1}.
+     *
+     * @param args Arguments, unknown ones are rejected
+     * @return Settings instance.
+     */
+    public static LoadGeneratorSettings fromArguments(String[] args) {
+        LoadGeneratorSettings settings = new LoadGeneratorSettings();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--host":
+                    settings.host(value);
+                    break;
+                case "--port":
+                    settings.port(Integer.parseInt(value));
+                    break;
+                case "--version":
+                    settings.version(ServerVersion.valueOf("V_" + value.replace('.', '_')));
+                    break;
+                case "--clients":
+                    settings.clients(Integer.parseInt(value));
+                    break;
+                case "--connect-rate":
+                    settings.connectRate(Double.parseDouble(value));
+                    break;
+                case "--prefix":
+                    settings.namePrefix(value);
+                    break;
+                case "--duration":
+                    settings.durationSeconds(Integer.parseInt(value));
+                    break;
+                case "--move":
+                    settings.moveRate(Double.parseDouble(value));
+                    break;
+                case "--chat":
+                    settings.chatRate(Double.parseDouble(value));
+                    break;
+                case "--chat-message":
+                    settings.chatMessage(value);
+                    break;
+                case "--swing":
+                    settings.swingRate(Double.parseDouble(value));
+                    break;
+                case "--ping":
+                    settings.pingRate(Double.parseDouble(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        return settings;
+    }
+
+    public LoadGeneratorSettings host(String host) {
+        this.host = host;
+        return this;
+    }
+
+    public LoadGeneratorSettings port(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * @param version Protocol version the clients speak, the server has to accept it
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings version(ServerVersion version) {
+        this.version = version;
+        return this;
+    }
+
+    public LoadGeneratorSettings clients(int clients) {
+        this.clients = clients;
+        return this;
+    }
+
+    /**
+     * @param connectRate How many clients connect per second until all are connected
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings connectRate(double connectRate) {
+        this.connectRate = connectRate;
+        return this;
+    }
+
+    /**
+     * @param namePrefix Prefix of the client names, followed by the index of the client
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings namePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+        return this;
+    }
+
+    public LoadGeneratorSettings durationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        return this;
+    }
+
+    /**
+     * @param moveRate Position updates per second, the clients walk in circles around their spawn
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings moveRate(double moveRate) {
+        this.moveRate = moveRate;
+        return this;
+    }
+
+    /**
+     * Chat messages are sent unsigned, servers on 1.19 and newer must not enforce secure profiles.
+     *
+     * @param chatRate Chat messages per second
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings chatRate(double chatRate) {
+        this.chatRate = chatRate;
+        return this;
+    }
+
+    public LoadGeneratorSettings chatMessage(String chatMessage) {
+        this.chatMessage = chatMessage;
+        return this;
+    }
+
+    /**
+     * @param swingRate Arm swings per second
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings swingRate(double swingRate) {
+        this.swingRate = swingRate;
+        return this;
+    }
+
+    /**
+     * @param pingRate Ping requests per second, only sent on 1.20.2 and newer
+     * @return Settings instance.
+     */
+    public LoadGeneratorSettings pingRate(double pingRate) {
+        this.pingRate = pingRate;
+        return this;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public ServerVersion getVersion() {
+        return version;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public double getConnectRate() {
+        return connectRate;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getMoveRate() {
+        return moveRate;
+    }
+
+    public double getChatRate() {
+        return chatRate;
+    }
+
+    public String getChatMessage() {
+        return chatMessage;
+    }
+
+    public double getSwingRate() {
+        return swingRate;
+    }
+
+    public double getPingRate() {
+        return pingRate;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.loadgen;
+
+import com.github.retrooper.packetevents.metrics.HistogramSnapshot;
+import com.github.retrooper.packetevents.metrics.LatencyHistogram;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything the simulated clients measured. All latencies are recorded in nanoseconds.
+ * <ul>
+ *     <li>{@code login}: from connecting until the login success arrived</li>
+ *     <li>{@code join}: from the login success until the join game packet arrived</li>
+ *     <li>{@code ping}: round trip of ping requests, only on 1.20.2 and newer</li>
+ *     <li>{@code send <packet type>}: from writing a packet until it was flushed to the socket</li>
+ * </ul>
+ */
+public final class LoadReport {
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<PacketTypeCommon, LongAdder> received = new ConcurrentHashMap<>();
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    public void recordLatency(String name, long nanos) {
+        LatencyHistogram histogram = latencies.get(name);
+        if (histogram == null) {
+            histogram = latencies.computeIfAbsent(name, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    public void recordReceived(PacketTypeCommon packetType) {
+        LongAdder counter = received.get(packetType);
+        if (counter == null) {
+            counter = received.computeIfAbsent(packetType, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public void recordConnected() {
+        connected.increment();
+    }
+
+    public void recordJoined() {
+        joined.increment();
+    }
+
+    public void recordDisconnected() {
+        disconnected.increment();
+    }
+
+    public void recordFailure(String reason) {
+        failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    public long getJoined() {
+        return joined.sum();
+    }
+
+    public void print(PrintStream out) {
+        out.printf("clients: %d connected, %d joined, %d disconnected%n",
+                connected.sum(), joined.sum(), disconnected.sum());
+        for (Map.Entry<String, LongAdder> entry : failures.entrySet()) {
+            out.printf("  failed: %s (%d)%n", entry.getKey(), entry.getValue().sum());
+        }
+
+        out.printf("%-40s %10s %10s %10s %10s %10s%n", "latency (ms)", "count", "mean", "p50", "p99", "max");
+        List<String> names = new ArrayList<>(latencies.keySet());
+        names.sort(null);
+        for (String name : names) {
+            HistogramSnapshot snapshot = latencies.get(name).snapshot();
+            out.printf("%-40s %10d %10.2f %10.2f %10.2f %10.2f%n", name, snapshot.getCount(),
+                    millis(snapshot.getMean()), millis(snapshot.getPercentile(50D)),
+                    millis(snapshot.getPercentile(99D)), millis(snapshot.getMax()));
+        }
+
+        out.printf("%-40s %10s%n", "received", "count");
+        List<Map.Entry<PacketTypeCommon, LongAdder>> entries = new ArrayList<>(received.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+        for (Map.Entry<PacketTypeCommon, LongAdder> entry : entries) {
+            out.printf("%-40s %10d%n", entry.getKey().getName(), entry.getValue().sum());
+        }
+    }
+
+    private static double millis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.impl.netty.loadgen;
+
+import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.exception.PacketProcessException;
+import com.github.retrooper.packetevents.manager.server.ServerVersion;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import com.github.retrooper.packetevents.protocol.chat.LastSeenMessages;
+import com.github.retrooper.packetevents.protocol.packettype.PacketType;
+import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.InteractionHand;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.protocol.player.UserProfile;
+import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.util.crypto.MessageSignData;
+import com.github.retrooper.packetevents.util.crypto.SaltSignature;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.configuration.client.WrapperConfigClientConfigurationEndAck;
+import com.github.retrooper.packetevents.wrapper.configuration.client.WrapperConfigClientKeepAlive;
+import com.github.retrooper.packetevents.wrapper.configuration.client.WrapperConfigClientPong;
+import com.github.retrooper.packetevents.wrapper.configuration.client.WrapperConfigClientSelectKnownPacks;
+import com.github.retrooper.packetevents.wrapper.configuration.server.WrapperConfigServerKeepAlive;
+import com.github.retrooper.packetevents.wrapper.configuration.server.WrapperConfigServerSelectKnownPacks;
+import com.github.retrooper.packetevents.wrapper.handshaking.client.WrapperHandshakingClientHandshake;
+import com.github.retrooper.packetevents.wrapper.handshaking.client.WrapperHandshakingClientHandshake.ConnectionIntention;
+import com.github.retrooper.packetevents.wrapper.login.client.WrapperLoginClientLoginStart;
+import com.github.retrooper.packetevents.wrapper.login.client.WrapperLoginClientLoginSuccessAck;
+import com.github.retrooper.packetevents.wrapper.login.server.WrapperLoginServerSetCompression;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientAnimation;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientChatMessage;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientConfigurationAck;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientKeepAlive;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPlayerPosition;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientPong;
+import com.github.retrooper.packetevents.wrapper.play.client.WrapperPlayClientTeleportConfirm;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerKeepAlive;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPing;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerPlayerPositionAndLook;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One headless client, it logs in like a vanilla client in offline mode and then runs the configured actions.
+ * Everything happens on the event loop of its channel.
+ */
+public class SimulatedClient extends SimpleChannelInboundHandler<ByteBuf> {
+    private static final double WALK_RADIUS = 3.0;
+    private static final double WALK_STEP = 0.2;
+
+    private final LoadGeneratorSettings settings;
+    private final LoadReport report;
+    private final String name;
+    private final UUID uuid;
+    private final ServerVersion version;
+    private final List<ScheduledFuture<?>> actions = new ArrayList<>();
+    private Channel channel;
+    private User user;
+    private long connectTime;
+    private long loginTime;
+    private boolean joined;
+    private double originX, originZ;
+    private double x, y, z;
+    private int steps;
+
+    public SimulatedClient(LoadGeneratorSettings settings, LoadReport report, String name) {
+        this.settings = settings;
+        this.report = report;
+        this.name = name;
+        // Offline mode servers derive the uuid from the name the same way
+        this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        this.version = settings.getVersion();
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        super.channelActive(ctx);
+        channel = ctx.channel();
+        ClientVersion clientVersion = version.toClientVersion();
+        user = new User(channel, ConnectionState.HANDSHAKING, clientVersion, new UserProfile(uuid, name));
+        connectTime = System.nanoTime();
+        report.recordConnected();
+
+        send(new WrapperHandshakingClientHandshake(version.getProtocolVersion(), settings.getHost(),
+                settings.getPort(), ConnectionIntention.LOGIN));
+        user.setConnectionState(ConnectionState.LOGIN);
+        send(new WrapperLoginClientLoginStart(clientVersion, name, null, uuid));
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        PacketSendEvent event;
+        try {
+            // Clientbound packets are read just like a server reads the packets it sends
+            event = EventCreationUtil.createSendEvent(channel, user, null, msg, false);
+        } catch (PacketProcessException ex) {
+            report.recordFailure("unknown packet: " + ex.getMessage());
+            return;
+        }
+        try {
+            report.recordReceived(event.getPacketType());
+            handle(event);
+        } finally {
+            EventCreationUtil.releaseEvent(event);
+        }
+    }
+
+    private void handle(PacketSendEvent event) {
+        PacketTypeCommon packetType = event.getPacketType();
+        long now = System.nanoTime();
+        if (packetType == PacketType.Login.Server.SET_COMPRESSION) {
+            int threshold = new WrapperLoginServerSetCompression(event).getThreshold();
+            CompressionCodec compression = (CompressionCodec) channel.pipeline().get("compression");
+            if (compression != null) {
+                compression.setThreshold(threshold);
+            } else if (threshold >= 0) {
+                channel.pipeline().addAfter("frame", "compression", new CompressionCodec(threshold));
+            }
+        } else if (packetType == PacketType.Login.Server.LOGIN_SUCCESS) {
+            report.recordLatency("login", now - connectTime);
+            loginTime = now;
+            if (version.isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
+                send(new WrapperLoginClientLoginSuccessAck());
+                user.setConnectionState(ConnectionState.CONFIGURATION);
+            } else {
+                user.setConnectionState(ConnectionState.PLAY);
+            }
+        } else if (packetType == PacketType.Login.Server.ENCRYPTION_REQUEST) {
+            fail("online mode servers are not supported");
+        } else if (packetType == PacketType.Login.Server.DISCONNECT
+                || packetType == PacketType.Configuration.Server.DISCONNECT
+                || packetType == PacketType.Play.Server.DISCONNECT) {
+            fail("disconnected by the server in " + user.getConnectionState());
+        } else if (packetType == PacketType.Configuration.Server.KEEP_ALIVE) {
+            send(new WrapperConfigClientKeepAlive(new WrapperConfigServerKeepAlive(event).getId()));
+        } else if (packetType == PacketType.Configuration.Server.PING) {
+            send(new WrapperConfigClientPong(ByteBufHelper.readInt(event.getByteBuf())));
+        } else if (packetType == PacketType.Configuration.Server.SELECT_KNOWN_PACKS) {
+            // Claim to know all packs, the server then doesn't send their registries
+            send(new WrapperConfigClientSelectKnownPacks(new WrapperConfigServerSelectKnownPacks(event).getKnownPacks()));
+        } else if (packetType == PacketType.Configuration.Server.CONFIGURATION_END) {
+            send(new WrapperConfigClientConfigurationEndAck());
+            user.setConnectionState(ConnectionState.PLAY);
+        } else if (packetType == PacketType.Play.Server.JOIN_GAME) {
+            if (!joined) {
+                joined = true;
+                report.recordLatency("join", now - loginTime);
+                report.recordJoined();
+            }
+        } else if (packetType == PacketType.Play.Server.KEEP_ALIVE) {
+            send(new WrapperPlayClientKeepAlive(new WrapperPlayServerKeepAlive(event).getId()));
+        } else if (packetType == PacketType.Play.Server.PING) {
+            send(new WrapperPlayClientPong(new WrapperPlayServerPing(event).getId()));
+        } else if (packetType == PacketType.Play.Server.PLAYER_POSITION_AND_LOOK) {
+            teleport(new WrapperPlayServerPlayerPositionAndLook(event));
+        } else if (packetType == PacketType.Play.Server.CONFIGURATION_START) {
+            stopActions();
+            send(new WrapperPlayClientConfigurationAck());
+            user.setConnectionState(ConnectionState.CONFIGURATION);
+        } else if (packetType == PacketType.Play.Server.DEBUG_PONG) {
+            // The payload is the time the request was sent at
+            report.recordLatency("ping", now - ByteBufHelper.readLong(event.getByteBuf()));
+        }
+    }
+
+    private void teleport(WrapperPlayServerPlayerPositionAndLook teleport) {
+        // Relative teleports are treated as absolute, the server only sends absolute ones while joining
+        x = originX = teleport.getX();
+        y = teleport.getY();
+        z = originZ = teleport.getZ();
+        steps = 0;
+        if (version.isNewerThanOrEquals(ServerVersion.V_1_9)) {
+            send(new WrapperPlayClientTeleportConfirm(teleport.getTeleportId()));
+        }
+        send(new WrapperPlayClientPlayerPosition(new Vector3d(x, y, z), true));
+        if (actions.isEmpty()) {
+            startActions();
+        }
+    }
+
+    private void startActions() {
+        schedule(settings.getMoveRate(), this::move);
+        schedule(settings.getChatRate(), this::chat);
+        schedule(settings.getSwingRate(), () -> send(new WrapperPlayClientAnimation(InteractionHand.MAIN_HAND)));
+        if (version.isNewerThanOrEquals(ServerVersion.V_1_20_2)) {
+            schedule(settings.getPingRate(), this::ping);
+        }
+    }
+
+    private void schedule(double rate, Runnable action) {
+        if (rate <= 0) {
+            return;
+        }
+        long period = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        // Spread the clients over the period, so they don't all act at once
+        long delay = (long) (Math.random() * period);
+        actions.add(channel.eventLoop().scheduleAtFixedRate(action, delay, period, TimeUnit.NANOSECONDS));
+    }
+
+    private void stopActions() {
+        for (ScheduledFuture<?> action : actions) {
+            action.cancel(false);
+        }
+        actions.clear();
+    }
+
+    private void move() {
+        double angle = ++steps * WALK_STEP / WALK_RADIUS;
+        x = originX + Math.cos(angle) * WALK_RADIUS;
+        z = originZ + Math.sin(angle) * WALK_RADIUS;
+        send(new WrapperPlayClientPlayerPosition(new Vector3d(x, y, z), true));
+    }
+
+    private void chat() {
+        // Unsigned, the server must not enforce secure profiles
+        MessageSignData signData = new MessageSignData(new SaltSignature(0L, new byte[0]), Instant.now());
+        WrapperPlayClientChatMessage chat;
+        if (version.isNewerThanOrEquals(ServerVersion.V_1_19_3)) {
+            chat = new WrapperPlayClientChatMessage(settings.getChatMessage(), signData, new LastSeenMessages.Update(0, new BitSet()));
+        } else {
+            chat = new WrapperPlayClientChatMessage(settings.getChatMessage(), signData, new LastSeenMessages.LegacyUpdate(LastSeenMessages.EMPTY, null));
+        }
+        send(chat);
+    }
+
+    private void ping() {
+        ByteBuf buffer = channel.alloc().buffer();
+        PacketWrapper<?> wrapper = PacketWrapper.createUniversalPacketWrapper(buffer);
+        wrapper.writeVarInt(PacketType.Play.Client.DEBUG_PING.getId(version.toClientVersion()));
+        wrapper.writeLong(System.nanoTime());
+        write(buffer, PacketType.Play.Client.DEBUG_PING);
+    }
+
+    private void send(PacketWrapper<?> wrapper) {
+        ByteBuf buffer = channel.alloc().buffer();
+        wrapper.setBuffer(buffer);
+        wrapper.writeVarInt(wrapper.getPacketTypeData().getNativePacketId());
+        wrapper.write();
+        write(buffer, wrapper.getPacketTypeData().getPacketType());
+    }
+
+    private void write(ByteBuf buffer, PacketTypeCommon packetType) {
+        long start = System.nanoTime();
+        String name = "send " + (packetType != null ? packetType.getName() : user.getConnectionState().name());
+        channel.writeAndFlush(buffer).addListener(future -> {
+            if (future.isSuccess()) {
+                report.recordLatency(name, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void fail(String reason) {
+        report.recordFailure(reason);
+        channel.close();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        stopActions();
+        report.recordDisconnected();
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        report.recordFailure(cause.getClass().getSimpleName() + ": " + cause.getMessage());
+        ctx.close();
+    }
+}
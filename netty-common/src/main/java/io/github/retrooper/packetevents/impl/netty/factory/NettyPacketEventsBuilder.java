@@ -21,6 +21,10 @@ package io.github.retrooper.packetevents.impl.netty.factory;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.PacketEventsAPI;
 import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.manager.EntityTrackerListener;
+import com.github.retrooper.packetevents.manager.WorldMirrorListener;
+import com.github.retrooper.packetevents.manager.EntityMetadataCacheListener;
+import com.github.retrooper.packetevents.manager.InventoryMirrorListener;
 import com.github.retrooper.packetevents.manager.InternalPacketListener;
 import com.github.retrooper.packetevents.manager.player.PlayerManager;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
@@ -98,6 +102,19 @@ public class NettyPacketEventsBuilder {
                     //Register internal packet listener (should be the first listener)
                     //This listener doesn't do any modifications to the packets, just reads data
                     getEventManager().registerListener(new InternalPacketListener());
+                    //Tracking and caching listeners run with monitor priority, after all other listeners
+                    if (settings.isEntityTrackingEnabled()) {
+                        getEventManager().registerListener(new EntityTrackerListener());
+                    }
+                    if (settings.isWorldTrackingEnabled()) {
+                        getEventManager().registerListener(new WorldMirrorListener());
+                    }
+                    if (settings.isEntityMetadataCachingEnabled()) {
+                        getEventManager().registerListener(new EntityMetadataCacheListener());
+                    }
+                    if (settings.isInventoryTrackingEnabled()) {
+                        getEventManager().registerListener(new InventoryMirrorListener());
+                    }
                 }
             }
 
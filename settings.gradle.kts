@@ -24,6 +24,8 @@ pluginManagement {
 rootProject.name = "packetevents"
 include("api")
 include("netty-common")
+// Tooling modules
+include("loadgen")
 // Platform modules
 include("spigot")
 include("bungeecord")
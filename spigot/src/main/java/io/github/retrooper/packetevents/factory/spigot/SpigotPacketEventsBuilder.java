@@ -21,15 +21,21 @@ package io.github.retrooper.packetevents.factory.spigot;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.PacketEventsAPI;
 import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.manager.EntityTrackerListener;
+import com.github.retrooper.packetevents.manager.WorldMirrorListener;
+import com.github.retrooper.packetevents.manager.EntityMetadataCacheListener;
+import com.github.retrooper.packetevents.manager.InventoryMirrorListener;
 import com.github.retrooper.packetevents.manager.player.PlayerManager;
 import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.manager.server.ServerManager;
 import com.github.retrooper.packetevents.netty.NettyManager;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.world.states.WrappedBlockState;
 import com.github.retrooper.packetevents.settings.PacketEventsSettings;
 import com.github.retrooper.packetevents.util.LogManager;
+import com.github.retrooper.packetevents.util.SharedPipeline;
 import io.github.retrooper.packetevents.bstats.Metrics;
 import io.github.retrooper.packetevents.bukkit.InternalBukkitListener;
 import io.github.retrooper.packetevents.injector.SpigotChannelInjector;
@@ -111,11 +117,18 @@ public class SpigotPacketEventsBuilder {
                         PacketType.prepare();
                     }
 
-                    //Server hasn't bound to the port yet.
-                    lateBind = !injector.isServerBound();
-                    //If late-bind is enabled, we will inject a bit later.
-                    if (!lateBind) {
-                        injector.inject();
+                    //Another copy of packetevents may already own the handlers, in that case we only hook into them.
+                    if (settings.isSharedPipelineEnabled()) {
+                        SharedPipeline.join(PacketEvents.IDENTIFIER);
+                    }
+
+                    if (!SharedPipeline.isGuest()) {
+                        //Server hasn't bound to the port yet.
+                        lateBind = !injector.isServerBound();
+                        //If late-bind is enabled, we will inject a bit later.
+                        if (!lateBind) {
+                            injector.inject();
+                        }
                     }
 
                     loaded = true;
@@ -123,6 +136,19 @@ public class SpigotPacketEventsBuilder {
                     //Register internal packet listener (should be the first listener)
                     //This listener doesn't do any modifications to the packets, just reads data
                     getEventManager().registerListener(new InternalBukkitPacketListener());
+                    //Tracking and caching listeners run with monitor priority, after all other listeners
+                    if (settings.isEntityTrackingEnabled()) {
+                        getEventManager().registerListener(new EntityTrackerListener());
+                    }
+                    if (settings.isWorldTrackingEnabled()) {
+                        getEventManager().registerListener(new WorldMirrorListener());
+                    }
+                    if (settings.isEntityMetadataCachingEnabled()) {
+                        getEventManager().registerListener(new EntityMetadataCacheListener());
+                    }
+                    if (settings.isInventoryTrackingEnabled()) {
+                        getEventManager().registerListener(new InventoryMirrorListener());
+                    }
                 }
             }
 
@@ -163,9 +189,17 @@ public class SpigotPacketEventsBuilder {
 
                     //Map player instances to the already registered channels (likely a reload)
                     for (Player player : Bukkit.getOnlinePlayers()) {
-                        User user = PacketEvents.getAPI().getPlayerManager().getUser(player);
-                        SpigotChannelInjector injector = (SpigotChannelInjector) PacketEvents.getAPI().getInjector();
-                        injector.updatePlayer(user, player);
+                        Object channel = PacketEvents.getAPI().getPlayerManager().getChannel(player);
+                        if (channel == null) {
+                            continue;
+                        }
+                        // Late injections set the user up on the event loop, queue behind them
+                        ChannelHelper.runInEventLoop(channel, () -> {
+                            User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
+                            if (user != null) {
+                                injector.updatePlayer(user, player);
+                            }
+                        });
                     }
 
                     initialized = true;
@@ -214,11 +248,15 @@ public class SpigotPacketEventsBuilder {
             @Override
             public void terminate() {
                 if (initialized) {
-                    //Uninject the injector if needed(depends on the injector implementation)
-                    injector.uninject();
-                    for (User user : ProtocolManager.USERS.values()) {
-                        ServerConnectionInitializer.destroyHandlers(user.getChannel());
+                    //Guests never injected anything, the handlers belong to another copy
+                    if (!SharedPipeline.isGuest()) {
+                        //Uninject the injector if needed(depends on the injector implementation)
+                        injector.uninject();
+                        for (User user : ProtocolManager.USERS.values()) {
+                            ServerConnectionInitializer.destroyHandlers(user.getChannel());
+                        }
                     }
+                    SharedPipeline.leave();
                     //Unregister all listeners. Because if we attempt to reload, we will end up with duplicate listeners.
                     getEventManager().unregisterAllListeners();
                     initialized = false;
@@ -21,8 +21,10 @@ package io.github.retrooper.packetevents.injector;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.UserLoginEvent;
 import com.github.retrooper.packetevents.injector.ChannelInjector;
+import com.github.retrooper.packetevents.netty.channel.ConnectionThrottle;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.util.SharedPipeline;
 import com.github.retrooper.packetevents.util.reflection.ReflectionObject;
 import io.github.retrooper.packetevents.injector.connection.ServerChannelHandler;
 import io.github.retrooper.packetevents.injector.connection.ServerConnectionInitializer;
@@ -34,6 +36,8 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelPipeline;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.util.HashSet;
@@ -47,6 +51,8 @@ public class SpigotChannelInjector implements ChannelInjector {
     private int connectionChannelsListIndex = -1;
     public boolean inboundAheadProtocolTranslation = false;
     public boolean outboundAheadProtocolTranslation = false;
+    private ConnectionThrottle connectionThrottle;
+    private boolean proxyThrottleWarned;
 
     public void updatePlayer(User user, Object player) {
         PacketEvents.getAPI().getEventManager().callEvent(new UserLoginEvent(user, player));
@@ -142,8 +148,33 @@ public class SpigotChannelInjector implements ChannelInjector {
         }
     }
 
+    /**
+     * @return The connection throttle shared by all server channels, or null if connections aren't limited
+     */
+    public ConnectionThrottle getConnectionThrottle() {
+        int connectionRateLimit = PacketEvents.getAPI().getSettings().getConnectionRateLimit();
+        if (connectionRateLimit <= 0) {
+            return null;
+        }
+        if (isBehindProxy()) {
+            // Every connection comes from the proxy, throttling it would lock all players out
+            if (!proxyThrottleWarned) {
+                proxyThrottleWarned = true;
+                PacketEvents.getAPI().getLogManager().warn("The connection rate limit is ignored, "
+                        + "the server is running behind a proxy.");
+            }
+            return null;
+        }
+        if (connectionThrottle == null) {
+            connectionThrottle = new ConnectionThrottle(connectionRateLimit,
+                    Math.max(1, PacketEvents.getAPI().getSettings().getConnectionBurstLimit()));
+        }
+        return connectionThrottle;
+    }
+
     private void injectServerChannel(Channel serverChannel) {
         ChannelPipeline pipeline = serverChannel.pipeline();
+        ConnectionThrottle connectionThrottle = getConnectionThrottle();
         ChannelHandler connectionHandler = pipeline.get(PacketEvents.CONNECTION_HANDLER_NAME);
         if (connectionHandler != null) {
             //Why does it already exist? Remove it.
@@ -151,19 +182,19 @@ public class SpigotChannelInjector implements ChannelInjector {
         }
         //Make sure we handle connections after ProtocolSupport.
         if (pipeline.get("SpigotNettyServerChannelHandler#0") != null) {
-            pipeline.addAfter("SpigotNettyServerChannelHandler#0", PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler());
+            pipeline.addAfter("SpigotNettyServerChannelHandler#0", PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler(connectionThrottle));
         }
         //Make sure we handle connections after Geyser.
         else if (pipeline.get("floodgate-init") != null) {
-            pipeline.addAfter("floodgate-init", PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler());
+            pipeline.addAfter("floodgate-init", PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler(connectionThrottle));
         }
         //Some forks add a handler which adds the other necessary vanilla handlers like (decoder, encoder, etc...)
         else if (pipeline.get("MinecraftPipeline#0") != null) {
-            pipeline.addAfter("MinecraftPipeline#0", PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler());
+            pipeline.addAfter("MinecraftPipeline#0", PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler(connectionThrottle));
         }
         //Otherwise, make sure we are first.
         else {
-            pipeline.addFirst(PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler());
+            pipeline.addFirst(PacketEvents.CONNECTION_HANDLER_NAME, new ServerChannelHandler(connectionThrottle));
         }
 
         if (networkManagers == null) {
@@ -207,6 +238,16 @@ public class SpigotChannelInjector implements ChannelInjector {
 
     @Override
     public void setPlayer(Object channel, Object player) {
+        if (SharedPipeline.isGuest()) {
+            //The handlers belong to another copy of packetevents, so we keep track of the player ourselves
+            SharedPipeline.setPlayer(channel, player);
+            User user = PacketEvents.getAPI().getProtocolManager().getUser(channel);
+            if (user != null) {
+                user.getProfile().setName(((Player) player).getName());
+                user.getProfile().setUUID(((Player) player).getUniqueId());
+            }
+            return;
+        }
         PacketEventsEncoder encoder = getEncoder((Channel) channel);
         if (encoder != null) {
             encoder.player = (Player) player;
@@ -221,15 +262,35 @@ public class SpigotChannelInjector implements ChannelInjector {
     }
 
     private PacketEventsEncoder getEncoder(Channel channel) {
-        return (PacketEventsEncoder) channel.pipeline().get(PacketEvents.ENCODER_NAME);
+        ChannelHandler encoder = channel.pipeline().get(PacketEvents.ENCODER_NAME);
+        //Guests share the handler name with the encoder of another copy
+        return encoder instanceof PacketEventsEncoder ? (PacketEventsEncoder) encoder : null;
     }
 
     private PacketEventsDecoder getDecoder(Channel channel) {
-         return (PacketEventsDecoder) channel.pipeline().get(PacketEvents.DECODER_NAME);
+        ChannelHandler decoder = channel.pipeline().get(PacketEvents.DECODER_NAME);
+        return decoder instanceof PacketEventsDecoder ? (PacketEventsDecoder) decoder : null;
     }
 
     @Override
     public boolean isProxy() {
         return false;
     }
+
+    /**
+     * @return Whether player connections are forwarded by BungeeCord or Velocity
+     */
+    private static boolean isBehindProxy() {
+        if (Bukkit.spigot().getConfig().getBoolean("settings.bungeecord")) {
+            return true;
+        }
+        try {
+            YamlConfiguration paperConfig = Bukkit.spigot().getPaperConfig();
+            return paperConfig.getBoolean("proxies.velocity.enabled")
+                    || paperConfig.getBoolean("settings.velocity-support.enabled");
+        } catch (UnsupportedOperationException | NoSuchMethodError ex) {
+            // Not running on Paper
+            return false;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * This file is part of packetevents - https://github.com/retrooper/packetevents
+ * Copyright (C) 2024 retrooper and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.github.retrooper.packetevents.injector.connection;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.channel.HandshakeValidator;
+import com.github.retrooper.packetevents.protocol.ConnectionState;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+/**
+ * Sits where our decoder will be until the handshake arrived.
+ * Only a well-formed handshake sets up the user and our handlers, everything else closes the connection.
+ */
+public class HandshakeGate extends ChannelInboundHandlerAdapter {
+    private final long startTime;
+
+    public HandshakeGate(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public static String name() {
+        return PacketEvents.IDENTIFIER + "-handshake-gate";
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!(msg instanceof ByteBuf)) {
+            super.channelRead(ctx, msg);
+            return;
+        }
+        ByteBuf buffer = (ByteBuf) msg;
+        if (HandshakeValidator.validate(buffer) == HandshakeValidator.INVALID) {
+            buffer.release();
+            ctx.close();
+            return;
+        }
+
+        try {
+            // Our decoder ends up right behind us, we only leave once the handshake went through it
+            try {
+                ServerConnectionInitializer.setupUser(ctx.channel(), ConnectionState.HANDSHAKING, startTime);
+            } catch (Throwable t) {
+                buffer.release();
+                throw t;
+            }
+            if (ctx.channel().isOpen()) {
+                ctx.fireChannelRead(msg);
+            } else {
+                buffer.release();
+            }
+        } finally {
+            ctx.pipeline().remove(this);
+        }
+    }
+}
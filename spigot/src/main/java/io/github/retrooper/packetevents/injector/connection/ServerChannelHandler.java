@@ -19,19 +19,28 @@
 package io.github.retrooper.packetevents.injector.connection;
 
 import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.channel.ConnectionThrottle;
 import com.github.retrooper.packetevents.util.PEVersion;
 import io.github.retrooper.packetevents.util.SpigotReflectionUtil;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.util.Version;
+import org.jetbrains.annotations.Nullable;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.util.Map;
 
 public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
     public static final PEVersion MODERN_NETTY_VERSION = new PEVersion(4, 1, 24);
     public static boolean CHECKED_NETTY_VERSION;
     public static PEVersion NETTY_VERSION;
+    private final @Nullable ConnectionThrottle connectionThrottle;
+
+    public ServerChannelHandler(@Nullable ConnectionThrottle connectionThrottle) {
+        this.connectionThrottle = connectionThrottle;
+    }
 
     private static PEVersion resolveNettyVersion() {
         Map<String, Version> nettyArtifacts = Version.identify();
@@ -59,6 +68,15 @@ public class ServerChannelHandler extends ChannelInboundHandlerAdapter {
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
         Channel channel = (Channel) msg;
+        if (connectionThrottle != null) {
+            SocketAddress address = channel.remoteAddress();
+            if (address instanceof InetSocketAddress
+                    && !connectionThrottle.tryAcquire(((InetSocketAddress) address).getAddress())) {
+                //The channel isn't registered yet, nothing else has seen it
+                channel.unsafe().closeForcibly();
+                return;
+            }
+        }
         //Resolve netty version only once.
         if (NETTY_VERSION == null && !CHECKED_NETTY_VERSION) {
             NETTY_VERSION = resolveNettyVersion();
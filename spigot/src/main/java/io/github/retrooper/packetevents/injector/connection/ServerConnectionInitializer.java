@@ -20,12 +20,14 @@ package io.github.retrooper.packetevents.injector.connection;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.UserConnectEvent;
+import com.github.retrooper.packetevents.metrics.PacketMetrics;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.ConnectionState;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.protocol.player.UserProfile;
 import com.github.retrooper.packetevents.util.FakeChannelUtil;
 import com.github.retrooper.packetevents.util.PacketEventsImplHelper;
+import com.github.retrooper.packetevents.util.SharedPipeline;
 import io.github.retrooper.packetevents.injector.handlers.PacketEventsDecoder;
 import io.github.retrooper.packetevents.injector.handlers.PacketEventsEncoder;
 import io.netty.channel.Channel;
@@ -33,6 +35,7 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 
 import java.util.NoSuchElementException;
+import java.util.logging.Level;
 
 
 public class ServerConnectionInitializer {
@@ -42,6 +45,44 @@ public class ServerConnectionInitializer {
         if (FakeChannelUtil.isFakeChannel(channel)) {
             return;
         }
+        long startTime = System.nanoTime();
+        // The channel is only ever initialized, used and disconnected on its own event loop, so no locks are needed.
+        // Late injections run on another thread and hop over.
+        if (channel.eventLoop().inEventLoop()) {
+            initChannel(channel, connectionState, startTime);
+        } else {
+            channel.eventLoop().execute(() -> {
+                try {
+                    initChannel(channel, connectionState, startTime);
+                } catch (Exception e) {
+                    PacketEvents.getAPI().getLogger().log(Level.SEVERE, "Failed to initialize the channel " + channel, e);
+                }
+            });
+        }
+    }
+
+    private static void initChannel(Channel channel, ConnectionState connectionState, long startTime) {
+        /*
+         * This is a rather rare one, BUT!
+         * If the plugin takes a while to initialize and handshakes/pings pile up,
+         * some may not be handled completely, thus, not having a 'splitter' ChannelHandler.
+         * We can, of course, wait for them to be handled, but this complexes the algorithm.
+         * Taken the above into account, here we just drop all unhandled connections.
+         */
+        if (channel.pipeline().get("splitter") == null) {
+            channel.close();
+            return;
+        }
+
+        // The user and our handlers are only set up once the client sent a valid handshake
+        if (connectionState == ConnectionState.HANDSHAKING && PacketEvents.getAPI().getSettings().isHandshakeValidationEnabled()) {
+            channel.pipeline().addBefore(inboundHandlerName(channel), HandshakeGate.name(), new HandshakeGate(startTime));
+            return;
+        }
+        setupUser(channel, connectionState, startTime);
+    }
+
+    static void setupUser(Channel channel, ConnectionState connectionState, long startTime) {
         User user = new User(channel, connectionState, null, new UserProfile(null, null));
 
         if (connectionState == ConnectionState.PLAY) {
@@ -50,30 +91,27 @@ public class ServerConnectionInitializer {
             PacketEvents.getAPI().getLogManager().warn("Late injection detected, we missed packets so some functionality may break!");
         }
 
-        synchronized (channel) {
-            /*
-             * This is a rather rare one, BUT!
-             * If the plugin takes a while to initialize and handshakes/pings pile up,
-             * some may not be handled completely, thus, not having a 'splitter' ChannelHandler.
-             * We can, of course, wait for them to be handled, but this complexes the algorithm.
-             * Taken the above into account, here we just drop all unhandled connections.
-             */
-            if (channel.pipeline().get("splitter") == null) {
-                channel.close();
-                return;
-            }
+        UserConnectEvent connectEvent = new UserConnectEvent(user);
+        PacketEvents.getAPI().getEventManager().callEvent(connectEvent);
+        if (connectEvent.isCancelled()) {
+            channel.unsafe().closeForcibly();
+            return;
+        }
 
-            UserConnectEvent connectEvent = new UserConnectEvent(user);
-            PacketEvents.getAPI().getEventManager().callEvent(connectEvent);
-            if (connectEvent.isCancelled()) {
-                channel.unsafe().closeForcibly();
-                return;
-            }
+        relocateHandlers(channel, null, user);
 
-            relocateHandlers(channel, null, user);
+        PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+        //Other copies of packetevents sharing our handlers track their own users
+        SharedPipeline.connect(channel, connectionState);
+        // Added after the user is set, if the channel already closed the listener runs right away and cleans up
+        channel.closeFuture().addListener((ChannelFutureListener) future -> {
+            PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID());
+            SharedPipeline.disconnect(channel);
+        });
 
-            channel.closeFuture().addListener((ChannelFutureListener) future -> PacketEventsImplHelper.handleDisconnection(user.getChannel(), user.getUUID()));
-            PacketEvents.getAPI().getProtocolManager().setUser(channel, user);
+        PacketMetrics metrics = PacketEvents.getAPI().getEventManager().getMetrics();
+        if (metrics.isEnabled()) {
+            metrics.recordConnectionSetup(System.nanoTime() - startTime);
         }
     }
 
@@ -113,8 +151,7 @@ public class ServerConnectionInitializer {
             // (ProtocolSupport has changed its handler name in the past)
             // I don't like the hacks required for compression but that's on vanilla, we can't fix it.
             // TODO: i think this will only work for server-side packetevents?
-            String decoderName = ctx.pipeline().names().contains("inbound_config") ? "inbound_config" : "decoder";
-            ctx.pipeline().addBefore(decoderName, PacketEvents.DECODER_NAME, decoder);
+            ctx.pipeline().addBefore(inboundHandlerName(ctx), PacketEvents.DECODER_NAME, decoder);
             String encoderName = ctx.pipeline().names().contains("outbound_config") ? "outbound_config" : "encoder";
             ctx.pipeline().addBefore(encoderName, PacketEvents.ENCODER_NAME, encoder);
         } catch (NoSuchElementException ex) {
@@ -122,4 +159,8 @@ public class ServerConnectionInitializer {
             throw new IllegalStateException("PacketEvents failed to add a decoder to the netty pipeline. Pipeline handlers: " + handlers, ex);
         }
     }
+
+    private static String inboundHandlerName(Channel channel) {
+        return channel.pipeline().names().contains("inbound_config") ? "inbound_config" : "decoder";
+    }
 }
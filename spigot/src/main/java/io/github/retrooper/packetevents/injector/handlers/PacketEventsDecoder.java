@@ -54,6 +54,9 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
 
     public void read(ChannelHandlerContext ctx, ByteBuf input, List<Object> out) throws Exception {
+        if (!PacketEvents.getAPI().getPacketLimiter().tryAcquire(user, input, true)) {
+            return;
+        }
         Object buffer = PacketEventsImplHelper.handleServerBoundPacket(ctx.channel(), user, player, input, true);
         out.add(ByteBufHelper.retain(buffer));
     }
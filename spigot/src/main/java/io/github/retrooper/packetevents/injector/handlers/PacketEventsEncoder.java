@@ -41,6 +41,7 @@ import io.netty.handler.codec.MessageToMessageEncoder;
 import org.bukkit.entity.Player;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
@@ -78,16 +79,22 @@ public class PacketEventsEncoder extends MessageToMessageEncoder<ByteBuf> {
         list.add(byteBuf.retain());
     }
 
-    private PacketSendEvent handleClientBoundPacket(Channel channel, User user, Object player, ByteBuf buffer, ChannelPromise promise) throws Exception {
+    private void handleClientBoundPacket(Channel channel, User user, Object player, ByteBuf buffer, ChannelPromise promise) throws Exception {
         PacketSendEvent packetSendEvent = PacketEventsImplHelper.handleClientBoundPacket(channel, user, player, buffer, true);
-        if (packetSendEvent.hasTasksAfterSend()) {
+        if (packetSendEvent != null && packetSendEvent.hasTasksAfterSend()) {
+            // The event may be recycled before the packet is sent, so only hold on to the tasks
+            List<Runnable> tasksAfterSend = new ArrayList<>(packetSendEvent.getTasksAfterSend());
             promise.addListener((p) -> {
-                for (Runnable task : packetSendEvent.getTasksAfterSend()) {
+                // Nothing reached the client if the write failed
+                if (!p.isSuccess()) {
+                    return;
+                }
+                for (Runnable task : tasksAfterSend) {
                     task.run();
                 }
             });
         }
-        return packetSendEvent;
+        EventCreationUtil.releaseEvent(packetSendEvent);
     }
 
     @Override
@@ -20,7 +20,6 @@ package io.github.retrooper.packetevents.manager.player;
 
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.manager.player.PlayerManager;
-import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.player.ClientVersion;
 import com.github.retrooper.packetevents.protocol.player.User;
@@ -78,10 +77,10 @@ public class PlayerManagerImpl implements PlayerManager {
             // This is removed from the HashMap on channel close
             // So if the channel is already closed, there will be a memory leak if we add an offline player
             if (channel != null) {
-                synchronized (channel) {
-                    if (ChannelHelper.isOpen(channel)) {
-                        ProtocolManager.CHANNELS.put(uuid, channel);
-                    }
+                PacketEvents.getAPI().getProtocolManager().setChannel(uuid, channel);
+                // Check after publishing, if the channel closed in the meantime its close listener may have already run
+                if (!ChannelHelper.isOpen(channel)) {
+                    PacketEvents.getAPI().getProtocolManager().removeChannel(channel, uuid);
                 }
             }
         }
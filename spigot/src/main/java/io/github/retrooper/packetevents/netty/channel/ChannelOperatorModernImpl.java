@@ -18,13 +18,21 @@
 
 package io.github.retrooper.packetevents.netty.channel;
 
+import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
 import com.github.retrooper.packetevents.netty.channel.ChannelOperator;
 import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
 
 import java.net.SocketAddress;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChannelOperatorModernImpl implements ChannelOperator {
+    // AttributeKey#valueOf is a constant pool lookup, the user is read for every packet
+    private static final AttributeKey<Object> USER_KEY = AttributeKey.valueOf(ProtocolManager.USER_ATTRIBUTE);
+    private static final Map<String, AttributeKey<Object>> KEYS = new ConcurrentHashMap<>();
+
     @Override
     public SocketAddress remoteAddress(Object channel) {
         return ((Channel) channel).remoteAddress();
@@ -114,4 +122,26 @@ public class ChannelOperatorModernImpl implements ChannelOperator {
     public Object pooledByteBuf(Object o) {
         return ((Channel) o).alloc().buffer();
     }
+
+    @Override
+    public Object getAttribute(Object channel, String key) {
+        return ((Channel) channel).attr(attributeKey(key)).get();
+    }
+
+    @Override
+    public Object setAttribute(Object channel, String key, Object value) {
+        return ((Channel) channel).attr(attributeKey(key)).getAndSet(value);
+    }
+
+    private static AttributeKey<Object> attributeKey(String key) {
+        if (ProtocolManager.USER_ATTRIBUTE.equals(key)) {
+            return USER_KEY;
+        }
+        AttributeKey<Object> attributeKey = KEYS.get(key);
+        if (attributeKey == null) {
+            attributeKey = AttributeKey.valueOf(key);
+            KEYS.putIfAbsent(key, attributeKey);
+        }
+        return attributeKey;
+    }
 }
@@ -25,6 +25,7 @@ import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.protocol.player.User;
 import com.github.retrooper.packetevents.util.EnumUtil;
 import com.github.retrooper.packetevents.util.EventCreationUtil;
+import com.github.retrooper.packetevents.util.SuspendedPackets;
 import com.github.retrooper.packetevents.util.reflection.Reflection;
 import com.velocitypowered.api.proxy.Player;
 import io.github.retrooper.packetevents.injector.ServerConnectionInitializer;
@@ -48,26 +49,39 @@ public class PacketEventsDecoder extends MessageToMessageDecoder<ByteBuf> {
     }
 
     public void read(ChannelHandlerContext ctx, ByteBuf byteBuf, List<Object> output) throws Exception {
+        if (!PacketEvents.getAPI().getPacketLimiter().tryAcquire(user, byteBuf, false)) {
+            return;
+        }
         ByteBuf transformed = ctx.alloc().buffer().writeBytes(byteBuf);
         try {
             int firstReaderIndex = transformed.readerIndex();
             PacketReceiveEvent packetReceiveEvent = EventCreationUtil.createReceiveEvent(ctx.channel(), user, player,
                     transformed, false);
-            int readerIndex = transformed.readerIndex();
-            PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> transformed.readerIndex(readerIndex));
-            if (!packetReceiveEvent.isCancelled()) {
-                if (packetReceiveEvent.getLastUsedWrapper() != null) {
-                    ByteBufHelper.clear(packetReceiveEvent.getByteBuf());
-                    packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
-                    packetReceiveEvent.getLastUsedWrapper().write();
+            try {
+                int readerIndex = transformed.readerIndex();
+                PacketEvents.getAPI().getEventManager().callEvent(packetReceiveEvent, () -> transformed.readerIndex(readerIndex));
+                if (!packetReceiveEvent.isCancelled()) {
+                    if (packetReceiveEvent.getLastUsedWrapper() != null) {
+                        ByteBufHelper.clear(packetReceiveEvent.getByteBuf());
+                        packetReceiveEvent.getLastUsedWrapper().writeVarInt(packetReceiveEvent.getPacketId());
+                        packetReceiveEvent.getLastUsedWrapper().write();
+                    }
+                    transformed.readerIndex(firstReaderIndex);
+                    if (packetReceiveEvent.isSuspended() || SuspendedPackets.isHolding(ctx.channel())) {
+                        // Hold a copy back and pass on nothing for now
+                        SuspendedPackets.hold(ctx.channel(), transformed, packetReceiveEvent.getSuspension(),
+                                packetReceiveEvent.getSuspensionTimeout(), packetReceiveEvent.getSuspensionTimeoutPolicy());
+                    } else {
+                        output.add(transformed.retain());
+                    }
                 }
-                transformed.readerIndex(firstReaderIndex);
-                output.add(transformed.retain());
-            }
-            if (packetReceiveEvent.hasPostTasks()) {
-                for (Runnable task : packetReceiveEvent.getPostTasks()) {
-                    task.run();
+                if (packetReceiveEvent.hasPostTasks()) {
+                    for (Runnable task : packetReceiveEvent.getPostTasks()) {
+                        task.run();
+                    }
                 }
+            } finally {
+                EventCreationUtil.releaseEvent(packetReceiveEvent);
             }
         } finally {
             transformed.release();
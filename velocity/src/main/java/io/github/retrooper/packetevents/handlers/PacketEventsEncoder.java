@@ -42,22 +42,26 @@ public class PacketEventsEncoder extends MessageToByteEncoder<ByteBuf> {
         int firstReaderIndex = buffer.readerIndex();
         PacketSendEvent packetSendEvent = EventCreationUtil.createSendEvent(ctx.channel(), user, player, buffer,
                 false);
-        int readerIndex = buffer.readerIndex();
-        PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
-        if (!packetSendEvent.isCancelled()) {
-            if (packetSendEvent.getLastUsedWrapper() != null) {
+        try {
+            int readerIndex = buffer.readerIndex();
+            PacketEvents.getAPI().getEventManager().callEvent(packetSendEvent, () -> buffer.readerIndex(readerIndex));
+            if (!packetSendEvent.isCancelled()) {
+                if (packetSendEvent.getLastUsedWrapper() != null) {
+                    ByteBufHelper.clear(packetSendEvent.getByteBuf());
+                    packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
+                    packetSendEvent.getLastUsedWrapper().write();
+                }
+                buffer.readerIndex(firstReaderIndex);
+            } else {
                 ByteBufHelper.clear(packetSendEvent.getByteBuf());
-                packetSendEvent.getLastUsedWrapper().writeVarInt(packetSendEvent.getPacketId());
-                packetSendEvent.getLastUsedWrapper().write();
             }
-            buffer.readerIndex(firstReaderIndex);
-        } else {
-            ByteBufHelper.clear(packetSendEvent.getByteBuf());
-        }
-        if (packetSendEvent.hasPostTasks()) {
-            for (Runnable task : packetSendEvent.getPostTasks()) {
-                task.run();
+            if (packetSendEvent.hasPostTasks()) {
+                for (Runnable task : packetSendEvent.getPostTasks()) {
+                    task.run();
+                }
             }
+        } finally {
+            EventCreationUtil.releaseEvent(packetSendEvent);
         }
     }
 
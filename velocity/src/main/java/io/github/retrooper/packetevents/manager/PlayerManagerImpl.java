@@ -19,7 +19,7 @@
 package io.github.retrooper.packetevents.manager;
 
 import com.github.retrooper.packetevents.PacketEvents;
-import com.github.retrooper.packetevents.manager.protocol.ProtocolManager;
+import com.github.retrooper.packetevents.netty.channel.ChannelHelper;
 import com.github.retrooper.packetevents.util.reflection.Reflection;
 import com.github.retrooper.packetevents.util.reflection.ReflectionObject;
 import com.velocitypowered.api.proxy.Player;
@@ -27,6 +27,8 @@ import io.github.retrooper.packetevents.impl.netty.manager.player.PlayerManagerA
 import io.netty.channel.Channel;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.UUID;
+
 public class PlayerManagerImpl extends PlayerManagerAbstract {
     private static Class<?> CONNECTED_PLAYER, MINECRAFT_CONNECTION_CLASS;
     @Override
@@ -51,8 +53,11 @@ public class PlayerManagerImpl extends PlayerManagerAbstract {
             ReflectionObject reflectConnection = new ReflectionObject(minecraftConnection);
             channel = reflectConnection.readObject(0, Channel.class);
 
-            synchronized (channel) {
-                ProtocolManager.CHANNELS.put(((Player) player).getUniqueId(), channel);
+            UUID uuid = ((Player) player).getUniqueId();
+            PacketEvents.getAPI().getProtocolManager().setChannel(uuid, channel);
+            // Check after publishing, if the channel closed in the meantime its close listener may have already run
+            if (!ChannelHelper.isOpen(channel)) {
+                PacketEvents.getAPI().getProtocolManager().removeChannel(channel, uuid);
             }
         }
         return channel;